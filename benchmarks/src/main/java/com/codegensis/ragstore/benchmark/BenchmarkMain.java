@@ -0,0 +1,38 @@
+package com.codegensis.ragstore.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar.
+ * Accepts the regular JMH command line, and unless told otherwise always attaches the GC
+ * profiler (allocation rate per op) and writes a JSON result file that builds can be compared by.
+ */
+public final class BenchmarkMain {
+    
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+    
+    private BenchmarkMain() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        
+        if (commandLine.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result(DEFAULT_RESULT_FILE);
+        }
+        
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.mapper.MessageMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a message page and an add-message body in each encoding the API
+ * negotiates. Payload sizes are printed once per trial, since they do not depend on timing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryEncodingBenchmark {
+    
+    @Param({"json", "cbor", "smile"})
+    public String format;
+    
+    @Param({"20"})
+    public int pageSize;
+    
+    @Param({"1024", "51200"})
+    public int contextBytes;
+    
+    private ObjectMapper objectMapper;
+    private MessagePageResponse page;
+    private AddMessageRequest request;
+    private byte[] encodedPage;
+    private byte[] encodedRequest;
+    
+    @Setup
+    public void setUp() throws IOException {
+        // Configured the way Spring Boot builds the mappers behind each message converter
+        objectMapper = switch (format) {
+            case "json" -> Fixtures.objectMapper();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        page = Fixtures.page(new MessageMapper().toResponseList(Fixtures.messages(pageSize, contextBytes)));
+        MessageResponse answer = page.messages().get(1);
+        request = new AddMessageRequest("ASSISTANT", answer.content(), answer.context());
+        encodedPage = objectMapper.writeValueAsBytes(page);
+        encodedRequest = objectMapper.writeValueAsBytes(request);
+        System.out.printf("%n%s payload: page %d bytes, request %d bytes%n", format, encodedPage.length, encodedRequest.length);
+    }
+    
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public MessagePageResponse decodePage() throws IOException {
+        return objectMapper.readValue(encodedPage, MessagePageResponse.class);
+    }
+    
+    @Benchmark
+    public byte[] encodeRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+    
+    @Benchmark
+    public AddMessageRequest decodeRequest() throws IOException {
+        return objectMapper.readValue(encodedRequest, AddMessageRequest.class);
+    }
+}
@@ -0,0 +1,91 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.auth.ApiKeyResolver;
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.entity.ApiKey;
+import com.codegensis.ragstore.filter.ApiKeyAuthenticationFilter;
+import com.codegensis.ragstore.filter.RateLimitFilter;
+import com.codegensis.ragstore.mapper.ApiKeyMapper;
+import com.codegensis.ragstore.ratelimit.RateLimitTable;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import com.codegensis.ragstore.ratelimit.RouteCostTable;
+import com.codegensis.ragstore.repository.ApiKeyRepository;
+import com.codegensis.ragstore.service.ApiKeyService;
+import com.codegensis.ragstore.util.RouteClassifier;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting followed by API key authentication, in the order the security chain runs them,
+ * for an authenticated API request. The rate limit is set high enough never to reject. The key
+ * is a registered tenant key, so after the first call it is verified from the key cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FilterChainBenchmark {
+    
+    private static final FilterChain TERMINAL = (req, res) -> { };
+    
+    private RateLimitFilter rateLimitFilter;
+    private ApiKeyAuthenticationFilter apiKeyAuthenticationFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain authenticationChain;
+    
+    @Setup
+    public void setUp() {
+        RouteClassifier routeClassifier = new RouteClassifier();
+        ApiKeyService apiKeyService = new ApiKeyService(registeredKey(Fixtures.API_KEY), new ApiKeyMapper(), "", "",
+            10_000, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofDays(1));
+        ApiKeyResolver apiKeyResolver = new ApiKeyResolver(apiKeyService);
+        rateLimitFilter = new RateLimitFilter(new RateLimitTable(65536, Integer.MAX_VALUE, Duration.ofMinutes(1)),
+            RateLimiter.UNLIMITED, new RouteCostTable("GET /api/v1/sessions/{sessionId}/messages=2"),
+            apiKeyResolver, routeClassifier);
+        apiKeyAuthenticationFilter = new ApiKeyAuthenticationFilter(apiKeyResolver, routeClassifier);
+        
+        request = new MockHttpServletRequest("GET", "/api/v1/sessions/42/messages");
+        request.addHeader(ApiConstants.API_KEY_HEADER, Fixtures.API_KEY);
+        response = new MockHttpServletResponse();
+        authenticationChain = (req, res) -> apiKeyAuthenticationFilter.doFilter(req, res, TERMINAL);
+    }
+    
+    /** Repository holding only {@code key}; no database behind it. */
+    private static ApiKeyRepository registeredKey(String key) {
+        ApiKey apiKey = new ApiKey();
+        apiKey.setId(1L);
+        apiKey.setKeyHash(ApiKeyService.hash(key));
+        apiKey.setTenantId("bench");
+        apiKey.setName("bench");
+        apiKey.setScopes("read,write");
+        return (ApiKeyRepository) Proxy.newProxyInstance(ApiKeyRepository.class.getClassLoader(),
+            new Class<?>[] {ApiKeyRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "findByKeyHash" -> Optional.of(apiKey).filter(k -> k.getKeyHash().equals(args[0]));
+                case "findByRevokedAtAfter" -> List.of();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+    
+    @Benchmark
+    public int rateLimitAndAuthenticate() throws ServletException, IOException {
+        // OncePerRequestFilter marks the request as filtered through an attribute
+        request.clearAttributes();
+        rateLimitFilter.doFilter(request, response, authenticationChain);
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,78 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic test data shaped like real RAG traffic: short user turns, longer assistant
+ * turns and a retrieved-documents JSON context of a few kilobytes.
+ */
+final class Fixtures {
+    
+    static final String API_KEY = "benchmark-api-key";
+    static final long SESSION_ID = 42L;
+    
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final String WORDS = "retrieval augmented generation answers questions using documents " +
+        "from a vector store ranked by relevance and summarised for the user with citations ";
+    
+    private Fixtures() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    
+    /** Same configuration Spring Boot applies to the application's ObjectMapper. */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+    
+    static List<Message> messages(int count, int contextBytes) {
+        SplittableRandom random = new SplittableRandom(count);
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setId((long) i + 1);
+            message.setSessionId(SESSION_ID);
+            message.setSender(i % 2 == 0 ? Message.Sender.USER : Message.Sender.ASSISTANT);
+            message.setContent(text(random, i % 2 == 0 ? 120 : 1200));
+            message.setContext(i % 2 == 0 ? null : context(random, contextBytes));
+            message.setTimestamp(BASE_TIME.plusSeconds(i));
+            messages.add(message);
+        }
+        return messages;
+    }
+    
+    static MessagePageResponse page(List<MessageResponse> messages) {
+        return new MessagePageResponse(messages, 0, messages.size(), (long) messages.size(), 1);
+    }
+    
+    private static String context(SplittableRandom random, int bytes) {
+        StringBuilder context = new StringBuilder(bytes + 64).append("{\"retrievedDocuments\":[");
+        int doc = 0;
+        while (context.length() < bytes) {
+            if (doc > 0) {
+                context.append(',');
+            }
+            context.append("{\"id\":\"doc").append(doc++)
+                .append("\",\"relevanceScore\":0.").append(random.nextInt(100, 999))
+                .append(",\"text\":\"").append(text(random, 400)).append("\"}");
+        }
+        return context.append("]}").toString();
+    }
+    
+    private static String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int start = random.nextInt(WORDS.length() - 20);
+            text.append(WORDS, start, Math.min(WORDS.length(), start + 20));
+        }
+        return text.substring(0, length);
+    }
+}
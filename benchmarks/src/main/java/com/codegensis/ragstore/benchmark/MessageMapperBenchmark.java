@@ -0,0 +1,35 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.mapper.MessageMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageMapperBenchmark {
+    
+    @Param({"20", "100"})
+    public int pageSize;
+    
+    private MessageMapper messageMapper;
+    private List<Message> messages;
+    
+    @Setup
+    public void setUp() {
+        messageMapper = new MessageMapper();
+        messages = Fixtures.messages(pageSize, 4 * 1024);
+    }
+    
+    @Benchmark
+    public List<MessageResponse> toResponseList() {
+        return messageMapper.toResponseList(messages);
+    }
+}
@@ -0,0 +1,93 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.json.MessageJsonCache;
+import com.codegensis.ragstore.json.SerializedMessagePageConverter;
+import com.codegensis.ragstore.mapper.MessageMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessagePageSerializationBenchmark {
+    
+    @Param({"20", "100"})
+    public int pageSize;
+    
+    @Param({"1024", "51200"})
+    public int contextBytes;
+    
+    private ObjectWriter writer;
+    private MessageMapper mapper;
+    private List<Message> messages;
+    private MessagePageResponse page;
+    private List<Long> ids;
+    private MessageJsonCache cache;
+    private SerializedMessagePageConverter converter;
+    
+    @Setup
+    public void setUp() {
+        writer = Fixtures.objectMapper().writerFor(MessagePageResponse.class);
+        mapper = new MessageMapper();
+        messages = Fixtures.messages(pageSize, contextBytes);
+        page = Fixtures.page(mapper.toResponseList(messages));
+        ids = messages.stream().map(Message::getId).toList();
+        cache = new MessageJsonCache(Fixtures.objectMapper(), DataSize.ofMegabytes(64));
+        mapper.toResponseList(messages).forEach(cache::put);
+        converter = new SerializedMessagePageConverter();
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(page);
+    }
+    
+    /**
+     * What a page read cost before the cache: map every row, then stream everything through
+     * Jackson, as the default converter does into the servlet response.
+     */
+    @Benchmark
+    public void mapAndSerialize() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), Fixtures.page(mapper.toResponseList(messages)));
+    }
+    
+    /** A page read served entirely from {@link MessageJsonCache}. */
+    @Benchmark
+    public HttpHeaders spliceCached() throws IOException {
+        List<byte[]> json = cache.getAll(ids, missing -> mapper.toResponseList(messages));
+        DiscardingOutputMessage output = new DiscardingOutputMessage();
+        converter.write(new SerializedMessagePage(json, 0, pageSize, (long) pageSize, 1), MediaType.APPLICATION_JSON, output);
+        return output.getHeaders();
+    }
+    
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+        
+        private final HttpHeaders headers = new HttpHeaders();
+        
+        @Override
+        public OutputStream getBody() {
+            return OutputStream.nullOutputStream();
+        }
+        
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.json.MessageJsonCache;
+import com.codegensis.ragstore.metrics.RagstoreMetrics;
+import com.codegensis.ragstore.service.MessageBroadcaster;
+import com.codegensis.ragstore.service.MessageService;
+import com.codegensis.ragstore.storage.memory.InMemoryStorageEngine;
+import com.codegensis.ragstore.validator.MessageValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MessageService} on the in-memory storage engine: validation, JSON caching
+ * and broadcasting without the ORM or the database, so changes to the service logic show up
+ * undiluted by query time. The engine is rebuilt each iteration to keep the log from growing
+ * without bound.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageServiceBenchmark {
+
+    private static final int SESSION_MESSAGES = 1_000;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private MessageService messageService;
+    private long sessionId;
+    private AddMessageRequest request;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        messageService = new MessageService(engine.messageLog(), engine.sessionStore(), new MessageValidator(),
+            new MessageBroadcaster(256),
+            new MessageJsonCache(Fixtures.objectMapper(), DataSize.ofMegabytes(32)),
+            new RagstoreMetrics(new SimpleMeterRegistry()));
+
+        Session session = new Session();
+        session.setUserId("benchmark_user");
+        session.setTitle("Benchmark");
+        sessionId = engine.sessionStore().save(session).getId();
+
+        List<Message> messages = Fixtures.messages(SESSION_MESSAGES, 4 * 1024);
+        for (Message message : messages) {
+            message.setId(null);
+            message.setSessionId(sessionId);
+        }
+        engine.messageLog().appendAll(messages);
+
+        Message sample = messages.get(1);
+        request = new AddMessageRequest(sample.getSender().getDbValue(), sample.getContent(), sample.getContext());
+    }
+
+    @Benchmark
+    public MessageResponse addMessage() {
+        return messageService.addMessage(sessionId, request);
+    }
+
+    @Benchmark
+    public MessagePageResponse getMessages() {
+        return messageService.getMessages(sessionId, 0, pageSize);
+    }
+
+    @Benchmark
+    public SerializedMessagePage getSerializedMessages() {
+        return messageService.getSerializedMessages(sessionId, 0, pageSize);
+    }
+}
@@ -0,0 +1,50 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.ratelimit.RateLimitTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-limit lookups for a single hot key and for a spray of distinct keys well beyond the
+ * table capacity, as an unauthenticated client rotating random X-API-Key values would send.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimitTableBenchmark {
+    
+    private static final int SPRAY_KEYS = 1 << 20;
+    
+    private RateLimitTable table;
+    private String[] sprayKeys;
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+    
+    @Setup
+    public void setUp() {
+        table = new RateLimitTable(65536, Integer.MAX_VALUE, Duration.ofMinutes(1));
+        sprayKeys = new String[SPRAY_KEYS];
+        for (int i = 0; i < SPRAY_KEYS; i++) {
+            sprayKeys[i] = Long.toHexString(Double.doubleToLongBits(Math.random())) + i;
+        }
+    }
+    
+    @Benchmark
+    public boolean hotKey() {
+        return table.tryConsume(Fixtures.API_KEY);
+    }
+    
+    @Benchmark
+    public boolean keySpray(Cursor cursor) {
+        return table.tryConsume(sprayKeys[cursor.next++ & (SPRAY_KEYS - 1)]);
+    }
+}
@@ -0,0 +1,84 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.filter.RequestLoggingFilter;
+import com.codegensis.ragstore.logging.LogSampler;
+import com.codegensis.ragstore.util.RouteClassifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The request logging filter around a handler that writes a message page of the given size,
+ * to show what the logging itself costs per response byte.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestLoggingBenchmark {
+    
+    @Param({"2048", "262144"})
+    public int responseBytes;
+    
+    private RequestLoggingFilter filter;
+    private MockHttpServletRequest request;
+    private FilterChain handler;
+    
+    @Setup
+    public void setUp() {
+        filter = new RequestLoggingFilter(new RouteClassifier(),
+            new LogSampler(1.0, "", new SimpleMeterRegistry()), 0, 0.0);
+        request = new MockHttpServletRequest("GET", "/api/v1/sessions/42/messages");
+        byte[] body = new byte[responseBytes];
+        handler = (req, res) -> {
+            // Written in chunks the way Jackson flushes its buffer
+            for (int offset = 0; offset < body.length; offset += 8192) {
+                res.getOutputStream().write(body, offset, Math.min(8192, body.length - offset));
+            }
+        };
+    }
+    
+    @Benchmark
+    public int logRequest() throws ServletException, IOException {
+        request.clearAttributes();
+        // Discarding response so the mock's own buffer does not dominate the measurement
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public jakarta.servlet.ServletOutputStream getOutputStream() {
+                return DiscardingOutputStream.INSTANCE;
+            }
+        };
+        filter.doFilter(request, response, handler);
+        return response.getStatus();
+    }
+    
+    static final class DiscardingOutputStream extends jakarta.servlet.ServletOutputStream {
+        
+        static final DiscardingOutputStream INSTANCE = new DiscardingOutputStream();
+        
+        @Override
+        public void write(int b) {
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+        
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+        
+        @Override
+        public void setWriteListener(jakarta.servlet.WriteListener writeListener) {
+        }
+    }
+}
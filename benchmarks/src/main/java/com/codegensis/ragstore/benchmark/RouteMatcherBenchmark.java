@@ -0,0 +1,54 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.util.RequestRoute;
+import com.codegensis.ragstore.util.RouteClassifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled route trie against the linear pattern scan it replaced. The linear
+ * variant is kept here only as a baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteMatcherBenchmark {
+    
+    @Param({"/api/v1/sessions/42/messages", "/actuator/health/liveness", "/swagger-ui/index.html"})
+    public String path;
+    
+    private RouteClassifier routeClassifier;
+    
+    @Setup
+    public void setUp() {
+        routeClassifier = new RouteClassifier();
+    }
+    
+    @Benchmark
+    public RequestRoute trie() {
+        return routeClassifier.classify(path);
+    }
+    
+    @Benchmark
+    public RequestRoute linear() {
+        return RequestRoute.of(matchesAny(path, ApiConstants.PUBLIC_ENDPOINTS),
+            matchesAny(path, ApiConstants.SKIP_LOGGING_PATHS));
+    }
+    
+    private static boolean matchesAny(String requestPath, String[] patterns) {
+        for (String pattern : patterns) {
+            if (pattern.equals(requestPath)) {
+                return true;
+            }
+            if (pattern.endsWith("/**") && requestPath.startsWith(pattern.substring(0, pattern.length() - 3))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.entity.Message;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SenderBenchmark {
+    
+    @Param({"user", "assistant", "system"})
+    public String dbValue;
+    
+    private final Message.Sender.Converter converter = new Message.Sender.Converter();
+    
+    @Benchmark
+    public Message.Sender fromDbValue() {
+        return Message.Sender.fromDbValue(dbValue);
+    }
+    
+    @Benchmark
+    public Message.Sender converterToEntityAttribute() {
+        return converter.convertToEntityAttribute(dbValue);
+    }
+}
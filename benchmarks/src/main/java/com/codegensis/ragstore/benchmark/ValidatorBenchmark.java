@@ -0,0 +1,58 @@
+package com.codegensis.ragstore.benchmark;
+
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.validator.MessageValidator;
+import com.codegensis.ragstore.validator.SessionValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidatorBenchmark {
+    
+    private SessionValidator sessionValidator;
+    private MessageValidator messageValidator;
+    private String userId;
+    private String title;
+    private String content;
+    private String context;
+    
+    @Setup
+    public void setUp() {
+        sessionValidator = new SessionValidator();
+        messageValidator = new MessageValidator();
+        userId = "tenant_42_user_1234567890";
+        title = "Quarterly report questions";
+        Message message = Fixtures.messages(2, 8 * 1024).get(1);
+        content = message.getContent();
+        context = message.getContext();
+    }
+    
+    @Benchmark
+    public void sessionValidateUserId() {
+        sessionValidator.validateUserId(userId);
+    }
+    
+    @Benchmark
+    public void sessionValidateTitle() {
+        sessionValidator.validateTitle(title);
+    }
+    
+    @Benchmark
+    public void messageValidateAddRequest(Blackhole blackhole) {
+        blackhole.consume(messageValidator.validateAndParseSender("assistant"));
+        messageValidator.validateContent(content);
+        messageValidator.validateContext(context);
+    }
+    
+    @Benchmark
+    public void messageValidatePagination() {
+        messageValidator.validatePagination(3, 50);
+    }
+}
@@ -0,0 +1,76 @@
+package com.codegensis.ragstore.loadtest;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Produces RAG-shaped request bodies: short user questions, long assistant answers and a
+ * retrieved-documents JSON context whose size varies around the configured average.
+ */
+public class ConversationGenerator {
+    
+    private static final String[] WORDS = {
+        "the", "model", "retrieved", "document", "answer", "question", "context", "policy", "report",
+        "revenue", "customer", "support", "summary", "section", "according", "to", "vector", "index",
+        "relevance", "score", "quarter", "growth", "contract", "clause", "refund", "shipping", "account"
+    };
+    
+    private final int contentChars;
+    private final int contextBytes;
+    
+    public ConversationGenerator(int contentChars, int contextBytes) {
+        this.contentChars = contentChars;
+        this.contextBytes = contextBytes;
+    }
+    
+    public String userTurn() {
+        return text(vary(Math.max(20, contentChars / 10)));
+    }
+    
+    public String assistantTurn() {
+        return text(vary(contentChars));
+    }
+    
+    /** Context capped below the service's 50KB limit, leaving room for the last document. */
+    public String context() {
+        int target = Math.min(vary(contextBytes), 48_000);
+        StringBuilder context = new StringBuilder(target + 128).append("{\"retrievedDocuments\":[");
+        int doc = 0;
+        while (context.length() < target) {
+            if (doc > 0) {
+                context.append(',');
+            }
+            context.append("{\"id\":\"doc").append(doc++)
+                .append("\",\"relevanceScore\":0.").append(random().nextInt(100, 999))
+                .append(",\"text\":\"").append(text(Math.max(16, Math.min(600, target - context.length())))).append("\"}");
+        }
+        return context.append("]}").toString();
+    }
+    
+    public String userId(int users) {
+        return "loadtest_user_" + random().nextInt(users);
+    }
+    
+    public String title() {
+        return "Conversation " + Long.toHexString(random().nextLong());
+    }
+    
+    private int vary(int average) {
+        // Roughly +/-50% around the average
+        return Math.max(1, average / 2 + random().nextInt(average + 1));
+    }
+    
+    private String text(int length) {
+        StringBuilder text = new StringBuilder(length + 16);
+        SplittableRandom random = new SplittableRandom(random().nextLong());
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        text.setLength(length);
+        return text.toString();
+    }
+    
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
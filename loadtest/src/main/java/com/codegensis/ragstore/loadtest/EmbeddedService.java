@@ -0,0 +1,66 @@
+package com.codegensis.ragstore.loadtest;
+
+import com.codegensis.ragstore.RagstoreApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.system.ApplicationHome;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * The storage service booted in-process on a random port against a throwaway H2 file,
+ * with production logging and rate limiting effectively disabled. Its log files go under the
+ * load-test module's build directory rather than the working directory.
+ */
+public class EmbeddedService implements AutoCloseable {
+    
+    private final Path dataDirectory;
+    private final String apiKey;
+    private final ConfigurableApplicationContext context;
+    
+    public EmbeddedService() throws IOException {
+        this.dataDirectory = Files.createTempDirectory("ragstore-loadtest");
+        this.apiKey = UUID.randomUUID().toString();
+        this.context = new SpringApplicationBuilder(RagstoreApplication.class).run(
+            "--spring.profiles.active=prod",
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:file:" + dataDirectory.resolve("ragchat").toAbsolutePath(),
+            "--app.api.key.primary=" + apiKey,
+            "--app.api.key.secondary=",
+            "--app.rate-limit.api-key-per-minute=" + Integer.MAX_VALUE,
+            "--app.logging.directory=" + logDirectory(dataDirectory),
+            "--logging.level.root=WARN",
+            "--logging.level.com.codegensis.ragstore=WARN"
+        );
+    }
+    
+    public String baseUrl() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return "http://localhost:" + port;
+    }
+    
+    public String apiKey() {
+        return apiKey;
+    }
+    
+    /** {@code target/logs} next to the jar or classes directory this class was loaded from. */
+    private static Path logDirectory(Path fallback) {
+        File source = new ApplicationHome(EmbeddedService.class).getSource();
+        if (source == null || source.getParentFile() == null) {
+            return fallback.resolve("logs").toAbsolutePath();
+        }
+        return source.getParentFile().toPath().resolve("logs").toAbsolutePath();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(dataDirectory);
+    }
+}
@@ -0,0 +1,65 @@
+package com.codegensis.ragstore.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and outcome counters for one operation.
+ * Latency is measured from the intended arrival time, not from when the request was actually
+ * sent, so a stalled service shows up as queueing delay instead of being hidden.
+ */
+public class EndpointStats {
+    
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+    
+    private final Histogram latencyMicros = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    
+    public void recordResponse(int status, long latencyNanos) {
+        latencyMicros.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        statusCodes.computeIfAbsent(status, code -> new LongAdder()).increment();
+    }
+    
+    /** Transport-level failure: connection refused, reset or timed out. */
+    public void recordFailure() {
+        failures.increment();
+    }
+    
+    /** Arrival that was not sent because too many requests were already outstanding. */
+    public void recordDropped() {
+        dropped.increment();
+    }
+    
+    public Histogram latencyMicros() {
+        return latencyMicros;
+    }
+    
+    public Map<Integer, Long> statusCodes() {
+        Map<Integer, Long> snapshot = new TreeMap<>();
+        statusCodes.forEach((status, count) -> snapshot.put(status, count.sum()));
+        return snapshot;
+    }
+    
+    public long failures() {
+        return failures.sum();
+    }
+    
+    public long dropped() {
+        return dropped.sum();
+    }
+    
+    public void reset() {
+        latencyMicros.reset();
+        statusCodes.clear();
+        failures.reset();
+        dropped.reset();
+    }
+}
@@ -0,0 +1,92 @@
+package com.codegensis.ragstore.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings parsed from {@code --name=value} arguments.
+ *
+ * @param targetUrl      base URL of a running service; when blank an embedded instance is started
+ * @param apiKey         API key for an external target (the embedded instance generates its own)
+ * @param ratePerSecond  open-loop arrival rate, independent of how fast responses come back
+ * @param poisson        exponential inter-arrival times instead of a fixed interval
+ * @param warmup         time spent driving load before latencies are recorded
+ * @param duration       measured time
+ * @param mix            relative weight of each operation
+ * @param users          number of distinct user ids sessions are spread over
+ * @param seedSessions   sessions created before warmup so reads have data from the start
+ * @param contentChars   average assistant turn length; user turns are about a tenth of it
+ * @param contextBytes   average size of the retrieved-documents context on assistant turns
+ * @param maxInFlight    requests outstanding before new arrivals are counted as dropped
+ * @param reportPath     where the JSON report is written
+ */
+public record LoadTestConfig(
+    String targetUrl,
+    String apiKey,
+    int ratePerSecond,
+    boolean poisson,
+    Duration warmup,
+    Duration duration,
+    Map<Operation, Integer> mix,
+    int users,
+    int seedSessions,
+    int contentChars,
+    int contextBytes,
+    int maxInFlight,
+    String reportPath
+) {
+    
+    private static final String DEFAULT_MIX = "create=5,add=50,get=30,list=10,delete=5";
+    
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        
+        return new LoadTestConfig(
+            options.getOrDefault("url", ""),
+            options.getOrDefault("api-key", ""),
+            Integer.parseInt(options.getOrDefault("rate", "200")),
+            "poisson".equalsIgnoreCase(options.getOrDefault("arrival", "poisson")),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+            parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+            Integer.parseInt(options.getOrDefault("users", "50")),
+            Integer.parseInt(options.getOrDefault("seed-sessions", "100")),
+            Integer.parseInt(options.getOrDefault("content-chars", "1500")),
+            Integer.parseInt(options.getOrDefault("context-bytes", "8192")),
+            Integer.parseInt(options.getOrDefault("max-in-flight", "2000")),
+            options.getOrDefault("report", "loadtest-report.json")
+        );
+    }
+    
+    public boolean embedded() {
+        return targetUrl == null || targetUrl.isBlank();
+    }
+    
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries must look like name=weight: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must be >= 0: " + entry);
+            }
+            weights.put(Operation.fromMixKey(parts[0].trim()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must contain at least one positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,60 @@
+package com.codegensis.ragstore.loadtest;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.nio.file.Path;
+
+/**
+ * Runs a synthetic RAG conversation workload against the storage service and writes a JSON
+ * latency report.
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar --rate=500 --duration=60 --mix=create=5,add=50,get=30,list=10,delete=5
+ * </pre>
+ *
+ * Without {@code --url} the service is booted in-process against a temporary H2 file.
+ */
+public final class LoadTestMain {
+    
+    private LoadTestMain() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        EmbeddedService embedded = config.embedded() ? new EmbeddedService() : null;
+        try {
+            String baseUrl = embedded != null ? embedded.baseUrl() : config.targetUrl();
+            String apiKey = embedded != null ? embedded.apiKey() : config.apiKey();
+            
+            try (OpenLoopDriver driver = new OpenLoopDriver(config, baseUrl, apiKey)) {
+                log("Seeding %d sessions on %s", config.seedSessions(), baseUrl);
+                driver.seed();
+                
+                log("Warming up for %ds at %d req/s", config.warmup().toSeconds(), config.ratePerSecond());
+                driver.run(config.warmup());
+                driver.resetStats();
+                
+                log("Measuring for %ds at %d req/s", config.duration().toSeconds(), config.ratePerSecond());
+                long start = System.nanoTime();
+                driver.run(config.duration());
+                double measuredSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                
+                LoadTestReport reporter = new LoadTestReport();
+                ObjectNode report = reporter.build(config, embedded != null ? "embedded" : baseUrl,
+                    driver.stats(), measuredSeconds);
+                reporter.write(report, Path.of(config.reportPath()));
+                log("%s", reporter.toPrettyString((ObjectNode) report.get("totals")));
+                log("Report written to %s", Path.of(config.reportPath()).toAbsolutePath());
+            }
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+    
+    private static void log(String format, Object... args) {
+        System.out.println("[loadtest] " + String.format(format, args));
+    }
+}
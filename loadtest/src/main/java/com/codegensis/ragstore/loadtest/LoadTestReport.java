@@ -0,0 +1,115 @@
+package com.codegensis.ragstore.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Writes the run's configuration, throughput and per-endpoint latency percentiles as JSON.
+ */
+public class LoadTestReport {
+    
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    
+    public ObjectNode build(LoadTestConfig config, String target, Map<Operation, EndpointStats> stats,
+                            double measuredSeconds) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("target", target);
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.set("config", configNode(config));
+        
+        Histogram overall = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        long dropped = 0;
+        ObjectNode endpoints = report.putObject("endpoints");
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.latencyMicros().copy();
+            overall.add(histogram);
+            
+            long endpointErrors = endpointStats.failures() + endpointStats.statusCodes().entrySet().stream()
+                .filter(status -> status.getKey() >= 400)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+            requests += histogram.getTotalCount();
+            errors += endpointErrors;
+            dropped += endpointStats.dropped();
+            
+            ObjectNode endpoint = endpoints.putObject(entry.getKey().getMixKey());
+            endpoint.put("endpoint", entry.getKey().getEndpoint());
+            endpoint.put("requests", histogram.getTotalCount());
+            endpoint.put("throughputPerSecond", histogram.getTotalCount() / measuredSeconds);
+            endpoint.put("errors", endpointErrors);
+            endpoint.put("transportFailures", endpointStats.failures());
+            endpoint.put("dropped", endpointStats.dropped());
+            ObjectNode statusCodes = endpoint.putObject("statusCodes");
+            endpointStats.statusCodes().forEach((status, count) -> statusCodes.put(String.valueOf(status), count));
+            endpoint.set("latencyMs", latencyNode(histogram));
+        }
+        
+        ObjectNode totals = report.putObject("totals");
+        totals.put("measuredSeconds", measuredSeconds);
+        totals.put("requests", requests);
+        totals.put("throughputPerSecond", requests / measuredSeconds);
+        totals.put("errors", errors);
+        totals.put("dropped", dropped);
+        totals.set("latencyMs", latencyNode(overall));
+        return report;
+    }
+    
+    public void write(ObjectNode report, Path path) throws IOException {
+        objectMapper.writeValue(path.toFile(), report);
+    }
+    
+    public String toPrettyString(ObjectNode report) throws IOException {
+        return objectMapper.writeValueAsString(report);
+    }
+    
+    private ObjectNode configNode(LoadTestConfig config) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("ratePerSecond", config.ratePerSecond());
+        node.put("arrival", config.poisson() ? "poisson" : "uniform");
+        node.put("warmupSeconds", config.warmup().toSeconds());
+        node.put("durationSeconds", config.duration().toSeconds());
+        node.put("users", config.users());
+        node.put("seedSessions", config.seedSessions());
+        node.put("contentChars", config.contentChars());
+        node.put("contextBytes", config.contextBytes());
+        node.put("maxInFlight", config.maxInFlight());
+        ObjectNode mix = node.putObject("mix");
+        config.mix().forEach((operation, weight) -> mix.put(operation.getMixKey(), weight));
+        return node;
+    }
+    
+    private ObjectNode latencyNode(Histogram histogramMicros) {
+        ObjectNode node = objectMapper.createObjectNode();
+        if (histogramMicros.getTotalCount() == 0) {
+            return node;
+        }
+        node.put("min", histogramMicros.getMinValue() / 1000.0);
+        node.put("mean", histogramMicros.getMean() / 1000.0);
+        for (double percentile : PERCENTILES) {
+            node.put("p" + formatPercentile(percentile), histogramMicros.getValueAtPercentile(percentile) / 1000.0);
+        }
+        node.put("max", histogramMicros.getMaxValue() / 1000.0);
+        return node;
+    }
+    
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile)
+            ? String.valueOf((int) percentile)
+            : String.valueOf(percentile).replace(".", "");
+    }
+}
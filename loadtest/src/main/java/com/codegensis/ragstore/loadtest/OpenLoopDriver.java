@@ -0,0 +1,230 @@
+package com.codegensis.ragstore.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fires requests at a fixed average arrival rate regardless of how quickly responses return.
+ * A single pacing thread computes each arrival's intended start time and hands the request to
+ * the asynchronous HTTP client, so a slow service builds up in-flight requests rather than
+ * silently lowering the offered load.
+ */
+public class OpenLoopDriver implements AutoCloseable {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String JSON = "application/json";
+    
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final String apiKey;
+    private final ConversationGenerator generator;
+    private final SessionPool sessions = new SessionPool();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final Operation[] schedule;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService clientExecutor = Executors.newFixedThreadPool(
+        Math.max(4, Runtime.getRuntime().availableProcessors()));
+    private final HttpClient httpClient;
+    
+    public OpenLoopDriver(LoadTestConfig config, String baseUrl, String apiKey) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.generator = new ConversationGenerator(config.contentChars(), config.contextBytes());
+        this.schedule = buildSchedule(config.mix());
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(clientExecutor)
+            .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+    }
+    
+    /** Creates sessions synchronously so the measured phase starts with data to read. */
+    public void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < config.seedSessions(); i++) {
+            HttpResponse<String> response = httpClient.send(createSessionRequest(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            }
+            long sessionId = objectMapper.readTree(response.body()).path("id").asLong();
+            sessions.add(sessionId);
+            for (int turn = 0; turn < 4; turn++) {
+                httpClient.send(addMessageRequest(sessionId), HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+    
+    /** Drives load for the given time, then waits for outstanding requests to finish. */
+    public void run(Duration phase) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond();
+        long start = System.nanoTime();
+        long end = start + phase.toNanos();
+        long nextArrival = start;
+        
+        while (nextArrival < end) {
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue;
+            }
+            dispatch(schedule[ThreadLocalRandom.current().nextInt(schedule.length)], nextArrival);
+            nextArrival += config.poisson() ? exponential(intervalNanos) : intervalNanos;
+        }
+        
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+    }
+    
+    public Map<Operation, EndpointStats> stats() {
+        return stats;
+    }
+    
+    public void resetStats() {
+        stats.values().forEach(EndpointStats::reset);
+    }
+    
+    public int liveSessions() {
+        return sessions.size();
+    }
+    
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+    }
+    
+    private void dispatch(Operation operation, long intendedStart) {
+        EndpointStats endpointStats = stats.get(operation);
+        if (inFlight.get() >= config.maxInFlight()) {
+            endpointStats.recordDropped();
+            return;
+        }
+        
+        HttpRequest request = buildRequest(operation);
+        if (request == null) {
+            // Nothing to read or delete yet; create instead so the pool refills
+            operation = Operation.CREATE_SESSION;
+            endpointStats = stats.get(operation);
+            request = createSessionRequest();
+        }
+        
+        final Operation sent = operation;
+        final EndpointStats sentStats = endpointStats;
+        inFlight.incrementAndGet();
+        CompletableFuture<HttpResponse<String>> future = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        future.whenComplete((response, error) -> {
+            inFlight.decrementAndGet();
+            if (error != null) {
+                sentStats.recordFailure();
+                return;
+            }
+            sentStats.recordResponse(response.statusCode(), System.nanoTime() - intendedStart);
+            if (sent == Operation.CREATE_SESSION && response.statusCode() == 201) {
+                rememberSession(response.body());
+            }
+        });
+    }
+    
+    private HttpRequest buildRequest(Operation operation) {
+        switch (operation) {
+            case CREATE_SESSION:
+                return createSessionRequest();
+            case ADD_MESSAGE: {
+                long sessionId = sessions.pick();
+                return sessionId < 0 ? null : addMessageRequest(sessionId);
+            }
+            case GET_MESSAGES: {
+                long sessionId = sessions.pick();
+                return sessionId < 0 ? null : request("/api/v1/sessions/" + sessionId + "/messages?page=0&size=20").GET().build();
+            }
+            case LIST_SESSIONS:
+                return request("/api/v1/sessions?userId=" + generator.userId(config.users())).GET().build();
+            case DELETE_SESSION: {
+                long sessionId = sessions.take();
+                return sessionId < 0 ? null : request("/api/v1/sessions/" + sessionId).DELETE().build();
+            }
+            default:
+                throw new IllegalStateException("Unhandled operation " + operation);
+        }
+    }
+    
+    private HttpRequest createSessionRequest() {
+        ObjectNode body = objectMapper.createObjectNode()
+            .put("userId", generator.userId(config.users()))
+            .put("title", generator.title());
+        return request("/api/v1/sessions")
+            .header("Content-Type", JSON)
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+    }
+    
+    private HttpRequest addMessageRequest(long sessionId) {
+        boolean assistant = ThreadLocalRandom.current().nextBoolean();
+        ObjectNode body = objectMapper.createObjectNode()
+            .put("sender", assistant ? "assistant" : "user")
+            .put("content", assistant ? generator.assistantTurn() : generator.userTurn());
+        if (assistant) {
+            body.put("context", generator.context());
+        }
+        return request("/api/v1/sessions/" + sessionId + "/messages")
+            .header("Content-Type", JSON)
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(REQUEST_TIMEOUT)
+            .header("X-API-Key", apiKey)
+            .header("Accept", JSON);
+    }
+    
+    private void rememberSession(String body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).path("id");
+            if (id.canConvertToLong()) {
+                sessions.add(id.asLong());
+            }
+        } catch (IOException e) {
+            // A malformed body is already visible in the status code counts
+        }
+    }
+    
+    private static long exponential(long meanNanos) {
+        return (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanNanos);
+    }
+    
+    private static Operation[] buildSchedule(Map<Operation, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] schedule = new Operation[total];
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                schedule[index++] = entry.getKey();
+            }
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,37 @@
+package com.codegensis.ragstore.loadtest;
+
+/**
+ * Endpoints exercised by the workload, keyed by the name used in {@code --mix}.
+ */
+public enum Operation {
+    CREATE_SESSION("create", "POST /api/v1/sessions"),
+    ADD_MESSAGE("add", "POST /api/v1/sessions/{id}/messages"),
+    GET_MESSAGES("get", "GET /api/v1/sessions/{id}/messages"),
+    LIST_SESSIONS("list", "GET /api/v1/sessions?userId="),
+    DELETE_SESSION("delete", "DELETE /api/v1/sessions/{id}");
+    
+    private final String mixKey;
+    private final String endpoint;
+    
+    Operation(String mixKey, String endpoint) {
+        this.mixKey = mixKey;
+        this.endpoint = endpoint;
+    }
+    
+    public String getMixKey() {
+        return mixKey;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public static Operation fromMixKey(String mixKey) {
+        for (Operation operation : values()) {
+            if (operation.mixKey.equalsIgnoreCase(mixKey)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + mixKey);
+    }
+}
@@ -0,0 +1,42 @@
+package com.codegensis.ragstore.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ids of sessions created during the run, so reads, writes and deletes target live sessions.
+ * Removal swaps the last element into the gap, keeping random picks O(1).
+ */
+public class SessionPool {
+    
+    private long[] ids = new long[1024];
+    private int size;
+    
+    public synchronized void add(long id) {
+        if (size == ids.length) {
+            long[] grown = new long[ids.length * 2];
+            System.arraycopy(ids, 0, grown, 0, size);
+            ids = grown;
+        }
+        ids[size++] = id;
+    }
+    
+    /** Returns a random live session id, or -1 when the pool is empty. */
+    public synchronized long pick() {
+        return size == 0 ? -1 : ids[ThreadLocalRandom.current().nextInt(size)];
+    }
+    
+    /** Removes and returns a random session id, or -1 when the pool is empty. */
+    public synchronized long take() {
+        if (size == 0) {
+            return -1;
+        }
+        int index = ThreadLocalRandom.current().nextInt(size);
+        long id = ids[index];
+        ids[index] = ids[--size];
+        return id;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+}
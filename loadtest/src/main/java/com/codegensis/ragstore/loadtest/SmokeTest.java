@@ -0,0 +1,264 @@
+package com.codegensis.ragstore.loadtest;
+
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import com.codegensis.ragstore.grpc.v1.ChatStorageGrpc;
+import com.codegensis.ragstore.grpc.v1.ReadMessagesRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Metadata;
+import io.grpc.stub.MetadataUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end checks against a running instance, one per feature that depends on reflection,
+ * resources or generated code: the ones a native image breaks first when a hint is missing.
+ * Exits with status 1 when any check fails.
+ *
+ * <pre>
+ * java -Dloader.main=com.codegensis.ragstore.loadtest.SmokeTest -jar loadtest/target/loadtest.jar \
+ *   --url=http://localhost:8080 --api-key=$API_KEY_PRIMARY --grpc-port=9090
+ * </pre>
+ *
+ * The API key needs the {@code admin} scope for the import check, and the instance a rate limit
+ * above the default, as for the load test. Without {@code --grpc-port} the gRPC check is skipped.
+ */
+public final class SmokeTest {
+
+    private static final String JSON = "application/json";
+
+    @FunctionalInterface
+    private interface Check {
+        void run() throws Exception;
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final String apiKey;
+    private final String userId = "smoke_" + UUID.randomUUID().toString().substring(0, 8);
+    private long sessionId;
+
+    private SmokeTest(String baseUrl, String apiKey) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        SmokeTest smokeTest = new SmokeTest(options.getOrDefault("url", "http://localhost:8080"),
+            options.getOrDefault("api-key", System.getenv("API_KEY_PRIMARY")));
+        String grpcPort = options.get("grpc-port");
+        System.exit(smokeTest.run(grpcPort != null ? Integer.parseInt(grpcPort) : -1) ? 0 : 1);
+    }
+
+    private boolean run(int grpcPort) {
+        Map<String, Check> checks = new LinkedHashMap<>();
+        checks.put("health is UP", this::health);
+        checks.put("request without API key is rejected", this::unauthenticated);
+        checks.put("session is created", this::createSession);
+        checks.put("invalid request returns a problem response", this::invalidRequest);
+        checks.put("messages are stored with their sender", this::addMessages);
+        checks.put("message page is read back", this::readMessages);
+        checks.put("message page is encoded as CBOR", this::readMessagesAsCbor);
+        checks.put("unchanged session answers 304", this::conditionalGet);
+        checks.put("idempotent retry is replayed", this::idempotentRetry);
+        checks.put("messages stream as NDJSON", this::streamMessages);
+        checks.put("JSONL import completes", this::bulkImport);
+        checks.put("metrics are exported", this::metrics);
+        if (grpcPort > 0) {
+            checks.put("gRPC ReadMessages streams the messages", () -> grpcReadMessages(grpcPort));
+        }
+        checks.put("session is deleted", this::deleteSession);
+
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, Check> check : checks.entrySet()) {
+            try {
+                check.getValue().run();
+                log("PASS %s", check.getKey());
+            } catch (Exception | AssertionError e) {
+                failures.add(check.getKey());
+                log("FAIL %s: %s", check.getKey(), e.getMessage());
+            }
+        }
+        log("%d of %d checks passed", checks.size() - failures.size(), checks.size());
+        return failures.isEmpty();
+    }
+
+    private void health() throws Exception {
+        HttpResponse<String> response = send(request("/actuator/health").GET());
+        expect(response, 200);
+        expect("UP".equals(json(response).path("status").asText()), "status is " + response.body());
+    }
+
+    private void unauthenticated() throws Exception {
+        expect(send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/sessions?userId=" + userId)).GET()), 401);
+    }
+
+    private void createSession() throws Exception {
+        HttpResponse<String> response = send(api("/api/v1/sessions")
+            .POST(body("{\"userId\":\"" + userId + "\",\"title\":\"Smoke test\"}")));
+        expect(response, 201);
+        sessionId = json(response).path("id").asLong();
+    }
+
+    private void invalidRequest() throws Exception {
+        HttpResponse<String> response = send(api("/api/v1/sessions").POST(body("{\"userId\":\"\"}")));
+        expect(response, 400);
+        expect(json(response).path("title").isTextual(), "problem title missing: " + response.body());
+    }
+
+    private void addMessages() throws Exception {
+        expect(send(api(messagesPath()).POST(body("{\"sender\":\"user\",\"content\":\"Hello\"}"))), 201);
+        HttpResponse<String> response = send(api(messagesPath())
+            .POST(body("{\"sender\":\"assistant\",\"content\":\"Hi\",\"context\":\"{\\\"docs\\\":[1]}\"}")));
+        expect(response, 201);
+        expect("assistant".equals(json(response).path("sender").asText()), "sender was " + response.body());
+    }
+
+    private void readMessages() throws Exception {
+        HttpResponse<String> response = send(api(messagesPath()).GET());
+        expect(response, 200);
+        JsonNode messages = json(response).path("messages");
+        expect(messages.size() == 2, "expected 2 messages: " + response.body());
+        expect("assistant".equals(messages.get(1).path("sender").asText()), "sender was " + messages.get(1));
+    }
+
+    private void readMessagesAsCbor() throws Exception {
+        HttpResponse<byte[]> response = client.send(api(messagesPath()).header("Accept", "application/cbor").GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        expect(response.statusCode() == 200, "status " + response.statusCode());
+        expect(response.headers().firstValue("Content-Type").orElse("").startsWith("application/cbor"),
+            "content type " + response.headers().firstValue("Content-Type").orElse(""));
+        expect(response.body().length > 0, "empty body");
+    }
+
+    private void conditionalGet() throws Exception {
+        HttpResponse<String> first = send(api("/api/v1/sessions/" + sessionId).GET());
+        expect(first, 200);
+        String eTag = first.headers().firstValue("ETag").orElseThrow(() -> new AssertionError("no ETag"));
+        expect(send(api("/api/v1/sessions/" + sessionId).header("If-None-Match", eTag).GET()), 304);
+    }
+
+    private void idempotentRetry() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String payload = "{\"userId\":\"" + userId + "\",\"title\":\"Idempotent\"}";
+        HttpResponse<String> first = send(api("/api/v1/sessions").header("Idempotency-Key", key).POST(body(payload)));
+        HttpResponse<String> retry = send(api("/api/v1/sessions").header("Idempotency-Key", key).POST(body(payload)));
+        expect(first, 201);
+        expect(retry, 201);
+        expect(json(first).path("id").equals(json(retry).path("id")), "retry created another session");
+    }
+
+    private void streamMessages() throws Exception {
+        HttpResponse<String> response = send(api("/api/v1/stream/sessions/" + sessionId + "/messages")
+            .header("Accept", "application/x-ndjson").GET());
+        expect(response, 200);
+        expect(response.body().lines().filter(line -> !line.isBlank()).count() == 2, "body " + response.body());
+    }
+
+    private void bulkImport() throws Exception {
+        String line = "{\"userId\":\"" + userId + "\",\"title\":\"Imported\",\"messages\":"
+            + "[{\"sender\":\"user\",\"content\":\"Old question\",\"timestamp\":\"2024-03-01T10:00:00\"}]}\n";
+        HttpResponse<String> response = send(api("/api/v1/admin/imports")
+            .setHeader("Content-Type", "application/x-ndjson")
+            .POST(HttpRequest.BodyPublishers.ofString(line)));
+        expect(response, 200);
+        JsonNode result = json(response);
+        expect(result.path("completed").asBoolean() && result.path("messagesImported").asLong() == 1,
+            "result " + response.body());
+    }
+
+    private void metrics() throws Exception {
+        HttpResponse<String> response = send(request("/actuator/prometheus").header("X-API-Key", apiKey).GET());
+        expect(response, 200);
+        expect(response.body().contains("ragstore_"), "no ragstore metrics");
+    }
+
+    private void grpcReadMessages(int port) throws Exception {
+        URI uri = URI.create(baseUrl);
+        ManagedChannel channel = ManagedChannelBuilder.forAddress(uri.getHost(), port).usePlaintext().build();
+        try {
+            Metadata headers = new Metadata();
+            headers.put(Metadata.Key.of("x-api-key", Metadata.ASCII_STRING_MARSHALLER), apiKey);
+            Iterator<ChatMessage> messages = ChatStorageGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                .withDeadlineAfter(10, TimeUnit.SECONDS)
+                .readMessages(ReadMessagesRequest.newBuilder().setSessionId(sessionId).build());
+            int count = 0;
+            while (messages.hasNext()) {
+                ChatMessage message = messages.next();
+                expect(message.getTimestamp().getSeconds() > 0, "message without timestamp: " + message);
+                count++;
+            }
+            expect(count == 2, "expected 2 messages, got " + count);
+        } finally {
+            channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private void deleteSession() throws Exception {
+        expect(send(api("/api/v1/sessions/" + sessionId).DELETE()), 204);
+        expect(send(api("/api/v1/sessions/" + sessionId).GET()), 404);
+    }
+
+    private String messagesPath() {
+        return "/api/v1/sessions/" + sessionId + "/messages";
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest.Builder api(String path) {
+        return request(path).header("X-API-Key", apiKey).header("Content-Type", JSON);
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws Exception {
+        return objectMapper.readTree(response.body());
+    }
+
+    private static void expect(HttpResponse<String> response, int status) {
+        expect(response.statusCode() == status, "expected status " + status + " but got " + response.statusCode()
+            + ": " + response.body());
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[smoke] " + String.format(format, args));
+    }
+}
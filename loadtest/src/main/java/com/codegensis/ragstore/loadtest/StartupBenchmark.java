@@ -0,0 +1,401 @@
+package com.codegensis.ragstore.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.ZipFile;
+
+/**
+ * Starts the service in a fresh process per run and reports, for each startup mode, the time
+ * from launch until the readiness probe answers {@code UP} and until the first API request
+ * (creating a session) has been answered, the resident set size after startup and after a
+ * closed-loop throughput phase, and the throughput reached.
+ *
+ * <pre>
+ * ./mvnw -Pfast-startup package -DskipTests
+ * java -Dloader.main=com.codegensis.ragstore.loadtest.StartupBenchmark -jar loadtest/target/loadtest.jar \
+ *   --jar=target/ragstore-0.0.1-SNAPSHOT-exec.jar --runs=3
+ * </pre>
+ *
+ * The AOT modes need a jar built with {@code -Pfast-startup} and are skipped otherwise. The
+ * class-data-sharing archive is recorded by one training run of the extracted jar before the
+ * {@code fast-startup-aot-cds} runs. {@code --native=target/ragstore} adds the {@code native}
+ * mode for a binary built with {@code -Pnative}. Resident set size is read from {@code /proc}
+ * and reported as -1 elsewhere.
+ */
+public final class StartupBenchmark {
+
+    private static final String AOT_INITIALIZER =
+        "BOOT-INF/classes/com/codegensis/ragstore/RagstoreApplication__ApplicationContextInitializer.class";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(5);
+    private static final long POLL_MILLIS = 10;
+    private static final int MESSAGES_READ = 20;
+
+    enum Mode {
+        DEFAULT("default", false, false, false),
+        FAST_STARTUP("fast-startup", true, false, false),
+        FAST_STARTUP_AOT("fast-startup-aot", true, true, false),
+        FAST_STARTUP_AOT_CDS("fast-startup-aot-cds", true, true, true),
+        // Compiled ahead of time already; lazy initialisation would only move work to the first requests
+        NATIVE("native", false, false, false);
+
+        private final String key;
+        private final boolean fastStartupProfile;
+        private final boolean aot;
+        private final boolean cds;
+
+        Mode(String key, boolean fastStartupProfile, boolean aot, boolean cds) {
+            this.key = key;
+            this.fastStartupProfile = fastStartupProfile;
+            this.aot = aot;
+            this.cds = cds;
+        }
+
+        static Mode fromKey(String key) {
+            return Arrays.stream(values())
+                .filter(mode -> mode.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown mode: " + key));
+        }
+    }
+
+    private record Sample(long readyMillis, long firstRequestMillis, long readyRssKb, long loadedRssKb,
+                          double requestsPerSecond) {
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Path jar;
+    private final Path nativeBinary;
+    private final Path workDirectory;
+    private final Duration throughputPhase;
+    private final int throughputThreads;
+    private final String apiKey = UUID.randomUUID().toString();
+
+    private StartupBenchmark(Path jar, Path nativeBinary, Path workDirectory, Duration throughputPhase,
+                             int throughputThreads) {
+        this.jar = jar;
+        this.nativeBinary = nativeBinary;
+        this.workDirectory = workDirectory;
+        this.throughputPhase = throughputPhase;
+        this.throughputThreads = throughputThreads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        Path jar = Path.of(options.getOrDefault("jar", "../target/ragstore-0.0.1-SNAPSHOT-exec.jar")).toAbsolutePath();
+        Path nativeBinary = options.containsKey("native") ? Path.of(options.get("native")).toAbsolutePath() : null;
+        int runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        String defaultModes = "default,fast-startup,fast-startup-aot,fast-startup-aot-cds" + (nativeBinary != null ? ",native" : "");
+        List<Mode> modes = Arrays.stream(options.getOrDefault("modes", defaultModes).split(","))
+            .map(String::trim)
+            .map(Mode::fromKey)
+            .toList();
+        Path reportPath = Path.of(options.getOrDefault("report", "startup-report.json"));
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalArgumentException("Service jar not found: " + jar);
+        }
+        if (modes.contains(Mode.NATIVE) && (nativeBinary == null || !Files.isExecutable(nativeBinary))) {
+            throw new IllegalArgumentException("The native mode needs --native=<executable built with -Pnative>");
+        }
+
+        StartupBenchmark benchmark = new StartupBenchmark(jar, nativeBinary, Files.createTempDirectory("ragstore-startup"),
+            Duration.ofSeconds(Long.parseLong(options.getOrDefault("throughput-seconds", "10"))),
+            Integer.parseInt(options.getOrDefault("throughput-threads", "4")));
+        ObjectNode report = benchmark.run(modes, runs);
+        benchmark.objectMapper.writeValue(reportPath.toFile(), report);
+        log("%s", benchmark.objectMapper.writeValueAsString(report.get("modes")));
+        log("Report written to %s", reportPath.toAbsolutePath());
+    }
+
+    private ObjectNode run(List<Mode> modes, int runs) throws Exception {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("generatedAt", Instant.now().toString());
+        report.put("jar", jar.toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("runs", runs);
+        report.put("throughputSeconds", throughputPhase.toSeconds());
+        report.put("throughputThreads", throughputThreads);
+        ObjectNode results = report.putObject("modes");
+
+        boolean aotProcessed = hasAotInitializer();
+        for (Mode mode : modes) {
+            if (mode.aot && !aotProcessed) {
+                log("Skipping %s: %s was not built with -Pfast-startup", mode.key, jar.getFileName());
+                continue;
+            }
+            List<String> command = command(mode);
+            List<Sample> samples = new ArrayList<>();
+            for (int run = 1; run <= runs; run++) {
+                Sample sample = measure(command);
+                log("%s run %d: ready after %d ms, first request answered after %d ms, %.0f req/s, RSS %d/%d MB",
+                    mode.key, run, sample.readyMillis(), sample.firstRequestMillis(), sample.requestsPerSecond(),
+                    sample.readyRssKb() / 1024, sample.loadedRssKb() / 1024);
+                samples.add(sample);
+            }
+            results.set(mode.key, modeNode(samples));
+        }
+        return report;
+    }
+
+    private List<String> command(Mode mode) throws Exception {
+        if (mode == Mode.NATIVE) {
+            return new ArrayList<>(List.of(nativeBinary.toString(), "--spring.profiles.active=prod"));
+        }
+        List<String> command = new ArrayList<>(List.of(javaExecutable()));
+        Path runJar = jar;
+        if (mode.cds) {
+            runJar = extractedJar();
+            Path archive = workDirectory.resolve("ragstore.jsa");
+            if (!Files.exists(archive)) {
+                train(runJar, archive);
+            }
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        if (mode.aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", runJar.toString()));
+        command.add("--spring.profiles.active=" + (mode.fastStartupProfile ? "prod,fast-startup" : "prod"));
+        return command;
+    }
+
+    /** Launches the service, polls readiness, times one API request, then measures throughput. */
+    private Sample measure(List<String> command) throws Exception {
+        int port = freePort();
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.addAll(serviceArguments(port));
+        String baseUrl = "http://localhost:" + port;
+
+        long start = System.nanoTime();
+        Process process = start(fullCommand, "service.log");
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (status(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).GET()) != 200) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Service exited with " + process.exitValue() + ", see "
+                        + workDirectory.resolve("service.log"));
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Service not ready after " + STARTUP_TIMEOUT);
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            long ready = System.nanoTime();
+
+            HttpResponse<String> created = client.send(api(baseUrl + "/api/v1/sessions")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"userId\":\"startup_user\",\"title\":\"Startup\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+            long firstRequest = System.nanoTime();
+            if (created.statusCode() != 201) {
+                throw new IllegalStateException("First request answered with status " + created.statusCode());
+            }
+            long readyRss = residentSetKb(process);
+
+            long sessionId = objectMapper.readTree(created.body()).path("id").asLong();
+            double requestsPerSecond = throughput(baseUrl, sessionId);
+            return new Sample(TimeUnit.NANOSECONDS.toMillis(ready - start), TimeUnit.NANOSECONDS.toMillis(firstRequest - start),
+                readyRss, residentSetKb(process), requestsPerSecond);
+        } finally {
+            stop(process);
+        }
+    }
+
+    /**
+     * Reads a page of {@value #MESSAGES_READ} messages from {@code throughputThreads} threads
+     * back to back for the throughput phase, and returns the successful reads per second.
+     */
+    private double throughput(String baseUrl, long sessionId) throws Exception {
+        if (throughputPhase.isZero()) {
+            return 0;
+        }
+        String messages = baseUrl + "/api/v1/sessions/" + sessionId + "/messages";
+        for (int i = 0; i < MESSAGES_READ; i++) {
+            client.send(api(messages).POST(HttpRequest.BodyPublishers.ofString(
+                "{\"sender\":\"assistant\",\"content\":\"Startup benchmark answer " + i + "\"}")).build(),
+                HttpResponse.BodyHandlers.discarding());
+        }
+        HttpRequest read = api(messages + "?size=" + MESSAGES_READ).GET().build();
+        long deadline = System.nanoTime() + throughputPhase.toNanos();
+        LongAdder completed = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < throughputThreads; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        if (client.send(read, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                            completed.increment();
+                        }
+                    } catch (IOException e) {
+                        // Counted as a missing completion
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return completed.sum() / (double) throughputPhase.toSeconds();
+    }
+
+    /** Records the classes loaded while the context starts, with lazy initialization off so all are loaded. */
+    private void train(Path extractedJar, Path archive) throws Exception {
+        log("Recording class data sharing archive %s", archive);
+        List<String> command = new ArrayList<>(List.of(javaExecutable(),
+            "-XX:ArchiveClassesAtExit=" + archive,
+            "-Dspring.context.exit=onRefresh",
+            "-Dspring.aot.enabled=true",
+            "-jar", extractedJar.toString(),
+            "--spring.profiles.active=prod,fast-startup",
+            "--spring.main.lazy-initialization=false"));
+        command.addAll(serviceArguments(freePort()));
+        Process process = start(command, "training.log");
+        if (!process.waitFor(STARTUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || !Files.exists(archive)) {
+            stop(process);
+            throw new IllegalStateException("Training run failed, see " + workDirectory.resolve("training.log"));
+        }
+    }
+
+    private Path extractedJar() throws Exception {
+        Path destination = workDirectory.resolve("extracted");
+        if (!Files.exists(destination)) {
+            Process process = start(List.of(javaExecutable(), "-Djarmode=tools", "-jar", jar.toString(),
+                "extract", "--destination", destination.toString()), "extract.log");
+            if (process.waitFor() != 0) {
+                throw new IllegalStateException("Extracting " + jar + " failed, see " + workDirectory.resolve("extract.log"));
+            }
+        }
+        return destination.resolve(jar.getFileName());
+    }
+
+    /** A fresh in-memory database each run, so every mode pays for the same migrations. */
+    private List<String> serviceArguments(int port) {
+        return List.of(
+            "--server.port=" + port,
+            "--app.grpc.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:startup",
+            "--app.api.key.primary=" + apiKey,
+            "--app.api.key.secondary=",
+            "--app.rate-limit.api-key-per-minute=" + Integer.MAX_VALUE,
+            "--app.rate-limit.api-key-bytes-per-minute=0");
+    }
+
+    private HttpRequest.Builder api(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .header("X-API-Key", apiKey)
+            .header("Content-Type", "application/json");
+    }
+
+    private Process start(List<String> command, String logName) throws IOException {
+        return new ProcessBuilder(command)
+            .directory(workDirectory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(workDirectory.resolve(logName).toFile())
+            .start();
+    }
+
+    private int status(HttpRequest.Builder request) throws Exception {
+        try {
+            return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+        } catch (ConnectException e) {
+            return -1;
+        }
+    }
+
+    private boolean hasAotInitializer() throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            return zip.getEntry(AOT_INITIALIZER) != null;
+        }
+    }
+
+    private ObjectNode modeNode(List<Sample> samples) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.set("readyMs", statsNode(samples.stream().mapToLong(Sample::readyMillis).sorted().toArray()));
+        node.set("firstRequestMs", statsNode(samples.stream().mapToLong(Sample::firstRequestMillis).sorted().toArray()));
+        node.set("readyRssKb", statsNode(samples.stream().mapToLong(Sample::readyRssKb).sorted().toArray()));
+        node.set("loadedRssKb", statsNode(samples.stream().mapToLong(Sample::loadedRssKb).sorted().toArray()));
+        node.set("requestsPerSecond", statsNode(samples.stream()
+            .mapToLong(sample -> Math.round(sample.requestsPerSecond())).sorted().toArray()));
+        return node;
+    }
+
+    private ObjectNode statsNode(long[] sorted) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("median", sorted[sorted.length / 2]);
+        node.put("min", sorted[0]);
+        node.put("max", sorted[sorted.length - 1]);
+        ArrayNode all = node.putArray("runs");
+        Arrays.stream(sorted).forEach(all::add);
+        return node;
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private static long residentSetKb(Process process) {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        try {
+            return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1);
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String javaExecutable() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[startup] " + String.format(format, args));
+    }
+}
@@ -1,9 +1,12 @@
 package com.codegensis.ragstore;
 
+import com.codegensis.ragstore.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class RagstoreApplication {
 
 	public static void main(String[] args) {
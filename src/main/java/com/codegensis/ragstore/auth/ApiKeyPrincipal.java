@@ -0,0 +1,25 @@
+package com.codegensis.ragstore.auth;
+
+import java.util.Set;
+
+/**
+ * The verified identity behind an {@code X-API-Key} header. {@code keyId} is {@code null} for
+ * the bootstrap keys from configuration; {@code requestsPerMinute} is {@code null} when the key
+ * uses the service-wide rate limit.
+ */
+public record ApiKeyPrincipal(Long keyId, String tenantId, String name, Set<String> scopes,
+                              Integer requestsPerMinute) {
+    
+    public static final String SCOPE_READ = "read";
+    public static final String SCOPE_WRITE = "write";
+    public static final String SCOPE_ADMIN = "admin";
+    public static final Set<String> ALL_SCOPES = Set.of(SCOPE_READ, SCOPE_WRITE, SCOPE_ADMIN);
+    
+    public ApiKeyPrincipal {
+        scopes = Set.copyOf(scopes);
+    }
+    
+    public boolean hasScope(String scope) {
+        return scopes.contains(scope);
+    }
+}
@@ -0,0 +1,54 @@
+package com.codegensis.ragstore.auth;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.service.ApiKeyService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies the request's {@code X-API-Key} header once per request. The first filter that asks
+ * (rate limiting, for the key's own limit) stores the outcome as a request attribute and the
+ * authentication filter reuses it, the same way {@code RouteClassifier} shares its route.
+ */
+@Component
+public class ApiKeyResolver {
+    
+    public static final String PRINCIPAL_ATTRIBUTE = ApiKeyResolver.class.getName() + ".PRINCIPAL";
+    
+    private static final Object UNKNOWN = new Object();
+    
+    private final ApiKeyService apiKeyService;
+    
+    public ApiKeyResolver(ApiKeyService apiKeyService) {
+        this.apiKeyService = apiKeyService;
+    }
+    
+    /**
+     * Whether resolving the request's key needs no database query: it was resolved already, is
+     * missing, or is a bootstrap or cached key.
+     */
+    public boolean isResolvedWithoutLookup(HttpServletRequest request) {
+        if (request.getAttribute(PRINCIPAL_ATTRIBUTE) != null) {
+            return true;
+        }
+        String apiKey = request.getHeader(ApiConstants.API_KEY_HEADER);
+        return apiKey == null || apiKey.isBlank() || apiKeyService.findCached(apiKey) != null;
+    }
+    
+    /** Principal for the request's key, or {@code null} if the key is missing, unknown or revoked. */
+    public ApiKeyPrincipal resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(PRINCIPAL_ATTRIBUTE);
+        if (cached instanceof ApiKeyPrincipal principal) {
+            return principal;
+        }
+        if (cached == UNKNOWN) {
+            return null;
+        }
+        String apiKey = request.getHeader(ApiConstants.API_KEY_HEADER);
+        ApiKeyPrincipal principal = apiKey == null || apiKey.isBlank()
+            ? null
+            : apiKeyService.authenticate(apiKey).orElse(null);
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal != null ? principal : UNKNOWN);
+        return principal;
+    }
+}
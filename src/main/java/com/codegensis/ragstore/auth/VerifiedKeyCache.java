@@ -0,0 +1,155 @@
+package com.codegensis.ragstore.auth;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent key verification results, keyed by key hash so raw keys are never retained. Valid keys
+ * are kept for the TTL and unknown keys for a shorter negative TTL, which keeps repeated bad
+ * keys off the database without locking a newly created key out for long.
+ * <p>
+ * Each kind has its own region of up to {@code maxEntries}, so unknown keys can never push
+ * valid ones out. Unknown keys all live for the same negative TTL, so their region is kept in
+ * insertion order, which is also expiry order: when it is full the oldest is dropped, in
+ * constant time. When the valid region is full, expired entries are swept first, then an
+ * arbitrary entry makes room.
+ */
+public class VerifiedKeyCache {
+    
+    private final Map<String, Entry> valid = new ConcurrentHashMap<>();
+    // Guarded by itself; values are expiry times
+    private final LinkedHashMap<String, Long> unknown;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    public VerifiedKeyCache(int maxEntries, Duration ttl, Duration negativeTtl) {
+        this(maxEntries, ttl, negativeTtl, System::currentTimeMillis);
+    }
+    
+    VerifiedKeyCache(int maxEntries, Duration ttl, Duration negativeTtl, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.clock = clock;
+        this.unknown = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    /** Cached result, or {@code null} on a miss; a hit for an unknown key has no principal. */
+    public Entry get(String keyHash) {
+        long now = clock.getAsLong();
+        Entry entry = valid.get(keyHash);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.increment();
+            return entry;
+        }
+        Long unknownUntil;
+        synchronized (unknown) {
+            unknownUntil = unknown.get(keyHash);
+        }
+        if (unknownUntil != null && unknownUntil > now) {
+            hits.increment();
+            return new Entry(null, unknownUntil);
+        }
+        misses.increment();
+        return null;
+    }
+    
+    /** Like {@link #get} but not counted as a hit or miss, for checking ahead of a lookup. */
+    public Entry peek(String keyHash) {
+        long now = clock.getAsLong();
+        Entry entry = valid.get(keyHash);
+        if (entry != null && entry.expiresAt() > now) {
+            return entry;
+        }
+        Long unknownUntil;
+        synchronized (unknown) {
+            unknownUntil = unknown.get(keyHash);
+        }
+        return unknownUntil != null && unknownUntil > now ? new Entry(null, unknownUntil) : null;
+    }
+    
+    /** Caches a verification result; {@code principal} is {@code null} for an unknown key. */
+    public void put(String keyHash, ApiKeyPrincipal principal) {
+        long now = clock.getAsLong();
+        if (principal == null) {
+            valid.remove(keyHash);
+            synchronized (unknown) {
+                // Re-inserted at the end, so the order stays the expiry order
+                unknown.remove(keyHash);
+                unknown.put(keyHash, now + negativeTtlMillis);
+            }
+            return;
+        }
+        synchronized (unknown) {
+            unknown.remove(keyHash);
+        }
+        if (valid.size() >= maxEntries && !valid.containsKey(keyHash)) {
+            makeRoom(now);
+        }
+        valid.put(keyHash, new Entry(principal, now + ttlMillis));
+    }
+    
+    public void invalidate(String keyHash) {
+        valid.remove(keyHash);
+        synchronized (unknown) {
+            unknown.remove(keyHash);
+        }
+    }
+    
+    public void clear() {
+        valid.clear();
+        synchronized (unknown) {
+            unknown.clear();
+        }
+    }
+    
+    public int size() {
+        synchronized (unknown) {
+            return valid.size() + unknown.size();
+        }
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    private void makeRoom(long now) {
+        valid.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (valid.size() < maxEntries) {
+            return;
+        }
+        Iterator<String> keys = valid.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+    
+    public record Entry(ApiKeyPrincipal principal, long expiresAt) {
+        
+        public boolean valid() {
+            return principal != null;
+        }
+    }
+}
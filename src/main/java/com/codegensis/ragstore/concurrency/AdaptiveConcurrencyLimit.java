@@ -0,0 +1,92 @@
+package com.codegensis.ragstore.concurrency;
+
+/**
+ * Estimates how many requests the service can work on at once from the latencies it observes,
+ * in the style of the gradient limiters: the average latency of each batch of samples is
+ * compared with a slow-moving baseline, and the limit shrinks by the ratio when requests start
+ * queueing behind a slow database, or grows by a small queue allowance while latency holds.
+ * <p>
+ * Updates are smoothed and clamped to {@code [minLimit, maxLimit]}. The limit is not raised
+ * while fewer than half the permits are in use, since latency then says nothing about how much
+ * more load the service could take.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final int SAMPLES_PER_UPDATE = 10;
+    // Baseline averages roughly the last 100 batches, i.e. 1000 requests
+    private static final double BASELINE_WEIGHT = 2.0 / 101;
+    // Latency may rise by half before the limit shrinks
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double baselineNanos;
+    private long batchNanos;
+    private int batchSamples;
+    private int batchMaxInFlight;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /** Baseline latency in nanoseconds, 0 until the first batch completes. */
+    public synchronized long getBaselineNanos() {
+        return (long) baselineNanos;
+    }
+
+    /**
+     * Records one completed request.
+     *
+     * @param rttNanos time the request spent inside the limiter
+     * @param inFlight requests in flight when it started, including itself
+     */
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        batchNanos += Math.max(1L, rttNanos);
+        batchMaxInFlight = Math.max(batchMaxInFlight, inFlight);
+        if (++batchSamples < SAMPLES_PER_UPDATE) {
+            return;
+        }
+        double shortNanos = (double) batchNanos / batchSamples;
+        int maxInFlight = batchMaxInFlight;
+        batchNanos = 0L;
+        batchSamples = 0;
+        batchMaxInFlight = 0;
+
+        if (baselineNanos == 0.0) {
+            baselineNanos = shortNanos;
+        } else {
+            baselineNanos += (shortNanos - baselineNanos) * BASELINE_WEIGHT;
+            if (baselineNanos > 2 * shortNanos) {
+                // Latency recovered after a long slowdown; let the baseline catch up faster
+                baselineNanos *= 0.95;
+            }
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, TOLERANCE * baselineNanos / shortNanos));
+        if (gradient == 1.0 && maxInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = clamp(estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING);
+        limit = (int) estimatedLimit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
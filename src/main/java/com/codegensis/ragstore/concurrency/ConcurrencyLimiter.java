@@ -0,0 +1,97 @@
+package com.codegensis.ragstore.concurrency;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests while fewer than the adaptive limit are in flight. Reads and writes each have
+ * a guaranteed share of the limit: a partition below its share is always admitted, even when
+ * the other partition has used up the rest, so a burst of history reads cannot starve message
+ * writes or the other way round. A partition may borrow capacity the other leaves unused.
+ */
+@Component
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimiter {
+
+    public enum Partition {
+        READ, WRITE;
+
+        public static Partition of(String method) {
+            return switch (method) {
+                case "GET", "HEAD", "OPTIONS" -> READ;
+                default -> WRITE;
+            };
+        }
+    }
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger[] partitionInFlight = {new AtomicInteger(), new AtomicInteger()};
+    private final LongAdder[] rejected = {new LongAdder(), new LongAdder()};
+    private final double[] shares;
+
+    public ConcurrencyLimiter(@Value("${app.concurrency-limit.initial-limit:20}") int initialLimit,
+                              @Value("${app.concurrency-limit.min-limit:4}") int minLimit,
+                              @Value("${app.concurrency-limit.max-limit:200}") int maxLimit,
+                              @Value("${app.concurrency-limit.write-share:0.3}") double writeShare) {
+        if (writeShare < 0.0 || writeShare > 1.0) {
+            throw new IllegalArgumentException("Write share must be between 0 and 1");
+        }
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        this.shares = new double[] {1.0 - writeShare, writeShare};
+    }
+
+    /**
+     * Takes a permit, or returns -1 when the request should be shed. A non-negative result is
+     * the number of requests in flight including this one, to be passed back to
+     * {@link #release(Partition, int, long)}.
+     */
+    public int tryAcquire(Partition partition) {
+        int current = limit.getLimit();
+        int total = inFlight.incrementAndGet();
+        int own = partitionInFlight[partition.ordinal()].incrementAndGet();
+        if (total > current && own > Math.ceil(current * shares[partition.ordinal()])) {
+            inFlight.decrementAndGet();
+            partitionInFlight[partition.ordinal()].decrementAndGet();
+            rejected[partition.ordinal()].increment();
+            return -1;
+        }
+        return total;
+    }
+
+    /** Returns a permit and feeds the request's latency into the limit. */
+    public void release(Partition partition, int inFlightAtStart, long rttNanos) {
+        release(partition);
+        limit.onSample(rttNanos, inFlightAtStart);
+    }
+
+    /** Returns a permit without a latency sample, for requests that went async. */
+    public void release(Partition partition) {
+        inFlight.decrementAndGet();
+        partitionInFlight[partition.ordinal()].decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getInFlight(Partition partition) {
+        return partitionInFlight[partition.ordinal()].get();
+    }
+
+    public long getRejected(Partition partition) {
+        return rejected[partition.ordinal()].sum();
+    }
+
+    public long getBaselineNanos() {
+        return limit.getBaselineNanos();
+    }
+}
@@ -28,7 +28,7 @@ public class CorsConfig {
         }
         
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Content-Type", "X-API-Key"));
+        configuration.setAllowedHeaders(Arrays.asList("Content-Type", "X-API-Key", "Idempotency-Key"));
         configuration.setAllowCredentials(false);
         configuration.setMaxAge(3600L);
         
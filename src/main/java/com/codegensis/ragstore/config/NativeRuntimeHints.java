@@ -0,0 +1,100 @@
+package com.codegensis.ragstore.config;
+
+import com.codegensis.ragstore.draft.DraftEvent;
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import com.codegensis.ragstore.dto.response.ImportResult;
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SessionListResponse;
+import com.codegensis.ragstore.dto.response.SessionResponse;
+import com.codegensis.ragstore.entity.ApiKey;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.exception.ErrorResponse;
+import com.codegensis.ragstore.filter.ApiKeyAuthenticationFilter;
+import com.codegensis.ragstore.filter.ConcurrencyLimitFilter;
+import com.codegensis.ragstore.filter.RateLimitFilter;
+import com.codegensis.ragstore.filter.RequestLoggingFilter;
+import com.codegensis.ragstore.grpc.v1.AppendMessageRequest;
+import com.codegensis.ragstore.grpc.v1.AppendMessagesResponse;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import com.codegensis.ragstore.grpc.v1.ReadMessagesRequest;
+import com.codegensis.ragstore.grpc.v1.WatchSessionRequest;
+import com.codegensis.ragstore.importer.ImportedSession;
+import com.google.protobuf.Timestamp;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the native image, for what Spring AOT cannot see from
+ * the bean definitions: Hibernate instantiating entities and the sender converter, Flyway
+ * scanning its scripts, Caffeine's JCache provider reading its {@code reference.conf},
+ * {@code spring.factories} entries created before the context exists, Jackson binding bodies
+ * whose type is only known at runtime, and protobuf's reflective field accessors.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String MIGRATIONS_PATTERN = "db/migration/*.sql";
+
+    static final String CACHE_CONFIG_RESOURCE = "reference.conf";
+
+    static final List<Class<?>> ENTITIES = List.of(Session.class, Message.class, ApiKey.class);
+
+    // Servlet filters are initialised through a BeanWrapper, which introspects their properties
+    static final List<Class<?>> FILTERS = List.of(RateLimitFilter.class, ApiKeyAuthenticationFilter.class,
+        ConcurrencyLimitFilter.class, RequestLoggingFilter.class);
+
+    // Returned as ResponseEntity<?>, replayed by IdempotentExecutor, sent as untyped server-sent
+    // event data, or read and written by the importer
+    static final List<Class<?>> BOUND_TYPES = List.of(SessionResponse.class, SessionListResponse.class,
+        MessageResponse.class, MessagePageResponse.class, DraftResponse.class, DraftEvent.Delta.class,
+        DraftEvent.Discarded.class, ErrorResponse.class, ImportedSession.class, ImportResult.class);
+
+    static final List<Class<?>> PROTOBUF_MESSAGES = List.of(AppendMessageRequest.class, AppendMessagesResponse.class,
+        ChatMessage.class, ReadMessagesRequest.class, WatchSessionRequest.class, Timestamp.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : ENTITIES) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        hints.reflection().registerType(Message.Sender.Converter.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.resources().registerPattern(MIGRATIONS_PATTERN);
+        hints.resources().registerPattern(CACHE_CONFIG_RESOURCE);
+
+        hints.resources().registerPattern("META-INF/spring.factories");
+        hints.reflection().registerType(DotenvPropertySource.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        for (Class<?> filter : FILTERS) {
+            hints.reflection().registerType(filter, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+            BOUND_TYPES.toArray(Class<?>[]::new));
+
+        for (Class<?> message : PROTOBUF_MESSAGES) {
+            registerProtobufMessage(hints, message);
+            registerProtobufMessage(hints, builderOf(message));
+        }
+    }
+
+    private static void registerProtobufMessage(RuntimeHints hints, Class<?> type) {
+        hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+    }
+
+    private static Class<?> builderOf(Class<?> message) {
+        for (Class<?> nested : message.getDeclaredClasses()) {
+            if (nested.getSimpleName().equals("Builder")) {
+                return nested;
+            }
+        }
+        throw new IllegalStateException(message.getName() + " has no Builder");
+    }
+}
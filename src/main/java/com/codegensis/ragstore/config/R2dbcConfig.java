@@ -0,0 +1,63 @@
+package com.codegensis.ragstore.config;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+/**
+ * Reactive (R2DBC) access to the same H2 database used by the JPA stack.
+ * The R2DBC URL is derived from {@code spring.datasource.url}, so both stacks share one
+ * embedded database instance, its schema and its Flyway migrations.
+ * The pool is deliberately not exposed as a {@code ConnectionFactory} bean: doing so would
+ * switch off Spring Boot's JDBC DataSource auto-configuration that JPA and Flyway rely on.
+ */
+@Configuration
+public class R2dbcConfig implements DisposableBean {
+    
+    private static final String JDBC_H2_PREFIX = "jdbc:h2:";
+    
+    private final ConnectionPool connectionPool;
+    
+    public R2dbcConfig(@Value("${spring.datasource.url}") String jdbcUrl,
+                       @Value("${spring.datasource.username:sa}") String username,
+                       @Value("${spring.datasource.password:}") String password,
+                       @Value("${app.reactive.pool.initial-size:2}") int initialSize,
+                       @Value("${app.reactive.pool.max-size:20}") int maxSize) {
+        H2ConnectionConfiguration configuration = H2ConnectionConfiguration.builder()
+                .url(toH2Url(jdbcUrl))
+                .username(username)
+                .password(password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(new H2ConnectionFactory(configuration))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+    }
+    
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+    
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+    
+    static String toH2Url(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(JDBC_H2_PREFIX)) {
+            throw new IllegalStateException("Reactive access requires an H2 JDBC URL, got: " + jdbcUrl);
+        }
+        return jdbcUrl.substring(JDBC_H2_PREFIX.length());
+    }
+}
@@ -1,40 +1,111 @@
 package com.codegensis.ragstore.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import com.codegensis.ragstore.ratelimit.LeasedRateLimiter;
+import com.codegensis.ragstore.ratelimit.RateLimitStore;
+import com.codegensis.ragstore.ratelimit.RateLimitTable;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * API key rate limiting over two bandwidths: route-weighted request tokens and request body
+ * bytes. In {@code local} mode each instance enforces the limits on its own tables; in
+ * {@code distributed} mode instances share buckets through a {@link RateLimitStore} and the
+ * local tables are only used while the store is unreachable.
+ * <p>
+ * Requests whose key does not authenticate are charged per client address on a table of their
+ * own, on this instance only, so spraying made-up keys never reaches the shared store.
+ */
 @Configuration
 public class RateLimitConfig {
     
+    public static final String MODE_LOCAL = "local";
+    public static final String MODE_DISTRIBUTED = "distributed";
+    
     private static final Duration REFILL_DURATION = Duration.ofMinutes(1);
     
     private final int apiKeyPerMinute;
-    private final Map<String, Bucket> apiKeyBuckets = new ConcurrentHashMap<>();
+    private final int apiKeyBytesPerMinute;
+    private final RateLimitTable apiKeyTable;
+    private final RateLimitTable apiKeyByteTable;
+    private final RateLimitTable unknownKeyTable;
     
-    public RateLimitConfig(@Value("${app.rate-limit.api-key-per-minute}") int apiKeyPerMinute) {
+    public RateLimitConfig(@Value("${app.rate-limit.api-key-per-minute}") int apiKeyPerMinute,
+                           @Value("${app.rate-limit.api-key-bytes-per-minute:0}") int apiKeyBytesPerMinute,
+                           @Value("${app.rate-limit.table-capacity:65536}") int tableCapacity) {
         this.apiKeyPerMinute = apiKeyPerMinute;
+        this.apiKeyBytesPerMinute = apiKeyBytesPerMinute;
+        this.apiKeyTable = new RateLimitTable(tableCapacity, apiKeyPerMinute, REFILL_DURATION);
+        this.apiKeyByteTable = apiKeyBytesPerMinute > 0
+            ? new RateLimitTable(tableCapacity, apiKeyBytesPerMinute, REFILL_DURATION)
+            : null;
+        this.unknownKeyTable = new RateLimitTable(tableCapacity, apiKeyPerMinute, REFILL_DURATION);
+    }
+    
+    @Bean
+    public RateLimiter apiKeyRateLimiter(@Value("${app.rate-limit.mode:local}") String mode,
+                                         @Value("${app.rate-limit.distributed.prefetch:10}") int prefetch,
+                                         @Value("${app.rate-limit.distributed.sync-interval:1s}") Duration syncInterval,
+                                         ObjectProvider<RateLimitStore> store) {
+        return limiter(mode, "requests", apiKeyTable, apiKeyPerMinute, prefetch, syncInterval, store);
+    }
+    
+    /** Prefetches the same share of the byte budget as {@code prefetch} is of the request budget. */
+    @Bean
+    public RateLimiter apiKeyByteRateLimiter(@Value("${app.rate-limit.mode:local}") String mode,
+                                             @Value("${app.rate-limit.distributed.prefetch:10}") int prefetch,
+                                             @Value("${app.rate-limit.distributed.sync-interval:1s}") Duration syncInterval,
+                                             ObjectProvider<RateLimitStore> store) {
+        if (apiKeyByteTable == null) {
+            return RateLimiter.UNLIMITED;
+        }
+        int bytePrefetch = (int) Math.max(1L, (long) apiKeyBytesPerMinute * Math.min(prefetch, apiKeyPerMinute) / apiKeyPerMinute);
+        return limiter(mode, "bytes", apiKeyByteTable, apiKeyBytesPerMinute, bytePrefetch, syncInterval, store);
+    }
+    
+    @Bean
+    public RateLimiter unknownKeyRateLimiter() {
+        return unknownKeyTable;
+    }
+    
+    private static RateLimiter limiter(String mode, String namespace, RateLimitTable table, int limit, int prefetch,
+                                       Duration syncInterval, ObjectProvider<RateLimitStore> store) {
+        if (MODE_LOCAL.equalsIgnoreCase(mode)) {
+            return table;
+        }
+        if (!MODE_DISTRIBUTED.equalsIgnoreCase(mode)) {
+            throw new IllegalStateException("Unknown app.rate-limit.mode: " + mode);
+        }
+        RateLimitStore rateLimitStore = store.getIfAvailable();
+        if (rateLimitStore == null) {
+            throw new IllegalStateException("Distributed rate limiting requires a RateLimitStore bean");
+        }
+        return new LeasedRateLimiter(rateLimitStore, table, namespace, limit, REFILL_DURATION,
+            prefetch, table.capacity(), syncInterval);
+    }
+    
+    public RateLimitTable getApiKeyTable() {
+        return apiKeyTable;
     }
     
-    public Bucket getApiKeyBucket(String apiKey) {
-        return apiKeyBuckets.computeIfAbsent(apiKey, key -> createBucket(apiKeyPerMinute));
+    /** {@code null} when the byte bandwidth is disabled. */
+    public RateLimitTable getApiKeyByteTable() {
+        return apiKeyByteTable;
     }
     
-    private Bucket createBucket(int capacity) {
-        Refill refill = Refill.intervally(capacity, REFILL_DURATION);
-        Bandwidth limit = Bandwidth.classic(capacity, refill);
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    public RateLimitTable getUnknownKeyTable() {
+        return unknownKeyTable;
     }
     
     public void resetBuckets() {
-        apiKeyBuckets.clear();
+        apiKeyTable.clear();
+        unknownKeyTable.clear();
+        if (apiKeyByteTable != null) {
+            apiKeyByteTable.clear();
+        }
     }
 }
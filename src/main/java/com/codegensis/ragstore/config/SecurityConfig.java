@@ -1,9 +1,12 @@
 package com.codegensis.ragstore.config;
 
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
 import com.codegensis.ragstore.filter.ApiKeyAuthenticationFilter;
 import com.codegensis.ragstore.filter.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -33,8 +36,16 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfig.corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches resume streaming responses whose request was already authenticated
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/actuator/health", "/actuator/health/**", "/swagger-ui/**", 
                                 "/v3/api-docs/**", "/swagger-ui.html", "/h2-console/**").permitAll()
+                // Metrics expose every tenant's traffic, and logsampling changes logging for the whole service
+                .requestMatchers("/actuator/**").hasAuthority(scope(ApiKeyPrincipal.SCOPE_ADMIN))
+                .requestMatchers("/api/v1/admin/**").hasAuthority(scope(ApiKeyPrincipal.SCOPE_ADMIN))
+                .requestMatchers(HttpMethod.GET, "/api/**").hasAuthority(scope(ApiKeyPrincipal.SCOPE_READ))
+                .requestMatchers(HttpMethod.HEAD, "/api/**").hasAuthority(scope(ApiKeyPrincipal.SCOPE_READ))
+                .requestMatchers("/api/**").hasAuthority(scope(ApiKeyPrincipal.SCOPE_WRITE))
                 .anyRequest().authenticated()
             );
         
@@ -44,4 +55,8 @@ public class SecurityConfig {
         
         return http.build();
     }
+    
+    private static String scope(String scope) {
+        return ApiKeyAuthenticationFilter.SCOPE_AUTHORITY_PREFIX + scope;
+    }
 }
@@ -0,0 +1,101 @@
+package com.codegensis.ragstore.config;
+
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.repository.SessionRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for {@link Session}: the entity region by id and a query region
+ * for each user's session list, both local Caffeine caches bounded in size and time to live.
+ * Hibernate keeps them in step with its own writes; the time to live bounds how long another
+ * instance's writes can go unseen.
+ * <p>
+ * Every region is created here and Hibernate is told to fail on any other, so no cache grows
+ * without a bound. The update timestamps region is the exception: query results are only
+ * valid while it remembers the last write to their tables, so it never expires.
+ */
+@Configuration
+public class SessionCacheConfig {
+
+    static final String[] REGIONS = {
+        Session.CACHE_REGION,
+        SessionRepository.USER_SESSIONS_CACHE_REGION,
+        RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME
+    };
+
+    // Queries without their own region; none are marked cacheable today
+    private static final long DEFAULT_QUERY_RESULTS_MAX_ENTRIES = 100;
+
+    private final boolean enabled;
+    private final long maxEntries;
+    private final long userQueryMaxEntries;
+    private final Duration ttl;
+
+    public SessionCacheConfig(@Value("${app.session-cache.enabled:true}") boolean enabled,
+                              @Value("${app.session-cache.max-entries:10000}") long maxEntries,
+                              @Value("${app.session-cache.user-query-max-entries:1000}") long userQueryMaxEntries,
+                              @Value("${app.session-cache.ttl:60s}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.userQueryMaxEntries = userQueryMaxEntries;
+        this.ttl = ttl;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CacheManager sessionCacheManager() {
+        // Each application context gets its own manager, and with it its own JMX statistics names
+        URI uri = URI.create("ragstore-session-cache-" + UUID.randomUUID());
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(uri, getClass().getClassLoader());
+        cacheManager.createCache(Session.CACHE_REGION, bounded(maxEntries, ttl));
+        cacheManager.createCache(SessionRepository.USER_SESSIONS_CACHE_REGION, bounded(userQueryMaxEntries, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+            bounded(DEFAULT_QUERY_RESULTS_MAX_ENTRIES, ttl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sessionCacheProperties(CacheManager sessionCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            if (enabled) {
+                // Instances rather than names, so nothing is looked up reflectively
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, new JCacheRegionFactory());
+                properties.put(ConfigSettings.CACHE_MANAGER, sessionCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = unbounded();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return configuration;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate caches immutable disassembled state, so entries need no copying
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -7,6 +7,11 @@ public final class ApiConstants {
     }
     
     public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    // Bulk uploads are metered by rows rather than bytes and run far longer than API requests
+    public static final String IMPORTS_PATH = "/api/v1/admin/imports";
     
     public static final String[] PUBLIC_ENDPOINTS = {
         "/actuator/health",
@@ -30,6 +35,8 @@ public final class ApiConstants {
     public static final int MAX_CONTENT_LENGTH = 10000;
     public static final int MAX_CONTEXT_LENGTH = 51200;
     public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_STREAM_LIMIT = 10000;
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
     
     public static final String USER_ID_PATTERN = "^[a-zA-Z0-9_]+$";
 }
@@ -0,0 +1,65 @@
+package com.codegensis.ragstore.controller;
+
+import com.codegensis.ragstore.dto.request.CreateApiKeyRequest;
+import com.codegensis.ragstore.dto.response.ApiKeyResponse;
+import com.codegensis.ragstore.dto.response.CreatedApiKeyResponse;
+import com.codegensis.ragstore.service.ApiKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/api-keys")
+@Tag(name = "API Keys", description = "Tenant API key administration (requires the admin scope)")
+public class ApiKeyController {
+    
+    private final ApiKeyService apiKeyService;
+    
+    public ApiKeyController(ApiKeyService apiKeyService) {
+        this.apiKeyService = apiKeyService;
+    }
+    
+    @PostMapping
+    @Operation(summary = "Create an API key", description = "Creates a key for a tenant; the key is only returned in this response")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "API key created successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Missing admin scope")
+    })
+    public ResponseEntity<CreatedApiKeyResponse> createApiKey(@Valid @RequestBody CreateApiKeyRequest request) {
+        CreatedApiKeyResponse response = apiKeyService.createApiKey(request);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+    
+    @GetMapping
+    @Operation(summary = "List API keys by tenant", description = "Lists a tenant's keys, including revoked ones")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "API keys retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid tenant ID"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Missing admin scope")
+    })
+    public ResponseEntity<List<ApiKeyResponse>> getApiKeys(@RequestParam String tenantId) {
+        return ResponseEntity.ok(apiKeyService.getApiKeysByTenantId(tenantId));
+    }
+    
+    @DeleteMapping("/{keyId}")
+    @Operation(summary = "Revoke an API key", description = "Revokes a key on all instances within seconds")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "API key revoked successfully"),
+        @ApiResponse(responseCode = "404", description = "API key not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Missing admin scope")
+    })
+    public ResponseEntity<ApiKeyResponse> revokeApiKey(@PathVariable Long keyId) {
+        return ResponseEntity.ok(apiKeyService.revokeApiKey(keyId));
+    }
+}
@@ -0,0 +1,125 @@
+package com.codegensis.ragstore.controller;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.draft.DraftService;
+import com.codegensis.ragstore.dto.request.DraftDeltaRequest;
+import com.codegensis.ragstore.dto.request.FinalizeDraftRequest;
+import com.codegensis.ragstore.dto.request.OpenDraftRequest;
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.idempotency.IdempotentExecutor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/sessions/{sessionId}/drafts")
+@Tag(name = "Drafts", description = "Messages streamed in as they are generated")
+public class DraftController {
+
+    private final DraftService draftService;
+    private final IdempotentExecutor idempotentExecutor;
+
+    public DraftController(DraftService draftService, IdempotentExecutor idempotentExecutor) {
+        this.draftService = draftService;
+        this.idempotentExecutor = idempotentExecutor;
+    }
+
+    @PostMapping
+    @Operation(summary = "Open a draft message",
+        description = "Opens a message to be streamed in by deltas. The sender defaults to assistant")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Draft opened successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid input"),
+        @ApiResponse(responseCode = "404", description = "Session not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "503", description = "Too many drafts are open")
+    })
+    public ResponseEntity<DraftResponse> openDraft(
+            @PathVariable Long sessionId,
+            @Valid @RequestBody OpenDraftRequest request) {
+        DraftResponse response = draftService.open(sessionId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/{draftId}/deltas")
+    @Operation(summary = "Append to a draft",
+        description = "Appends text to the draft in memory. With an offset, a retried delta already applied is ignored")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Delta appended"),
+        @ApiResponse(responseCode = "400", description = "Invalid input or content too long"),
+        @ApiResponse(responseCode = "404", description = "Draft not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "409", description = "The offset does not match the draft's length")
+    })
+    public ResponseEntity<Void> appendDelta(
+            @PathVariable Long sessionId,
+            @PathVariable String draftId,
+            @Valid @RequestBody DraftDeltaRequest request) {
+        draftService.append(sessionId, draftId, request);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    @Operation(summary = "Get open drafts", description = "Retrieves the session's open drafts with their content so far")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Drafts retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Session not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<List<DraftResponse>> getDrafts(@PathVariable Long sessionId) {
+        return ResponseEntity.ok(draftService.getDrafts(sessionId));
+    }
+
+    @GetMapping("/{draftId}")
+    @Operation(summary = "Get draft by ID", description = "Retrieves a draft with its content so far")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Draft retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Draft not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<DraftResponse> getDraft(@PathVariable Long sessionId, @PathVariable String draftId) {
+        return ResponseEntity.ok(draftService.getDraft(sessionId, draftId));
+    }
+
+    @PostMapping("/{draftId}/finalize")
+    @Operation(summary = "Finalize a draft",
+        description = "Stores the draft as a message and closes it. Retries with the same Idempotency-Key replay the first response")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Message created successfully"),
+        @ApiResponse(responseCode = "400", description = "Empty content or invalid context"),
+        @ApiResponse(responseCode = "404", description = "Draft not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
+    })
+    public ResponseEntity<MessageResponse> finalizeDraft(
+            @PathVariable Long sessionId,
+            @PathVariable String draftId,
+            @RequestHeader(value = ApiConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody(required = false) FinalizeDraftRequest request) {
+        FinalizeDraftRequest finalizeRequest = request != null ? request : new FinalizeDraftRequest(null);
+        return idempotentExecutor.execute(idempotencyKey, "finalizeDraft:" + draftId, finalizeRequest,
+            HttpStatus.CREATED, MessageResponse.class,
+            () -> draftService.finalizeDraft(sessionId, draftId, finalizeRequest));
+    }
+
+    @DeleteMapping("/{draftId}")
+    @Operation(summary = "Discard a draft", description = "Closes a draft without storing a message")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Draft discarded"),
+        @ApiResponse(responseCode = "404", description = "Draft not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<Void> discardDraft(@PathVariable Long sessionId, @PathVariable String draftId) {
+        draftService.discard(sessionId, draftId);
+        return ResponseEntity.noContent().build();
+    }
+}
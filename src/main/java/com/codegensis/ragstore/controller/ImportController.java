@@ -0,0 +1,46 @@
+package com.codegensis.ragstore.controller;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.dto.response.ImportResult;
+import com.codegensis.ragstore.importer.BulkImporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping(ApiConstants.IMPORTS_PATH)
+@Tag(name = "Imports", description = "Bulk import of historical conversations (requires the admin scope)")
+public class ImportController {
+    
+    private final BulkImporter bulkImporter;
+    
+    public ImportController(BulkImporter bulkImporter) {
+        this.bulkImporter = bulkImporter;
+    }
+    
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, "application/jsonl", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Import sessions from JSON Lines",
+        description = "Streams one session with its messages per line into the database. Pass a previous result's " +
+            "resumeFromLine as skipLines to continue an interrupted import")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Input fully processed; rejected lines are listed in the result"),
+        @ApiResponse(responseCode = "400", description = "Invalid skipLines"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "403", description = "Missing admin scope"),
+        @ApiResponse(responseCode = "500", description = "Import stopped early; the result says where to resume")
+    })
+    public ResponseEntity<ImportResult> importJsonl(
+            @RequestParam(defaultValue = "0") long skipLines,
+            InputStream body) {
+        ImportResult result = bulkImporter.importJsonl(body, skipLines);
+        HttpStatus status = result.completed() ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR;
+        return ResponseEntity.status(status).body(result);
+    }
+}
@@ -1,57 +1,106 @@
 package com.codegensis.ragstore.controller;
 
+import com.codegensis.ragstore.constant.ApiConstants;
 import com.codegensis.ragstore.dto.request.AddMessageRequest;
 import com.codegensis.ragstore.dto.response.MessagePageResponse;
 import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
+import com.codegensis.ragstore.idempotency.IdempotentExecutor;
 import com.codegensis.ragstore.service.MessageService;
+import com.codegensis.ragstore.util.BinaryMediaTypes;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/v1/sessions/{sessionId}/messages")
 @Tag(name = "Messages", description = "Message management APIs")
 public class MessageController {
+
+    // The last, partial page changes with every append and must be revalidated with its ETag
+    private static final CacheControl PARTIAL_PAGE = CacheControl.noCache().cachePrivate();
     
     private final MessageService messageService;
+    private final IdempotentExecutor idempotentExecutor;
+    // Complete pages never change; max-age only bounds how long one outlives its session's deletion
+    private final CacheControl completePage;
     
-    public MessageController(MessageService messageService) {
+    public MessageController(MessageService messageService, IdempotentExecutor idempotentExecutor,
+                             @Value("${app.message-pages.max-age:1h}") Duration completePageMaxAge) {
         this.messageService = messageService;
+        this.idempotentExecutor = idempotentExecutor;
+        this.completePage = CacheControl.maxAge(completePageMaxAge).cachePrivate().immutable();
     }
     
     @PostMapping
-    @Operation(summary = "Add message to session", description = "Adds a new message to a session")
+    @Operation(summary = "Add message to session",
+        description = "Adds a new message to a session. Retries with the same Idempotency-Key replay the first response")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Message created successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid input"),
         @ApiResponse(responseCode = "404", description = "Session not found"),
-        @ApiResponse(responseCode = "401", description = "Unauthorized")
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
     })
     public ResponseEntity<MessageResponse> addMessage(
             @PathVariable Long sessionId,
+            @RequestHeader(value = ApiConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody AddMessageRequest request) {
-        MessageResponse response = messageService.addMessage(sessionId, request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return idempotentExecutor.execute(idempotencyKey, "addMessage:" + sessionId, request, HttpStatus.CREATED,
+            MessageResponse.class, () -> messageService.addMessage(sessionId, request));
     }
     
     @GetMapping
-    @Operation(summary = "Get messages from session", description = "Retrieves messages from a session with pagination")
+    @Operation(summary = "Get messages from session",
+        description = "Retrieves messages from a session with pagination, as JSON, CBOR or Smile depending on Accept")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Messages retrieved successfully"),
+        @ApiResponse(responseCode = "200", description = "Messages retrieved successfully",
+            content = {
+                @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = MessagePageResponse.class)),
+                @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = MessagePageResponse.class)),
+                @Content(mediaType = BinaryMediaTypes.SMILE_VALUE, schema = @Schema(implementation = MessagePageResponse.class))
+            }),
+        @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Session not found"),
         @ApiResponse(responseCode = "400", description = "Invalid pagination parameters"),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    public ResponseEntity<MessagePageResponse> getMessages(
+    public ResponseEntity<?> getMessages(
             @PathVariable Long sessionId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        MessagePageResponse response = messageService.getMessages(sessionId, page, size);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        MediaType representation = BinaryMediaTypes.negotiate(accept);
+        MessageService.PageIds pageIds = messageService.getPageIds(sessionId, page, size);
+        String eTag = BinaryMediaTypes.eTag(pageIds.eTag(), representation);
+        CacheControl cacheControl = pageIds.complete() ? completePage : PARTIAL_PAGE;
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT).build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT);
+        // The cached message bytes are JSON, so binary pages are encoded from the records instead
+        if (BinaryMediaTypes.isBinary(representation)) {
+            MessagePageResponse response = messageService.getMessages(pageIds);
+            return ok.body(response);
+        }
+        SerializedMessagePage response = messageService.getSerializedMessages(pageIds);
+        return ok.body(response);
     }
 }
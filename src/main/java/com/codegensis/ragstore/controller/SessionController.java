@@ -1,19 +1,25 @@
 package com.codegensis.ragstore.controller;
 
+import com.codegensis.ragstore.constant.ApiConstants;
 import com.codegensis.ragstore.dto.request.CreateSessionRequest;
 import com.codegensis.ragstore.dto.request.ToggleFavoriteRequest;
 import com.codegensis.ragstore.dto.request.UpdateSessionRequest;
 import com.codegensis.ragstore.dto.response.SessionListResponse;
 import com.codegensis.ragstore.dto.response.SessionResponse;
+import com.codegensis.ragstore.idempotency.IdempotentExecutor;
 import com.codegensis.ragstore.service.SessionService;
+import com.codegensis.ragstore.util.BinaryMediaTypes;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,23 +27,33 @@ import java.util.List;
 @RequestMapping("/api/v1/sessions")
 @Tag(name = "Sessions", description = "Session management APIs")
 public class SessionController {
+
+    // Sessions can be renamed at any time, so clients must revalidate with the ETag
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
     
     private final SessionService sessionService;
+    private final IdempotentExecutor idempotentExecutor;
     
-    public SessionController(SessionService sessionService) {
+    public SessionController(SessionService sessionService, IdempotentExecutor idempotentExecutor) {
         this.sessionService = sessionService;
+        this.idempotentExecutor = idempotentExecutor;
     }
     
     @PostMapping
-    @Operation(summary = "Create a new session", description = "Creates a new chat session for a user")
+    @Operation(summary = "Create a new session",
+        description = "Creates a new chat session for a user. Retries with the same Idempotency-Key replay the first response")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Session created successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid input"),
-        @ApiResponse(responseCode = "401", description = "Unauthorized")
+        @ApiResponse(responseCode = "401", description = "Unauthorized"),
+        @ApiResponse(responseCode = "409", description = "A request with the same Idempotency-Key is still in progress"),
+        @ApiResponse(responseCode = "422", description = "Idempotency-Key was used for a different request")
     })
-    public ResponseEntity<SessionResponse> createSession(@Valid @RequestBody CreateSessionRequest request) {
-        SessionResponse response = sessionService.createSession(request);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<SessionResponse> createSession(
+            @RequestHeader(value = ApiConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateSessionRequest request) {
+        return idempotentExecutor.execute(idempotencyKey, "createSession", request, HttpStatus.CREATED,
+            SessionResponse.class, () -> sessionService.createSession(request));
     }
     
     @GetMapping
@@ -57,12 +73,20 @@ public class SessionController {
     @Operation(summary = "Get session by ID", description = "Retrieves a specific session by its ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Session retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Session unchanged since the ETag in If-None-Match"),
         @ApiResponse(responseCode = "404", description = "Session not found"),
         @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    public ResponseEntity<SessionResponse> getSession(@PathVariable Long sessionId) {
+    public ResponseEntity<SessionResponse> getSession(
+            @PathVariable Long sessionId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
+        String eTag = BinaryMediaTypes.eTag(sessionService.getSessionETag(sessionId), BinaryMediaTypes.negotiate(accept));
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).build();
+        }
         SessionResponse response = sessionService.getSessionById(sessionId);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).body(response);
     }
     
     @PatchMapping("/{sessionId}")
@@ -0,0 +1,96 @@
+package com.codegensis.ragstore.controller;
+
+import com.codegensis.ragstore.draft.DraftEvent;
+import com.codegensis.ragstore.draft.DraftService;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SessionResponse;
+import com.codegensis.ragstore.service.ReactiveChatService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/stream/sessions")
+@Tag(name = "Streaming", description = "Non-blocking session and message streaming APIs")
+public class StreamController {
+    
+    private final ReactiveChatService reactiveChatService;
+    private final DraftService draftService;
+    
+    public StreamController(ReactiveChatService reactiveChatService, DraftService draftService) {
+        this.reactiveChatService = reactiveChatService;
+        this.draftService = draftService;
+    }
+    
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Stream sessions by user ID", description = "Streams all sessions for a given user")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sessions streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid user ID"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public Flux<SessionResponse> streamSessions(@RequestParam String userId) {
+        return reactiveChatService.getSessionsByUserId(userId);
+    }
+    
+    @GetMapping(value = "/{sessionId}/messages",
+                produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Stream messages from session", description = "Streams messages stored after the given sequence number")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Messages streamed successfully"),
+        @ApiResponse(responseCode = "404", description = "Session not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor parameters"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public Flux<MessageResponse> streamMessages(
+            @PathVariable Long sessionId,
+            @RequestParam(defaultValue = "0") long afterSeq,
+            @RequestParam(defaultValue = "100") int limit) {
+        return reactiveChatService.getMessagesAfter(sessionId, afterSeq, limit);
+    }
+    
+    @GetMapping(value = "/{sessionId}/messages/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Tail messages from session", description = "Streams stored messages after the given sequence number, then new messages as they are added")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tail opened successfully"),
+        @ApiResponse(responseCode = "404", description = "Session not found"),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor parameters"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public Flux<MessageResponse> tailMessages(
+            @PathVariable Long sessionId,
+            @RequestParam(defaultValue = "0") long afterSeq,
+            @RequestParam(defaultValue = "100") int limit) {
+        return reactiveChatService.tailMessages(sessionId, afterSeq, limit);
+    }
+    
+    @GetMapping(value = "/{sessionId}/drafts/{draftId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Watch a draft",
+        description = "Streams a draft event with the content so far, a delta event per append, then a message or discarded event")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Watch opened successfully"),
+        @ApiResponse(responseCode = "404", description = "Draft not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public Flux<ServerSentEvent<Object>> watchDraft(@PathVariable Long sessionId, @PathVariable String draftId) {
+        return draftService.watch(sessionId, draftId).map(StreamController::toServerSentEvent);
+    }
+    
+    private static ServerSentEvent<Object> toServerSentEvent(DraftEvent event) {
+        if (event instanceof DraftEvent.Snapshot snapshot) {
+            return ServerSentEvent.builder((Object) snapshot.draft()).event("draft").build();
+        }
+        if (event instanceof DraftEvent.Delta delta) {
+            return ServerSentEvent.builder((Object) delta).event("delta").build();
+        }
+        if (event instanceof DraftEvent.Finalized finalized) {
+            return ServerSentEvent.builder((Object) finalized.message()).event("message").build();
+        }
+        return ServerSentEvent.builder((Object) event).event("discarded").build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.codegensis.ragstore.draft;
+
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+
+/**
+ * What a watcher of a draft receives: the draft as it stands when watching starts, then each
+ * delta in order, and finally the stored message or the discard, after which the stream ends.
+ */
+public sealed interface DraftEvent {
+
+    record Snapshot(DraftResponse draft) implements DraftEvent {
+    }
+
+    /** Text appended at {@code offset}; a watcher that sees a gap in the offsets missed deltas. */
+    record Delta(String draftId, int offset, String text) implements DraftEvent {
+    }
+
+    record Finalized(MessageResponse message) implements DraftEvent {
+    }
+
+    record Discarded(String draftId) implements DraftEvent {
+    }
+}
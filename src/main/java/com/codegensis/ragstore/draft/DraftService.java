@@ -0,0 +1,566 @@
+package com.codegensis.ragstore.draft;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.request.DraftDeltaRequest;
+import com.codegensis.ragstore.dto.request.FinalizeDraftRequest;
+import com.codegensis.ragstore.dto.request.OpenDraftRequest;
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.exception.ConflictException;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ServiceOverloadedException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.service.MessageService;
+import com.codegensis.ragstore.storage.SessionStore;
+import com.codegensis.ragstore.validator.MessageValidator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Messages that are still being generated. A draft is opened, grows by text deltas and is then
+ * stored as a message or discarded. Deltas only touch the draft's buffer in memory; the drafts
+ * that changed are written together once per flush interval, or as soon as one holds
+ * {@code flush-chars} unwritten characters. A draft finished within one interval is never
+ * written, so its message costs one insert; a longer one adds a write per interval at most,
+ * however many deltas it took, and a delete in the transaction that stores the message.
+ * <p>
+ * Buffers live on the instance that opened them, whose readers and watchers see every delta.
+ * Another instance, or this one after a restart, loads a draft as of its last flush, so up to
+ * an interval of deltas can go down with the process. Idle drafts are flushed and then dropped
+ * from memory; drafts nobody finishes are purged once they have not changed for the retention
+ * period.
+ */
+@Service
+public class DraftService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DraftService.class);
+    private static final String DEFAULT_SENDER = "assistant";
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+    private static final Comparator<DraftResponse> OLDEST_FIRST =
+        Comparator.comparing(DraftResponse::createdAt).thenComparing(DraftResponse::id);
+
+    private final DraftStore store;
+    private final MessageService messageService;
+    private final SessionStore sessionStore;
+    private final MessageValidator messageValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushChars;
+    private final long idleTimeoutMillis;
+    private final Duration retention;
+    private final int maxOpen;
+    private final int subscriberBufferSize;
+    private final LongSupplier clock;
+    private final Map<String, MessageDraft> drafts = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder deltas = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder finalized = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    // Only touched by flushes, which never overlap
+    private long nextPurge;
+
+    private record Pending(MessageDraft draft, DraftResponse row, long version) {
+    }
+
+    @Autowired
+    public DraftService(DraftStore store,
+                        MessageService messageService,
+                        SessionStore sessionStore,
+                        MessageValidator messageValidator,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.drafts.flush-interval:5s}") Duration flushInterval,
+                        @Value("${app.drafts.flush-chars:4096}") int flushChars,
+                        @Value("${app.drafts.idle-timeout:5m}") Duration idleTimeout,
+                        @Value("${app.drafts.retention:24h}") Duration retention,
+                        @Value("${app.drafts.max-open:10000}") int maxOpen,
+                        @Value("${app.reactive.subscriber-buffer-size:256}") int subscriberBufferSize) {
+        this(store, messageService, sessionStore, messageValidator, transactionManager, flushInterval, flushChars,
+            idleTimeout, retention, maxOpen, subscriberBufferSize, System::currentTimeMillis, true);
+    }
+
+    DraftService(DraftStore store, MessageService messageService, SessionStore sessionStore,
+                 MessageValidator messageValidator, PlatformTransactionManager transactionManager,
+                 Duration flushInterval, int flushChars, Duration idleTimeout, Duration retention, int maxOpen,
+                 int subscriberBufferSize, LongSupplier clock, boolean scheduleFlush) {
+        if (flushInterval.toMillis() < 1 || flushChars < 1) {
+            throw new IllegalArgumentException("Draft flush interval and flush chars must be positive");
+        }
+        this.store = store;
+        this.messageService = messageService;
+        this.sessionStore = sessionStore;
+        this.messageValidator = messageValidator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushChars = flushChars;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.retention = retention;
+        this.maxOpen = maxOpen;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.clock = clock;
+        if (scheduleFlush) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "draft-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = flushInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::flush, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public DraftResponse open(Long sessionId, OpenDraftRequest request) {
+        String sender = messageValidator.validateAndParseSender(
+            request.sender() != null ? request.sender() : DEFAULT_SENDER).getDbValue();
+        String content = request.content() != null ? request.content() : "";
+        validateLength(content.length());
+        messageValidator.validateContext(request.context());
+        if (!sessionStore.existsById(sessionId)) {
+            throw new ResourceNotFoundException("Session", sessionId);
+        }
+        admit();
+
+        MessageDraft draft = MessageDraft.open(UUID.randomUUID().toString(), sessionId, sender, content,
+            request.context(), now(), clock.getAsLong());
+        drafts.put(draft.id, draft);
+        logger.debug("Draft opened - id: {}, sessionId: {}", draft.id, sessionId);
+        synchronized (draft) {
+            return draft.snapshot();
+        }
+    }
+
+    /**
+     * Appends a delta to the draft's buffer. A delta with an offset must continue the draft
+     * where it ends, unless it repeats text already there, which is taken as a retry.
+     */
+    public void append(Long sessionId, String draftId, DraftDeltaRequest request) {
+        String text = request.text();
+        if (text == null || text.isEmpty()) {
+            throw new ValidationException("Text is required");
+        }
+        boolean flush;
+        while (true) {
+            MessageDraft draft = require(sessionId, draftId);
+            synchronized (draft) {
+                if (draft.evicted) {
+                    continue;
+                }
+                checkOpen(draft);
+                int length = draft.content.length();
+                Integer offset = request.offset();
+                if (offset != null && offset != length) {
+                    if (offset < length && draft.contains(offset, text)) {
+                        return;
+                    }
+                    throw new ConflictException(
+                        "Draft " + draftId + " has " + length + " characters, delta was for offset " + offset);
+                }
+                validateLength(length + text.length());
+                draft.append(text, now(), clock.getAsLong());
+                flush = draft.unflushedChars() >= flushChars;
+            }
+            break;
+        }
+        deltas.increment();
+        if (flush) {
+            requestFlush();
+        }
+    }
+
+    public DraftResponse getDraft(Long sessionId, String draftId) {
+        while (true) {
+            MessageDraft draft = require(sessionId, draftId);
+            synchronized (draft) {
+                if (draft.evicted) {
+                    continue;
+                }
+                checkOpen(draft);
+                return draft.snapshot();
+            }
+        }
+    }
+
+    /** The session's open drafts, oldest first: those in memory here, then those only flushed. */
+    public List<DraftResponse> getDrafts(Long sessionId) {
+        Map<String, DraftResponse> found = new LinkedHashMap<>();
+        for (MessageDraft draft : drafts.values()) {
+            if (draft.sessionId.equals(sessionId)) {
+                synchronized (draft) {
+                    if (!draft.closed && !draft.evicted) {
+                        found.put(draft.id, draft.snapshot());
+                    }
+                }
+            }
+        }
+        for (DraftResponse stored : store.findBySessionId(sessionId)) {
+            found.putIfAbsent(stored.id(), stored);
+        }
+        if (found.isEmpty() && !sessionStore.existsById(sessionId)) {
+            throw new ResourceNotFoundException("Session", sessionId);
+        }
+        List<DraftResponse> result = new ArrayList<>(found.values());
+        result.sort(OLDEST_FIRST);
+        return result;
+    }
+
+    /**
+     * Stores the draft's content as a message and ends the draft. When the draft was flushed,
+     * its row is deleted in the message's transaction. If storing fails the draft stays open.
+     */
+    public MessageResponse finalizeDraft(Long sessionId, String draftId, FinalizeDraftRequest request) {
+        String context = request.context();
+        messageValidator.validateContext(context);
+        MessageDraft draft = close(sessionId, draftId);
+
+        MessageResponse message;
+        try {
+            String content;
+            boolean persisted;
+            synchronized (draft) {
+                content = draft.content.toString();
+                persisted = draft.persisted;
+            }
+            AddMessageRequest add = new AddMessageRequest(draft.sender, content, context != null ? context : draft.context);
+            message = persisted
+                ? transactionTemplate.execute(status -> {
+                    MessageResponse stored = messageService.addMessage(sessionId, add);
+                    deleteRow(draftId);
+                    return stored;
+                })
+                : messageService.addMessage(sessionId, add);
+        } catch (RuntimeException e) {
+            reopen(draft);
+            throw e;
+        }
+
+        end(draft, new DraftEvent.Finalized(message));
+        finalized.increment();
+        logger.debug("Draft finalized - id: {}, messageId: {}", draftId, message.id());
+        return message;
+    }
+
+    public void discard(Long sessionId, String draftId) {
+        MessageDraft draft = close(sessionId, draftId);
+        try {
+            boolean persisted;
+            synchronized (draft) {
+                persisted = draft.persisted;
+            }
+            if (persisted) {
+                store.delete(draftId);
+            }
+        } catch (RuntimeException e) {
+            reopen(draft);
+            throw e;
+        }
+        end(draft, new DraftEvent.Discarded(draftId));
+        discarded.increment();
+    }
+
+    /**
+     * The draft as it stands, then its deltas as they are appended, ending with the stored
+     * message or the discard. A watcher that falls behind by more than the subscriber buffer is
+     * terminated with an overflow error and can reconnect for a new snapshot.
+     */
+    public Flux<DraftEvent> watch(Long sessionId, String draftId) {
+        return Flux.defer(() -> {
+                while (true) {
+                    MessageDraft draft = require(sessionId, draftId);
+                    synchronized (draft) {
+                        if (draft.evicted) {
+                            continue;
+                        }
+                        checkOpen(draft);
+                        ConnectableFlux<DraftEvent> live = draft.events.asFlux().publish();
+                        Disposable connection = live.connect();
+                        draft.watchers++;
+                        DraftEvent snapshot = new DraftEvent.Snapshot(draft.snapshot());
+                        return Flux.concat(Mono.just(snapshot), live)
+                            .doFinally(signal -> {
+                                connection.dispose();
+                                synchronized (draft) {
+                                    draft.watchers--;
+                                }
+                            });
+                    }
+                }
+            })
+            .onBackpressureBuffer(subscriberBufferSize);
+    }
+
+    /**
+     * Writes every draft changed since its last flush in one batch of inserts and one of
+     * updates, then drops idle drafts from memory and purges abandoned rows. A draft whose row
+     * turns out to be gone was finished elsewhere or lost its session, and is dropped as well.
+     */
+    synchronized void flush() {
+        flushRequested.set(false);
+        try {
+            long now = clock.getAsLong();
+            List<Pending> pending = collectDirty();
+            if (!pending.isEmpty()) {
+                write(pending);
+            }
+            evictIdle(now);
+            if (now >= nextPurge) {
+                nextPurge = now + PURGE_INTERVAL_MILLIS;
+                int purged = store.purgeBefore(now().minus(retention));
+                if (purged > 0) {
+                    logger.info("Purged {} abandoned drafts", purged);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Dirty drafts stay dirty and are written by the next flush
+            logger.warn("Draft flush failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        // Whatever is still only in memory survives the restart as of now
+        flush();
+    }
+
+    public int getOpenCount() {
+        return drafts.size();
+    }
+
+    public long getDeltas() {
+        return deltas.sum();
+    }
+
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    public long getFinalized() {
+        return finalized.sum();
+    }
+
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    private List<Pending> collectDirty() {
+        List<Pending> pending = new ArrayList<>();
+        for (MessageDraft draft : drafts.values()) {
+            synchronized (draft) {
+                if (!draft.closed && !draft.evicted && draft.isDirty()) {
+                    draft.flushing = true;
+                    pending.add(new Pending(draft, draft.snapshot(), draft.version));
+                }
+            }
+        }
+        return pending;
+    }
+
+    private void write(List<Pending> pending) {
+        List<Pending> inserts = new ArrayList<>();
+        List<Pending> updates = new ArrayList<>();
+        for (Pending entry : pending) {
+            synchronized (entry.draft()) {
+                (entry.draft().persisted ? updates : inserts).add(entry);
+            }
+        }
+        try {
+            if (!inserts.isEmpty()) {
+                insert(inserts);
+            }
+            if (!updates.isEmpty()) {
+                int[] counts = store.updateAll(updates.stream().map(Pending::row).toList());
+                for (int i = 0; i < updates.size(); i++) {
+                    if (counts[i] > 0) {
+                        flushed(updates.get(i));
+                    } else {
+                        drop(updates.get(i).draft());
+                    }
+                }
+            }
+        } finally {
+            for (Pending entry : pending) {
+                MessageDraft draft = entry.draft();
+                synchronized (draft) {
+                    draft.flushing = false;
+                    draft.notifyAll();
+                }
+            }
+        }
+    }
+
+    private void insert(List<Pending> inserts) {
+        try {
+            store.insertAll(inserts.stream().map(Pending::row).toList());
+            inserts.forEach(this::flushed);
+        } catch (DataIntegrityViolationException e) {
+            // Some session was deleted; find out which drafts were opened in it
+            for (Pending entry : inserts) {
+                try {
+                    store.insertAll(List.of(entry.row()));
+                    flushed(entry);
+                } catch (DataIntegrityViolationException missingSession) {
+                    drop(entry.draft());
+                }
+            }
+        }
+    }
+
+    private void flushed(Pending entry) {
+        synchronized (entry.draft()) {
+            entry.draft().flushed(entry.version(), entry.row().content().length());
+        }
+        writes.increment();
+    }
+
+    private void drop(MessageDraft draft) {
+        synchronized (draft) {
+            if (draft.closed) {
+                return;
+            }
+            draft.closed = true;
+            drafts.remove(draft.id, draft);
+            draft.finish(new DraftEvent.Discarded(draft.id));
+        }
+        logger.debug("Draft dropped, its row or session is gone - id: {}", draft.id);
+    }
+
+    private void evictIdle(long now) {
+        for (MessageDraft draft : drafts.values()) {
+            synchronized (draft) {
+                if (!draft.closed && !draft.isDirty() && draft.watchers == 0
+                        && now - draft.touchedAt >= idleTimeoutMillis) {
+                    draft.evicted = true;
+                    drafts.remove(draft.id, draft);
+                }
+            }
+        }
+    }
+
+    /** The draft in memory, or loaded from its row when it has none here. */
+    private MessageDraft require(Long sessionId, String draftId) {
+        MessageDraft draft = drafts.get(draftId);
+        if (draft == null) {
+            DraftResponse stored = store.find(draftId).orElseThrow(() -> draftNotFound(draftId));
+            admit();
+            MessageDraft restored = MessageDraft.restore(stored, clock.getAsLong());
+            MessageDraft existing = drafts.putIfAbsent(draftId, restored);
+            draft = existing != null ? existing : restored;
+        }
+        if (!draft.sessionId.equals(sessionId)) {
+            throw draftNotFound(draftId);
+        }
+        return draft;
+    }
+
+    /** Closes the draft to every other caller and waits out a flush that is writing it. */
+    private MessageDraft close(Long sessionId, String draftId) {
+        while (true) {
+            MessageDraft draft = require(sessionId, draftId);
+            synchronized (draft) {
+                if (draft.evicted) {
+                    continue;
+                }
+                checkOpen(draft);
+                draft.closed = true;
+                boolean interrupted = false;
+                while (draft.flushing) {
+                    try {
+                        draft.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return draft;
+            }
+        }
+    }
+
+    private void reopen(MessageDraft draft) {
+        synchronized (draft) {
+            draft.closed = false;
+        }
+    }
+
+    private void end(MessageDraft draft, DraftEvent event) {
+        drafts.remove(draft.id, draft);
+        synchronized (draft) {
+            draft.finish(event);
+        }
+    }
+
+    private void deleteRow(String draftId) {
+        // Finished or discarded elsewhere after this instance loaded it
+        if (!store.delete(draftId)) {
+            throw draftNotFound(draftId);
+        }
+    }
+
+    private void admit() {
+        if (drafts.size() >= maxOpen) {
+            throw new ServiceOverloadedException("Too many open drafts, try again later");
+        }
+    }
+
+    private void requestFlush() {
+        if (scheduler != null && flushRequested.compareAndSet(false, true)) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    private static void checkOpen(MessageDraft draft) {
+        if (draft.closed) {
+            throw draftNotFound(draft.id);
+        }
+    }
+
+    private static void validateLength(int length) {
+        if (length > ApiConstants.MAX_CONTENT_LENGTH) {
+            throw new ValidationException("Content must not exceed " + ApiConstants.MAX_CONTENT_LENGTH + " characters");
+        }
+    }
+
+    private static ResourceNotFoundException draftNotFound(String draftId) {
+        return new ResourceNotFoundException("Draft with id " + draftId + " not found");
+    }
+
+    // Same precision as the TIMESTAMP columns
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,86 @@
+package com.codegensis.ragstore.draft;
+
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Flushed drafts in the {@code message_drafts} table. A draft's row is inserted by its first
+ * flush and only its content and update time change after that, so later flushes are updates
+ * by primary key. Both are sent as JDBC batches covering every draft a flush writes.
+ */
+@Component
+public class DraftStore {
+
+    private static final String COLUMNS = "id, session_id, sender, content, context, created_at, updated_at";
+    private static final String INSERT =
+        "INSERT INTO message_drafts (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE =
+        "UPDATE message_drafts SET content = ?, updated_at = ? WHERE id = ?";
+    private static final String SELECT = "SELECT " + COLUMNS + " FROM message_drafts WHERE id = ?";
+    private static final String SELECT_BY_SESSION =
+        "SELECT " + COLUMNS + " FROM message_drafts WHERE session_id = ? ORDER BY created_at, id";
+    private static final String DELETE = "DELETE FROM message_drafts WHERE id = ?";
+    private static final String PURGE = "DELETE FROM message_drafts WHERE updated_at < ?";
+
+    private static final RowMapper<DraftResponse> ROW_MAPPER = (row, rowNum) -> new DraftResponse(
+        row.getString(1),
+        row.getLong(2),
+        row.getString(3),
+        row.getString(4),
+        row.getString(5),
+        row.getObject(6, LocalDateTime.class),
+        row.getObject(7, LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DraftStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<DraftResponse> drafts) {
+        if (drafts.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(drafts.size());
+        for (DraftResponse draft : drafts) {
+            rows.add(new Object[]{draft.id(), draft.sessionId(), draft.sender(), draft.content(), draft.context(),
+                draft.createdAt(), draft.updatedAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    /** Rows updated per draft, in order; zero means the draft's row is gone. */
+    public int[] updateAll(List<DraftResponse> drafts) {
+        if (drafts.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> rows = new ArrayList<>(drafts.size());
+        for (DraftResponse draft : drafts) {
+            rows.add(new Object[]{draft.content(), draft.updatedAt(), draft.id()});
+        }
+        return jdbcTemplate.batchUpdate(UPDATE, rows);
+    }
+
+    public Optional<DraftResponse> find(String id) {
+        return jdbcTemplate.query(SELECT, ROW_MAPPER, id).stream().findFirst();
+    }
+
+    public List<DraftResponse> findBySessionId(Long sessionId) {
+        return jdbcTemplate.query(SELECT_BY_SESSION, ROW_MAPPER, sessionId);
+    }
+
+    public boolean delete(String id) {
+        return jdbcTemplate.update(DELETE, id) > 0;
+    }
+
+    public int purgeBefore(LocalDateTime updatedBefore) {
+        return jdbcTemplate.update(PURGE, updatedBefore);
+    }
+}
@@ -0,0 +1,115 @@
+package com.codegensis.ragstore.draft;
+
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+
+/**
+ * The in-memory buffer of one draft. Every field is guarded by the draft's monitor, and events
+ * are only emitted under it, so a watcher that subscribes under the monitor sees every change
+ * after the snapshot it takes there.
+ * <p>
+ * {@code version} counts changes and {@code flushedVersion} is the last one written, so a delta
+ * that arrives while a flush is writing leaves the draft dirty for the next one. While
+ * {@code flushing} is set a flush holds a snapshot that is not yet written; a draft is only
+ * closed for good once that write has finished.
+ */
+final class MessageDraft {
+
+    final String id;
+    final Long sessionId;
+    final String sender;
+    final String context;
+    final LocalDateTime createdAt;
+    final StringBuilder content;
+    final Sinks.Many<DraftEvent> events = Sinks.many().multicast().directBestEffort();
+
+    LocalDateTime updatedAt;
+    long touchedAt;
+    long version;
+    long flushedVersion;
+    int flushedLength;
+    boolean persisted;
+    boolean flushing;
+    boolean closed;
+    boolean evicted;
+    int watchers;
+
+    private MessageDraft(String id, Long sessionId, String sender, String content, String context,
+                         LocalDateTime createdAt, LocalDateTime updatedAt, long touchedAt) {
+        this.id = id;
+        this.sessionId = sessionId;
+        this.sender = sender;
+        this.context = context;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.content = new StringBuilder(content);
+        this.touchedAt = touchedAt;
+    }
+
+    /** A draft just opened, not yet written. */
+    static MessageDraft open(String id, Long sessionId, String sender, String content, String context,
+                             LocalDateTime now, long touchedAt) {
+        MessageDraft draft = new MessageDraft(id, sessionId, sender, content, context, now, now, touchedAt);
+        draft.version = 1;
+        return draft;
+    }
+
+    /** A draft loaded from its row, as of its last flush. */
+    static MessageDraft restore(DraftResponse stored, long touchedAt) {
+        MessageDraft draft = new MessageDraft(stored.id(), stored.sessionId(), stored.sender(), stored.content(),
+            stored.context(), stored.createdAt(), stored.updatedAt(), touchedAt);
+        draft.persisted = true;
+        draft.flushedLength = stored.content().length();
+        return draft;
+    }
+
+    void append(String text, LocalDateTime now, long touchedAt) {
+        int offset = content.length();
+        content.append(text);
+        updatedAt = now;
+        this.touchedAt = touchedAt;
+        version++;
+        events.tryEmitNext(new DraftEvent.Delta(id, offset, text));
+    }
+
+    /** Whether {@code text} already sits at {@code offset}, as after a retried delta. */
+    boolean contains(int offset, String text) {
+        if (offset + text.length() > content.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (content.charAt(offset + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean isDirty() {
+        return version > flushedVersion;
+    }
+
+    int unflushedChars() {
+        return content.length() - flushedLength;
+    }
+
+    void flushed(long version, int length) {
+        if (version > flushedVersion) {
+            flushedVersion = version;
+            flushedLength = length;
+        }
+        persisted = true;
+    }
+
+    /** Ends every watcher's stream with {@code event}. */
+    void finish(DraftEvent event) {
+        events.tryEmitNext(event);
+        events.tryEmitComplete();
+    }
+
+    DraftResponse snapshot() {
+        return new DraftResponse(id, sessionId, sender, content.toString(), context, createdAt, updatedAt);
+    }
+}
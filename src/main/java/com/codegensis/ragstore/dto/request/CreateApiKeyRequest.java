@@ -0,0 +1,25 @@
+package com.codegensis.ragstore.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+
+public record CreateApiKeyRequest(
+    @NotBlank(message = "Tenant ID is required")
+    @Pattern(regexp = "^[a-zA-Z0-9_]+$", message = "Tenant ID must contain only alphanumeric characters and underscores")
+    @Size(max = 255, message = "Tenant ID must not exceed 255 characters")
+    String tenantId,
+    
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must not exceed 100 characters")
+    String name,
+    
+    @Positive(message = "Requests per minute must be positive")
+    Integer requestsPerMinute,
+    
+    Set<String> scopes
+) {
+}
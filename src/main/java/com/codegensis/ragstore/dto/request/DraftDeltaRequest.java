@@ -0,0 +1,19 @@
+package com.codegensis.ragstore.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Text to append to a draft. With {@code offset}, the draft's length the text was generated
+ * after, a retried delta that was already applied is ignored rather than appended twice.
+ */
+public record DraftDeltaRequest(
+    @NotEmpty(message = "Text is required")
+    @Size(max = 10000, message = "Text must not exceed 10,000 characters")
+    String text,
+    
+    @PositiveOrZero(message = "Offset must be >= 0")
+    Integer offset
+) {
+}
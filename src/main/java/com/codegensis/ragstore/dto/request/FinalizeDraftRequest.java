@@ -0,0 +1,12 @@
+package com.codegensis.ragstore.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+/**
+ * Finishes a draft. A context given here replaces the one the draft was opened with.
+ */
+public record FinalizeDraftRequest(
+    @Size(max = 51200, message = "Context must not exceed 50KB")
+    String context
+) {
+}
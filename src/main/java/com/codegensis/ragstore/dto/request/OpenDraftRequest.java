@@ -0,0 +1,18 @@
+package com.codegensis.ragstore.dto.request;
+
+import jakarta.validation.constraints.Size;
+
+/**
+ * Opens a draft message. The sender defaults to {@code assistant}; content may hold the first
+ * tokens already generated.
+ */
+public record OpenDraftRequest(
+    String sender,
+    
+    @Size(max = 10000, message = "Content must not exceed 10,000 characters")
+    String content,
+    
+    @Size(max = 51200, message = "Context must not exceed 50KB")
+    String context
+) {
+}
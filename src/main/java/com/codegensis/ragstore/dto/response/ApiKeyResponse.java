@@ -0,0 +1,19 @@
+package com.codegensis.ragstore.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public record ApiKeyResponse(
+    Long id,
+    String tenantId,
+    String name,
+    String keyPrefix,
+    Set<String> scopes,
+    Integer requestsPerMinute,
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    LocalDateTime createdAt,
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    LocalDateTime revokedAt
+) {
+}
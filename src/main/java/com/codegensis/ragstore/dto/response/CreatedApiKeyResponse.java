@@ -0,0 +1,10 @@
+package com.codegensis.ragstore.dto.response;
+
+/**
+ * A newly created key. {@code key} is only ever returned here; the service keeps just its hash.
+ */
+public record CreatedApiKeyResponse(
+    String key,
+    ApiKeyResponse apiKey
+) {
+}
@@ -0,0 +1,17 @@
+package com.codegensis.ragstore.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDateTime;
+
+public record DraftResponse(
+    String id,
+    Long sessionId,
+    String sender,
+    String content,
+    String context,
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    LocalDateTime createdAt,
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'")
+    LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,26 @@
+package com.codegensis.ragstore.dto.response;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code resumeFromLine} is the number of leading lines that are
+ * fully handled; passing it as {@code skipLines} continues an interrupted import. Lines after
+ * it may already be stored and are then counted as duplicates on the next run.
+ */
+public record ImportResult(
+    boolean completed,
+    String failure,
+    long linesRead,
+    long sessionsImported,
+    long messagesImported,
+    long duplicateLines,
+    long rejectedLines,
+    long resumeFromLine,
+    long elapsedMillis,
+    double rowsPerSecond,
+    List<LineError> errors
+) {
+    
+    public record LineError(long line, String message) {
+    }
+}
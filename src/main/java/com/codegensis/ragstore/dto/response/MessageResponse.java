@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 public record MessageResponse(
     Long id,
     Long sessionId,
+    Long seq,
     String sender,
     String content,
     String context,
@@ -0,0 +1,16 @@
+package com.codegensis.ragstore.dto.response;
+
+import java.util.List;
+
+/**
+ * A {@link MessagePageResponse} whose messages are already UTF-8 JSON, written out as-is by
+ * {@link com.codegensis.ragstore.json.SerializedMessagePageConverter}.
+ */
+public record SerializedMessagePage(
+    List<byte[]> messages,
+    Integer page,
+    Integer size,
+    Long totalElements,
+    Integer totalPages
+) {
+}
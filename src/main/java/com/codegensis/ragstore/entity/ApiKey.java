@@ -0,0 +1,128 @@
+package com.codegensis.ragstore.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A tenant's API key. Only the SHA-256 hash of the key is stored, plus its first characters so
+ * operators can tell keys apart; the key itself is shown once, when it is created.
+ */
+@Entity
+@Table(name = "api_keys", indexes = {
+    @Index(name = "idx_api_keys_tenant_id", columnList = "tenantId"),
+    @Index(name = "idx_api_keys_revoked_at", columnList = "revokedAt")
+})
+public class ApiKey {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "key_hash", nullable = false, unique = true, length = 64, updatable = false)
+    private String keyHash;
+    
+    @Column(name = "key_prefix", nullable = false, length = 12, updatable = false)
+    private String keyPrefix;
+    
+    @Column(name = "tenant_id", nullable = false, length = 255)
+    private String tenantId;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    /** Comma-separated, e.g. {@code read,write}. */
+    @Column(nullable = false, length = 100)
+    private String scopes;
+    
+    /** {@code null} uses the service-wide default. */
+    @Column(name = "requests_per_minute")
+    private Integer requestsPerMinute;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    public boolean isRevoked() {
+        return revokedAt != null;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getKeyHash() {
+        return keyHash;
+    }
+    
+    public void setKeyHash(String keyHash) {
+        this.keyHash = keyHash;
+    }
+    
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+    
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public void setTenantId(String tenantId) {
+        this.tenantId = tenantId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getScopes() {
+        return scopes;
+    }
+    
+    public void setScopes(String scopes) {
+        this.scopes = scopes;
+    }
+    
+    public Integer getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+    
+    public void setRequestsPerMinute(Integer requestsPerMinute) {
+        this.requestsPerMinute = requestsPerMinute;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+    
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
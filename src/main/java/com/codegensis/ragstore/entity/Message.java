@@ -5,12 +5,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "messages", indexes = {
     @Index(name = "idx_messages_session_id", columnList = "sessionId"),
-    @Index(name = "idx_messages_timestamp", columnList = "timestamp"),
-    @Index(name = "idx_messages_session_timestamp", columnList = "sessionId, timestamp")
+    @Index(name = "idx_messages_timestamp", columnList = "timestamp")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_messages_session_seq", columnNames = {"session_id", "seq"})
 })
 public class Message {
     
@@ -67,6 +69,10 @@ public class Message {
     @NotNull(message = "Session ID is required")
     private Long sessionId;
     
+    // Position in the session's log, assigned by the storage engine on append
+    @Column(nullable = false)
+    private Long seq;
+    
     @Column(nullable = false, length = 20)
     @Convert(converter = Sender.Converter.class)
     @NotNull(message = "Sender is required")
@@ -91,7 +97,8 @@ public class Message {
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
-            timestamp = LocalDateTime.now();
+            // Column precision, so the saved entity matches what is read back later
+            timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         }
     }
     
@@ -112,6 +119,14 @@ public class Message {
         this.sessionId = sessionId;
     }
     
+    public Long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+    
     public Sender getSender() {
         return sender;
     }
@@ -4,15 +4,24 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Entity
 @Table(name = "sessions", indexes = {
     @Index(name = "idx_sessions_user_id", columnList = "userId"),
     @Index(name = "idx_sessions_created_at", columnList = "createdAt")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Session.CACHE_REGION)
 public class Session {
     
+    /** Second-level cache region holding sessions by id. */
+    public static final String CACHE_REGION = "sessions";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,15 +46,16 @@ public class Session {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
     
+    // Column precision, so a cached session carries the timestamps the database holds
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
     
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
     
     // Getters and Setters
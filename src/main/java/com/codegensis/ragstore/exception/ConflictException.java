@@ -0,0 +1,8 @@
+package com.codegensis.ragstore.exception;
+
+public class ConflictException extends ApiException {
+    
+    public ConflictException(String message) {
+        super(ErrorCode.CONFLICT, message);
+    }
+}
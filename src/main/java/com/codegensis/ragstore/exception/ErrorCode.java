@@ -7,7 +7,9 @@ public enum ErrorCode {
     VALIDATION_ERROR("validation-error", "Validation Error", HttpStatus.BAD_REQUEST),
     RATE_LIMIT_EXCEEDED("rate-limit-exceeded", "Rate Limit Exceeded", HttpStatus.TOO_MANY_REQUESTS),
     CONFLICT("conflict", "Resource Conflict", HttpStatus.CONFLICT),
-    INTERNAL_SERVER_ERROR("internal-server-error", "Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR);
+    IDEMPOTENCY_KEY_REUSED("idempotency-key-reused", "Idempotency Key Reused", HttpStatus.UNPROCESSABLE_ENTITY),
+    INTERNAL_SERVER_ERROR("internal-server-error", "Internal Server Error", HttpStatus.INTERNAL_SERVER_ERROR),
+    SERVICE_OVERLOADED("service-overloaded", "Service Overloaded", HttpStatus.SERVICE_UNAVAILABLE);
     
     private final String type;
     private final String title;
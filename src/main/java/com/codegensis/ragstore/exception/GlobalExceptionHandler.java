@@ -1,5 +1,6 @@
 package com.codegensis.ragstore.exception;
 
+import com.codegensis.ragstore.metrics.RagstoreMetrics;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,9 +22,18 @@ public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
     private static final int RETRY_AFTER_SECONDS = 60;
     
+    private final RagstoreMetrics metrics;
+    
+    public GlobalExceptionHandler(RagstoreMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<ErrorResponse> handleApiException(ApiException ex, WebRequest request) {
         logger.error("API exception: {}", ex.getMessage());
+        if (ex instanceof ValidationException) {
+            metrics.recordValidationFailure(RagstoreMetrics.endpoint(request), "validator");
+        }
         
         ErrorResponse error = buildErrorResponse(
             ex.getErrorType(),
@@ -44,6 +54,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(
             MethodArgumentNotValidException ex, WebRequest request) {
         logger.error("Validation error: {}", ex.getMessage());
+        metrics.recordValidationFailure(RagstoreMetrics.endpoint(request), "request_body");
         
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach(error -> {
@@ -67,6 +78,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(
             ConstraintViolationException ex, WebRequest request) {
         logger.error("Constraint violation: {}", ex.getMessage());
+        metrics.recordValidationFailure(RagstoreMetrics.endpoint(request), "constraint");
         return buildErrorResponse(
             ErrorCode.VALIDATION_ERROR.getType(),
             ErrorCode.VALIDATION_ERROR.getTitle(),
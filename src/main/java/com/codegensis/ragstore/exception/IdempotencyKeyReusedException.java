@@ -0,0 +1,8 @@
+package com.codegensis.ragstore.exception;
+
+public class IdempotencyKeyReusedException extends ApiException {
+    
+    public IdempotencyKeyReusedException(String message) {
+        super(ErrorCode.IDEMPOTENCY_KEY_REUSED, message);
+    }
+}
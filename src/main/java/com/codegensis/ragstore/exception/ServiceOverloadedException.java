@@ -0,0 +1,8 @@
+package com.codegensis.ragstore.exception;
+
+public class ServiceOverloadedException extends ApiException {
+    
+    public ServiceOverloadedException(String message) {
+        super(ErrorCode.SERVICE_OVERLOADED, message);
+    }
+}
@@ -1,50 +1,52 @@
 package com.codegensis.ragstore.filter;
 
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.ApiKeyResolver;
 import com.codegensis.ragstore.constant.ApiConstants;
-import com.codegensis.ragstore.util.PathMatcher;
+import com.codegensis.ragstore.util.RouteClassifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Objects;
+import java.util.Collection;
+import java.util.List;
 
+/**
+ * Authenticates API requests by their {@code X-API-Key} through {@link ApiKeyResolver}. The
+ * key's scopes become {@code SCOPE_*} authorities, which {@code SecurityConfig} checks per route.
+ */
 @Component
 @Order(2)
 public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
     
+    public static final String SCOPE_AUTHORITY_PREFIX = "SCOPE_";
+    
     private static final Logger logger = LoggerFactory.getLogger(ApiKeyAuthenticationFilter.class);
     
-    private final String primaryApiKey;
-    private final String secondaryApiKey;
-    private final PathMatcher pathMatcher;
+    private final ApiKeyResolver apiKeyResolver;
+    private final RouteClassifier routeClassifier;
     
-    public ApiKeyAuthenticationFilter(
-            @Value("${app.api.key.primary:}") String primaryApiKey,
-            @Value("${app.api.key.secondary:}") String secondaryApiKey,
-            PathMatcher pathMatcher) {
-        this.primaryApiKey = primaryApiKey;
-        this.secondaryApiKey = secondaryApiKey;
-        this.pathMatcher = pathMatcher;
+    public ApiKeyAuthenticationFilter(ApiKeyResolver apiKeyResolver, RouteClassifier routeClassifier) {
+        this.apiKeyResolver = apiKeyResolver;
+        this.routeClassifier = routeClassifier;
     }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         
-        String requestPath = request.getRequestURI();
-        
-        if (pathMatcher.matchesAny(requestPath, ApiConstants.PUBLIC_ENDPOINTS)) {
+        if (routeClassifier.classify(request).isPublic()) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -56,8 +58,9 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         
-        if (isValidApiKey(apiKey)) {
-            Authentication authentication = new ApiKeyAuthentication(apiKey);
+        ApiKeyPrincipal principal = apiKeyResolver.resolve(request);
+        if (principal != null) {
+            Authentication authentication = new ApiKeyAuthentication(principal);
             SecurityContextHolder.getContext().setAuthentication(authentication);
             filterChain.doFilter(request, response);
         } else {
@@ -72,35 +75,27 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
         response.getWriter().write(String.format("{\"error\":\"%s\"}", message));
     }
     
-    private boolean isValidApiKey(String apiKey) {
-        if (primaryApiKey == null || primaryApiKey.isBlank()) {
-            return false;
-        }
-        
-        boolean matchesPrimary = Objects.equals(apiKey, primaryApiKey);
-        boolean matchesSecondary = secondaryApiKey != null && 
-                                   !secondaryApiKey.isBlank() && 
-                                   Objects.equals(apiKey, secondaryApiKey);
-        
-        return matchesPrimary || matchesSecondary;
-    }
-    
     private static class ApiKeyAuthentication implements Authentication {
-        private final String apiKey;
+        private final ApiKeyPrincipal principal;
+        private final List<GrantedAuthority> authorities;
         private final boolean authenticated = true;
         
-        public ApiKeyAuthentication(String apiKey) {
-            this.apiKey = apiKey;
+        public ApiKeyAuthentication(ApiKeyPrincipal principal) {
+            this.principal = principal;
+            this.authorities = principal.scopes().stream()
+                .<GrantedAuthority>map(scope -> new SimpleGrantedAuthority(SCOPE_AUTHORITY_PREFIX + scope))
+                .toList();
         }
         
         @Override
-        public java.util.Collection<org.springframework.security.core.GrantedAuthority> getAuthorities() {
-            return AuthorityUtils.NO_AUTHORITIES;
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return authorities;
         }
         
         @Override
         public Object getCredentials() {
-            return apiKey;
+            // The raw key is not kept past verification
+            return null;
         }
         
         @Override
@@ -110,7 +105,7 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
         
         @Override
         public Object getPrincipal() {
-            return apiKey;
+            return principal;
         }
         
         @Override
@@ -125,7 +120,7 @@ public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
         
         @Override
         public String getName() {
-            return "API_KEY";
+            return principal.tenantId();
         }
     }
 }
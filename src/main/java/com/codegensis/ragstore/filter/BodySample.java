@@ -0,0 +1,45 @@
+package com.codegensis.ragstore.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Keeps the first {@code limit} bytes that pass through a stream and drops the rest,
+ * so sampling a body never costs more than the cap regardless of payload size.
+ */
+class BodySample {
+    
+    private final byte[] buffer;
+    private int length;
+    private boolean truncated;
+    
+    BodySample(int limit) {
+        this.buffer = new byte[limit];
+    }
+    
+    void append(int b) {
+        if (length < buffer.length) {
+            buffer[length++] = (byte) b;
+        } else {
+            truncated = true;
+        }
+    }
+    
+    void append(byte[] bytes, int offset, int count) {
+        int copied = Math.min(count, buffer.length - length);
+        if (copied > 0) {
+            System.arraycopy(bytes, offset, buffer, length, copied);
+            length += copied;
+        }
+        if (copied < count) {
+            truncated = true;
+        }
+    }
+    
+    /** The captured bytes as UTF-8; a multi-byte character cut by the cap decodes as a replacement char. */
+    @Override
+    public String toString() {
+        String text = new String(Arrays.copyOf(buffer, length), StandardCharsets.UTF_8);
+        return truncated ? text + "...(truncated)" : text;
+    }
+}
@@ -0,0 +1,89 @@
+package com.codegensis.ragstore.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.IOException;
+
+/**
+ * Pass-through request wrapper that samples the leading bytes of the body as the handler
+ * reads it. Only used for requests selected for body sampling.
+ */
+class ByteCountingRequestWrapper extends HttpServletRequestWrapper {
+    
+    private final BodySample sample;
+    private long bytesRead;
+    private ServletInputStream inputStream;
+    
+    ByteCountingRequestWrapper(HttpServletRequest request, BodySample sample) {
+        super(request);
+        this.sample = sample;
+    }
+    
+    long getBytesRead() {
+        return bytesRead;
+    }
+    
+    BodySample getSample() {
+        return sample;
+    }
+    
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CountingInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+    
+    private final class CountingInputStream extends ServletInputStream {
+        
+        private final ServletInputStream delegate;
+        
+        CountingInputStream(ServletInputStream delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                bytesRead++;
+                sample.append(b);
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = delegate.read(bytes, offset, length);
+            if (count > 0) {
+                bytesRead += count;
+                sample.append(bytes, offset, count);
+            }
+            return count;
+        }
+        
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
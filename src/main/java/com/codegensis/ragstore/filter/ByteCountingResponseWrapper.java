@@ -0,0 +1,133 @@
+package com.codegensis.ragstore.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Pass-through response wrapper that counts what is written without buffering it.
+ * Bytes written through the output stream are counted exactly; text written through the
+ * writer is counted in characters, which matches bytes for the ASCII error pages that use it.
+ */
+class ByteCountingResponseWrapper extends HttpServletResponseWrapper {
+    
+    private final BodySample sample;
+    private long bytesWritten;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    
+    /**
+     * @param sample receives the leading bytes of the body, or {@code null} to skip sampling
+     */
+    ByteCountingResponseWrapper(HttpServletResponse response, BodySample sample) {
+        super(response);
+        this.sample = sample;
+    }
+    
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+    
+    BodySample getSample() {
+        return sample;
+    }
+    
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+    
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new CountingWriter(super.getWriter()));
+        }
+        return writer;
+    }
+    
+    private final class CountingOutputStream extends ServletOutputStream {
+        
+        private final ServletOutputStream delegate;
+        
+        CountingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            bytesWritten++;
+            if (sample != null) {
+                sample.append(b);
+            }
+        }
+        
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+            bytesWritten += length;
+            if (sample != null) {
+                sample.append(bytes, offset, length);
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+    
+    private final class CountingWriter extends Writer {
+        
+        private final PrintWriter delegate;
+        
+        CountingWriter(PrintWriter delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            delegate.write(chars, offset, length);
+            bytesWritten += length;
+        }
+        
+        @Override
+        public void write(String text, int offset, int length) {
+            delegate.write(text, offset, length);
+            bytesWritten += length;
+        }
+        
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+        
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.codegensis.ragstore.filter;
+
+import com.codegensis.ragstore.concurrency.ConcurrencyLimiter;
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.exception.ErrorCode;
+import com.codegensis.ragstore.util.RouteMatcher;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds API requests with {@code 503} once more are in flight than the adaptive limit allows,
+ * so a slow database makes clients back off instead of queueing threads in Tomcat. Runs after
+ * authentication and rate limiting, so only admitted requests count towards the limit and feed
+ * it latency samples. Only {@code /api/**} is limited, so health checks and metric scrapes
+ * still answer while the API is shedding.
+ */
+@Component
+@Order(3)
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    // Overload clears within a few latency windows, so clients should retry soon
+    private static final int RETRY_AFTER_SECONDS = 1;
+    private static final RouteMatcher<Boolean> LIMITED_PATHS = RouteMatcher.of("/api/**");
+    private static final RouteMatcher<Boolean> UNSAMPLED_PATHS = RouteMatcher.of(ApiConstants.IMPORTS_PATH);
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        if (!LIMITED_PATHS.matches(request.getRequestURI())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ConcurrencyLimiter.Partition partition = ConcurrencyLimiter.Partition.of(request.getMethod());
+        int inFlight = concurrencyLimiter.tryAcquire(partition);
+        if (inFlight < 0) {
+            logger.warn("Concurrency limit {} reached, shedding {} request for URI: {}",
+                concurrencyLimiter.getLimit(), partition, request.getRequestURI());
+            handleOverloaded(response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean sampled = false;
+        try {
+            filterChain.doFilter(request, response);
+            // Streams and bulk imports hold the connection far longer than a request; their duration says nothing about load
+            sampled = !request.isAsyncStarted() && !UNSAMPLED_PATHS.matches(request.getRequestURI());
+        } finally {
+            if (sampled) {
+                concurrencyLimiter.release(partition, inFlight, System.nanoTime() - start);
+            } else {
+                concurrencyLimiter.release(partition);
+            }
+        }
+    }
+
+    private void handleOverloaded(HttpServletResponse response) throws IOException {
+        ErrorCode errorCode = ErrorCode.SERVICE_OVERLOADED;
+        HttpStatus status = errorCode.getHttpStatus();
+
+        response.setStatus(status.value());
+        response.setContentType("application/json");
+        response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        response.getWriter().write(String.format(
+            "{\"type\":\"%s\"," +
+            "\"title\":\"%s\"," +
+            "\"status\":%d," +
+            "\"detail\":\"%s\"," +
+            "\"retryAfter\":%d}",
+            errorCode.getType(),
+            errorCode.getTitle(),
+            status.value(),
+            "Server is at its concurrency limit",
+            RETRY_AFTER_SECONDS));
+    }
+}
@@ -1,16 +1,21 @@
 package com.codegensis.ragstore.filter;
 
-import com.codegensis.ragstore.config.RateLimitConfig;
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.ApiKeyResolver;
 import com.codegensis.ragstore.constant.ApiConstants;
 import com.codegensis.ragstore.exception.ErrorCode;
-import com.codegensis.ragstore.util.PathMatcher;
-import io.github.bucket4j.Bucket;
+import com.codegensis.ragstore.ratelimit.RateLimitResult;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import com.codegensis.ragstore.ratelimit.RouteCostTable;
+import com.codegensis.ragstore.util.RouteClassifier;
+import com.codegensis.ragstore.util.RouteMatcher;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -18,27 +23,63 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Charges each API key request against two bandwidths: request tokens weighted by the route's
+ * cost, and request body bytes from {@code Content-Length}. Keys registered with their own
+ * requests-per-minute use that instead of the default request limit. The remaining quota is
+ * reported in {@code X-RateLimit-*} headers on every rate-limited response.
+ * <p>
+ * The key is verified before it is charged. A key that does not authenticate is charged per
+ * client address against a per-instance table instead, so guessing keys is limited like using
+ * one, without a bucket per guessed key in the shared store. Its body is not charged, as
+ * authentication rejects the request before the body is read. A key that is neither a
+ * bootstrap key nor cached is charged to the address before it is looked up, so a client
+ * spraying keys only reaches the database within that budget; the charge is refunded when the
+ * key turns out to be valid.
+ */
 @Component
 @Order(1)
 public class RateLimitFilter extends OncePerRequestFilter {
     
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+    public static final String COST_HEADER = "X-RateLimit-Cost";
+    public static final String BYTES_LIMIT_HEADER = "X-RateLimit-Bytes-Limit";
+    public static final String BYTES_REMAINING_HEADER = "X-RateLimit-Bytes-Remaining";
+    
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
-    private static final int RETRY_AFTER_SECONDS = 60;
+    // Chunked bodies are charged as the largest message body the API accepts, rounded up
+    private static final int UNKNOWN_LENGTH_BYTES = 64 * 1024;
+    // Admin-only bulk uploads still count as one request but are exempt from the byte limit
+    private static final RouteMatcher<Boolean> BYTE_EXEMPT_PATHS = RouteMatcher.of(ApiConstants.IMPORTS_PATH);
     
-    private final RateLimitConfig rateLimitConfig;
-    private final PathMatcher pathMatcher;
+    private final RateLimiter apiKeyRateLimiter;
+    private final RateLimiter apiKeyByteRateLimiter;
+    private final RateLimiter unknownKeyRateLimiter;
+    private final RouteCostTable routeCosts;
+    private final ApiKeyResolver apiKeyResolver;
+    private final RouteClassifier routeClassifier;
     
-    public RateLimitFilter(RateLimitConfig rateLimitConfig, PathMatcher pathMatcher) {
-        this.rateLimitConfig = rateLimitConfig;
-        this.pathMatcher = pathMatcher;
+    public RateLimitFilter(@Qualifier("apiKeyRateLimiter") RateLimiter apiKeyRateLimiter,
+                           @Qualifier("apiKeyByteRateLimiter") RateLimiter apiKeyByteRateLimiter,
+                           @Qualifier("unknownKeyRateLimiter") RateLimiter unknownKeyRateLimiter,
+                           RouteCostTable routeCosts,
+                           ApiKeyResolver apiKeyResolver,
+                           RouteClassifier routeClassifier) {
+        this.apiKeyRateLimiter = apiKeyRateLimiter;
+        this.apiKeyByteRateLimiter = apiKeyByteRateLimiter;
+        this.unknownKeyRateLimiter = unknownKeyRateLimiter;
+        this.routeCosts = routeCosts;
+        this.apiKeyResolver = apiKeyResolver;
+        this.routeClassifier = routeClassifier;
     }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         
-        String path = request.getRequestURI();
-        if (pathMatcher.matchesAny(path, ApiConstants.SKIP_LOGGING_PATHS)) {
+        if (routeClassifier.classify(request).isSkipLogging()) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -46,24 +87,107 @@ public class RateLimitFilter extends OncePerRequestFilter {
         String apiKey = request.getHeader(ApiConstants.API_KEY_HEADER);
         
         if (apiKey != null && !apiKey.isBlank()) {
-            Bucket apiKeyBucket = rateLimitConfig.getApiKeyBucket(apiKey);
-            if (!apiKeyBucket.tryConsume(1)) {
+            int cost = routeCosts.costOf(request.getMethod(), request.getRequestURI());
+            String address = request.getRemoteAddr();
+            long unknownLimit = unknownKeyRateLimiter.limit();
+            RateLimitResult lookup = null;
+            if (!apiKeyResolver.isResolvedWithoutLookup(request)) {
+                lookup = unknownKeyRateLimiter.tryConsume(address, cost, unknownLimit);
+                if (!lookup.allowed()) {
+                    setRequestHeaders(response, lookup, cost, unknownLimit);
+                    logger.warn("Rate limit exceeded - API key lookup limit for URI: {}", request.getRequestURI());
+                    handleRateLimitExceeded(response, "API key rate limit exceeded", lookup);
+                    return;
+                }
+            }
+            ApiKeyPrincipal principal = apiKeyResolver.resolve(request);
+            if (principal == null) {
+                RateLimitResult requests = lookup != null
+                    ? lookup
+                    : unknownKeyRateLimiter.tryConsume(address, cost, unknownLimit);
+                setRequestHeaders(response, requests, cost, unknownLimit);
+                if (!requests.allowed()) {
+                    logger.warn("Rate limit exceeded - unknown API key limit for URI: {}", request.getRequestURI());
+                    handleRateLimitExceeded(response, "API key rate limit exceeded", requests);
+                    return;
+                }
+                filterChain.doFilter(request, response);
+                return;
+            }
+            if (lookup != null) {
+                // A valid key is charged against its own limit instead
+                unknownKeyRateLimiter.refund(address, cost, unknownLimit);
+            }
+            
+            long limit = requestLimit(principal);
+            RateLimitResult requests = apiKeyRateLimiter.tryConsume(apiKey, cost, limit);
+            setRequestHeaders(response, requests, cost, limit);
+            if (!requests.allowed()) {
                 logger.warn("Rate limit exceeded - API key limit for URI: {}", request.getRequestURI());
-                handleRateLimitExceeded(response, "API key rate limit exceeded");
+                handleRateLimitExceeded(response, "API key rate limit exceeded", requests);
                 return;
             }
+            
+            int bytes = BYTE_EXEMPT_PATHS.matches(request.getRequestURI()) ? 0 : bodyBytes(request);
+            if (bytes > 0) {
+                RateLimitResult byteResult = apiKeyByteRateLimiter.tryConsume(apiKey, bytes);
+                setByteHeaders(response, byteResult);
+                if (!byteResult.allowed()) {
+                    apiKeyRateLimiter.refund(apiKey, cost, limit);
+                    logger.warn("Rate limit exceeded - API key byte limit for URI: {}", request.getRequestURI());
+                    handleRateLimitExceeded(response, "API key byte rate limit exceeded", byteResult);
+                    return;
+                }
+            }
         }
         
         filterChain.doFilter(request, response);
     }
     
-    private void handleRateLimitExceeded(HttpServletResponse response, String message) throws IOException {
+    private long requestLimit(ApiKeyPrincipal principal) {
+        if (principal.requestsPerMinute() != null) {
+            return principal.requestsPerMinute();
+        }
+        return apiKeyRateLimiter.limit();
+    }
+    
+    private static int bodyBytes(HttpServletRequest request) {
+        long contentLength = request.getContentLengthLong();
+        if (contentLength >= 0) {
+            return (int) Math.min(contentLength, Integer.MAX_VALUE);
+        }
+        String transferEncoding = request.getHeader("Transfer-Encoding");
+        return transferEncoding != null ? UNKNOWN_LENGTH_BYTES : 0;
+    }
+    
+    private void setRequestHeaders(HttpServletResponse response, RateLimitResult result, int cost, long limit) {
+        response.setHeader(LIMIT_HEADER, String.valueOf(limit));
+        response.setHeader(REMAINING_HEADER, String.valueOf(result.remaining()));
+        response.setHeader(RESET_HEADER, String.valueOf(resetSeconds(result)));
+        response.setHeader(COST_HEADER, String.valueOf(cost));
+    }
+    
+    private void setByteHeaders(HttpServletResponse response, RateLimitResult result) {
+        if (apiKeyByteRateLimiter == RateLimiter.UNLIMITED) {
+            return;
+        }
+        response.setHeader(BYTES_LIMIT_HEADER, String.valueOf(apiKeyByteRateLimiter.limit()));
+        response.setHeader(BYTES_REMAINING_HEADER, String.valueOf(result.remaining()));
+    }
+    
+    private static long resetSeconds(RateLimitResult result) {
+        return Math.max(1L, (result.resetMillis() + 999L) / 1000L);
+    }
+    
+    private void handleRateLimitExceeded(HttpServletResponse response, String message,
+                                         RateLimitResult result) throws IOException {
         ErrorCode errorCode = ErrorCode.RATE_LIMIT_EXCEEDED;
         HttpStatus status = errorCode.getHttpStatus();
+        long retryAfter = resetSeconds(result);
         
         response.setStatus(status.value());
         response.setContentType("application/json");
-        response.setHeader("Retry-After", String.valueOf(RETRY_AFTER_SECONDS));
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
         response.getWriter().write(String.format(
             "{\"type\":\"%s\"," +
             "\"title\":\"%s\"," +
@@ -74,6 +198,6 @@ public class RateLimitFilter extends OncePerRequestFilter {
             errorCode.getTitle(),
             status.value(),
             message,
-            RETRY_AFTER_SECONDS));
+            retryAfter));
     }
 }
@@ -1,7 +1,9 @@
 package com.codegensis.ragstore.filter;
 
-import com.codegensis.ragstore.constant.ApiConstants;
-import com.codegensis.ragstore.util.PathMatcher;
+import com.codegensis.ragstore.logging.LogSampler;
+import com.codegensis.ragstore.util.RouteClassifier;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,26 +11,49 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Logs one line per request with method, URI, status, duration and body sizes.
+ * Bodies are streamed straight through a counting wrapper rather than buffered, so logging
+ * costs the same for a 50KB message page as for an empty response. Asynchronous (streaming)
+ * requests are logged when the async cycle completes. Successful requests are sampled by
+ * {@link LogSampler}; failures are always logged.
+ * <p>
+ * Body sampling is off by default. When {@code app.logging.body-sample-bytes} is positive,
+ * that fraction of requests given by {@code app.logging.body-sample-rate} also logs the
+ * first N bytes of the request and response bodies.
+ */
 @Component
 @Order(0)
 public class RequestLoggingFilter extends OncePerRequestFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
     private static final int REQUEST_ID_LENGTH = 8;
     
-    private final PathMatcher pathMatcher;
+    private final RouteClassifier routeClassifier;
+    private final LogSampler logSampler;
+    private final int bodySampleBytes;
+    private final double bodySampleRate;
     
-    public RequestLoggingFilter(PathMatcher pathMatcher) {
-        this.pathMatcher = pathMatcher;
+    public RequestLoggingFilter(
+            RouteClassifier routeClassifier,
+            LogSampler logSampler,
+            @Value("${app.logging.body-sample-bytes:0}") int bodySampleBytes,
+            @Value("${app.logging.body-sample-rate:0.01}") double bodySampleRate) {
+        this.routeClassifier = routeClassifier;
+        this.logSampler = logSampler;
+        this.bodySampleBytes = bodySampleBytes;
+        this.bodySampleRate = bodySampleRate;
     }
     
     @Override
@@ -37,53 +62,136 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) 
             throws ServletException, IOException {
         
-        String path = request.getRequestURI();
-        if (pathMatcher.matchesAny(path, ApiConstants.SKIP_LOGGING_PATHS)) {
+        if (routeClassifier.classify(request).isSkipLogging()) {
             filterChain.doFilter(request, response);
             return;
         }
         
-        String requestId = UUID.randomUUID().toString().substring(0, REQUEST_ID_LENGTH);
-        setMDC(requestId);
+        String requestId = newRequestId();
+        MDC.put("requestId", requestId);
+        long startNanos = System.nanoTime();
         
-        long startTime = System.currentTimeMillis();
+        ByteCountingRequestWrapper sampledRequest = null;
+        ByteCountingResponseWrapper countingResponse;
+        if (shouldSampleBody()) {
+            sampledRequest = new ByteCountingRequestWrapper(request, new BodySample(bodySampleBytes));
+            countingResponse = new ByteCountingResponseWrapper(response, new BodySample(bodySampleBytes));
+        } else {
+            countingResponse = new ByteCountingResponseWrapper(response, null);
+        }
+        HttpServletRequest forwardedRequest = sampledRequest != null ? sampledRequest : request;
         
         try {
-            ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-            ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
-            
-            logRequest(request);
-            filterChain.doFilter(wrappedRequest, wrappedResponse);
-            
-            long duration = System.currentTimeMillis() - startTime;
-            logger.info("Outgoing response - Status: {}, Duration: {}ms", 
-                wrappedResponse.getStatus(), duration);
-            
-            wrappedResponse.copyBodyToResponse();
+            filterChain.doFilter(forwardedRequest, countingResponse);
             
+            if (forwardedRequest.isAsyncStarted()) {
+                forwardedRequest.getAsyncContext().addListener(
+                    new CompletionListener(requestId, request, sampledRequest, countingResponse, startNanos));
+            } else {
+                logCompletion(request, sampledRequest, countingResponse, startNanos);
+            }
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
             logger.error("Request processing failed - Duration: {}ms, Error: {}", 
-                duration, e.getMessage(), e);
+                elapsedMillis(startNanos), e.getMessage(), e);
             throw e;
         } finally {
             MDC.clear();
         }
     }
     
-    private void setMDC(String requestId) {
-        MDC.put("requestId", requestId);
+    private boolean shouldSampleBody() {
+        return bodySampleBytes > 0 && ThreadLocalRandom.current().nextDouble() < bodySampleRate;
     }
     
-    private void logRequest(HttpServletRequest request) {
-        String userId = request.getParameter("userId");
-        String queryString = request.getQueryString();
+    private void logCompletion(HttpServletRequest request, ByteCountingRequestWrapper sampledRequest,
+                               ByteCountingResponseWrapper response, long startNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (!logSampler.shouldLog(request.getMethod(), pattern != null ? pattern.toString() : null, response.getStatus())) {
+            return;
+        }
+        
+        long bytesIn = sampledRequest != null
+            ? sampledRequest.getBytesRead()
+            : Math.max(0, request.getContentLengthLong());
+        String query = request.getQueryString();
         
-        logger.info("Incoming request - Method: {}, URI: {}, Query: {}, User ID: {}", 
-            request.getMethod(), 
+        logger.info("Request completed - Method: {}, URI: {}{}, Status: {}, Duration: {}ms, Bytes in: {}, Bytes out: {}",
+            request.getMethod(),
             request.getRequestURI(),
-            queryString != null ? queryString : "none",
-            userId != null ? userId : "none");
+            query != null ? "?" + query : "",
+            response.getStatus(),
+            elapsedMillis(startNanos),
+            bytesIn,
+            response.getBytesWritten());
+        
+        if (sampledRequest != null) {
+            logger.info("Body sample - Request: {}, Response: {}", sampledRequest.getSample(), response.getSample());
+        }
+    }
+    
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+    
+    /** Random hex id for log correlation; needs neither uniqueness guarantees nor a secure random source. */
+    static String newRequestId() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        char[] id = new char[REQUEST_ID_LENGTH];
+        for (int i = REQUEST_ID_LENGTH - 1; i >= 0; i--) {
+            id[i] = HEX[bits & 0xF];
+            bits >>>= 4;
+        }
+        return new String(id);
     }
     
+    /** Logs streaming requests once the response is finished, on whichever thread completes it. */
+    private final class CompletionListener implements AsyncListener {
+        
+        private final String requestId;
+        private final HttpServletRequest request;
+        private final ByteCountingRequestWrapper sampledRequest;
+        private final ByteCountingResponseWrapper response;
+        private final long startNanos;
+        
+        CompletionListener(String requestId, HttpServletRequest request, ByteCountingRequestWrapper sampledRequest,
+                           ByteCountingResponseWrapper response, long startNanos) {
+            this.requestId = requestId;
+            this.request = request;
+            this.sampledRequest = sampledRequest;
+            this.response = response;
+            this.startNanos = startNanos;
+        }
+        
+        @Override
+        public void onComplete(AsyncEvent event) {
+            MDC.put("requestId", requestId);
+            try {
+                logCompletion(request, sampledRequest, response, startNanos);
+            } finally {
+                MDC.remove("requestId");
+            }
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete follows once the container finishes the timed-out request
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            MDC.put("requestId", requestId);
+            try {
+                Throwable error = event.getThrowable();
+                logger.error("Streaming request failed - Duration: {}ms, Error: {}",
+                    elapsedMillis(startNanos), error != null ? error.getMessage() : "unknown");
+            } finally {
+                MDC.remove("requestId");
+            }
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.codegensis.ragstore.grpc;
+
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.VerifiedKeyCache;
+import com.codegensis.ragstore.grpc.v1.ChatStorageGrpc;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import com.codegensis.ragstore.ratelimit.RouteCostTable;
+import com.codegensis.ragstore.service.ApiKeyService;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Authenticates gRPC calls by their {@code x-api-key} metadata with the same key registry as
+ * the REST API, and checks the key has the scope its method needs: {@code write} to append,
+ * {@code read} to read or watch. Methods not listed require {@code admin}.
+ * <p>
+ * Each call is charged against the key's request limit like a REST request, at the cost
+ * configured for {@code POST /<full method name>}, the path gRPC sends it on. Unknown keys, and
+ * keys that must be looked up in the database, are charged per client address first, as in
+ * {@code RateLimitFilter}.
+ */
+@Component
+public class ApiKeyServerInterceptor implements ServerInterceptor {
+    
+    public static final Metadata.Key<String> API_KEY = Metadata.Key.of("x-api-key", Metadata.ASCII_STRING_MARSHALLER);
+    public static final Context.Key<ApiKeyPrincipal> PRINCIPAL = Context.key("ragstore-principal");
+    
+    private static final Logger logger = LoggerFactory.getLogger(ApiKeyServerInterceptor.class);
+    private static final Map<String, String> METHOD_SCOPES = Map.of(
+        ChatStorageGrpc.getAppendMessagesMethod().getFullMethodName(), ApiKeyPrincipal.SCOPE_WRITE,
+        ChatStorageGrpc.getReadMessagesMethod().getFullMethodName(), ApiKeyPrincipal.SCOPE_READ,
+        ChatStorageGrpc.getWatchSessionMethod().getFullMethodName(), ApiKeyPrincipal.SCOPE_READ
+    );
+    
+    private final ApiKeyService apiKeyService;
+    private final RateLimiter apiKeyRateLimiter;
+    private final RateLimiter unknownKeyRateLimiter;
+    private final RouteCostTable routeCosts;
+    
+    public ApiKeyServerInterceptor(ApiKeyService apiKeyService,
+                                   @Qualifier("apiKeyRateLimiter") RateLimiter apiKeyRateLimiter,
+                                   @Qualifier("unknownKeyRateLimiter") RateLimiter unknownKeyRateLimiter,
+                                   RouteCostTable routeCosts) {
+        this.apiKeyService = apiKeyService;
+        this.apiKeyRateLimiter = apiKeyRateLimiter;
+        this.unknownKeyRateLimiter = unknownKeyRateLimiter;
+        this.routeCosts = routeCosts;
+    }
+    
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String method = call.getMethodDescriptor().getFullMethodName();
+        String apiKey = headers.get(API_KEY);
+        if (apiKey == null || apiKey.isBlank()) {
+            return reject(call, Status.UNAUTHENTICATED.withDescription("Missing API key"));
+        }
+        
+        int cost = routeCosts.costOf("POST", "/" + method);
+        String address = remoteAddress(call);
+        VerifiedKeyCache.Entry known = apiKeyService.findCached(apiKey);
+        // A key that needs a database lookup is charged to the address first, as in RateLimitFilter
+        if (known == null && !unknownKeyRateLimiter.tryConsume(address, cost).allowed()) {
+            logger.warn("Rate limit exceeded - API key lookup limit for gRPC method: {}", method);
+            return reject(call, Status.RESOURCE_EXHAUSTED.withDescription("API key rate limit exceeded"));
+        }
+        Optional<ApiKeyPrincipal> principal = apiKeyService.authenticate(apiKey);
+        if (principal.isEmpty()) {
+            if (known != null && !unknownKeyRateLimiter.tryConsume(address, cost).allowed()) {
+                logger.warn("Rate limit exceeded - unknown API key limit for gRPC method: {}", method);
+                return reject(call, Status.RESOURCE_EXHAUSTED.withDescription("API key rate limit exceeded"));
+            }
+            logger.warn("Authentication failed - Invalid API key for gRPC method: {}", method);
+            return reject(call, Status.UNAUTHENTICATED.withDescription("Invalid API key"));
+        }
+        if (known == null) {
+            unknownKeyRateLimiter.refund(address, cost);
+        }
+        String scope = METHOD_SCOPES.getOrDefault(method, ApiKeyPrincipal.SCOPE_ADMIN);
+        if (!principal.get().hasScope(scope)) {
+            return reject(call, Status.PERMISSION_DENIED.withDescription("API key lacks the " + scope + " scope"));
+        }
+        Integer ownLimit = principal.get().requestsPerMinute();
+        long limit = ownLimit != null ? ownLimit : apiKeyRateLimiter.limit();
+        if (!apiKeyRateLimiter.tryConsume(apiKey, cost, limit).allowed()) {
+            logger.warn("Rate limit exceeded - API key limit for gRPC method: {}", method);
+            return reject(call, Status.RESOURCE_EXHAUSTED.withDescription("API key rate limit exceeded"));
+        }
+        
+        Context context = Context.current().withValue(PRINCIPAL, principal.get());
+        return Contexts.interceptCall(context, call, headers, next);
+    }
+    
+    private static String remoteAddress(ServerCall<?, ?> call) {
+        SocketAddress address = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (address instanceof InetSocketAddress inet && inet.getAddress() != null) {
+            return inet.getAddress().getHostAddress();
+        }
+        return String.valueOf(address);
+    }
+    
+    private static <ReqT, RespT> ServerCall.Listener<ReqT> reject(ServerCall<ReqT, RespT> call, Status status) {
+        call.close(status, new Metadata());
+        return new ServerCall.Listener<>() {
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.codegensis.ragstore.grpc;
+
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.grpc.v1.AppendMessageRequest;
+import com.codegensis.ragstore.grpc.v1.AppendMessagesResponse;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import com.codegensis.ragstore.grpc.v1.ChatStorageGrpc;
+import com.codegensis.ragstore.grpc.v1.ReadMessagesRequest;
+import com.codegensis.ragstore.grpc.v1.WatchSessionRequest;
+import com.codegensis.ragstore.mapper.ChatMessageProtoMapper;
+import com.codegensis.ragstore.service.MessageService;
+import com.codegensis.ragstore.service.ReactiveChatService;
+import io.grpc.Metadata;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gRPC counterpart of the message and stream controllers. Appends go through
+ * {@link MessageService} in batches and reads through {@link ReactiveChatService}, so both APIs
+ * validate, store and broadcast messages the same way.
+ */
+@Component
+public class ChatStorageGrpcService extends ChatStorageGrpc.ChatStorageImplBase {
+    
+    public static final Metadata.Key<String> APPENDED_COUNT =
+        Metadata.Key.of("ragstore-appended-count", Metadata.ASCII_STRING_MARSHALLER);
+    
+    private static final Logger logger = LoggerFactory.getLogger(ChatStorageGrpcService.class);
+    private static final int DEFAULT_LIMIT = 100;
+    
+    private final MessageService messageService;
+    private final ReactiveChatService reactiveChatService;
+    private final ChatMessageProtoMapper mapper;
+    private final int appendBatchSize;
+    
+    public ChatStorageGrpcService(MessageService messageService,
+                                  ReactiveChatService reactiveChatService,
+                                  ChatMessageProtoMapper mapper,
+                                  @Value("${app.grpc.append-batch-size:100}") int appendBatchSize) {
+        if (appendBatchSize < 1) {
+            throw new IllegalArgumentException("Append batch size must be at least 1");
+        }
+        this.messageService = messageService;
+        this.reactiveChatService = reactiveChatService;
+        this.mapper = mapper;
+        this.appendBatchSize = appendBatchSize;
+    }
+    
+    /**
+     * Only one batch worth of messages is requested from the client at a time, and more are
+     * requested as each batch is stored, so a client streaming faster than the database can
+     * write is held back by HTTP/2 flow control instead of growing the server's heap.
+     */
+    @Override
+    public StreamObserver<AppendMessageRequest> appendMessages(StreamObserver<AppendMessagesResponse> responseObserver) {
+        ServerCallStreamObserver<AppendMessagesResponse> call = (ServerCallStreamObserver<AppendMessagesResponse>) responseObserver;
+        call.disableAutoRequest();
+        call.request(appendBatchSize);
+        return new AppendBatcher(call);
+    }
+    
+    @Override
+    public void readMessages(ReadMessagesRequest request, StreamObserver<ChatMessage> responseObserver) {
+        int limit = request.getLimit() == 0 ? DEFAULT_LIMIT : request.getLimit();
+        FlowControlledStreams.send(
+            reactiveChatService.getMessagesAfter(request.getSessionId(), request.getAfterSeq(), limit).map(mapper::toProto),
+            responseObserver);
+    }
+    
+    @Override
+    public void watchSession(WatchSessionRequest request, StreamObserver<ChatMessage> responseObserver) {
+        int backlogLimit = request.getBacklogLimit() == 0 ? DEFAULT_LIMIT : request.getBacklogLimit();
+        FlowControlledStreams.send(
+            reactiveChatService.tailMessages(request.getSessionId(), request.getAfterSeq(), backlogLimit).map(mapper::toProto),
+            responseObserver);
+    }
+    
+    /**
+     * Collects consecutive messages for the same session and stores them once the batch is full,
+     * the session changes or the client completes. gRPC delivers one callback at a time per
+     * call, so the fields need no synchronization.
+     */
+    private final class AppendBatcher implements StreamObserver<AppendMessageRequest> {
+        
+        private final ServerCallStreamObserver<AppendMessagesResponse> call;
+        private List<AddMessageRequest> batch = new ArrayList<>();
+        private long batchSessionId;
+        private int appended;
+        private long lastMessageId;
+        private long lastSeq;
+        private boolean failed;
+        
+        AppendBatcher(ServerCallStreamObserver<AppendMessagesResponse> call) {
+            this.call = call;
+        }
+        
+        @Override
+        public void onNext(AppendMessageRequest request) {
+            if (failed) {
+                return;
+            }
+            if (!batch.isEmpty() && request.getSessionId() != batchSessionId && !flush()) {
+                return;
+            }
+            batchSessionId = request.getSessionId();
+            batch.add(mapper.toRequest(request));
+            if (batch.size() >= appendBatchSize) {
+                flush();
+            }
+        }
+        
+        @Override
+        public void onError(Throwable error) {
+            logger.debug("AppendMessages cancelled by client after {} messages: {}", appended, error.getMessage());
+            batch = List.of();
+        }
+        
+        @Override
+        public void onCompleted() {
+            if (failed || !flush()) {
+                return;
+            }
+            call.onNext(AppendMessagesResponse.newBuilder()
+                .setAppendedCount(appended)
+                .setLastMessageId(lastMessageId)
+                .setLastSeq(lastSeq)
+                .build());
+            call.onCompleted();
+        }
+        
+        private boolean flush() {
+            if (batch.isEmpty()) {
+                return true;
+            }
+            int size = batch.size();
+            try {
+                List<MessageResponse> saved = messageService.addMessages(batchSessionId, batch);
+                appended += saved.size();
+                MessageResponse last = saved.get(saved.size() - 1);
+                lastMessageId = last.id();
+                lastSeq = last.seq();
+            } catch (RuntimeException e) {
+                failed = true;
+                Metadata trailers = new Metadata();
+                trailers.put(APPENDED_COUNT, String.valueOf(appended));
+                call.onError(GrpcStatuses.toStatus(e).asRuntimeException(trailers));
+                return false;
+            }
+            batch = new ArrayList<>(appendBatchSize);
+            call.request(size);
+            return true;
+        }
+    }
+}
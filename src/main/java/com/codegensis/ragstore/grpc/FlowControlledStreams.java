@@ -0,0 +1,71 @@
+package com.codegensis.ragstore.grpc;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends a {@link Flux} as a server-streaming response, pulling one element at a time and only
+ * while the call is ready. A slow client therefore stalls the database cursor or leaves live
+ * messages in the broadcaster's bounded buffer, rather than filling the transport's buffers.
+ */
+public final class FlowControlledStreams {
+    
+    private FlowControlledStreams() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    
+    public static <T> void send(Flux<T> source, StreamObserver<T> responseObserver) {
+        ServerCallStreamObserver<T> call = (ServerCallStreamObserver<T>) responseObserver;
+        ReadySubscriber<T> subscriber = new ReadySubscriber<>(call);
+        call.setOnReadyHandler(subscriber::requestIfReady);
+        call.setOnCancelHandler(subscriber::dispose);
+        source.subscribe(subscriber);
+    }
+    
+    private static final class ReadySubscriber<T> extends BaseSubscriber<T> {
+        
+        private final ServerCallStreamObserver<T> call;
+        // Set while one element is requested and not yet delivered
+        private final AtomicBoolean requested = new AtomicBoolean();
+        
+        ReadySubscriber(ServerCallStreamObserver<T> call) {
+            this.call = call;
+        }
+        
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            requestIfReady();
+        }
+        
+        @Override
+        protected void hookOnNext(T value) {
+            requested.set(false);
+            call.onNext(value);
+            requestIfReady();
+        }
+        
+        @Override
+        protected void hookOnComplete() {
+            call.onCompleted();
+        }
+        
+        @Override
+        protected void hookOnError(Throwable error) {
+            if (!call.isCancelled()) {
+                call.onError(GrpcStatuses.toStatus(error).asRuntimeException());
+            }
+        }
+        
+        void requestIfReady() {
+            // Before onSubscribe there is nothing to request from; hookOnSubscribe asks again
+            if (upstream() != null && !isDisposed() && call.isReady() && requested.compareAndSet(false, true)) {
+                request(1);
+            }
+        }
+    }
+}
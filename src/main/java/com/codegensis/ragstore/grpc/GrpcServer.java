@@ -0,0 +1,103 @@
+package com.codegensis.ragstore.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the gRPC API on its own port next to the embedded web server. Calls run on a fixed pool
+ * rather than gRPC's unbounded default, since appends block on the database. Shutdown lets
+ * in-flight calls finish for up to the grace period, then cancels the rest.
+ */
+@Component
+@ConditionalOnProperty(name = "app.grpc.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServer implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+    
+    private final ChatStorageGrpcService chatStorageService;
+    private final ApiKeyServerInterceptor apiKeyInterceptor;
+    private final int port;
+    private final int threads;
+    private final Duration shutdownGracePeriod;
+    private ExecutorService executor;
+    private volatile Server server;
+    
+    public GrpcServer(ChatStorageGrpcService chatStorageService,
+                      ApiKeyServerInterceptor apiKeyInterceptor,
+                      @Value("${app.grpc.port:9090}") int port,
+                      @Value("${app.grpc.threads:16}") int threads,
+                      @Value("${app.grpc.shutdown-grace-period:10s}") Duration shutdownGracePeriod) {
+        this.chatStorageService = chatStorageService;
+        this.apiKeyInterceptor = apiKeyInterceptor;
+        this.port = port;
+        this.threads = threads;
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+    
+    @Override
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "grpc-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            server = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .addService(ServerInterceptors.intercept(chatStorageService, apiKeyInterceptor))
+                .build()
+                .start();
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Could not start gRPC server on port " + port, e);
+        }
+        logger.info("gRPC server started on port {}", server.getPort());
+    }
+    
+    @Override
+    public void stop() {
+        Server current = server;
+        if (current == null) {
+            return;
+        }
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+    
+    /** The bound port, which differs from the configured one when that is {@code 0}. */
+    public int getPort() {
+        Server current = server;
+        return current != null ? current.getPort() : -1;
+    }
+}
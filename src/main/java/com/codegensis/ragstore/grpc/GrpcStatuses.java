@@ -0,0 +1,52 @@
+package com.codegensis.ragstore.grpc;
+
+import com.codegensis.ragstore.exception.ApiException;
+import io.grpc.Status;
+import io.grpc.StatusException;
+import io.grpc.StatusRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+
+/**
+ * Maps service exceptions to gRPC statuses, the counterpart of {@code GlobalExceptionHandler}
+ * for the REST API. Unexpected errors are logged and sent as {@code INTERNAL} without details.
+ */
+public final class GrpcStatuses {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GrpcStatuses.class);
+    
+    private GrpcStatuses() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+    
+    public static Status toStatus(Throwable error) {
+        if (error instanceof StatusRuntimeException statusError) {
+            return statusError.getStatus();
+        }
+        if (error instanceof StatusException statusError) {
+            return statusError.getStatus();
+        }
+        if (error instanceof ApiException apiError) {
+            return toStatus(apiError).withDescription(apiError.getMessage());
+        }
+        if (Exceptions.isOverflow(error)) {
+            return Status.RESOURCE_EXHAUSTED
+                .withDescription("Subscriber fell behind; reconnect with the last message id received");
+        }
+        logger.error("Unexpected error in gRPC call", error);
+        return Status.INTERNAL.withDescription("An unexpected error occurred");
+    }
+    
+    private static Status toStatus(ApiException error) {
+        return switch (error.getErrorCode()) {
+            case RESOURCE_NOT_FOUND -> Status.NOT_FOUND;
+            case VALIDATION_ERROR -> Status.INVALID_ARGUMENT;
+            case RATE_LIMIT_EXCEEDED -> Status.RESOURCE_EXHAUSTED;
+            case CONFLICT -> Status.ABORTED;
+            case IDEMPOTENCY_KEY_REUSED -> Status.FAILED_PRECONDITION;
+            case SERVICE_OVERLOADED -> Status.UNAVAILABLE;
+            case INTERNAL_SERVER_ERROR -> Status.INTERNAL;
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.codegensis.ragstore.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stored responses in the {@code idempotency_keys} table, keyed by tenant and idempotency key.
+ * A row without a status is a claim: a request with that key is executing. The primary key
+ * makes claiming atomic across instances.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final String SELECT =
+        "SELECT request_hash, response_status, response_body, created_at, expires_at " +
+        "FROM idempotency_keys WHERE tenant_id = ? AND idempotency_key = ?";
+    private static final String INSERT =
+        "INSERT INTO idempotency_keys (tenant_id, idempotency_key, request_hash, created_at, expires_at) " +
+        "VALUES (?, ?, ?, ?, ?)";
+    private static final String COMPLETE =
+        "UPDATE idempotency_keys SET response_status = ?, response_body = ? " +
+        "WHERE tenant_id = ? AND idempotency_key = ? AND created_at = ? AND response_status IS NULL";
+    private static final String RELEASE =
+        "DELETE FROM idempotency_keys " +
+        "WHERE tenant_id = ? AND idempotency_key = ? AND created_at = ? AND response_status IS NULL";
+    private static final String REMOVE =
+        "DELETE FROM idempotency_keys WHERE tenant_id = ? AND idempotency_key = ? AND created_at = ?";
+    private static final String PURGE =
+        "DELETE FROM idempotency_keys WHERE expires_at < ?";
+
+    /** A claimed or completed key; {@code status} and {@code body} are null while executing. */
+    public record StoredResponse(String requestHash, Integer status, String body, long createdAt, long expiresAt) {
+
+        public boolean isComplete() {
+            return status != null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<StoredResponse> find(String tenantId, String key) {
+        List<StoredResponse> rows = jdbcTemplate.query(SELECT, (rs, rowNum) -> new StoredResponse(
+            rs.getString(1), (Integer) rs.getObject(2), rs.getString(3), rs.getLong(4), rs.getLong(5)),
+            tenantId, key);
+        return rows.stream().findFirst();
+    }
+
+    /** Inserts a claim, or returns false when the key already has a row. */
+    public boolean claim(String tenantId, String key, String requestHash, long createdAt, long expiresAt) {
+        try {
+            jdbcTemplate.update(INSERT, tenantId, key, requestHash, createdAt, expiresAt);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores the response on the claim made at {@code createdAt}, or returns false when that
+     * claim is gone because another request took the key over.
+     */
+    public boolean complete(String tenantId, String key, long createdAt, int status, String body) {
+        return jdbcTemplate.update(COMPLETE, status, body, tenantId, key, createdAt) > 0;
+    }
+
+    /** Deletes the claim made at {@code createdAt} if it has no response, so a stored one is never lost. */
+    public boolean release(String tenantId, String key, long createdAt) {
+        return jdbcTemplate.update(RELEASE, tenantId, key, createdAt) > 0;
+    }
+
+    /** Deletes the row made at {@code createdAt}, leaving a newer claim on the same key alone. */
+    public boolean remove(String tenantId, String key, long createdAt) {
+        return jdbcTemplate.update(REMOVE, tenantId, key, createdAt) > 0;
+    }
+
+    public int purgeExpired(long now) {
+        return jdbcTemplate.update(PURGE, now);
+    }
+}
@@ -0,0 +1,313 @@
+package com.codegensis.ragstore.idempotency;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.exception.ConflictException;
+import com.codegensis.ragstore.exception.IdempotencyKeyReusedException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs creating requests at most once per {@code Idempotency-Key} and tenant, and replays the
+ * first response to retries. Responses live in the {@link IdempotencyStore} for the TTL, with
+ * recent ones also kept in memory so a quick retry costs no database round trip.
+ * <p>
+ * Duplicates arriving while the first request still runs wait for it on this instance; on
+ * another instance they see its claim and get {@code 409}. A request that fails stores
+ * nothing, so it can be retried with the same key. Reusing a key for a different request
+ * gets {@code 422}.
+ * <p>
+ * The action runs in one transaction with storing its response, so a write is never committed
+ * without the response that replays it. A claim without a response after the lock timeout is
+ * therefore one whose write did not commit, and the key is taken over. If the first request
+ * was merely slow, storing its response then finds the claim gone and its write is rolled
+ * back, so only one of the two ever commits.
+ */
+@Component
+public class IdempotentExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentExecutor.class);
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlMillis;
+    private final long lockTimeoutMillis;
+    private final long cacheTtlMillis;
+    private final LongSupplier clock;
+    // Guarded by itself; access-ordered, so the least recently used response is dropped when full
+    private final LinkedHashMap<String, Cached> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyStore.StoredResponse>> inFlight =
+        new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    @Autowired
+    public IdempotentExecutor(IdempotencyStore store,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${app.idempotency.lock-timeout:30s}") Duration lockTimeout,
+                              @Value("${app.idempotency.cache.ttl:5m}") Duration cacheTtl,
+                              @Value("${app.idempotency.cache.max-entries:1000}") int cacheMaxEntries) {
+        this(store, objectMapper, transactionManager, ttl, lockTimeout, cacheTtl, cacheMaxEntries,
+            System::currentTimeMillis);
+    }
+
+    IdempotentExecutor(IdempotencyStore store, ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                       Duration ttl, Duration lockTimeout, Duration cacheTtl, int cacheMaxEntries, LongSupplier clock) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlMillis = ttl.toMillis();
+        this.lockTimeoutMillis = lockTimeout.toMillis();
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
+        this.clock = clock;
+    }
+
+    /**
+     * Runs {@code action} and answers with {@code status}, or replays the stored response when
+     * {@code key} was seen before. Without a key the action simply runs.
+     *
+     * @param operation identifies the endpoint and path variables, so the same body sent to
+     *                  another session counts as a different request
+     */
+    public <T> ResponseEntity<T> execute(String key, String operation, Object request, HttpStatus status,
+                                         Class<T> type, Supplier<T> action) {
+        if (key == null) {
+            return ResponseEntity.status(status).body(action.get());
+        }
+        if (key.isBlank() || key.length() > ApiConstants.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new ValidationException(ApiConstants.IDEMPOTENCY_KEY_HEADER + " must be 1 to "
+                + ApiConstants.MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        String tenantId = currentTenant();
+        String requestHash = hash(operation, request);
+        String cacheKey = tenantId + '\n' + key;
+
+        while (true) {
+            Cached cached = cached(cacheKey);
+            if (cached != null) {
+                return replay(cached.response(), requestHash, type);
+            }
+
+            CompletableFuture<IdempotencyStore.StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<IdempotencyStore.StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+            if (running == null) {
+                try {
+                    return executeOnce(tenantId, key, cacheKey, requestHash, status, type, action, mine);
+                } catch (RuntimeException e) {
+                    mine.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.remove(cacheKey, mine);
+                }
+            }
+            IdempotencyStore.StoredResponse stored = await(running);
+            if (stored != null) {
+                return replay(stored, requestHash, type);
+            }
+            // The first request failed and stored nothing; run this one instead
+        }
+    }
+
+    private <T> ResponseEntity<T> executeOnce(String tenantId, String key, String cacheKey, String requestHash,
+                                              HttpStatus status, Class<T> type, Supplier<T> action,
+                                              CompletableFuture<IdempotencyStore.StoredResponse> result) {
+        long now = clock.getAsLong();
+        Optional<IdempotencyStore.StoredResponse> existing = store.find(tenantId, key);
+        if (existing.isPresent()) {
+            IdempotencyStore.StoredResponse row = existing.get();
+            boolean abandoned = !row.isComplete() && row.createdAt() <= now - lockTimeoutMillis;
+            if (row.expiresAt() <= now) {
+                store.remove(tenantId, key, row.createdAt());
+            } else if (abandoned) {
+                store.release(tenantId, key, row.createdAt());
+            } else if (row.isComplete()) {
+                cache(cacheKey, row, now);
+                result.complete(row);
+                return replay(row, requestHash, type);
+            } else {
+                throw inProgress();
+            }
+        }
+
+        long expiresAt = now + ttlMillis;
+        if (!store.claim(tenantId, key, requestHash, now, expiresAt)) {
+            throw inProgress();
+        }
+        Completed<T> completed;
+        try {
+            completed = transactionTemplate.execute(tx -> {
+                T body = action.get();
+                IdempotencyStore.StoredResponse stored =
+                    new IdempotencyStore.StoredResponse(requestHash, status.value(), write(body), now, expiresAt);
+                if (!store.complete(tenantId, key, now, stored.status(), stored.body())) {
+                    // Taken over after the lock timeout; roll back so only the other request's write stands
+                    throw inProgress();
+                }
+                return new Completed<>(body, stored);
+            });
+        } catch (RuntimeException e) {
+            store.release(tenantId, key, now);
+            throw e;
+        }
+        executions.increment();
+
+        cache(cacheKey, completed.stored(), now);
+        result.complete(completed.stored());
+        purgeIfDue(now);
+        return ResponseEntity.status(status).body(completed.body());
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyStore.StoredResponse stored, String requestHash, Class<T> type) {
+        if (!stored.requestHash().equals(requestHash)) {
+            conflicts.increment();
+            throw new IdempotencyKeyReusedException(
+                ApiConstants.IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+        replays.increment();
+        try {
+            return ResponseEntity.status(stored.status())
+                .header(ApiConstants.IDEMPOTENT_REPLAYED_HEADER, "true")
+                .body(objectMapper.readValue(stored.body(), type));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response is not valid JSON", e);
+        }
+    }
+
+    /** The first request's stored response, or null when it failed. */
+    private IdempotencyStore.StoredResponse await(CompletableFuture<IdempotencyStore.StoredResponse> running) {
+        try {
+            return running.get(lockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw inProgress();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw inProgress();
+        }
+    }
+
+    private ConflictException inProgress() {
+        conflicts.increment();
+        return new ConflictException("A request with this " + ApiConstants.IDEMPOTENCY_KEY_HEADER
+            + " is still in progress");
+    }
+
+    private Cached cached(String cacheKey) {
+        synchronized (cache) {
+            Cached cached = cache.get(cacheKey);
+            if (cached != null && cached.until() <= clock.getAsLong()) {
+                cache.remove(cacheKey);
+                return null;
+            }
+            return cached;
+        }
+    }
+
+    private void cache(String cacheKey, IdempotencyStore.StoredResponse stored, long now) {
+        Cached cached = new Cached(stored, Math.min(stored.expiresAt(), now + cacheTtlMillis));
+        synchronized (cache) {
+            cache.put(cacheKey, cached);
+        }
+    }
+
+    private void purgeIfDue(long now) {
+        long last = lastPurge.get();
+        if (now - last >= PURGE_INTERVAL_MILLIS && lastPurge.compareAndSet(last, now)) {
+            try {
+                store.purgeExpired(now);
+            } catch (RuntimeException e) {
+                logger.warn("Idempotency key purge failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private String write(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be stored as JSON", e);
+        }
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private static String currentTenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "";
+    }
+
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getReplays() {
+        return replays.sum();
+    }
+
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    private record Cached(IdempotencyStore.StoredResponse response, long until) {
+    }
+
+    private record Completed<T>(T body, IdempotencyStore.StoredResponse stored) {
+    }
+}
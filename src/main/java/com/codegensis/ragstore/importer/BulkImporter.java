@@ -0,0 +1,422 @@
+package com.codegensis.ragstore.importer;
+
+import com.codegensis.ragstore.dto.response.ImportResult;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.validator.MessageValidator;
+import com.codegensis.ragstore.validator.SessionValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Imports historical conversations from JSON Lines, one session with its messages per line.
+ * The calling thread reads lines; parse workers parse and validate them with the same rules as
+ * the API; write workers store them through {@link ImportBatchWriter}, committing every
+ * {@code batch-size} rows. Bounded queues between the stages hold the reader back when the
+ * database is the bottleneck, so memory stays flat however large the input is.
+ * <p>
+ * Lines finish out of order, so the resume point is the highest line below which every line
+ * is stored, rejected or a duplicate. Invalid lines are counted and reported, not fatal; a
+ * failing database or input stream stops the import.
+ */
+@Component
+public class BulkImporter {
+    
+    static final int MAX_REPORTED_ERRORS = 100;
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkImporter.class);
+    private static final long POLL_MILLIS = 100;
+    private static final int QUEUED_LINES_PER_THREAD = 256;
+    private static final RawLine END_OF_INPUT = new RawLine(-1, null);
+    private static final ImportBatchWriter.Line END_OF_LINES = new ImportBatchWriter.Line(-1, null, List.of());
+    
+    private final ObjectReader sessionReader;
+    private final SessionValidator sessionValidator;
+    private final MessageValidator messageValidator;
+    private final ImportBatchWriter batchWriter;
+    private final int parseThreads;
+    private final int writeThreads;
+    private final int batchRows;
+    private final Duration progressInterval;
+    private final LongAdder totalSessions = new LongAdder();
+    private final LongAdder totalMessages = new LongAdder();
+    private final LongAdder totalDuplicates = new LongAdder();
+    private final LongAdder totalRejected = new LongAdder();
+    private final AtomicInteger activeImports = new AtomicInteger();
+    
+    public BulkImporter(ObjectMapper objectMapper,
+                        SessionValidator sessionValidator,
+                        MessageValidator messageValidator,
+                        ImportBatchWriter batchWriter,
+                        @Value("${app.import.parse-threads:4}") int parseThreads,
+                        @Value("${app.import.write-threads:2}") int writeThreads,
+                        @Value("${app.import.batch-size:1000}") int batchRows,
+                        @Value("${app.import.progress-interval:10s}") Duration progressInterval) {
+        if (parseThreads < 1 || writeThreads < 1 || batchRows < 1) {
+            throw new IllegalArgumentException("Import threads and batch size must be at least 1");
+        }
+        this.sessionReader = objectMapper.readerFor(ImportedSession.class);
+        this.sessionValidator = sessionValidator;
+        this.messageValidator = messageValidator;
+        this.batchWriter = batchWriter;
+        this.parseThreads = parseThreads;
+        this.writeThreads = writeThreads;
+        this.batchRows = batchRows;
+        this.progressInterval = progressInterval;
+    }
+    
+    /** Imports every line after the first {@code skipLines}; blank lines are ignored. */
+    public ImportResult importJsonl(InputStream input, long skipLines) {
+        if (skipLines < 0) {
+            throw new ValidationException("skipLines must be >= 0");
+        }
+        activeImports.incrementAndGet();
+        try {
+            return new Run(skipLines).execute(input);
+        } finally {
+            activeImports.decrementAndGet();
+        }
+    }
+    
+    public long getTotalSessions() {
+        return totalSessions.sum();
+    }
+    
+    public long getTotalMessages() {
+        return totalMessages.sum();
+    }
+    
+    public long getTotalDuplicates() {
+        return totalDuplicates.sum();
+    }
+    
+    public long getTotalRejected() {
+        return totalRejected.sum();
+    }
+    
+    public int getActiveImports() {
+        return activeImports.get();
+    }
+    
+    /** Validates a line like {@code SessionService} and {@code MessageService} would, returning its senders. */
+    private List<Message.Sender> validate(ImportedSession session) {
+        if (session == null) {
+            throw new ValidationException("Line must be a session object");
+        }
+        sessionValidator.validateUserId(session.userId());
+        sessionValidator.validateTitle(session.title());
+        List<ImportedSession.Message> messages = session.messagesOrEmpty();
+        List<Message.Sender> senders = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            ImportedSession.Message message = messages.get(i);
+            try {
+                if (message == null) {
+                    throw new ValidationException("Message must be an object");
+                }
+                senders.add(messageValidator.validateAndParseSender(message.sender()));
+                messageValidator.validateContent(message.content());
+                messageValidator.validateContext(message.context());
+            } catch (ValidationException e) {
+                throw new ValidationException("Message " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return senders;
+    }
+    
+    private record RawLine(long number, String text) {
+    }
+    
+    /** State of one import; the stages share it through the queues and counters. */
+    private final class Run {
+        
+        private final long skipLines;
+        private final BlockingQueue<RawLine> parseQueue = new ArrayBlockingQueue<>(parseThreads * QUEUED_LINES_PER_THREAD);
+        private final BlockingQueue<ImportBatchWriter.Line> writeQueue = new ArrayBlockingQueue<>(parseThreads * QUEUED_LINES_PER_THREAD);
+        // Lines read but not yet stored, rejected or found to be duplicates
+        private final ConcurrentSkipListSet<Long> pending = new ConcurrentSkipListSet<>();
+        private final LongAdder sessions = new LongAdder();
+        private final LongAdder messages = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final Queue<ImportResult.LineError> errors = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicInteger runningParsers = new AtomicInteger(parseThreads);
+        private volatile long lastRead;
+        private long startNanos;
+        
+        Run(long skipLines) {
+            this.skipLines = skipLines;
+            this.lastRead = skipLines;
+        }
+        
+        ImportResult execute(InputStream input) {
+            startNanos = System.nanoTime();
+            AtomicInteger threadCount = new AtomicInteger();
+            ExecutorService workers = Executors.newFixedThreadPool(parseThreads + writeThreads, runnable -> {
+                Thread thread = new Thread(runnable, "import-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            for (int i = 0; i < parseThreads; i++) {
+                workers.execute(guarded(this::parseLoop, () -> {
+                    if (runningParsers.decrementAndGet() == 0) {
+                        for (int w = 0; w < writeThreads; w++) {
+                            put(writeQueue, END_OF_LINES);
+                        }
+                    }
+                }));
+            }
+            for (int i = 0; i < writeThreads; i++) {
+                workers.execute(guarded(this::writeLoop, () -> { }));
+            }
+            
+            try {
+                readLoop(input);
+            } catch (Exception e) {
+                fail(e);
+            } finally {
+                for (int i = 0; i < parseThreads; i++) {
+                    put(parseQueue, END_OF_INPUT);
+                }
+            }
+            awaitWorkers(workers);
+            
+            ImportResult result = result();
+            logger.info("Import {} - lines: {}, sessions: {}, messages: {}, duplicates: {}, rejected: {}, " +
+                    "rows/s: {}, resume from line: {}",
+                result.completed() ? "completed" : "failed", result.linesRead(), result.sessionsImported(),
+                result.messagesImported(), result.duplicateLines(), result.rejectedLines(),
+                Math.round(result.rowsPerSecond()), result.resumeFromLine());
+            return result;
+        }
+        
+        private void readLoop(InputStream input) throws Exception {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+            long nextProgress = System.nanoTime() + progressInterval.toNanos();
+            long number = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                number++;
+                if (number <= skipLines) {
+                    continue;
+                }
+                if (!text.isBlank()) {
+                    // Pending before lastRead moves, so the resume point never passes an unhandled line
+                    pending.add(number);
+                    lastRead = number;
+                    if (!put(parseQueue, new RawLine(number, text))) {
+                        return;
+                    }
+                } else {
+                    lastRead = number;
+                }
+                if (System.nanoTime() >= nextProgress) {
+                    logProgress();
+                    nextProgress = System.nanoTime() + progressInterval.toNanos();
+                }
+            }
+        }
+        
+        private void parseLoop() throws InterruptedException {
+            RawLine raw;
+            while ((raw = take(parseQueue)) != null && raw != END_OF_INPUT) {
+                try {
+                    ImportedSession session = sessionReader.readValue(raw.text());
+                    if (!put(writeQueue, new ImportBatchWriter.Line(raw.number(), session, validate(session)))) {
+                        return;
+                    }
+                } catch (JsonProcessingException e) {
+                    reject(raw.number(), "Malformed JSON: " + e.getOriginalMessage());
+                } catch (ValidationException e) {
+                    reject(raw.number(), e.getMessage());
+                }
+            }
+        }
+        
+        private void writeLoop() throws InterruptedException {
+            List<ImportBatchWriter.Line> batch = new ArrayList<>();
+            int rows = 0;
+            while (failure.get() == null) {
+                ImportBatchWriter.Line line = batch.isEmpty() ? take(writeQueue) : writeQueue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (line == END_OF_LINES || (line == null && !batch.isEmpty())) {
+                    // Flush on a lull too, so a trickling upload does not leave rows uncommitted
+                    flush(batch);
+                    batch.clear();
+                    rows = 0;
+                    if (line == END_OF_LINES) {
+                        return;
+                    }
+                } else if (line != null) {
+                    batch.add(line);
+                    rows += line.rows();
+                    if (rows >= batchRows) {
+                        flush(batch);
+                        batch.clear();
+                        rows = 0;
+                    }
+                }
+            }
+        }
+        
+        private void flush(List<ImportBatchWriter.Line> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (ImportBatchWriter.Result result : batchWriter.write(batch)) {
+                ImportBatchWriter.Line line = result.line();
+                switch (result.outcome()) {
+                    case INSERTED -> {
+                        sessions.increment();
+                        messages.add(line.senders().size());
+                        totalSessions.increment();
+                        totalMessages.add(line.senders().size());
+                    }
+                    case DUPLICATE -> {
+                        duplicates.increment();
+                        totalDuplicates.increment();
+                    }
+                    case REJECTED -> {
+                        reject(line.number(), result.error());
+                        continue;
+                    }
+                }
+                pending.remove(line.number());
+            }
+        }
+        
+        private void reject(long number, String message) {
+            rejected.increment();
+            totalRejected.increment();
+            if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                errors.add(new ImportResult.LineError(number, message));
+            }
+            pending.remove(number);
+        }
+        
+        /** Waits for an element, or returns null once the import has failed. */
+        private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+            while (failure.get() == null) {
+                T element = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (element != null) {
+                    return element;
+                }
+            }
+            return null;
+        }
+        
+        /** Waits for room, or returns false once the import has failed. */
+        private <T> boolean put(BlockingQueue<T> queue, T element) {
+            try {
+                while (failure.get() == null) {
+                    if (queue.offer(element, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+            return false;
+        }
+        
+        private Runnable guarded(ThrowingRunnable stage, Runnable onExit) {
+            return () -> {
+                try {
+                    stage.run();
+                } catch (Throwable e) {
+                    fail(e);
+                } finally {
+                    onExit.run();
+                }
+            };
+        }
+        
+        private void fail(Throwable error) {
+            if (failure.compareAndSet(null, error)) {
+                logger.error("Import failed after line {}: {}", resumeFromLine(), error.getMessage(), error);
+            }
+        }
+        
+        private void awaitWorkers(ExecutorService workers) {
+            workers.shutdown();
+            try {
+                while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                    if (failure.get() != null) {
+                        workers.shutdownNow();
+                    }
+                }
+            } catch (InterruptedException e) {
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+        
+        private long resumeFromLine() {
+            long read = lastRead;
+            Long firstPending = pending.isEmpty() ? null : pending.first();
+            return firstPending != null ? firstPending - 1 : read;
+        }
+        
+        private double rowsPerSecond() {
+            double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+            return (sessions.sum() + messages.sum()) / seconds;
+        }
+        
+        private void logProgress() {
+            logger.info("Import progress - lines: {}, sessions: {}, messages: {}, rejected: {}, rows/s: {}, resume from line: {}",
+                lastRead - skipLines, sessions.sum(), messages.sum(), rejected.sum(),
+                Math.round(rowsPerSecond()), resumeFromLine());
+        }
+        
+        private ImportResult result() {
+            Throwable error = failure.get();
+            List<ImportResult.LineError> reported = new ArrayList<>(errors);
+            reported.sort(Comparator.comparingLong(ImportResult.LineError::line));
+            return new ImportResult(
+                error == null,
+                error == null ? null : String.valueOf(error.getMessage() != null ? error.getMessage() : error),
+                lastRead - skipLines,
+                sessions.sum(),
+                messages.sum(),
+                duplicates.sum(),
+                rejected.sum(),
+                resumeFromLine(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                rowsPerSecond(),
+                reported
+            );
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,183 @@
+package com.codegensis.ragstore.importer;
+
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.repository.SessionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts validated import lines with JDBC batches, bypassing JPA: one batch statement for the
+ * sessions, whose generated ids link one batch statement for their messages, all committed
+ * together. When the batch hits a constraint, each line is retried in its own transaction to
+ * find the offending ones, so one bad line does not reject its neighbours. Hibernate does not
+ * see these inserts, so cached per-user session lists are evicted after each commit. Every
+ * session is new, so its messages are numbered from 1 in file order.
+ */
+@Component
+public class ImportBatchWriter {
+    
+    private static final String INSERT_SESSION =
+        "INSERT INTO sessions (user_id, title, is_favorite, created_at, updated_at, last_seq) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MESSAGE =
+        "INSERT INTO messages (session_id, seq, sender, content, context, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    public enum Outcome { INSERTED, DUPLICATE, REJECTED }
+    
+    /** A validated line; {@code senders} are the parsed senders of its messages, in order. */
+    public record Line(long number, ImportedSession session, List<Message.Sender> senders) {
+        
+        int rows() {
+            return 1 + senders.size();
+        }
+    }
+    
+    /** What happened to a line; {@code error} is set for rejected lines. */
+    public record Result(Line line, Outcome outcome, String error) {
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    
+    public ImportBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    public List<Result> write(List<Line> lines) {
+        List<Result> results = new ArrayList<>(lines.size());
+        try {
+            insertInTransaction(lines);
+            lines.forEach(line -> results.add(new Result(line, Outcome.INSERTED, null)));
+        } catch (DataIntegrityViolationException batchError) {
+            for (Line line : lines) {
+                results.add(writeAlone(line));
+            }
+        }
+        return results;
+    }
+    
+    private Result writeAlone(Line line) {
+        try {
+            insertInTransaction(List.of(line));
+            return new Result(line, Outcome.INSERTED, null);
+        } catch (DuplicateKeyException e) {
+            // The unique (user_id, title) key makes re-imported lines show up here
+            return new Result(line, Outcome.DUPLICATE, null);
+        } catch (DataIntegrityViolationException e) {
+            return new Result(line, Outcome.REJECTED, e.getMostSpecificCause().getMessage());
+        }
+    }
+    
+    private void insertInTransaction(List<Line> lines) {
+        transactionTemplate.executeWithoutResult(status ->
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                long[] sessionIds = insertSessions(connection, lines);
+                insertMessages(connection, lines, sessionIds);
+                return null;
+            }));
+        entityManagerFactory.getCache().unwrap(Cache.class)
+            .evictQueryRegion(SessionRepository.USER_SESSIONS_CACHE_REGION);
+    }
+    
+    private static long[] insertSessions(Connection connection, List<Line> lines) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SESSION, new String[] {"id"})) {
+            for (Line line : lines) {
+                ImportedSession session = line.session();
+                LocalDateTime createdAt = createdAt(session, now);
+                statement.setString(1, session.userId());
+                statement.setString(2, session.title());
+                statement.setBoolean(3, Boolean.TRUE.equals(session.isFavorite()));
+                statement.setObject(4, createdAt);
+                statement.setObject(5, updatedAt(session, createdAt));
+                // Messages are numbered from 1 below, so the counter starts past the last of them
+                statement.setLong(6, session.messagesOrEmpty().size());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            long[] ids = new long[lines.size()];
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length; i++) {
+                    if (!keys.next()) {
+                        throw new SQLException("Expected " + ids.length + " generated session ids, got " + i);
+                    }
+                    ids[i] = keys.getLong(1);
+                }
+            }
+            return ids;
+        }
+    }
+    
+    private static void insertMessages(Connection connection, List<Line> lines, long[] sessionIds) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_MESSAGE)) {
+            boolean any = false;
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = lines.get(i);
+                LocalDateTime fallback = createdAt(line.session(), now);
+                List<ImportedSession.Message> messages = line.session().messagesOrEmpty();
+                for (int m = 0; m < messages.size(); m++) {
+                    ImportedSession.Message message = messages.get(m);
+                    statement.setLong(1, sessionIds[i]);
+                    statement.setLong(2, m + 1);
+                    statement.setString(3, line.senders().get(m).getDbValue());
+                    statement.setString(4, message.content());
+                    if (message.context() != null) {
+                        statement.setString(5, message.context());
+                    } else {
+                        statement.setNull(5, Types.VARCHAR);
+                    }
+                    statement.setObject(6, message.timestamp() != null ? message.timestamp() : fallback);
+                    statement.addBatch();
+                    any = true;
+                }
+            }
+            if (any) {
+                statement.executeBatch();
+            }
+        }
+    }
+    
+    private static LocalDateTime createdAt(ImportedSession session, LocalDateTime now) {
+        if (session.createdAt() != null) {
+            return session.createdAt();
+        }
+        return session.messagesOrEmpty().stream()
+            .map(ImportedSession.Message::timestamp)
+            .filter(timestamp -> timestamp != null)
+            .findFirst()
+            .orElse(now);
+    }
+    
+    private static LocalDateTime updatedAt(ImportedSession session, LocalDateTime createdAt) {
+        if (session.updatedAt() != null) {
+            return session.updatedAt();
+        }
+        LocalDateTime latest = createdAt;
+        for (ImportedSession.Message message : session.messagesOrEmpty()) {
+            if (message.timestamp() != null && message.timestamp().isAfter(latest)) {
+                latest = message.timestamp();
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,59 @@
+package com.codegensis.ragstore.importer;
+
+import com.codegensis.ragstore.dto.response.ImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line import: started with {@code --app.import.file=<path>} (or {@code -} for stdin),
+ * the application imports the file straight into the database, prints the result as JSON and
+ * exits with status 0, or 1 when the import stopped early.
+ */
+@Component
+@ConditionalOnProperty(name = "app.import.file")
+public class ImportCommand implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ImportCommand.class);
+    
+    private final BulkImporter bulkImporter;
+    private final ObjectMapper objectMapper;
+    private final ConfigurableApplicationContext context;
+    private final String file;
+    private final long skipLines;
+    
+    public ImportCommand(BulkImporter bulkImporter,
+                         ObjectMapper objectMapper,
+                         ConfigurableApplicationContext context,
+                         @Value("${app.import.file}") String file,
+                         @Value("${app.import.skip-lines:0}") long skipLines) {
+        this.bulkImporter = bulkImporter;
+        this.objectMapper = objectMapper;
+        this.context = context;
+        this.file = file;
+        this.skipLines = skipLines;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        logger.info("Importing {} from line {}", "-".equals(file) ? "stdin" : file, skipLines + 1);
+        ImportResult result;
+        try (InputStream input = "-".equals(file) ? System.in : Files.newInputStream(Path.of(file))) {
+            result = bulkImporter.importJsonl(input, skipLines);
+        }
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+        int exitCode = SpringApplication.exit(context, () -> result.completed() ? 0 : 1);
+        System.exit(exitCode);
+    }
+}
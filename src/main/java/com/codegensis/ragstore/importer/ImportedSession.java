@@ -0,0 +1,25 @@
+package com.codegensis.ragstore.importer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of an import file: a session with its messages in order. Missing timestamps fall
+ * back to the session's {@code createdAt}, or the import time when that is missing too.
+ */
+public record ImportedSession(
+    String userId,
+    String title,
+    Boolean isFavorite,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    List<Message> messages
+) {
+    
+    public record Message(String sender, String content, String context, LocalDateTime timestamp) {
+    }
+    
+    public List<Message> messagesOrEmpty() {
+        return messages != null ? messages : List.of();
+    }
+}
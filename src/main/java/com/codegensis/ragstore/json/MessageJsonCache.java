@@ -0,0 +1,192 @@
+package com.codegensis.ragstore.json;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * UTF-8 JSON of each message, keyed by id. Messages never change once written, so the bytes
+ * Jackson produced the first time can be written out again for every later page read.
+ * Bounded by bytes: each of a fixed number of segments evicts its least recently read entries
+ * once over its share of the budget. Segments lock independently, so concurrent page reads
+ * rarely contend.
+ */
+@Component
+public class MessageJsonCache {
+
+    private static final int SEGMENTS = 16;
+    // Rough heap cost of a map entry, its Long key and the array header
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final ObjectWriter writer;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public MessageJsonCache(ObjectMapper objectMapper,
+                            @Value("${app.message-json-cache.max-size:32MB}") DataSize maxSize) {
+        this.writer = objectMapper.writerFor(MessageResponse.class);
+        long segmentBytes = maxSize.toBytes() / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentBytes);
+        }
+    }
+
+    /** Serializes the message and caches its JSON. */
+    public byte[] put(MessageResponse message) {
+        byte[] json = serialize(message);
+        segment(message.id()).put(message.id(), json);
+        return json;
+    }
+
+    public byte[] get(long id) {
+        byte[] json = segment(id).get(id);
+        if (json != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return json;
+    }
+
+    /**
+     * JSON of each id, in order. Misses are passed to {@code loader} in one call and cached;
+     * ids it does not return (deleted meanwhile) are left out.
+     */
+    public List<byte[]> getAll(List<Long> ids, Function<List<Long>, List<MessageResponse>> loader) {
+        byte[][] found = new byte[ids.size()][];
+        List<Long> missing = null;
+        for (int i = 0; i < found.length; i++) {
+            found[i] = get(ids.get(i));
+            if (found[i] == null) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(ids.get(i));
+            }
+        }
+        if (missing != null) {
+            Map<Long, byte[]> loaded = new LinkedHashMap<>();
+            for (MessageResponse message : loader.apply(missing)) {
+                loaded.put(message.id(), put(message));
+            }
+            for (int i = 0; i < found.length; i++) {
+                if (found[i] == null) {
+                    found[i] = loaded.get(ids.get(i));
+                }
+            }
+        }
+        List<byte[]> result = new ArrayList<>(found.length);
+        for (byte[] json : found) {
+            if (json != null) {
+                result.add(json);
+            }
+        }
+        return result;
+    }
+
+    private byte[] serialize(MessageResponse message) {
+        try {
+            return writer.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Message " + message.id() + " cannot be serialized", e);
+        }
+    }
+
+    private Segment segment(long id) {
+        return segments[(int) (Long.hashCode(id) & (SEGMENTS - 1))];
+    }
+
+    public int getSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.bytes();
+        }
+        return bytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** Share of lookups served from the cache since startup, or 0 before the first lookup. */
+    public double getHitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    private final class Segment {
+
+        private final long maxBytes;
+        private final LinkedHashMap<Long, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(long id) {
+            return entries.get(id);
+        }
+
+        synchronized void put(long id, byte[] json) {
+            long cost = cost(json);
+            if (cost > maxBytes) {
+                return;
+            }
+            byte[] previous = entries.put(id, json);
+            if (previous != null) {
+                bytes -= cost(previous);
+            }
+            bytes += cost;
+            Iterator<byte[]> eldest = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= cost(eldest.next());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+    }
+
+    private static long cost(byte[] json) {
+        return json.length + ENTRY_OVERHEAD_BYTES;
+    }
+}
@@ -0,0 +1,73 @@
+package com.codegensis.ragstore.json;
+
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a {@link SerializedMessagePage} by splicing the cached message JSON between the page
+ * fields, producing the same bytes Jackson would for a {@code MessagePageResponse}. Spring Boot
+ * registers converter beans ahead of its defaults, so this one is picked for the page.
+ */
+@Component
+public class SerializedMessagePageConverter extends AbstractHttpMessageConverter<SerializedMessagePage> {
+
+    private static final byte[] MESSAGES = "{\"messages\":[".getBytes(StandardCharsets.US_ASCII);
+
+    public SerializedMessagePageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return SerializedMessagePage.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected SerializedMessagePage readInternal(Class<? extends SerializedMessagePage> clazz,
+                                                 HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Message pages are write-only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(SerializedMessagePage page, MediaType contentType) {
+        long length = MESSAGES.length + Math.max(0, page.messages().size() - 1) + trailer(page).length;
+        for (byte[] message : page.messages()) {
+            length += message.length;
+        }
+        return length;
+    }
+
+    @Override
+    protected void writeInternal(SerializedMessagePage page, HttpOutputMessage outputMessage) throws IOException {
+        OutputStream body = outputMessage.getBody();
+        body.write(MESSAGES);
+        for (int i = 0; i < page.messages().size(); i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.write(page.messages().get(i));
+        }
+        body.write(trailer(page));
+    }
+
+    private static byte[] trailer(SerializedMessagePage page) {
+        return ("],\"page\":" + page.page() +
+            ",\"size\":" + page.size() +
+            ",\"totalElements\":" + page.totalElements() +
+            ",\"totalPages\":" + page.totalPages() + "}").getBytes(StandardCharsets.US_ASCII);
+    }
+}
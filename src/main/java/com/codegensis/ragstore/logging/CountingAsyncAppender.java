@@ -0,0 +1,33 @@
+package com.codegensis.ragstore.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback {@link AsyncAppender} that counts the events it discards, so a full queue shows up
+ * in metrics instead of as silent gaps in the log.
+ * <p>
+ * Events are discarded when the queue is within {@code discardingThreshold} of full (INFO and
+ * below only) or, with {@code neverBlock}, when it is completely full. The count mirrors the
+ * checks the base class makes and can be off by a few events under contention.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+    
+    private final LongAdder discarded = new LongAdder();
+    
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if ((remaining < getDiscardingThreshold() && isDiscardable(event))
+                || (remaining == 0 && isNeverBlock())) {
+            discarded.increment();
+        }
+        super.append(event);
+    }
+    
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+}
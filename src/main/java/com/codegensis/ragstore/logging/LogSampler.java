@@ -0,0 +1,126 @@
+package com.codegensis.ragstore.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which completed requests get a log line.
+ * Requests that failed (status 400 and above) are always logged. Successful requests are
+ * logged at a rate looked up by endpoint ({@code "GET /api/v1/sessions/{sessionId}/messages"}),
+ * then by method ({@code "GET"}), then the default rate.
+ * <p>
+ * Rates are seeded from {@code app.logging.sampling.rates} as comma-separated
+ * {@code key=rate} pairs and can be changed at runtime through the {@code logsampling}
+ * actuator endpoint.
+ */
+@Component
+public class LogSampler {
+    
+    public static final String DEFAULT_KEY = "default";
+    
+    private final Map<String, Double> rates = new ConcurrentHashMap<>();
+    private final Counter logged;
+    private final Counter suppressed;
+    private volatile double defaultRate;
+    
+    public LogSampler(@Value("${app.logging.sampling.default-rate:1.0}") double defaultRate,
+                      @Value("${app.logging.sampling.rates:}") String rates,
+                      MeterRegistry meterRegistry) {
+        this.defaultRate = validateRate(defaultRate);
+        this.rates.putAll(parseRates(rates));
+        this.logged = Counter.builder("ragstore.logging.requests")
+            .description("Completed requests considered for the request log")
+            .tag("decision", "logged")
+            .register(meterRegistry);
+        this.suppressed = Counter.builder("ragstore.logging.requests")
+            .description("Completed requests considered for the request log")
+            .tag("decision", "suppressed")
+            .register(meterRegistry);
+    }
+    
+    /**
+     * @param pattern matched route pattern, or {@code null} when no handler matched
+     */
+    public boolean shouldLog(String method, String pattern, int status) {
+        if (status >= 400 || sample(rateFor(method, pattern))) {
+            logged.increment();
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+    
+    double rateFor(String method, String pattern) {
+        if (pattern != null) {
+            Double endpointRate = rates.get(method + " " + pattern);
+            if (endpointRate != null) {
+                return endpointRate;
+            }
+        }
+        Double methodRate = rates.get(method);
+        return methodRate != null ? methodRate : defaultRate;
+    }
+    
+    /** Sets the rate for an endpoint, a method, or {@value #DEFAULT_KEY}. */
+    public void setRate(String key, double rate) {
+        validateRate(rate);
+        if (DEFAULT_KEY.equals(key)) {
+            defaultRate = rate;
+        } else {
+            rates.put(key, rate);
+        }
+    }
+    
+    /** Removes an endpoint or method rate so it falls back to the next level. */
+    public void removeRate(String key) {
+        rates.remove(key);
+    }
+    
+    public Map<String, Double> getRates() {
+        Map<String, Double> snapshot = new TreeMap<>(rates);
+        snapshot.put(DEFAULT_KEY, defaultRate);
+        return snapshot;
+    }
+    
+    public long getLoggedCount() {
+        return (long) logged.count();
+    }
+    
+    public long getSuppressedCount() {
+        return (long) suppressed.count();
+    }
+    
+    private static boolean sample(double rate) {
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+    
+    private static double validateRate(double rate) {
+        if (rate < 0.0 || rate > 1.0 || Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Sampling rate must be between 0.0 and 1.0 but was " + rate);
+        }
+        return rate;
+    }
+    
+    static Map<String, Double> parseRates(String rates) {
+        Map<String, Double> parsed = new ConcurrentHashMap<>();
+        if (rates == null || rates.isBlank()) {
+            return parsed;
+        }
+        for (String entry : rates.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Sampling rates must look like key=rate: " + entry);
+            }
+            String key = entry.substring(0, separator).trim();
+            parsed.put(key, validateRate(Double.parseDouble(entry.substring(separator + 1).trim())));
+        }
+        return parsed;
+    }
+}
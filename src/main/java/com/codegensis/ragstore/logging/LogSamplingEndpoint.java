@@ -0,0 +1,52 @@
+package com.codegensis.ragstore.logging;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for viewing and adjusting request log sampling at runtime.
+ * <pre>
+ * GET    /actuator/logsampling
+ * POST   /actuator/logsampling          {"key": "GET /api/v1/sessions", "rate": 0.05}
+ * DELETE /actuator/logsampling?key=GET
+ * </pre>
+ * {@code key} is an endpoint such as {@code GET /api/v1/sessions/{sessionId}/messages}, a method
+ * such as {@code GET}, or {@code default}.
+ */
+@Component
+@Endpoint(id = "logsampling")
+public class LogSamplingEndpoint {
+    
+    private final LogSampler logSampler;
+    
+    public LogSamplingEndpoint(LogSampler logSampler) {
+        this.logSampler = logSampler;
+    }
+    
+    @ReadOperation
+    public Map<String, Object> sampling() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("rates", logSampler.getRates());
+        body.put("logged", logSampler.getLoggedCount());
+        body.put("suppressed", logSampler.getSuppressedCount());
+        return body;
+    }
+    
+    @WriteOperation
+    public Map<String, Object> setRate(String key, double rate) {
+        logSampler.setRate(key, rate);
+        return sampling();
+    }
+    
+    @DeleteOperation
+    public Map<String, Object> removeRate(String key) {
+        logSampler.removeRate(key);
+        return sampling();
+    }
+}
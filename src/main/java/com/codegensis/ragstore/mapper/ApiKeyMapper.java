@@ -0,0 +1,47 @@
+package com.codegensis.ragstore.mapper;
+
+import com.codegensis.ragstore.dto.response.ApiKeyResponse;
+import com.codegensis.ragstore.entity.ApiKey;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+public class ApiKeyMapper {
+    
+    public ApiKeyResponse toResponse(ApiKey apiKey) {
+        if (apiKey == null) {
+            return null;
+        }
+        return new ApiKeyResponse(
+            apiKey.getId(),
+            apiKey.getTenantId(),
+            apiKey.getName(),
+            apiKey.getKeyPrefix(),
+            parseScopes(apiKey.getScopes()),
+            apiKey.getRequestsPerMinute(),
+            apiKey.getCreatedAt(),
+            apiKey.getRevokedAt()
+        );
+    }
+    
+    public List<ApiKeyResponse> toResponseList(List<ApiKey> apiKeys) {
+        return apiKeys.stream()
+            .map(this::toResponse)
+            .collect(Collectors.toList());
+    }
+    
+    public static Set<String> parseScopes(String scopes) {
+        return Arrays.stream(scopes.split(","))
+            .map(String::trim)
+            .filter(scope -> !scope.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+    
+    public static String formatScopes(Set<String> scopes) {
+        return scopes.stream().sorted().collect(Collectors.joining(","));
+    }
+}
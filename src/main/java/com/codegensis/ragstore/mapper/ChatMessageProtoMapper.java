@@ -0,0 +1,46 @@
+package com.codegensis.ragstore.mapper;
+
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.grpc.v1.AppendMessageRequest;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import com.google.protobuf.Timestamp;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Converts between the gRPC messages and the DTOs the services work with. Timestamps are stored
+ * as local date-times in the server's zone, as {@code Message} creates them.
+ */
+@Component
+public class ChatMessageProtoMapper {
+    
+    public AddMessageRequest toRequest(AppendMessageRequest request) {
+        return new AddMessageRequest(
+            request.getSender(),
+            request.getContent(),
+            request.hasContext() ? request.getContext() : null
+        );
+    }
+    
+    public ChatMessage toProto(MessageResponse message) {
+        ChatMessage.Builder builder = ChatMessage.newBuilder()
+            .setId(message.id())
+            .setSessionId(message.sessionId())
+            .setSeq(message.seq())
+            .setSender(message.sender())
+            .setContent(message.content());
+        if (message.context() != null) {
+            builder.setContext(message.context());
+        }
+        if (message.timestamp() != null) {
+            Instant instant = message.timestamp().atZone(ZoneId.systemDefault()).toInstant();
+            builder.setTimestamp(Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano()));
+        }
+        return builder.build();
+    }
+}
@@ -17,6 +17,7 @@ public class MessageMapper {
         return new MessageResponse(
             message.getId(),
             message.getSessionId(),
+            message.getSeq(),
             message.getSender().getDbValue(),
             message.getContent(),
             message.getContext(),
@@ -0,0 +1,39 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.auth.VerifiedKeyCache;
+import com.codegensis.ragstore.service.ApiKeyService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size and hit rate of the verified API key cache; misses are the lookups that reached the
+ * database.
+ */
+@Component
+public class ApiKeyMetrics implements MeterBinder {
+    
+    private final ApiKeyService apiKeyService;
+    
+    public ApiKeyMetrics(ApiKeyService apiKeyService) {
+        this.apiKeyService = apiKeyService;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        VerifiedKeyCache cache = apiKeyService.getCache();
+        Gauge.builder("ragstore.apikey.cache.size", cache, VerifiedKeyCache::size)
+            .description("API key verification results held in memory")
+            .register(registry);
+        FunctionCounter.builder("ragstore.apikey.cache.lookups", cache, VerifiedKeyCache::getHits)
+            .description("API key verifications answered from the cache or the database")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("ragstore.apikey.cache.lookups", cache, VerifiedKeyCache::getMisses)
+            .description("API key verifications answered from the cache or the database")
+            .tag("result", "miss")
+            .register(registry);
+    }
+}
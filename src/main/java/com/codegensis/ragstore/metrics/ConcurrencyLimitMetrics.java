@@ -0,0 +1,49 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.concurrency.ConcurrencyLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current adaptive concurrency limit, its latency baseline, and in-flight and shed requests per
+ * {@code partition} ({@code read} or {@code write}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitMetrics implements MeterBinder {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitMetrics(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ragstore.concurrency.limit", concurrencyLimiter, ConcurrencyLimiter::getLimit)
+            .description("Requests allowed in flight at once")
+            .register(registry);
+        Gauge.builder("ragstore.concurrency.latency.baseline", concurrencyLimiter,
+                limiter -> limiter.getBaselineNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1))
+            .description("Long-term request latency the limit is measured against")
+            .baseUnit("milliseconds")
+            .register(registry);
+        for (ConcurrencyLimiter.Partition partition : ConcurrencyLimiter.Partition.values()) {
+            String name = partition.name().toLowerCase();
+            Gauge.builder("ragstore.concurrency.inflight", concurrencyLimiter, limiter -> limiter.getInFlight(partition))
+                .description("Requests currently holding a concurrency permit")
+                .tag("partition", name)
+                .register(registry);
+            FunctionCounter.builder("ragstore.concurrency.rejected", concurrencyLimiter, limiter -> limiter.getRejected(partition))
+                .description("Requests shed with 503 at the concurrency limit")
+                .tag("partition", name)
+                .register(registry);
+        }
+    }
+}
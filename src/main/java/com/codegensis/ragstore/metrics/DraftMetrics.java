@@ -0,0 +1,43 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.draft.DraftService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Draft messages held in memory, the deltas appended to them, the rows their flushes wrote
+ * and how drafts ended. Writes per finalized draft is the persistence cost of streaming.
+ */
+@Component
+public class DraftMetrics implements MeterBinder {
+
+    private final DraftService draftService;
+
+    public DraftMetrics(DraftService draftService) {
+        this.draftService = draftService;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ragstore.drafts.open", draftService, DraftService::getOpenCount)
+            .description("Drafts held in memory")
+            .register(registry);
+        FunctionCounter.builder("ragstore.drafts.deltas", draftService, DraftService::getDeltas)
+            .description("Deltas appended to drafts")
+            .register(registry);
+        FunctionCounter.builder("ragstore.drafts.writes", draftService, DraftService::getWrites)
+            .description("Draft rows inserted or updated by flushes")
+            .register(registry);
+        FunctionCounter.builder("ragstore.drafts.closed", draftService, DraftService::getFinalized)
+            .description("Drafts that were finalized or discarded")
+            .tag("outcome", "finalized")
+            .register(registry);
+        FunctionCounter.builder("ragstore.drafts.closed", draftService, DraftService::getDiscarded)
+            .description("Drafts that were finalized or discarded")
+            .tag("outcome", "discarded")
+            .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.idempotency.IdempotentExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Requests carrying an {@code Idempotency-Key}, by whether they executed, were replayed or were
+ * rejected, and the size of the in-memory response cache.
+ */
+@Component
+public class IdempotencyMetrics implements MeterBinder {
+
+    private final IdempotentExecutor idempotentExecutor;
+
+    public IdempotencyMetrics(IdempotentExecutor idempotentExecutor) {
+        this.idempotentExecutor = idempotentExecutor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ragstore.idempotency.requests", idempotentExecutor, IdempotentExecutor::getExecutions)
+            .description("Requests with an Idempotency-Key")
+            .tag("outcome", "executed")
+            .register(registry);
+        FunctionCounter.builder("ragstore.idempotency.requests", idempotentExecutor, IdempotentExecutor::getReplays)
+            .description("Requests with an Idempotency-Key")
+            .tag("outcome", "replayed")
+            .register(registry);
+        FunctionCounter.builder("ragstore.idempotency.requests", idempotentExecutor, IdempotentExecutor::getConflicts)
+            .description("Requests with an Idempotency-Key")
+            .tag("outcome", "rejected")
+            .register(registry);
+        Gauge.builder("ragstore.idempotency.cache.size", idempotentExecutor, IdempotentExecutor::getCacheSize)
+            .description("Stored responses held in memory")
+            .register(registry);
+    }
+}
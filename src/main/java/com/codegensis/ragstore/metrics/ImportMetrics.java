@@ -0,0 +1,45 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.importer.BulkImporter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rows stored by bulk imports per {@code type}, import lines that were not stored per
+ * {@code outcome}, and imports running.
+ */
+@Component
+public class ImportMetrics implements MeterBinder {
+    
+    private final BulkImporter bulkImporter;
+    
+    public ImportMetrics(BulkImporter bulkImporter) {
+        this.bulkImporter = bulkImporter;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("ragstore.import.rows", bulkImporter, BulkImporter::getTotalSessions)
+            .description("Rows stored by bulk imports")
+            .tag("type", "session")
+            .register(registry);
+        FunctionCounter.builder("ragstore.import.rows", bulkImporter, BulkImporter::getTotalMessages)
+            .description("Rows stored by bulk imports")
+            .tag("type", "message")
+            .register(registry);
+        FunctionCounter.builder("ragstore.import.skipped", bulkImporter, BulkImporter::getTotalDuplicates)
+            .description("Import lines not stored")
+            .tag("outcome", "duplicate")
+            .register(registry);
+        FunctionCounter.builder("ragstore.import.skipped", bulkImporter, BulkImporter::getTotalRejected)
+            .description("Import lines not stored")
+            .tag("outcome", "rejected")
+            .register(registry);
+        Gauge.builder("ragstore.import.active", bulkImporter, BulkImporter::getActiveImports)
+            .description("Bulk imports running")
+            .register(registry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.codegensis.ragstore.metrics;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.codegensis.ragstore.logging.CountingAsyncAppender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Queue depth and discarded event counts for the asynchronous log appenders.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof CountingAsyncAppender appender) {
+                FunctionCounter.builder("ragstore.logging.events.discarded", appender, CountingAsyncAppender::getDiscardedCount)
+                    .description("Log events dropped because the async queue was full")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+                Gauge.builder("ragstore.logging.queue.size", appender, CountingAsyncAppender::getNumberOfElementsInQueue)
+                    .description("Log events waiting to be written")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+            }
+        }
+    }
+}
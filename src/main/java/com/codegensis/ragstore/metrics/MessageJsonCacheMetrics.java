@@ -0,0 +1,46 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.json.MessageJsonCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size, lookups and evictions of the serialized message cache, plus its hit ratio since startup.
+ */
+@Component
+public class MessageJsonCacheMetrics implements MeterBinder {
+
+    private final MessageJsonCache messageJsonCache;
+
+    public MessageJsonCacheMetrics(MessageJsonCache messageJsonCache) {
+        this.messageJsonCache = messageJsonCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ragstore.message.json.cache.size", messageJsonCache, MessageJsonCache::getSize)
+            .description("Messages held as serialized JSON")
+            .register(registry);
+        Gauge.builder("ragstore.message.json.cache.bytes", messageJsonCache, MessageJsonCache::getBytes)
+            .description("Estimated heap used by serialized messages")
+            .baseUnit("bytes")
+            .register(registry);
+        Gauge.builder("ragstore.message.json.cache.hit.ratio", messageJsonCache, MessageJsonCache::getHitRatio)
+            .description("Share of message lookups served from the cache")
+            .register(registry);
+        FunctionCounter.builder("ragstore.message.json.cache.lookups", messageJsonCache, MessageJsonCache::getHits)
+            .description("Serialized message lookups")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("ragstore.message.json.cache.lookups", messageJsonCache, MessageJsonCache::getMisses)
+            .description("Serialized message lookups")
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("ragstore.message.json.cache.evictions", messageJsonCache, MessageJsonCache::getEvictions)
+            .description("Serialized messages evicted to stay within the byte budget")
+            .register(registry);
+    }
+}
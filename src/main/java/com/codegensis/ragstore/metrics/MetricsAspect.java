@@ -0,0 +1,97 @@
+package com.codegensis.ragstore.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every public service method, every storage engine call and the reactive repository
+ * queries. Runs outside the transaction advice so service and storage timings include the
+ * commit. JPA repositories are also timed by Spring Data's own instrumentation.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricsAspect {
+    
+    private static final String STATE_SUCCESS = "SUCCESS";
+    private static final String STATE_ERROR = "ERROR";
+    private static final String STATE_CANCELED = "CANCELED";
+    
+    private final RagstoreMetrics metrics;
+    
+    public MetricsAspect(RagstoreMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    @Around("execution(public * com.codegensis.ragstore.service.SessionService.*(..)) || "
+        + "execution(public * com.codegensis.ragstore.service.MessageService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        String endpoint = RagstoreMetrics.currentEndpoint();
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        
+        Timer.Sample sample = metrics.startTimer();
+        try {
+            Object result = joinPoint.proceed();
+            sample.stop(metrics.serviceTimer(endpoint, service, method, null));
+            return result;
+        } catch (Throwable error) {
+            sample.stop(metrics.serviceTimer(endpoint, service, method, error));
+            throw error;
+        }
+    }
+    
+    /** Tagged by the engine's class, so every {@code MessageLog} and {@code SessionStore} is timed alike. */
+    @Around("execution(public * com.codegensis.ragstore.storage.MessageLog+.*(..)) || "
+        + "execution(public * com.codegensis.ragstore.storage.SessionStore+.*(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        String endpoint = RagstoreMetrics.currentEndpoint();
+        String engine = joinPoint.getTarget().getClass().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        
+        Timer.Sample sample = metrics.startTimer();
+        try {
+            Object result = joinPoint.proceed();
+            sample.stop(metrics.storageTimer(endpoint, engine, method, null));
+            return result;
+        } catch (Throwable error) {
+            sample.stop(metrics.storageTimer(endpoint, engine, method, error));
+            throw error;
+        }
+    }
+    
+    /** Reactive queries only run on subscription, so the timer starts then rather than at the call. */
+    @Around("execution(public * com.codegensis.ragstore.repository.ReactiveChatRepository.*(..))")
+    public Object timeReactiveRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Object result = joinPoint.proceed();
+        
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample sample = metrics.startTimer();
+                return flux
+                    .doOnComplete(() -> sample.stop(metrics.repositoryTimer(repository, method, STATE_SUCCESS, null)))
+                    .doOnError(error -> sample.stop(metrics.repositoryTimer(repository, method, STATE_ERROR, error)))
+                    .doOnCancel(() -> sample.stop(metrics.repositoryTimer(repository, method, STATE_CANCELED, null)));
+            });
+        }
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = metrics.startTimer();
+                return mono
+                    .doOnSuccess(value -> sample.stop(metrics.repositoryTimer(repository, method, STATE_SUCCESS, null)))
+                    .doOnError(error -> sample.stop(metrics.repositoryTimer(repository, method, STATE_ERROR, error)))
+                    .doOnCancel(() -> sample.stop(metrics.repositoryTimer(repository, method, STATE_CANCELED, null)));
+            });
+        }
+        return result;
+    }
+}
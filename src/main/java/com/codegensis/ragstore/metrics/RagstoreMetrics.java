@@ -0,0 +1,148 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Application meters: service call timers, storage engine timers, repository timers for queries
+ * Spring Data does not instrument itself, message payload sizes and validation failures.
+ * Histogram buckets and SLOs are configured under {@code management.metrics.distribution}.
+ */
+@Component
+public class RagstoreMetrics {
+    
+    public static final String SERVICE_TIMER = "ragstore.service";
+    public static final String STORAGE_TIMER = "ragstore.storage";
+    public static final String REPOSITORY_TIMER = "spring.data.repository.invocations";
+    public static final String CONTENT_SIZE = "ragstore.message.content.size";
+    public static final String CONTEXT_SIZE = "ragstore.message.context.size";
+    public static final String VALIDATION_FAILURES = "ragstore.validation.failures";
+    
+    public static final String OUTCOME_SUCCESS = "SUCCESS";
+    public static final String OUTCOME_CLIENT_ERROR = "CLIENT_ERROR";
+    public static final String OUTCOME_SERVER_ERROR = "SERVER_ERROR";
+    
+    private static final String NONE = "none";
+    
+    private final MeterRegistry registry;
+    
+    public RagstoreMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+    
+    public Timer.Sample startTimer() {
+        return Timer.start(registry);
+    }
+    
+    public Timer serviceTimer(String endpoint, String service, String method, Throwable error) {
+        return Timer.builder(SERVICE_TIMER)
+            .description("Service method execution time")
+            .tag("endpoint", endpoint)
+            .tag("service", service)
+            .tag("method", method)
+            .tag("outcome", outcome(error))
+            .tag("exception", exceptionTag(error))
+            .register(registry);
+    }
+    
+    public Timer storageTimer(String endpoint, String engine, String method, Throwable error) {
+        return Timer.builder(STORAGE_TIMER)
+            .description("Storage engine call execution time")
+            .tag("endpoint", endpoint)
+            .tag("engine", engine)
+            .tag("method", method)
+            .tag("outcome", outcome(error))
+            .tag("exception", exceptionTag(error))
+            .register(registry);
+    }
+    
+    /** Uses the same tags as Spring Data's own repository timer so both end up in one series. */
+    public Timer repositoryTimer(String repository, String method, String state, Throwable error) {
+        return Timer.builder(REPOSITORY_TIMER)
+            .description("Duration of repository invocations")
+            .tag("repository", repository)
+            .tag("method", method)
+            .tag("state", state)
+            .tag("exception", error != null ? error.getClass().getSimpleName() : "None")
+            .register(registry);
+    }
+    
+    public void recordMessagePayload(String sender, String content, String context) {
+        DistributionSummary.builder(CONTENT_SIZE)
+            .description("Message content length")
+            .baseUnit("characters")
+            .tag("sender", sender)
+            .register(registry)
+            .record(content != null ? content.length() : 0);
+        
+        if (context != null) {
+            DistributionSummary.builder(CONTEXT_SIZE)
+                .description("Message RAG context length")
+                .baseUnit("characters")
+                .tag("sender", sender)
+                .register(registry)
+                .record(context.length());
+        }
+    }
+    
+    /**
+     * @param source where the failure was detected: {@code validator}, {@code request_body}
+     *               (bean validation on the payload) or {@code constraint} (entity constraints)
+     */
+    public void recordValidationFailure(String endpoint, String source) {
+        Counter.builder(VALIDATION_FAILURES)
+            .description("Requests rejected by validation")
+            .tag("endpoint", endpoint)
+            .tag("source", source)
+            .register(registry)
+            .increment();
+    }
+    
+    /** Method and route pattern of the request being handled on this thread, e.g. {@code GET /api/v1/sessions}. */
+    public static String currentEndpoint() {
+        return endpoint(RequestContextHolder.getRequestAttributes());
+    }
+    
+    public static String endpoint(RequestAttributes attributes) {
+        HttpServletRequest request = null;
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            request = servletAttributes.getRequest();
+        } else if (attributes instanceof NativeWebRequest webRequest) {
+            request = webRequest.getNativeRequest(HttpServletRequest.class);
+        }
+        if (request == null) {
+            return NONE;
+        }
+        // Route patterns keep the tag bounded; raw URIs would create a series per session id
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? request.getMethod() + " " + pattern : NONE;
+    }
+    
+    static String outcome(Throwable error) {
+        if (error == null) {
+            return OUTCOME_SUCCESS;
+        }
+        if (error instanceof ApiException apiException && apiException.getHttpStatus().is4xxClientError()) {
+            return OUTCOME_CLIENT_ERROR;
+        }
+        if (error instanceof DataIntegrityViolationException) {
+            return OUTCOME_CLIENT_ERROR;
+        }
+        return OUTCOME_SERVER_ERROR;
+    }
+    
+    private static String exceptionTag(Throwable error) {
+        return error != null ? error.getClass().getSimpleName() : NONE;
+    }
+}
@@ -0,0 +1,79 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.config.RateLimitConfig;
+import com.codegensis.ragstore.ratelimit.LeasedRateLimiter;
+import com.codegensis.ragstore.ratelimit.RateLimitTable;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Occupancy and eviction counts for the API key rate-limit tables, plus store round trips when
+ * limits are shared across instances. The {@code table} tag is {@code api-key} for request
+ * tokens and {@code api-key-bytes} for body bytes.
+ */
+@Component
+public class RateLimitMetrics implements MeterBinder {
+    
+    private final RateLimitConfig rateLimitConfig;
+    private final RateLimiter apiKeyRateLimiter;
+    private final RateLimiter apiKeyByteRateLimiter;
+    
+    public RateLimitMetrics(RateLimitConfig rateLimitConfig,
+                            @Qualifier("apiKeyRateLimiter") RateLimiter apiKeyRateLimiter,
+                            @Qualifier("apiKeyByteRateLimiter") RateLimiter apiKeyByteRateLimiter) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.apiKeyRateLimiter = apiKeyRateLimiter;
+        this.apiKeyByteRateLimiter = apiKeyByteRateLimiter;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindTable(registry, "api-key", rateLimitConfig.getApiKeyTable(), apiKeyRateLimiter);
+        bindTable(registry, "unknown-key", rateLimitConfig.getUnknownKeyTable(), rateLimitConfig.getUnknownKeyTable());
+        if (rateLimitConfig.getApiKeyByteTable() != null) {
+            bindTable(registry, "api-key-bytes", rateLimitConfig.getApiKeyByteTable(), apiKeyByteRateLimiter);
+        }
+    }
+    
+    private static void bindTable(MeterRegistry registry, String name, RateLimitTable table, RateLimiter limiter) {
+        Gauge.builder("ragstore.ratelimit.table.size", table, RateLimitTable::size)
+            .description("Rate-limit table slots in use")
+            .tag("table", name)
+            .register(registry);
+        Gauge.builder("ragstore.ratelimit.table.capacity", table, RateLimitTable::capacity)
+            .description("Rate-limit table slots available")
+            .tag("table", name)
+            .register(registry);
+        FunctionCounter.builder("ragstore.ratelimit.table.evictions", table, RateLimitTable::getExpiredEvictions)
+            .description("Keys evicted from the rate-limit table")
+            .tags("table", name, "reason", "expired")
+            .register(registry);
+        FunctionCounter.builder("ragstore.ratelimit.table.evictions", table, RateLimitTable::getCapacityEvictions)
+            .description("Keys evicted from the rate-limit table")
+            .tags("table", name, "reason", "capacity")
+            .register(registry);
+        if (limiter instanceof LeasedRateLimiter leased) {
+            FunctionCounter.builder("ragstore.ratelimit.store.calls", leased, LeasedRateLimiter::getRemoteCalls)
+                .description("Token prefetches from the shared rate-limit store")
+                .tag("table", name)
+                .register(registry);
+            FunctionCounter.builder("ragstore.ratelimit.store.released", leased, LeasedRateLimiter::getReleasedTokens)
+                .description("Unused prefetched tokens returned to the shared store")
+                .tag("table", name)
+                .register(registry);
+            FunctionCounter.builder("ragstore.ratelimit.store.fallbacks", leased, LeasedRateLimiter::getFallbacks)
+                .description("Requests limited locally because the shared store was unavailable")
+                .tag("table", name)
+                .register(registry);
+            Gauge.builder("ragstore.ratelimit.store.leases", leased, LeasedRateLimiter::getLeaseCount)
+                .description("Keys holding prefetched tokens")
+                .tag("table", name)
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.codegensis.ragstore.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+
+/**
+ * Hits, misses, puts, removals and evictions of each second-level cache region, as the
+ * standard {@code cache.*} meters tagged with the region in {@code cache}.
+ */
+@Component
+public class SessionCacheMetrics implements MeterBinder {
+
+    private final CacheManager sessionCacheManager;
+
+    public SessionCacheMetrics(CacheManager sessionCacheManager) {
+        this.sessionCacheManager = sessionCacheManager;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : sessionCacheManager.getCacheNames()) {
+            new JCacheMetrics<>(sessionCacheManager.getCache(region), Tags.of("cache.manager", "sessionCacheManager"))
+                .bindTo(registry);
+        }
+    }
+}
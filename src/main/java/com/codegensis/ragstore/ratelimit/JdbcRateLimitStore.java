@@ -0,0 +1,98 @@
+package com.codegensis.ragstore.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link RateLimitStore} backed by the {@code rate_limit_buckets} table. Each acquire locks the
+ * bucket row for the length of one short transaction, so concurrent instances never hand out
+ * the same tokens twice.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.mode", havingValue = "distributed")
+public class JdbcRateLimitStore implements RateLimitStore {
+    
+    private static final String SELECT_FOR_UPDATE =
+        "SELECT window_start, tokens FROM rate_limit_buckets WHERE bucket_id = ? FOR UPDATE";
+    private static final String INSERT =
+        "INSERT INTO rate_limit_buckets (bucket_id, window_start, tokens) VALUES (?, ?, ?)";
+    private static final String UPDATE =
+        "UPDATE rate_limit_buckets SET window_start = ?, tokens = ? WHERE bucket_id = ?";
+    private static final String RELEASE =
+        "UPDATE rate_limit_buckets SET tokens = LEAST(tokens + ?, ?) WHERE bucket_id = ? AND window_start = ?";
+    private static final String PURGE =
+        "DELETE FROM rate_limit_buckets WHERE window_start < ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LongSupplier clock;
+    
+    @Autowired
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, transactionManager, System::currentTimeMillis);
+    }
+    
+    JdbcRateLimitStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, LongSupplier clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+    
+    @Override
+    public Grant acquire(String bucketId, int requested, int limit, Duration period) {
+        try {
+            return transactionTemplate.execute(status -> acquireLocked(bucketId, requested, limit, period));
+        } catch (DuplicateKeyException e) {
+            // Another instance created the bucket first; its row now exists and can be locked
+            return transactionTemplate.execute(status -> acquireLocked(bucketId, requested, limit, period));
+        }
+    }
+    
+    private Grant acquireLocked(String bucketId, int requested, int limit, Duration period) {
+        long now = clock.getAsLong();
+        List<long[]> rows = jdbcTemplate.query(SELECT_FOR_UPDATE,
+            (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, bucketId);
+        
+        if (rows.isEmpty()) {
+            int granted = Math.min(requested, limit);
+            jdbcTemplate.update(INSERT, bucketId, now, limit - granted);
+            return new Grant(granted, now, limit - granted);
+        }
+        
+        long windowStart = rows.get(0)[0];
+        long tokens = rows.get(0)[1];
+        if (now - windowStart >= period.toMillis()) {
+            windowStart = now;
+            tokens = limit;
+        }
+        int granted = (int) Math.min(requested, tokens);
+        if (granted > 0 || windowStart == now) {
+            jdbcTemplate.update(UPDATE, windowStart, tokens - granted, bucketId);
+        }
+        return new Grant(granted, windowStart, tokens - granted);
+    }
+    
+    @Override
+    public void release(List<Release> releases) {
+        jdbcTemplate.batchUpdate(RELEASE, releases, releases.size(), (ps, release) -> {
+            ps.setInt(1, release.tokens());
+            ps.setInt(2, release.limit());
+            ps.setString(3, release.bucketId());
+            ps.setLong(4, release.windowStart());
+        });
+    }
+    
+    @Override
+    public void purgeBefore(long windowStart) {
+        jdbcTemplate.update(PURGE, windowStart);
+    }
+}
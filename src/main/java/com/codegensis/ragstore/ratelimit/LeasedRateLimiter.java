@@ -0,0 +1,308 @@
+package com.codegensis.ragstore.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cluster-wide limiter over a shared {@link RateLimitStore}. Tokens are prefetched from the
+ * store in batches and handed out locally, so most requests never leave the process; once the
+ * shared bucket is dry for the current window, the key is rejected locally until the window
+ * ends. Leases that go unused for a sync interval are dropped and their tokens returned to the
+ * store in one batch, where other instances can take them.
+ * <p>
+ * Tokens are reserved before use, so the cluster never admits more than the limit; at worst a
+ * key is rejected early while other instances still hold unused prefetched tokens, until the
+ * next sync returns them. If the store fails, requests fall back to the per-instance limiter.
+ * <p>
+ * The remaining quota reported to clients is the shared bucket as of this instance's last
+ * round trip plus its local lease, so it lags behind other instances between round trips.
+ */
+public class LeasedRateLimiter implements RateLimiter, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeasedRateLimiter.class);
+
+    private final RateLimitStore store;
+    private final RateLimiter fallback;
+    private final String namespace;
+    private final int defaultLimit;
+    private final Duration period;
+    private final int prefetch;
+    private final int maxLeases;
+    private final long syncIntervalMillis;
+    private final LongSupplier clock;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder remoteCalls = new LongAdder();
+    private final LongAdder releasedTokens = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private volatile boolean degraded;
+    private long nextPurge;
+
+    public LeasedRateLimiter(RateLimitStore store, RateLimiter fallback, String namespace, int limit, Duration period,
+                             int prefetch, int maxLeases, Duration syncInterval) {
+        this(store, fallback, namespace, limit, period, prefetch, maxLeases, syncInterval, System::currentTimeMillis, true);
+    }
+
+    LeasedRateLimiter(RateLimitStore store, RateLimiter fallback, String namespace, int limit, Duration period,
+                      int prefetch, int maxLeases, Duration syncInterval, LongSupplier clock, boolean scheduleSync) {
+        if (limit < 1 || prefetch < 1 || syncInterval.toMillis() < 1) {
+            throw new IllegalArgumentException("Limit, prefetch and sync interval must be positive");
+        }
+        this.store = store;
+        this.fallback = fallback;
+        this.namespace = namespace;
+        this.defaultLimit = limit;
+        this.period = period;
+        this.prefetch = prefetch;
+        this.maxLeases = maxLeases;
+        this.syncIntervalMillis = syncInterval.toMillis();
+        this.clock = clock;
+        if (scheduleSync) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "rate-limit-sync-" + namespace);
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key, int tokens, long limit) {
+        long now = clock.getAsLong();
+        Lease lease = leases.get(key);
+        if (lease != null && lease.tryTake(now, tokens)) {
+            return lease.result(true, now);
+        }
+        int keyLimit = (int) Math.max(1L, Math.min(limit, Integer.MAX_VALUE));
+        if (tokens > keyLimit) {
+            return new RateLimitResult(false, lease != null ? lease.reported() : keyLimit, period.toMillis());
+        }
+        try {
+            RateLimitResult result = refill(key, tokens, keyLimit, now);
+            if (degraded) {
+                degraded = false;
+                logger.info("Rate-limit store reachable again, leaving local fallback");
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (!degraded) {
+                degraded = true;
+                logger.warn("Rate-limit store unavailable, enforcing per-instance limits: {}", e.getMessage());
+            }
+            fallbacks.increment();
+            return fallback.tryConsume(key, tokens, limit);
+        }
+    }
+
+    private RateLimitResult refill(String key, int tokens, int limit, long now) {
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            if (leases.size() >= maxLeases) {
+                return acquireWithoutLease(key, tokens, limit, now);
+            }
+            lease = leases.computeIfAbsent(key, k -> new Lease(bucketId(namespace, k)));
+        }
+        synchronized (lease) {
+            if (lease.tryTake(now, tokens)) {
+                return lease.result(true, now);
+            }
+            if (now < lease.exhaustedUntil) {
+                return lease.result(false, now);
+            }
+            remoteCalls.increment();
+            int requested = Math.max(Math.min(prefetch, limit), tokens);
+            RateLimitStore.Grant grant = store.acquire(lease.bucketId, requested, limit, period);
+            long windowEnd = grant.windowStart() + period.toMillis();
+            int carried = grant.windowStart() == lease.windowStart ? lease.remaining.getAndSet(0) : 0;
+            lease.renew(grant.windowStart(), windowEnd, limit, carried + grant.tokens(), grant.remaining());
+            if (grant.tokens() < requested) {
+                // The shared bucket is dry for this window; whatever it had is now in the lease
+                lease.exhaustedUntil = windowEnd;
+            }
+            return lease.result(lease.tryTake(now, tokens), now);
+        }
+    }
+
+    /** Keeps memory bounded under key spray: no lease, no prefetch. */
+    private RateLimitResult acquireWithoutLease(String key, int tokens, int limit, long now) {
+        remoteCalls.increment();
+        String bucketId = bucketId(namespace, key);
+        RateLimitStore.Grant grant = store.acquire(bucketId, tokens, limit, period);
+        long resetMillis = Math.max(0L, grant.windowStart() + period.toMillis() - now);
+        if (grant.tokens() < tokens) {
+            if (grant.tokens() > 0) {
+                store.release(List.of(new RateLimitStore.Release(bucketId, grant.windowStart(), grant.tokens(), limit)));
+            }
+            return new RateLimitResult(false, grant.remaining() + grant.tokens(), resetMillis);
+        }
+        return new RateLimitResult(true, grant.remaining(), resetMillis);
+    }
+
+    /** Refunds go to the local lease, which never holds more than was taken from the store. */
+    @Override
+    public void refund(String key, int tokens, long limit) {
+        Lease lease = leases.get(key);
+        if (lease != null && clock.getAsLong() < lease.windowEnd) {
+            lease.remaining.addAndGet(tokens);
+        }
+    }
+
+    @Override
+    public long limit() {
+        return defaultLimit;
+    }
+
+    /** Drops leases idle for a sync interval, returns their tokens and purges stale buckets. */
+    void sync() {
+        try {
+            long now = clock.getAsLong();
+            List<RateLimitStore.Release> releases = new ArrayList<>();
+            leases.forEach((key, lease) -> {
+                if (now - lease.lastUsed >= syncIntervalMillis && leases.remove(key, lease)) {
+                    int unused = lease.remaining.getAndSet(0);
+                    if (unused > 0 && now < lease.windowEnd) {
+                        releases.add(lease.release(unused));
+                    }
+                }
+            });
+            release(releases);
+            if (now >= nextPurge) {
+                store.purgeBefore(now - 2 * period.toMillis());
+                nextPurge = now + period.toMillis();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Rate-limit sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void release(List<RateLimitStore.Release> releases) {
+        if (releases.isEmpty()) {
+            return;
+        }
+        store.release(releases);
+        releases.forEach(release -> releasedTokens.add(release.tokens()));
+    }
+
+    /** Stops syncing and hands every unused token back to the store. */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        long now = clock.getAsLong();
+        List<RateLimitStore.Release> releases = new ArrayList<>();
+        leases.forEach((key, lease) -> {
+            int unused = lease.remaining.getAndSet(0);
+            if (unused > 0 && now < lease.windowEnd) {
+                releases.add(lease.release(unused));
+            }
+        });
+        leases.clear();
+        try {
+            release(releases);
+        } catch (RuntimeException e) {
+            logger.warn("Could not return unused rate-limit tokens on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public long getRemoteCalls() {
+        return remoteCalls.sum();
+    }
+
+    public long getReleasedTokens() {
+        return releasedTokens.sum();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    public int getLeaseCount() {
+        return leases.size();
+    }
+
+    /** Stores key digests rather than the keys themselves; the namespace separates bandwidths. */
+    static String bucketId(String namespace, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Lease {
+
+        private final String bucketId;
+        private final AtomicInteger remaining = new AtomicInteger();
+        private volatile long windowStart;
+        private volatile long windowEnd;
+        private volatile int limit;
+        private volatile long exhaustedUntil;
+        private volatile long sharedRemaining;
+        private volatile long lastUsed;
+
+        Lease(String bucketId) {
+            this.bucketId = bucketId;
+        }
+
+        boolean tryTake(long now, int tokens) {
+            if (lastUsed != now) {
+                lastUsed = now;
+            }
+            if (now >= windowEnd) {
+                return false;
+            }
+            int current;
+            do {
+                current = remaining.get();
+                if (current < tokens) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - tokens));
+            return true;
+        }
+
+        void renew(long windowStart, long windowEnd, int limit, int tokens, long sharedRemaining) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.limit = limit;
+            this.sharedRemaining = sharedRemaining;
+            remaining.set(tokens);
+        }
+
+        RateLimitStore.Release release(int tokens) {
+            return new RateLimitStore.Release(bucketId, windowStart, tokens, limit);
+        }
+
+        long reported() {
+            return sharedRemaining + Math.max(0, remaining.get());
+        }
+
+        RateLimitResult result(boolean allowed, long now) {
+            return new RateLimitResult(allowed, reported(), Math.max(0L, windowEnd - now));
+        }
+    }
+}
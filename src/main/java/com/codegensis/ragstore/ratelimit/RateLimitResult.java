@@ -0,0 +1,12 @@
+package com.codegensis.ragstore.ratelimit;
+
+/**
+ * Outcome of a {@link RateLimiter} call and the quota left afterwards, as reported in the
+ * {@code X-RateLimit-*} response headers.
+ *
+ * @param allowed     whether the tokens were taken
+ * @param remaining   tokens left in the current window
+ * @param resetMillis time until the window refills
+ */
+public record RateLimitResult(boolean allowed, long remaining, long resetMillis) {
+}
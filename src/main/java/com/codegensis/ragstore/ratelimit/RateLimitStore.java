@@ -0,0 +1,34 @@
+package com.codegensis.ragstore.ratelimit;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Shared bucket state behind {@link LeasedRateLimiter}. Every service instance talks to the
+ * same store, so the configured limit holds across the cluster. Buckets refill in full once a
+ * period has passed since their window started; window starts are epoch milliseconds.
+ */
+public interface RateLimitStore {
+    
+    /**
+     * Takes up to {@code requested} tokens from the bucket, creating or refilling it as needed.
+     * Granting fewer tokens than requested, including none, means the bucket ran dry.
+     */
+    Grant acquire(String bucketId, int requested, int limit, Duration period);
+    
+    /**
+     * Returns unused tokens, never filling a bucket beyond the release's {@code limit}; releases
+     * for a window that has since been reset are ignored.
+     */
+    void release(List<Release> releases);
+    
+    /** Deletes buckets whose window started before {@code windowStart}. */
+    void purgeBefore(long windowStart);
+    
+    /** {@code remaining} is what the shared bucket holds after this grant. */
+    record Grant(int tokens, long windowStart, long remaining) {
+    }
+    
+    record Release(String bucketId, long windowStart, int tokens, int limit) {
+    }
+}
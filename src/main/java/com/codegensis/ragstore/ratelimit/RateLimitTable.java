@@ -0,0 +1,258 @@
+package com.codegensis.ragstore.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-capacity token table for per-key rate limits. Each key gets {@code tokensPerPeriod}
+ * tokens, or the limit passed with the request, refilled in full once a period has passed since
+ * its window started, the same interval refill the previous Bucket4j buckets used.
+ * <p>
+ * Keys are hashed to seeded 64-bit fingerprints and stored in an open-addressed array with a
+ * bounded probe length; token state is packed into one {@code long} per slot and updated with
+ * CAS, so lookups take no locks and allocate nothing. A slot whose window has expired holds a
+ * full bucket, so it can be handed to another key without changing anyone's limit. When every
+ * slot in a probe run is live, the one with the oldest window is evicted instead of growing the
+ * table, which keeps memory and per-request cost flat when clients spray random keys.
+ * <p>
+ * Races between a consumer and an eviction of the same slot can misattribute a single token;
+ * that is the price of not locking and is acceptable for rate limiting.
+ */
+public class RateLimitTable implements RateLimiter {
+
+    static final int MAX_PROBE = 16;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long TOKEN_MASK = 0xFFFFFFFFL;
+    private static final long NANOS_PER_TICK = 1_000_000L;
+
+    private final int mask;
+    private final int tokensPerPeriod;
+    private final long periodTicks;
+    private final long seed;
+    private final LongSupplier nanoClock;
+    private final long epochNanos;
+
+    // Fingerprint per slot, 0 when the slot was never used
+    private final AtomicLongArray fingerprints;
+    // Window start tick (high 32 bits) and remaining tokens + 1 (low 32 bits), 0 when unset
+    private final AtomicLongArray states;
+
+    private final LongAdder occupied = new LongAdder();
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+
+    public RateLimitTable(int capacity, int tokensPerPeriod, Duration period) {
+        this(capacity, tokensPerPeriod, period, System::nanoTime);
+    }
+
+    RateLimitTable(int capacity, int tokensPerPeriod, Duration period, LongSupplier nanoClock) {
+        this(capacity, tokensPerPeriod, period, nanoClock, ThreadLocalRandom.current().nextLong());
+    }
+
+    /** Takes the hash seed, so which keys share a probe run is the same on every run. */
+    RateLimitTable(int capacity, int tokensPerPeriod, Duration period, LongSupplier nanoClock, long seed) {
+        if (capacity < 1 || tokensPerPeriod < 1 || period.toMillis() < 1) {
+            throw new IllegalArgumentException("Capacity, tokens per period and period must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(MAX_PROBE, Math.min(capacity, 1 << 30)) - 1) << 1;
+        this.mask = size - 1;
+        this.tokensPerPeriod = tokensPerPeriod;
+        this.periodTicks = period.toNanos() / NANOS_PER_TICK;
+        this.seed = seed;
+        this.nanoClock = nanoClock;
+        this.epochNanos = nanoClock.getAsLong();
+        this.fingerprints = new AtomicLongArray(size);
+        this.states = new AtomicLongArray(size);
+    }
+
+    @Override
+    public RateLimitResult tryConsume(String key, int tokens, long limit) {
+        long fingerprint = fingerprint(key);
+        long now = ticks();
+        long cappedLimit = cap(limit);
+        while (true) {
+            int slot = findOrClaim(fingerprint, now);
+            RateLimitResult result = consume(slot, fingerprint, now, tokens, cappedLimit);
+            if (result != null) {
+                return result;
+            }
+            // Slot was taken over by another key between lookup and update
+        }
+    }
+    
+    @Override
+    public void refund(String key, int tokens, long limit) {
+        long fingerprint = fingerprint(key);
+        long cappedLimit = cap(limit);
+        int start = (int) (fingerprint >>> 32) & mask;
+        for (int probe = 0; probe < MAX_PROBE; probe++) {
+            int slot = (start + probe) & mask;
+            long existing = fingerprints.get(slot);
+            if (existing == 0L) {
+                return;
+            }
+            if (existing == fingerprint) {
+                long state;
+                long next;
+                do {
+                    state = states.get(slot);
+                    if (state == 0L || fingerprints.get(slot) != fingerprint) {
+                        return;
+                    }
+                    long remaining = Math.min(cappedLimit, (state & TOKEN_MASK) - 1 + tokens);
+                    next = pack(state >>> 32, remaining);
+                } while (!states.compareAndSet(slot, state, next));
+                return;
+            }
+        }
+    }
+    
+    @Override
+    public long limit() {
+        return tokensPerPeriod;
+    }
+
+    /** Slots handed out since creation or the last {@link #clear()}. */
+    public long size() {
+        return occupied.sum();
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public long getExpiredEvictions() {
+        return expiredEvictions.sum();
+    }
+
+    public long getCapacityEvictions() {
+        return capacityEvictions.sum();
+    }
+
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            fingerprints.set(i, 0L);
+            states.set(i, 0L);
+        }
+        occupied.reset();
+    }
+
+    private int findOrClaim(long fingerprint, long now) {
+        while (true) {
+            int start = (int) (fingerprint >>> 32) & mask;
+            int candidate = -1;
+            long candidateState = 0L;
+            boolean candidateExpired = false;
+            long oldestAge = -1L;
+
+            for (int probe = 0; probe < MAX_PROBE; probe++) {
+                int slot = (start + probe) & mask;
+                long existing = fingerprints.get(slot);
+                if (existing == fingerprint) {
+                    return slot;
+                }
+                if (existing == 0L) {
+                    // Slots are never emptied, so the key cannot sit beyond the first empty one
+                    if (candidate < 0 || !candidateExpired) {
+                        if (fingerprints.compareAndSet(slot, 0L, fingerprint)) {
+                            occupied.increment();
+                            return slot;
+                        }
+                        candidate = -2;
+                    }
+                    break;
+                }
+                long state = states.get(slot);
+                long age = age(state, now);
+                boolean expired = state == 0L || age >= periodTicks;
+                if (expired && !candidateExpired) {
+                    candidate = slot;
+                    candidateState = state;
+                    candidateExpired = true;
+                } else if (!candidateExpired && age > oldestAge) {
+                    candidate = slot;
+                    candidateState = state;
+                    oldestAge = age;
+                }
+            }
+
+            if (candidate >= 0 && takeOver(candidate, candidateState, fingerprint)) {
+                (candidateExpired ? expiredEvictions : capacityEvictions).increment();
+                return candidate;
+            }
+            // Lost a race for the chosen slot; probe again
+        }
+    }
+
+    private boolean takeOver(int slot, long observedState, long fingerprint) {
+        long previous = fingerprints.get(slot);
+        if (previous == fingerprint || previous == 0L || !fingerprints.compareAndSet(slot, previous, fingerprint)) {
+            return false;
+        }
+        // Fails only if the previous owner consumed meanwhile; the new key then inherits that window
+        states.compareAndSet(slot, observedState, 0L);
+        return true;
+    }
+
+    /** {@code null} when the slot no longer belongs to {@code fingerprint}. */
+    private RateLimitResult consume(int slot, long fingerprint, long now, int tokens, long limit) {
+        while (true) {
+            long state = states.get(slot);
+            if (fingerprints.get(slot) != fingerprint) {
+                return null;
+            }
+            long windowStart;
+            long available;
+            if (state == 0L || age(state, now) >= periodTicks) {
+                windowStart = now;
+                available = limit;
+            } else {
+                windowStart = state >>> 32;
+                available = (state & TOKEN_MASK) - 1;
+            }
+            long resetMillis = (periodTicks - ((now - windowStart) & TOKEN_MASK)) * NANOS_PER_TICK / 1_000_000L;
+            if (available < tokens) {
+                return new RateLimitResult(false, available, resetMillis);
+            }
+            if (states.compareAndSet(slot, state, pack(windowStart, available - tokens))) {
+                return new RateLimitResult(true, available - tokens, resetMillis);
+            }
+        }
+    }
+
+    /** Remaining tokens + 1 must fit the low 32 bits of a slot. */
+    private static long cap(long limit) {
+        return Math.max(1L, Math.min(limit, TOKEN_MASK - 1));
+    }
+
+    private static long pack(long windowStart, long remaining) {
+        return (windowStart << 32) | (remaining + 1);
+    }
+
+    /** Ticks since the window started; unsigned 32-bit arithmetic, so it wraps every ~49 days. */
+    private static long age(long state, long now) {
+        return (now - (state >>> 32)) & TOKEN_MASK;
+    }
+
+    private long ticks() {
+        return ((nanoClock.getAsLong() - epochNanos) / NANOS_PER_TICK) & TOKEN_MASK;
+    }
+
+    /** Seeded FNV-1a finished with the murmur3 mixer; never 0, which marks an empty slot. */
+    long fingerprint(String key) {
+        long hash = seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0L ? 1L : hash;
+    }
+}
@@ -0,0 +1,48 @@
+package com.codegensis.ragstore.ratelimit;
+
+/**
+ * Per-key request limiter consulted by {@code RateLimitFilter}.
+ */
+public interface RateLimiter {
+    
+    /** Limiter for a disabled bandwidth: every call is allowed and nothing is tracked. */
+    RateLimiter UNLIMITED = new RateLimiter() {
+        @Override
+        public RateLimitResult tryConsume(String key, int tokens, long limit) {
+            return new RateLimitResult(true, Long.MAX_VALUE, 0L);
+        }
+        
+        @Override
+        public void refund(String key, int tokens, long limit) {
+        }
+        
+        @Override
+        public long limit() {
+            return Long.MAX_VALUE;
+        }
+    };
+    
+    /**
+     * Takes {@code tokens} for {@code key} if all of them are available, otherwise none.
+     * {@code limit} is the key's tokens per window; callers pass the same value for a key.
+     */
+    RateLimitResult tryConsume(String key, int tokens, long limit);
+    
+    /** Gives back tokens taken for a request that another limit then rejected. */
+    void refund(String key, int tokens, long limit);
+    
+    /** Default tokens per window, for keys without a limit of their own. */
+    long limit();
+    
+    default RateLimitResult tryConsume(String key, int tokens) {
+        return tryConsume(key, tokens, limit());
+    }
+    
+    default void refund(String key, int tokens) {
+        refund(key, tokens, limit());
+    }
+    
+    default boolean tryConsume(String key) {
+        return tryConsume(key, 1).allowed();
+    }
+}
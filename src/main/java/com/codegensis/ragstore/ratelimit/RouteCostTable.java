@@ -0,0 +1,60 @@
+package com.codegensis.ragstore.ratelimit;
+
+import com.codegensis.ragstore.util.RouteMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Request-bandwidth tokens charged per route. Costs are configured as {@code pattern=cost}
+ * pairs, where the pattern is {@code "METHOD /route"} or just {@code "/route"} for any method and
+ * may use {@code {name}} segments and a trailing {@code /**}. Unlisted routes cost one token.
+ */
+@Component
+public class RouteCostTable {
+    
+    static final int DEFAULT_COST = 1;
+    
+    private final Map<String, RouteMatcher<Integer>> byMethod;
+    private final RouteMatcher<Integer> anyMethod;
+    
+    public RouteCostTable(@Value("${app.rate-limit.route-costs:}") String routeCosts) {
+        Map<String, RouteMatcher.Builder<Integer>> builders = new HashMap<>();
+        RouteMatcher.Builder<Integer> anyMethodBuilder = RouteMatcher.builder();
+        if (routeCosts != null && !routeCosts.isBlank()) {
+            for (String entry : routeCosts.split(",")) {
+                int separator = entry.lastIndexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Route costs must look like [METHOD ]/route=cost: " + entry);
+                }
+                String route = entry.substring(0, separator).trim();
+                int cost = Integer.parseInt(entry.substring(separator + 1).trim());
+                if (cost < 0) {
+                    throw new IllegalArgumentException("Route cost must not be negative: " + entry);
+                }
+                int space = route.indexOf(' ');
+                if (space < 0) {
+                    anyMethodBuilder.add(route, cost);
+                } else {
+                    builders.computeIfAbsent(route.substring(0, space), method -> RouteMatcher.builder())
+                        .add(route.substring(space + 1).trim(), cost);
+                }
+            }
+        }
+        this.byMethod = new HashMap<>();
+        builders.forEach((method, builder) -> byMethod.put(method, builder.build()));
+        this.anyMethod = anyMethodBuilder.build();
+    }
+    
+    /** Method-specific routes win over any-method routes. */
+    public int costOf(String method, String path) {
+        RouteMatcher<Integer> matcher = byMethod.get(method);
+        Integer cost = matcher != null ? matcher.match(path) : null;
+        if (cost == null) {
+            cost = anyMethod.match(path);
+        }
+        return cost != null ? cost : DEFAULT_COST;
+    }
+}
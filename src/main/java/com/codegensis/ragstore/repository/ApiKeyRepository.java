@@ -0,0 +1,19 @@
+package com.codegensis.ragstore.repository;
+
+import com.codegensis.ragstore.entity.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+    
+    Optional<ApiKey> findByKeyHash(String keyHash);
+    
+    List<ApiKey> findByTenantIdOrderByCreatedAtDesc(String tenantId);
+    
+    List<ApiKey> findByRevokedAtAfter(LocalDateTime revokedAt);
+}
@@ -4,10 +4,20 @@ import com.codegensis.ragstore.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
     
-    Page<Message> findBySessionIdOrderByTimestampAsc(Long sessionId, Pageable pageable);
+    // Ordered by the whole (session_id, seq) key, so H2 reads the unique index in order
+    Page<Message> findBySessionIdOrderBySessionIdAscSeqAsc(Long sessionId, Pageable pageable);
+
+    long countBySessionId(Long sessionId);
+
+    @Query("SELECT m.id FROM Message m WHERE m.sessionId = :sessionId ORDER BY m.sessionId ASC, m.seq ASC")
+    List<Long> findIdsBySessionId(@Param("sessionId") Long sessionId, Pageable pageable);
 }
@@ -0,0 +1,89 @@
+package com.codegensis.ragstore.repository;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SessionResponse;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking read access to sessions and messages over R2DBC.
+ * Rows are mapped straight into response records; demand from subscribers is propagated
+ * to the driver, so rows are only pulled from the result set as the client consumes them.
+ */
+@Repository
+public class ReactiveChatRepository {
+    
+    private static final String SESSIONS_BY_USER_SQL =
+        "SELECT id, user_id, title, is_favorite, created_at, updated_at FROM sessions " +
+        "WHERE user_id = :userId ORDER BY created_at DESC";
+    
+    private static final String MESSAGES_AFTER_SQL =
+        "SELECT id, session_id, seq, sender, content, context, timestamp FROM messages " +
+        "WHERE session_id = :sessionId AND seq > :afterSeq ORDER BY session_id, seq LIMIT :limit";
+    
+    private static final String SESSION_EXISTS_SQL =
+        "SELECT COUNT(*) FROM sessions WHERE id = :sessionId";
+    
+    private final DatabaseClient databaseClient;
+    
+    public ReactiveChatRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+    
+    public Flux<SessionResponse> findSessionsByUserId(String userId) {
+        return databaseClient.sql(SESSIONS_BY_USER_SQL)
+            .bind("userId", userId)
+            .map(ReactiveChatRepository::toSessionResponse)
+            .all();
+    }
+    
+    /**
+     * Messages with a sequence number above {@code afterSeq}: one range scan of the unique
+     * {@code (session_id, seq)} index, stopping after {@code limit} rows. The order names both
+     * index columns, or H2 sorts the rest of the session instead of reading the index in order.
+     */
+    public Flux<MessageResponse> findMessagesAfter(Long sessionId, long afterSeq, int limit) {
+        return databaseClient.sql(MESSAGES_AFTER_SQL)
+            .bind("sessionId", sessionId)
+            .bind("afterSeq", afterSeq)
+            .bind("limit", limit)
+            .map(ReactiveChatRepository::toMessageResponse)
+            .all();
+    }
+    
+    public Mono<Boolean> existsSessionById(Long sessionId) {
+        return databaseClient.sql(SESSION_EXISTS_SQL)
+            .bind("sessionId", sessionId)
+            .map(row -> row.get(0, Long.class))
+            .one()
+            .map(count -> count != null && count > 0);
+    }
+    
+    private static SessionResponse toSessionResponse(Readable row) {
+        return new SessionResponse(
+            row.get("id", Long.class),
+            row.get("user_id", String.class),
+            row.get("title", String.class),
+            row.get("is_favorite", Boolean.class),
+            row.get("created_at", LocalDateTime.class),
+            row.get("updated_at", LocalDateTime.class)
+        );
+    }
+    
+    private static MessageResponse toMessageResponse(Readable row) {
+        return new MessageResponse(
+            row.get("id", Long.class),
+            row.get("session_id", Long.class),
+            row.get("seq", Long.class),
+            row.get("sender", String.class),
+            row.get("content", String.class),
+            row.get("context", String.class),
+            row.get("timestamp", LocalDateTime.class)
+        );
+    }
+}
@@ -1,7 +1,10 @@
 package com.codegensis.ragstore.repository;
 
 import com.codegensis.ragstore.entity.Session;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,5 +12,13 @@ import java.util.List;
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
     
+    /** Query cache region holding the ids of each user's sessions. */
+    String USER_SESSIONS_CACHE_REGION = "sessions-by-user";
+    
+    // Hibernate drops the cached lists whenever it writes to the sessions table
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = USER_SESSIONS_CACHE_REGION)
+    })
     List<Session> findByUserIdOrderByCreatedAtDesc(String userId);
 }
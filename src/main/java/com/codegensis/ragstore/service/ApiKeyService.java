@@ -0,0 +1,253 @@
+package com.codegensis.ragstore.service;
+
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.VerifiedKeyCache;
+import com.codegensis.ragstore.dto.request.CreateApiKeyRequest;
+import com.codegensis.ragstore.dto.response.ApiKeyResponse;
+import com.codegensis.ragstore.dto.response.CreatedApiKeyResponse;
+import com.codegensis.ragstore.entity.ApiKey;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.mapper.ApiKeyMapper;
+import com.codegensis.ragstore.repository.ApiKeyRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of tenant API keys. Keys are stored as SHA-256 hashes and verified through a
+ * {@link VerifiedKeyCache}, so only the first request with a key in each TTL reaches the
+ * database. Hashes are compared with {@link MessageDigest#isEqual}, and the database is only
+ * searched by hash, so response times reveal nothing about how much of a guessed key matched.
+ * <p>
+ * Revoking a key evicts it from this instance's cache at once; every instance also polls for
+ * recent revocations, so a key revoked elsewhere stops working within one poll interval.
+ * The {@code app.api.key.primary}/{@code secondary} keys remain valid as bootstrap keys for
+ * the {@value #BOOTSTRAP_TENANT} tenant with every scope, so a fresh deployment can create
+ * the first tenant keys.
+ */
+@Service
+public class ApiKeyService {
+
+    public static final String BOOTSTRAP_TENANT = "default";
+    public static final String KEY_PREFIX = "rsk_";
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiKeyService.class);
+    private static final Set<String> DEFAULT_SCOPES = Set.of(ApiKeyPrincipal.SCOPE_READ, ApiKeyPrincipal.SCOPE_WRITE);
+    private static final int KEY_BYTES = 32;
+    private static final int DISPLAYED_PREFIX_LENGTH = 12;
+
+    private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyMapper apiKeyMapper;
+    private final VerifiedKeyCache cache;
+    private final List<BootstrapKey> bootstrapKeys = new ArrayList<>();
+    private final Duration cacheTtl;
+    private final Duration revocationPollInterval;
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ApiKeyService(ApiKeyRepository apiKeyRepository,
+                         ApiKeyMapper apiKeyMapper,
+                         @Value("${app.api.key.primary:}") String primaryApiKey,
+                         @Value("${app.api.key.secondary:}") String secondaryApiKey,
+                         @Value("${app.api.key.cache.max-entries:10000}") int cacheMaxEntries,
+                         @Value("${app.api.key.cache.ttl:60s}") Duration cacheTtl,
+                         @Value("${app.api.key.cache.negative-ttl:5s}") Duration negativeTtl,
+                         @Value("${app.api.key.revocation-poll-interval:2s}") Duration revocationPollInterval) {
+        this(apiKeyRepository, apiKeyMapper, primaryApiKey, secondaryApiKey,
+            new VerifiedKeyCache(cacheMaxEntries, cacheTtl, negativeTtl), cacheTtl, revocationPollInterval, true);
+    }
+
+    ApiKeyService(ApiKeyRepository apiKeyRepository, ApiKeyMapper apiKeyMapper, String primaryApiKey,
+                  String secondaryApiKey, VerifiedKeyCache cache, Duration cacheTtl,
+                  Duration revocationPollInterval, boolean schedulePolling) {
+        this.apiKeyRepository = apiKeyRepository;
+        this.apiKeyMapper = apiKeyMapper;
+        this.cache = cache;
+        this.cacheTtl = cacheTtl;
+        this.revocationPollInterval = revocationPollInterval;
+        addBootstrapKey("primary", primaryApiKey);
+        addBootstrapKey("secondary", secondaryApiKey);
+        if (schedulePolling) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "api-key-revocations");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = revocationPollInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::pollRevocations, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    private void addBootstrapKey(String name, String key) {
+        if (key != null && !key.isBlank()) {
+            ApiKeyPrincipal principal = new ApiKeyPrincipal(null, BOOTSTRAP_TENANT, name, ApiKeyPrincipal.ALL_SCOPES, null);
+            bootstrapKeys.add(new BootstrapKey(digest(key), principal));
+        }
+    }
+
+    /** The key's principal, or empty when the key is unknown or revoked. */
+    public Optional<ApiKeyPrincipal> authenticate(String key) {
+        byte[] digest = digest(key);
+        ApiKeyPrincipal bootstrap = bootstrapPrincipal(digest);
+        if (bootstrap != null) {
+            return Optional.of(bootstrap);
+        }
+
+        String keyHash = HexFormat.of().formatHex(digest);
+        VerifiedKeyCache.Entry cached = cache.get(keyHash);
+        if (cached != null) {
+            return Optional.ofNullable(cached.principal());
+        }
+        ApiKeyPrincipal principal = apiKeyRepository.findByKeyHash(keyHash)
+            .filter(apiKey -> !apiKey.isRevoked())
+            .filter(apiKey -> MessageDigest.isEqual(HexFormat.of().parseHex(apiKey.getKeyHash()), digest))
+            .map(this::toPrincipal)
+            .orElse(null);
+        cache.put(keyHash, principal);
+        return Optional.ofNullable(principal);
+    }
+
+    /**
+     * The key's verification when it is known without a query, from the bootstrap keys or the
+     * cache, or {@code null} when {@link #authenticate} would have to ask the database. Lets
+     * callers charge a rate limit before that query runs.
+     */
+    public VerifiedKeyCache.Entry findCached(String key) {
+        byte[] digest = digest(key);
+        ApiKeyPrincipal bootstrap = bootstrapPrincipal(digest);
+        if (bootstrap != null) {
+            return new VerifiedKeyCache.Entry(bootstrap, Long.MAX_VALUE);
+        }
+        return cache.peek(HexFormat.of().formatHex(digest));
+    }
+
+    private ApiKeyPrincipal bootstrapPrincipal(byte[] digest) {
+        ApiKeyPrincipal bootstrap = null;
+        for (BootstrapKey candidate : bootstrapKeys) {
+            // No early exit, so both bootstrap keys are always compared
+            if (MessageDigest.isEqual(candidate.digest(), digest)) {
+                bootstrap = candidate.principal();
+            }
+        }
+        return bootstrap;
+    }
+
+    @Transactional
+    public CreatedApiKeyResponse createApiKey(CreateApiKeyRequest request) {
+        Set<String> scopes = request.scopes() == null || request.scopes().isEmpty() ? DEFAULT_SCOPES : request.scopes();
+        if (!ApiKeyPrincipal.ALL_SCOPES.containsAll(scopes)) {
+            throw new ValidationException("Scopes must be any of " + ApiKeyPrincipal.ALL_SCOPES);
+        }
+
+        String key = generateKey();
+        ApiKey apiKey = new ApiKey();
+        apiKey.setKeyHash(hash(key));
+        apiKey.setKeyPrefix(key.substring(0, DISPLAYED_PREFIX_LENGTH));
+        apiKey.setTenantId(request.tenantId());
+        apiKey.setName(request.name());
+        apiKey.setScopes(ApiKeyMapper.formatScopes(scopes));
+        apiKey.setRequestsPerMinute(request.requestsPerMinute());
+
+        ApiKey saved = apiKeyRepository.save(apiKey);
+        // Drop a cached "unknown key" result in the unlikely case this key was tried before
+        cache.invalidate(saved.getKeyHash());
+        logger.info("API key created - id: {}, tenantId: {}", saved.getId(), saved.getTenantId());
+        return new CreatedApiKeyResponse(key, apiKeyMapper.toResponse(saved));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApiKeyResponse> getApiKeysByTenantId(String tenantId) {
+        if (tenantId == null || tenantId.isBlank()) {
+            throw new ValidationException("Tenant ID is required");
+        }
+        return apiKeyMapper.toResponseList(apiKeyRepository.findByTenantIdOrderByCreatedAtDesc(tenantId));
+    }
+
+    @Transactional
+    public ApiKeyResponse revokeApiKey(Long id) {
+        ApiKey apiKey = apiKeyRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("API key", id));
+        if (!apiKey.isRevoked()) {
+            apiKey.setRevokedAt(LocalDateTime.now());
+            apiKey = apiKeyRepository.save(apiKey);
+            logger.info("API key revoked - id: {}, tenantId: {}", id, apiKey.getTenantId());
+        }
+        cache.invalidate(apiKey.getKeyHash());
+        return apiKeyMapper.toResponse(apiKey);
+    }
+
+    /**
+     * Evicts keys revoked within the last cache TTL. Re-evicting is harmless, so the window
+     * overlaps generously instead of tracking exact timestamps across instance clocks.
+     */
+    void pollRevocations() {
+        try {
+            LocalDateTime since = LocalDateTime.now().minus(cacheTtl).minus(revocationPollInterval);
+            apiKeyRepository.findByRevokedAtAfter(since)
+                .forEach(apiKey -> cache.invalidate(apiKey.getKeyHash()));
+        } catch (RuntimeException e) {
+            logger.warn("API key revocation poll failed: {}", e.getMessage());
+        }
+    }
+
+    public VerifiedKeyCache getCache() {
+        return cache;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private ApiKeyPrincipal toPrincipal(ApiKey apiKey) {
+        return new ApiKeyPrincipal(apiKey.getId(), apiKey.getTenantId(), apiKey.getName(),
+            ApiKeyMapper.parseScopes(apiKey.getScopes()), apiKey.getRequestsPerMinute());
+    }
+
+    private String generateKey() {
+        byte[] bytes = new byte[KEY_BYTES];
+        random.nextBytes(bytes);
+        return KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public static String hash(String key) {
+        return HexFormat.of().formatHex(digest(key));
+    }
+
+    private static byte[] digest(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record BootstrapKey(byte[] digest, ApiKeyPrincipal principal) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.codegensis.ragstore.service;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process fan-out of newly stored messages to live subscribers of a session.
+ * One hot sink exists per session while it has subscribers and is dropped when the last one
+ * leaves. Each subscriber gets a bounded buffer; a subscriber that falls behind is terminated
+ * with an overflow error and is expected to reconnect from the last message id it has seen.
+ */
+@Component
+public class MessageBroadcaster {
+    
+    private static final Duration EMIT_RETRY_DURATION = Duration.ofMillis(100);
+    
+    private final Map<Long, SessionChannel> channels = new ConcurrentHashMap<>();
+    private final int subscriberBufferSize;
+    
+    public MessageBroadcaster(@Value("${app.reactive.subscriber-buffer-size:256}") int subscriberBufferSize) {
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+    
+    public Flux<MessageResponse> subscribe(Long sessionId) {
+        return Flux.defer(() -> {
+                SessionChannel channel = channels.compute(sessionId, (id, existing) -> {
+                    SessionChannel current = existing != null ? existing : new SessionChannel();
+                    current.subscribers++;
+                    return current;
+                });
+                return channel.sink.asFlux().doFinally(signal -> release(sessionId, channel));
+            })
+            .onBackpressureBuffer(subscriberBufferSize);
+    }
+    
+    /**
+     * Publishes a stored message. Inside a transaction the message is only published once the
+     * transaction commits, so subscribers never observe rows that were rolled back.
+     */
+    public void publish(MessageResponse message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emit(message);
+                }
+            });
+        } else {
+            emit(message);
+        }
+    }
+    
+    public int activeSessionCount() {
+        return channels.size();
+    }
+    
+    private void emit(MessageResponse message) {
+        SessionChannel channel = channels.get(message.sessionId());
+        if (channel != null) {
+            channel.sink.emitNext(message, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY_DURATION));
+        }
+    }
+    
+    private void release(Long sessionId, SessionChannel channel) {
+        channels.computeIfPresent(sessionId, (id, current) -> {
+            if (current != channel) {
+                return current;
+            }
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+    
+    /** Subscriber count is only mutated inside {@code ConcurrentHashMap.compute}, which serializes access per session. */
+    private static final class SessionChannel {
+        private final Sinks.Many<MessageResponse> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
@@ -3,26 +3,32 @@ package com.codegensis.ragstore.service;
 import com.codegensis.ragstore.dto.request.AddMessageRequest;
 import com.codegensis.ragstore.dto.response.MessagePageResponse;
 import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
 import com.codegensis.ragstore.entity.Message;
 import com.codegensis.ragstore.exception.ResourceNotFoundException;
-import com.codegensis.ragstore.mapper.MessageMapper;
-import com.codegensis.ragstore.repository.MessageRepository;
-import com.codegensis.ragstore.repository.SessionRepository;
+import com.codegensis.ragstore.json.MessageJsonCache;
+import com.codegensis.ragstore.metrics.RagstoreMetrics;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
 import com.codegensis.ragstore.validator.MessageValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Service for managing chat messages within sessions.
  * Handles message creation, retrieval with pagination, and validation.
- * All operations are transactional and require an existing session.
+ * All operations require an existing session. Batches are stored in one transaction; single
+ * appends leave theirs to the message log, and page reads run without one, since each is two
+ * reads.
  */
 @Service
 @Transactional
@@ -30,46 +36,109 @@ public class MessageService {
     
     private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
     
-    private final MessageRepository messageRepository;
-    private final SessionRepository sessionRepository;
-    private final MessageMapper messageMapper;
+    private final MessageLog messageLog;
+    private final SessionStore sessionStore;
     private final MessageValidator messageValidator;
+    private final MessageBroadcaster messageBroadcaster;
+    private final MessageJsonCache messageJsonCache;
+    private final RagstoreMetrics metrics;
+
+    /**
+     * One message page resolved to its message ids, with its strong ETag, from one count and
+     * one id query. The messages themselves are only loaded when a body is written.
+     * <p>
+     * The ETag is built from the id of the page's last message and, for a partial page, the
+     * count. A complete page holds {@code size} messages and its messages never change, since
+     * messages are immutable and commit in sequence order, so its ETag leaves the count out.
+     */
+    public record PageIds(Long sessionId, int page, int size, long totalElements, List<Long> ids, String eTag) {
+
+        public int totalPages() {
+            return (int) ((totalElements + size - 1) / size);
+        }
+
+        public boolean complete() {
+            return ids.size() == size;
+        }
+    }
     
-    public MessageService(MessageRepository messageRepository,
-                         SessionRepository sessionRepository,
-                         MessageMapper messageMapper,
-                         MessageValidator messageValidator) {
-        this.messageRepository = messageRepository;
-        this.sessionRepository = sessionRepository;
-        this.messageMapper = messageMapper;
+    public MessageService(MessageLog messageLog,
+                         SessionStore sessionStore,
+                         MessageValidator messageValidator,
+                         MessageBroadcaster messageBroadcaster,
+                         MessageJsonCache messageJsonCache,
+                         RagstoreMetrics metrics) {
+        this.messageLog = messageLog;
+        this.sessionStore = sessionStore;
         this.messageValidator = messageValidator;
+        this.messageBroadcaster = messageBroadcaster;
+        this.messageJsonCache = messageJsonCache;
+        this.metrics = metrics;
     }
     
+    /**
+     * Appends one message in the message log's own transaction. The session is not looked up
+     * first: the log rejects a missing session, and only then is its existence checked.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public MessageResponse addMessage(Long sessionId, AddMessageRequest request) {
+        Message.Sender sender = validate(request);
+        
+        MessageResponse response;
+        try {
+            response = messageLog.append(createMessage(sessionId, sender, request));
+        } catch (DataIntegrityViolationException e) {
+            verifySessionExists(sessionId);
+            throw e;
+        }
+        logger.debug("Message created - id: {}, sessionId: {}", response.id(), sessionId);
+        metrics.recordMessagePayload(sender.getDbValue(), request.content(), request.context());
+        
+        messageJsonCache.put(response);
+        messageBroadcaster.publish(response);
+        return response;
+    }
+    
+    /**
+     * Stores a batch of messages for one session in a single transaction, validated like
+     * {@link #addMessage}. Every message is validated before any is stored, so an invalid
+     * message rejects the whole batch.
+     */
+    public List<MessageResponse> addMessages(Long sessionId, List<AddMessageRequest> requests) {
         verifySessionExists(sessionId);
         
-        Message.Sender sender = messageValidator.validateAndParseSender(request.sender());
-        messageValidator.validateContent(request.content());
-        messageValidator.validateContext(request.context());
+        List<Message> messages = new ArrayList<>(requests.size());
+        for (AddMessageRequest request : requests) {
+            messages.add(createMessage(sessionId, validate(request), request));
+        }
+        messages.forEach(message ->
+            metrics.recordMessagePayload(message.getSender().getDbValue(), message.getContent(), message.getContext()));
         
-        Message message = createMessage(sessionId, sender, request);
-        Message saved = messageRepository.save(message);
-        logger.info("Message created - id: {}, sessionId: {}", saved.getId(), sessionId);
+        List<MessageResponse> responses = messageLog.appendAll(messages);
+        logger.debug("Messages created - count: {}, sessionId: {}", responses.size(), sessionId);
         
-        return messageMapper.toResponse(saved);
+        for (MessageResponse response : responses) {
+            messageJsonCache.put(response);
+            messageBroadcaster.publish(response);
+        }
+        return responses;
     }
     
+    /**
+     * One page of messages. Like {@link #addMessage} this runs without a transaction, and the
+     * session is only looked up when the page comes back empty.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public MessagePageResponse getMessages(Long sessionId, int page, int size) {
-        verifySessionExists(sessionId);
         messageValidator.validatePagination(page, size);
         
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Message> messagePage = messageRepository.findBySessionIdOrderByTimestampAsc(sessionId, pageable);
-        
-        List<MessageResponse> messages = messageMapper.toResponseList(messagePage.getContent());
+        Page<MessageResponse> messagePage = messageLog.findPage(sessionId, PageRequest.of(page, size));
+        if (messagePage.getTotalElements() == 0) {
+            verifySessionExists(sessionId);
+        }
         
         return new MessagePageResponse(
-            messages,
+            messagePage.getContent(),
             page,
             size,
             messagePage.getTotalElements(),
@@ -77,8 +146,67 @@ public class MessageService {
         );
     }
     
+    /**
+     * The page's message ids and ETag: enough to answer a conditional request, and to write
+     * either body without counting or scanning the page again. Like {@link #getMessages}, the
+     * session is only looked up when it has no messages.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PageIds getPageIds(Long sessionId, int page, int size) {
+        messageValidator.validatePagination(page, size);
+
+        long totalElements = messageLog.countBySessionId(sessionId);
+        if (totalElements == 0) {
+            verifySessionExists(sessionId);
+        }
+        List<Long> ids = (long) page * size < totalElements
+            ? messageLog.findIds(sessionId, PageRequest.of(page, size))
+            : List.of();
+
+        StringBuilder eTag = new StringBuilder("m").append(sessionId)
+            .append('-').append(page).append('x').append(size);
+        if (!ids.isEmpty()) {
+            eTag.append('-').append(ids.get(ids.size() - 1));
+        }
+        if (ids.size() < size) {
+            eTag.append('-').append(totalElements);
+        }
+        return new PageIds(sessionId, page, size, totalElements, List.copyOf(ids), eTag.toString());
+    }
+
+    /**
+     * Same page as {@link #getMessages}, with each message as cached JSON. Messages missing
+     * from the {@link MessageJsonCache} are loaded in one batch.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public SerializedMessagePage getSerializedMessages(Long sessionId, int page, int size) {
+        return getSerializedMessages(getPageIds(sessionId, page, size));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public SerializedMessagePage getSerializedMessages(PageIds page) {
+        List<byte[]> messages = messageJsonCache.getAll(page.ids(), messageLog::findAllById);
+        return new SerializedMessagePage(messages, page.page(), page.size(), page.totalElements(), page.totalPages());
+    }
+
+    /**
+     * The page's messages as records, loaded by id in one batch.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public MessagePageResponse getMessages(PageIds page) {
+        return new MessagePageResponse(messageLog.findAllById(page.ids()), page.page(), page.size(),
+            page.totalElements(), page.totalPages());
+    }
+    
+    private Message.Sender validate(AddMessageRequest request) {
+        Message.Sender sender = messageValidator.validateAndParseSender(request.sender());
+        messageValidator.validateContent(request.content());
+        messageValidator.validateContext(request.context());
+        return sender;
+    }
+    
     private void verifySessionExists(Long sessionId) {
-        if (!sessionRepository.existsById(sessionId)) {
+        if (!sessionStore.existsById(sessionId)) {
             throw new ResourceNotFoundException("Session", sessionId);
         }
     }
@@ -0,0 +1,118 @@
+package com.codegensis.ragstore.service;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SessionResponse;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.repository.ReactiveChatRepository;
+import com.codegensis.ragstore.validator.MessageValidator;
+import com.codegensis.ragstore.validator.SessionValidator;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking read side for streaming clients.
+ * Applies the same validation rules as {@link SessionService} and {@link MessageService},
+ * reads through R2DBC and serves live tails from {@link MessageBroadcaster}.
+ */
+@Service
+public class ReactiveChatService {
+    
+    private final ReactiveChatRepository reactiveChatRepository;
+    private final MessageBroadcaster messageBroadcaster;
+    private final SessionValidator sessionValidator;
+    private final MessageValidator messageValidator;
+    
+    public ReactiveChatService(ReactiveChatRepository reactiveChatRepository,
+                               MessageBroadcaster messageBroadcaster,
+                               SessionValidator sessionValidator,
+                               MessageValidator messageValidator) {
+        this.reactiveChatRepository = reactiveChatRepository;
+        this.messageBroadcaster = messageBroadcaster;
+        this.sessionValidator = sessionValidator;
+        this.messageValidator = messageValidator;
+    }
+    
+    public Flux<SessionResponse> getSessionsByUserId(String userId) {
+        return Flux.defer(() -> {
+            sessionValidator.validateUserId(userId);
+            return reactiveChatRepository.findSessionsByUserId(userId);
+        });
+    }
+    
+    public Flux<MessageResponse> getMessagesAfter(Long sessionId, long afterSeq, int limit) {
+        return Flux.defer(() -> {
+            messageValidator.validateCursor(afterSeq, limit);
+            return verifySessionExists(sessionId)
+                .thenMany(reactiveChatRepository.findMessagesAfter(sessionId, afterSeq, limit));
+        });
+    }
+    
+    /**
+     * Emits stored messages after {@code afterSeq}, then keeps the stream open with new messages.
+     * The backlog is read in pages of {@code backlogLimit} until a page comes back short, so a
+     * client far behind still receives every message. The live feed is connected before the
+     * backlog query runs, so messages committed while the backlog is being read are buffered
+     * rather than lost; sequence numbers already emitted are filtered out.
+     * <p>
+     * Appends to a session commit in sequence order, but each publishes after its own commit, so
+     * a batch can reach the feed after a later single message. A live message that skips numbers
+     * is therefore preceded by a read of the ones it skipped, which have committed by then.
+     */
+    public Flux<MessageResponse> tailMessages(Long sessionId, long afterSeq, int backlogLimit) {
+        return Flux.defer(() -> {
+            messageValidator.validateCursor(afterSeq, backlogLimit);
+            return verifySessionExists(sessionId).thenMany(Flux.defer(() -> {
+                AtomicLong lastSeenSeq = new AtomicLong(afterSeq);
+                ConnectableFlux<MessageResponse> live = messageBroadcaster.subscribe(sessionId).publish();
+                Disposable connection = live.connect();
+                
+                return readAfter(sessionId, afterSeq, backlogLimit)
+                    .concatWith(live.concatMap(message ->
+                        Flux.defer(() -> withSkippedMessages(sessionId, lastSeenSeq.get(), message, backlogLimit))))
+                    .filter(message -> message.seq() > lastSeenSeq.get())
+                    .doOnNext(message -> lastSeenSeq.set(message.seq()))
+                    .doFinally(signal -> connection.dispose());
+            }));
+        });
+    }
+    
+    private Flux<MessageResponse> withSkippedMessages(Long sessionId, long lastSeenSeq, MessageResponse message,
+                                                      int pageSize) {
+        if (message.seq() <= lastSeenSeq + 1) {
+            return Flux.just(message);
+        }
+        return readAfter(sessionId, lastSeenSeq, pageSize)
+            .takeWhile(stored -> stored.seq() < message.seq())
+            .concatWith(Mono.just(message));
+    }
+    
+    /**
+     * Every stored message after {@code afterSeq}, one page query at a time; the next page is
+     * only requested once the previous one has been consumed.
+     */
+    private Flux<MessageResponse> readAfter(Long sessionId, long afterSeq, int pageSize) {
+        AtomicInteger read = new AtomicInteger();
+        AtomicLong lastSeq = new AtomicLong(afterSeq);
+        return reactiveChatRepository.findMessagesAfter(sessionId, afterSeq, pageSize)
+            .doOnNext(message -> {
+                read.incrementAndGet();
+                lastSeq.set(message.seq());
+            })
+            .concatWith(Flux.defer(() -> read.get() < pageSize
+                ? Flux.empty()
+                : readAfter(sessionId, lastSeq.get(), pageSize)));
+    }
+    
+    private Mono<Void> verifySessionExists(Long sessionId) {
+        return reactiveChatRepository.existsSessionById(sessionId)
+            .flatMap(exists -> exists
+                ? Mono.<Void>empty()
+                : Mono.error(new ResourceNotFoundException("Session", sessionId)));
+    }
+}
@@ -7,14 +7,17 @@ import com.codegensis.ragstore.dto.response.SessionResponse;
 import com.codegensis.ragstore.entity.Session;
 import com.codegensis.ragstore.exception.ResourceNotFoundException;
 import com.codegensis.ragstore.mapper.SessionMapper;
-import com.codegensis.ragstore.repository.SessionRepository;
+import com.codegensis.ragstore.storage.SessionStore;
 import com.codegensis.ragstore.validator.SessionValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for managing chat sessions.
@@ -28,14 +31,14 @@ public class SessionService {
     private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
     private static final String DEFAULT_TITLE = "New Chat";
 
-    private final SessionRepository sessionRepository;
+    private final SessionStore sessionStore;
     private final SessionMapper sessionMapper;
     private final SessionValidator sessionValidator;
 
-    public SessionService(SessionRepository sessionRepository, 
+    public SessionService(SessionStore sessionStore,
                           SessionMapper sessionMapper,
                           SessionValidator sessionValidator) {
-        this.sessionRepository = sessionRepository;
+        this.sessionStore = sessionStore;
         this.sessionMapper = sessionMapper;
         this.sessionValidator = sessionValidator;
     }
@@ -48,51 +51,64 @@ public class SessionService {
         session.setTitle(determineTitle(request.title()));
         session.setIsFavorite(false);
 
-        Session saved = sessionRepository.save(session);
-        logger.info("Session created - id: {}, userId: {}", saved.getId(), saved.getUserId());
+        Session saved = sessionStore.save(session);
+        logger.debug("Session created - id: {}, userId: {}", saved.getId(), saved.getUserId());
         return sessionMapper.toResponse(saved);
     }
 
     public List<SessionResponse> getSessionsByUserId(String userId) {
         sessionValidator.validateUserId(userId);
-        List<Session> sessions = sessionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        List<Session> sessions = sessionStore.findByUserId(userId);
         return sessionMapper.toResponseList(sessions);
     }
 
     public SessionResponse getSessionById(Long sessionId) {
-        Session session = sessionRepository.findById(sessionId)
+        Session session = sessionStore.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
         return sessionMapper.toResponse(session);
     }
 
+    /**
+     * Strong ETag for the session, read from its {@code updatedAt} without loading the entity.
+     * Every storage engine moves it on each change to a session, so the timestamp is its version.
+     */
+    @Transactional(readOnly = true)
+    public String getSessionETag(Long sessionId) {
+        LocalDateTime updatedAt = sessionStore.findUpdatedAtById(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
+        long micros = TimeUnit.SECONDS.toMicros(updatedAt.toEpochSecond(ZoneOffset.UTC))
+                + TimeUnit.NANOSECONDS.toMicros(updatedAt.getNano());
+        return "s" + sessionId + "-" + micros;
+    }
+
     public SessionResponse updateSessionTitle(Long sessionId, UpdateSessionRequest request) {
         Session session = findSessionById(sessionId);
         sessionValidator.validateTitle(request.title());
         
         session.setTitle(request.title());
-        Session updated = sessionRepository.save(session);
-        logger.info("Session title updated - id: {}", sessionId);
+        Session updated = sessionStore.save(session);
+        logger.debug("Session title updated - id: {}", sessionId);
         return sessionMapper.toResponse(updated);
     }
 
     public SessionResponse toggleFavorite(Long sessionId, ToggleFavoriteRequest request) {
         Session session = findSessionById(sessionId);
         session.setIsFavorite(request.isFavorite());
-        Session updated = sessionRepository.save(session);
-        logger.info("Session favorite toggled - id: {}, favorite: {}", sessionId, request.isFavorite());
+        Session updated = sessionStore.save(session);
+        logger.debug("Session favorite toggled - id: {}, favorite: {}", sessionId, request.isFavorite());
         return sessionMapper.toResponse(updated);
     }
 
     public void deleteSession(Long sessionId) {
-        if (!sessionRepository.existsById(sessionId)) {
+        if (!sessionStore.existsById(sessionId)) {
             throw new ResourceNotFoundException("Session", sessionId);
         }
-        sessionRepository.deleteById(sessionId);
-        logger.info("Session deleted - id: {}", sessionId);
+        sessionStore.deleteById(sessionId);
+        logger.debug("Session deleted - id: {}", sessionId);
     }
     
     private Session findSessionById(Long sessionId) {
-        return sessionRepository.findById(sessionId)
+        return sessionStore.findById(sessionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session", sessionId));
     }
     
@@ -0,0 +1,43 @@
+package com.codegensis.ragstore.storage;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Storage engine for messages: an append-only log per session, read in pages. Each message
+ * gets the next sequence number of its session on append, and pages are in sequence order, so
+ * a page always holds the same messages whatever timestamps the messages carry.
+ * Appending to a session that does not exist is rejected with a
+ * {@link org.springframework.dao.DataIntegrityViolationException}.
+ * <p>
+ * Stored messages come back as {@link MessageResponse} records rather than entities: they are
+ * immutable, and they are what every caller maps messages to, so an engine can build them
+ * straight from its rows.
+ */
+public interface MessageLog {
+
+    /**
+     * Appends the message, assigning its id and sequence number, and its timestamp when it has none.
+     */
+    MessageResponse append(Message message);
+
+    List<MessageResponse> appendAll(List<Message> messages);
+
+    Page<MessageResponse> findPage(Long sessionId, Pageable pageable);
+
+    long countBySessionId(Long sessionId);
+
+    /**
+     * Ids of the messages on the page, without loading them.
+     */
+    List<Long> findIds(Long sessionId, Pageable pageable);
+
+    /**
+     * The messages with the given ids, in the order given; unknown ids are skipped.
+     */
+    List<MessageResponse> findAllById(List<Long> ids);
+}
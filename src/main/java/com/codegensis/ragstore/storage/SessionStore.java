@@ -0,0 +1,38 @@
+package com.codegensis.ragstore.storage;
+
+import com.codegensis.ragstore.entity.Session;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage engine for chat sessions. Engines enforce the same constraints as the schema: a
+ * user's session titles are unique, and a duplicate is rejected with a
+ * {@link org.springframework.dao.DataIntegrityViolationException}.
+ */
+public interface SessionStore {
+
+    /**
+     * Inserts the session when it has no id, assigning one together with {@code createdAt} and
+     * {@code updatedAt}; otherwise updates it. {@code updatedAt} only moves when the title or
+     * favorite flag actually changed, since it doubles as the session's ETag.
+     */
+    Session save(Session session);
+
+    Optional<Session> findById(Long sessionId);
+
+    /**
+     * The user's sessions, newest first.
+     */
+    List<Session> findByUserId(String userId);
+
+    Optional<LocalDateTime> findUpdatedAtById(Long sessionId);
+
+    boolean existsById(Long sessionId);
+
+    /**
+     * Deletes the session together with its messages.
+     */
+    void deleteById(Long sessionId);
+}
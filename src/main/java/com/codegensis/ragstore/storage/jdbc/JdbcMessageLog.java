@@ -0,0 +1,190 @@
+package com.codegensis.ragstore.storage.jdbc;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.storage.MessageLog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link MessageLog} in plain JDBC, the default engine for the message hot path: an insert
+ * and a range scan need none of Hibernate's entity instantiation, persistence context, flush
+ * time dirty checking or lifecycle callbacks. Rows are read by column index straight into
+ * {@link MessageResponse} records.
+ * <p>
+ * Every statement has fixed SQL text, with the page bounds and id lists bound as parameters,
+ * so the database's per-connection cache of prepared statements (H2's {@code QUERY_CACHE_SIZE})
+ * serves them without parsing again. Pages order by {@code session_id, seq}, the full key of
+ * the unique index, which is what lets H2 read the index in order and stop at the page's end
+ * instead of sorting the whole session. Sessions, and the admin paths around them, stay on JPA.
+ * <p>
+ * Sequence numbers come from {@link MessageSequences}, in the same transaction as the insert,
+ * which joins the caller's when there is one.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.message-log", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcMessageLog implements MessageLog {
+
+    private static final String INSERT =
+        "INSERT INTO messages (session_id, seq, sender, content, context, timestamp) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_PAGE =
+        "SELECT id, session_id, seq, sender, content, context, timestamp FROM messages "
+            + "WHERE session_id = ? ORDER BY session_id, seq LIMIT ? OFFSET ?";
+    private static final String SELECT_IDS =
+        "SELECT id FROM messages WHERE session_id = ? ORDER BY session_id, seq LIMIT ? OFFSET ?";
+    private static final String SELECT_BY_IDS =
+        "SELECT id, session_id, seq, sender, content, context, timestamp FROM messages WHERE id = ANY(?)";
+    private static final String COUNT = "SELECT COUNT(*) FROM messages WHERE session_id = ?";
+    private static final String[] GENERATED_ID = {"id"};
+
+    private static final RowMapper<MessageResponse> ROW_MAPPER = (row, rowNum) -> new MessageResponse(
+        row.getLong(1),
+        row.getLong(2),
+        row.getLong(3),
+        row.getString(4),
+        row.getString(5),
+        row.getString(6),
+        row.getObject(7, LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageSequences sequences;
+
+    public JdbcMessageLog(JdbcTemplate jdbcTemplate, MessageSequences sequences) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequences = sequences;
+    }
+
+    @Override
+    @Transactional
+    public MessageResponse append(Message message) {
+        return appendAll(List.of(message)).get(0);
+    }
+
+    @Override
+    @Transactional
+    public List<MessageResponse> appendAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+        // Same precision as the TIMESTAMP column, so the returned record matches later reads
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        long[] seqs = sequences.assign(messages);
+        PreparedStatementCallback<List<MessageResponse>> insert = statement -> {
+            for (int i = 0; i < seqs.length; i++) {
+                bind(statement, messages.get(i), seqs[i], now);
+                if (messages.size() > 1) {
+                    statement.addBatch();
+                }
+            }
+            if (messages.size() > 1) {
+                statement.executeBatch();
+            } else {
+                statement.executeUpdate();
+            }
+            return responses(statement, messages, seqs, now);
+        };
+        return jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT, GENERATED_ID), insert);
+    }
+
+    @Override
+    public Page<MessageResponse> findPage(Long sessionId, Pageable pageable) {
+        List<MessageResponse> content = jdbcTemplate.query(SELECT_PAGE, ROW_MAPPER,
+            sessionId, limit(pageable), offset(pageable));
+        // Skips the count when the page itself shows the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> countBySessionId(sessionId));
+    }
+
+    @Override
+    public long countBySessionId(Long sessionId) {
+        Long count = jdbcTemplate.queryForObject(COUNT, Long.class, sessionId);
+        return count != null ? count : 0;
+    }
+
+    @Override
+    public List<Long> findIds(Long sessionId, Pageable pageable) {
+        return jdbcTemplate.queryForList(SELECT_IDS, Long.class, sessionId, limit(pageable), offset(pageable));
+    }
+
+    @Override
+    public List<MessageResponse> findAllById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MessageResponse> byId = new HashMap<>();
+        jdbcTemplate.query(SELECT_BY_IDS, statement -> statement.setObject(1, ids.toArray(Long[]::new)), row -> {
+            MessageResponse message = ROW_MAPPER.mapRow(row, 0);
+            byId.put(message.id(), message);
+        });
+        List<MessageResponse> messages = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            MessageResponse message = byId.get(id);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    private static void bind(PreparedStatement statement, Message message, long seq, LocalDateTime now)
+            throws SQLException {
+        statement.setLong(1, message.getSessionId());
+        statement.setLong(2, seq);
+        statement.setString(3, message.getSender().getDbValue());
+        statement.setString(4, message.getContent());
+        if (message.getContext() != null) {
+            statement.setString(5, message.getContext());
+        } else {
+            statement.setNull(5, Types.VARCHAR);
+        }
+        statement.setObject(6, timestamp(message, now));
+    }
+
+    private static List<MessageResponse> responses(PreparedStatement statement, List<Message> messages,
+                                                   long[] seqs, LocalDateTime now) throws SQLException {
+        List<MessageResponse> responses = new ArrayList<>(messages.size());
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (int i = 0; i < seqs.length; i++) {
+                Message message = messages.get(i);
+                if (!keys.next()) {
+                    throw new IncorrectResultSizeDataAccessException(
+                        "Expected " + messages.size() + " generated message ids", messages.size(), responses.size());
+                }
+                responses.add(new MessageResponse(keys.getLong(1), message.getSessionId(), seqs[i],
+                    message.getSender().getDbValue(), message.getContent(), message.getContext(),
+                    timestamp(message, now)));
+            }
+        }
+        return responses;
+    }
+
+    private static LocalDateTime timestamp(Message message, LocalDateTime now) {
+        return message.getTimestamp() != null ? message.getTimestamp() : now;
+    }
+
+    private static int limit(Pageable pageable) {
+        return pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+    }
+
+    private static long offset(Pageable pageable) {
+        return pageable.isPaged() ? pageable.getOffset() : 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.codegensis.ragstore.storage.jdbc;
+
+import com.codegensis.ragstore.entity.Message;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Allocates each session's message sequence numbers from the session row's {@code last_seq}
+ * counter, advanced in the transaction that inserts the messages.
+ * <p>
+ * The update holds the session row's lock until that transaction ends, so a second append to
+ * the session waits for the first to commit or roll back before it takes its numbers. Appends
+ * to one session therefore commit in sequence order, and a rolled back append gives its numbers
+ * back: stored numbers have no gaps, and a reader that sees one number sees every lower one.
+ * This holds across instances, as the counter lives in the shared database.
+ */
+@Component
+public class MessageSequences {
+
+    private static final String ADVANCE = "UPDATE sessions SET last_seq = last_seq + ? WHERE id = ?";
+    private static final String SELECT_LAST_SEQ = "SELECT last_seq FROM sessions WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MessageSequences(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Numbers the messages, in order within each session. Must run in the transaction that
+     * inserts them; sessions are locked in id order, so two batches spanning the same sessions
+     * cannot deadlock.
+     *
+     * @throws DataIntegrityViolationException when a message's session does not exist
+     */
+    public long[] assign(List<Message> messages) {
+        Map<Long, Integer> counts = new TreeMap<>();
+        for (Message message : messages) {
+            counts.merge(message.getSessionId(), 1, Integer::sum);
+        }
+        Map<Long, Long> next = new TreeMap<>();
+        counts.forEach((sessionId, count) -> next.put(sessionId, reserve(sessionId, count)));
+
+        long[] seqs = new long[messages.size()];
+        for (int i = 0; i < seqs.length; i++) {
+            seqs[i] = next.merge(messages.get(i).getSessionId(), 1L, Long::sum) - 1;
+        }
+        return seqs;
+    }
+
+    /** Takes {@code count} numbers in the session and returns the first. */
+    private long reserve(Long sessionId, int count) {
+        if (jdbcTemplate.update(ADVANCE, count, sessionId) == 0) {
+            throw new DataIntegrityViolationException("Session " + sessionId + " does not exist");
+        }
+        Long last = jdbcTemplate.queryForObject(SELECT_LAST_SEQ, Long.class, sessionId);
+        return last - count + 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.codegensis.ragstore.storage.jpa;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.mapper.MessageMapper;
+import com.codegensis.ragstore.repository.MessageRepository;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.jdbc.MessageSequences;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link MessageLog} over Spring Data JPA, selected with {@code app.storage.message-log=jpa}.
+ * Kept as the reference the JDBC engine is benchmarked and tested against. Sequence numbers
+ * come from the same {@link MessageSequences}, in the transaction that saves the messages.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.message-log", havingValue = "jpa")
+public class JpaMessageLog implements MessageLog {
+
+    private final MessageRepository messageRepository;
+    private final MessageMapper messageMapper;
+    private final MessageSequences sequences;
+
+    public JpaMessageLog(MessageRepository messageRepository, MessageMapper messageMapper,
+                         MessageSequences sequences) {
+        this.messageRepository = messageRepository;
+        this.messageMapper = messageMapper;
+        this.sequences = sequences;
+    }
+
+    @Override
+    @Transactional
+    public MessageResponse append(Message message) {
+        return appendAll(List.of(message)).get(0);
+    }
+
+    @Override
+    @Transactional
+    public List<MessageResponse> appendAll(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return List.of();
+        }
+        long[] seqs = sequences.assign(messages);
+        for (int i = 0; i < seqs.length; i++) {
+            messages.get(i).setSeq(seqs[i]);
+        }
+        return messageMapper.toResponseList(messageRepository.saveAll(messages));
+    }
+
+    @Override
+    public Page<MessageResponse> findPage(Long sessionId, Pageable pageable) {
+        return messageRepository.findBySessionIdOrderBySessionIdAscSeqAsc(sessionId, pageable)
+            .map(messageMapper::toResponse);
+    }
+
+    @Override
+    public long countBySessionId(Long sessionId) {
+        return messageRepository.countBySessionId(sessionId);
+    }
+
+    @Override
+    public List<Long> findIds(Long sessionId, Pageable pageable) {
+        return messageRepository.findIdsBySessionId(sessionId, pageable);
+    }
+
+    @Override
+    public List<MessageResponse> findAllById(List<Long> ids) {
+        // The IN query returns rows in whatever order the database likes
+        Map<Long, Message> byId = new HashMap<>();
+        for (Message message : messageRepository.findAllById(ids)) {
+            byId.put(message.getId(), message);
+        }
+        List<MessageResponse> messages = new ArrayList<>(byId.size());
+        for (Long id : ids) {
+            Message message = byId.get(id);
+            if (message != null) {
+                messages.add(messageMapper.toResponse(message));
+            }
+        }
+        return messages;
+    }
+}
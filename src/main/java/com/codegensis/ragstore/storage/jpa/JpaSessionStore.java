@@ -0,0 +1,57 @@
+package com.codegensis.ragstore.storage.jpa;
+
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.repository.SessionRepository;
+import com.codegensis.ragstore.storage.SessionStore;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link SessionStore} over Spring Data JPA. Timestamps come from the entity's lifecycle
+ * callbacks and the title constraint from the schema. Lookups by id go through
+ * {@code findById}, so they are served from the second-level cache when it holds the session.
+ */
+@Component
+public class JpaSessionStore implements SessionStore {
+
+    private final SessionRepository sessionRepository;
+
+    public JpaSessionStore(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    @Override
+    public Session save(Session session) {
+        return sessionRepository.save(session);
+    }
+
+    @Override
+    public Optional<Session> findById(Long sessionId) {
+        return sessionRepository.findById(sessionId);
+    }
+
+    @Override
+    public List<Session> findByUserId(String userId) {
+        return sessionRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    }
+
+    @Override
+    public Optional<LocalDateTime> findUpdatedAtById(Long sessionId) {
+        return sessionRepository.findById(sessionId).map(Session::getUpdatedAt);
+    }
+
+    @Override
+    public boolean existsById(Long sessionId) {
+        // Spring Data's existsById is a count query, which the entity cache cannot answer
+        return sessionRepository.findById(sessionId).isPresent();
+    }
+
+    @Override
+    public void deleteById(Long sessionId) {
+        // Messages go with the session through the foreign key's ON DELETE CASCADE
+        sessionRepository.deleteById(sessionId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.codegensis.ragstore.storage.memory;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Map from a dense, positive {@code long} id to a value, stored as chunks of an array indexed
+ * by the id itself: no hashing, no boxed keys, and lock-free reads. Ids come from a counter,
+ * so chunks fill in order and the table only ever holds the chunks that ids reached.
+ * <p>
+ * The chunk directory is copied on write under a lock, once per {@value #CHUNK_SIZE} ids, and
+ * published through a volatile field, so readers never see a chunk that is not fully built.
+ */
+final class IdTable<T> {
+
+    private static final int CHUNK_BITS = 12;
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    @SuppressWarnings("unchecked")
+    private volatile AtomicReferenceArray<T>[] chunks = new AtomicReferenceArray[0];
+
+    T get(long id) {
+        AtomicReferenceArray<T> chunk = chunkOf(id);
+        return chunk != null ? chunk.get(slotOf(id)) : null;
+    }
+
+    void put(long id, T value) {
+        AtomicReferenceArray<T> chunk = chunkOf(id);
+        if (chunk == null) {
+            chunk = addChunk(id);
+        }
+        chunk.set(slotOf(id), value);
+    }
+
+    void remove(long id) {
+        AtomicReferenceArray<T> chunk = chunkOf(id);
+        if (chunk != null) {
+            chunk.set(slotOf(id), null);
+        }
+    }
+
+    private AtomicReferenceArray<T> chunkOf(long id) {
+        if (id < 0) {
+            return null;
+        }
+        long index = id >>> CHUNK_BITS;
+        AtomicReferenceArray<T>[] current = chunks;
+        return index < current.length ? current[(int) index] : null;
+    }
+
+    private synchronized AtomicReferenceArray<T> addChunk(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        int index = Math.toIntExact(id >>> CHUNK_BITS);
+        AtomicReferenceArray<T>[] current = chunks;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        AtomicReferenceArray<T>[] grown = Arrays.copyOf(current, Math.max(current.length, index + 1));
+        for (int i = 0; i <= index; i++) {
+            if (grown[i] == null) {
+                grown[i] = new AtomicReferenceArray<>(CHUNK_SIZE);
+            }
+        }
+        chunks = grown;
+        return grown[index];
+    }
+
+    private static int slotOf(long id) {
+        return (int) (id & CHUNK_MASK);
+    }
+}
@@ -0,0 +1,362 @@
+package com.codegensis.ragstore.storage.memory;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Storage engine that keeps sessions and messages on the heap, for unit tests and benchmarks
+ * that should exercise the services without an ORM or a database. Nothing survives a restart,
+ * and the streaming, import and gRPC read paths still query the database directly, so this is
+ * not an engine to serve traffic with.
+ * <p>
+ * Sessions and messages are looked up by id in {@link IdTable}s, and each session owns an
+ * append-only array of its messages in page order. Appends to a session are serialised on that
+ * session; reads take no locks and see a consistent prefix of the log. Sessions are copied on
+ * the way in and out, so callers get detached objects as they would from JPA; messages are
+ * stored as the immutable records the log hands out.
+ * <p>
+ * The schema's constraints are enforced with the same exceptions Spring translates database
+ * errors to: a duplicate title for a user is a {@link DuplicateKeyException}, and appending to
+ * a missing session a {@link DataIntegrityViolationException}. A session's user id is fixed
+ * once it is created.
+ */
+public class InMemoryStorageEngine {
+
+    private static final int INITIAL_LOG_CAPACITY = 16;
+    private static final Comparator<Session> NEWEST_FIRST =
+        Comparator.comparing(Session::getCreatedAt).thenComparing(Session::getId).reversed();
+
+    private final AtomicLong sessionIds = new AtomicLong();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final IdTable<SessionEntry> sessions = new IdTable<>();
+    private final IdTable<MessageResponse> messages = new IdTable<>();
+    private final ConcurrentHashMap<String, Set<Long>> sessionIdsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<TitleKey, Long> sessionIdsByTitle = new ConcurrentHashMap<>();
+
+    private final SessionStore sessionStore = new InMemorySessionStore();
+    private final MessageLog messageLog = new InMemoryMessageLog();
+
+    public SessionStore sessionStore() {
+        return sessionStore;
+    }
+
+    public MessageLog messageLog() {
+        return messageLog;
+    }
+
+    private record TitleKey(String userId, String title) {
+    }
+
+    /**
+     * A session and its message log, where a message's sequence number is its position plus
+     * one. The log array is replaced when it grows; {@code size} is written last, so a reader
+     * that reads it first finds every message below it in the array it reads next.
+     */
+    private static final class SessionEntry {
+
+        private volatile Session session;
+        private volatile MessageResponse[] log = new MessageResponse[INITIAL_LOG_CAPACITY];
+        private volatile int size;
+        private boolean deleted;
+
+        private SessionEntry(Session session) {
+            this.session = session;
+        }
+
+        // Guarded by this
+        private long nextSeq() {
+            return size + 1;
+        }
+
+        // Guarded by this
+        private void append(MessageResponse message) {
+            int n = size;
+            MessageResponse[] current = log;
+            if (n == current.length) {
+                // Readers may hold the current array, so a grown log is a new one
+                current = Arrays.copyOf(current, n * 2);
+                log = current;
+            }
+            current[n] = message;
+            size = n + 1;
+        }
+
+        private LogView view() {
+            int n = size;
+            return new LogView(log, n);
+        }
+    }
+
+    /**
+     * The first {@code size} messages of a log array, read without copying it.
+     */
+    private record LogView(MessageResponse[] log, int size) {
+
+        private static final LogView EMPTY = new LogView(new MessageResponse[0], 0);
+
+        private List<MessageResponse> slice(Pageable pageable) {
+            List<MessageResponse> all = Arrays.asList(log).subList(0, size);
+            if (pageable.isUnpaged()) {
+                return all;
+            }
+            long from = Math.min(pageable.getOffset(), size);
+            long to = Math.min(from + pageable.getPageSize(), size);
+            return all.subList((int) from, (int) to);
+        }
+    }
+
+    private final class InMemorySessionStore implements SessionStore {
+
+        @Override
+        public Session save(Session session) {
+            return session.getId() == null ? insert(session) : update(session);
+        }
+
+        private Session insert(Session session) {
+            long id = sessionIds.incrementAndGet();
+            claimTitle(session.getUserId(), session.getTitle(), id);
+
+            LocalDateTime now = now();
+            Session stored = copy(session);
+            stored.setId(id);
+            stored.setCreatedAt(now);
+            stored.setUpdatedAt(now);
+            sessions.put(id, new SessionEntry(stored));
+            sessionIdsByUser.compute(stored.getUserId(), (userId, ids) -> {
+                Set<Long> userSessionIds = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                userSessionIds.add(id);
+                return userSessionIds;
+            });
+            return copy(stored);
+        }
+
+        private Session update(Session session) {
+            SessionEntry entry = sessions.get(session.getId());
+            if (entry == null) {
+                throw noSession(session.getId());
+            }
+            synchronized (entry) {
+                if (entry.deleted) {
+                    throw noSession(session.getId());
+                }
+                Session current = entry.session;
+                boolean titleChanged = !Objects.equals(current.getTitle(), session.getTitle());
+                if (!titleChanged && Objects.equals(current.getIsFavorite(), session.getIsFavorite())) {
+                    return copy(current);
+                }
+                if (titleChanged) {
+                    claimTitle(current.getUserId(), session.getTitle(), current.getId());
+                    sessionIdsByTitle.remove(new TitleKey(current.getUserId(), current.getTitle()), current.getId());
+                }
+                Session stored = copy(current);
+                stored.setTitle(session.getTitle());
+                stored.setIsFavorite(session.getIsFavorite());
+                stored.setUpdatedAt(later(current.getUpdatedAt()));
+                entry.session = stored;
+                return copy(stored);
+            }
+        }
+
+        @Override
+        public Optional<Session> findById(Long sessionId) {
+            SessionEntry entry = sessions.get(sessionId);
+            return entry != null ? Optional.of(copy(entry.session)) : Optional.empty();
+        }
+
+        @Override
+        public List<Session> findByUserId(String userId) {
+            Set<Long> ids = sessionIdsByUser.get(userId);
+            if (ids == null) {
+                return List.of();
+            }
+            List<Session> found = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                SessionEntry entry = sessions.get(id);
+                if (entry != null) {
+                    found.add(copy(entry.session));
+                }
+            }
+            found.sort(NEWEST_FIRST);
+            return found;
+        }
+
+        @Override
+        public Optional<LocalDateTime> findUpdatedAtById(Long sessionId) {
+            SessionEntry entry = sessions.get(sessionId);
+            return entry != null ? Optional.of(entry.session.getUpdatedAt()) : Optional.empty();
+        }
+
+        @Override
+        public boolean existsById(Long sessionId) {
+            return sessions.get(sessionId) != null;
+        }
+
+        @Override
+        public void deleteById(Long sessionId) {
+            SessionEntry entry = sessions.get(sessionId);
+            if (entry == null) {
+                return;
+            }
+            List<MessageResponse> removed;
+            synchronized (entry) {
+                if (entry.deleted) {
+                    return;
+                }
+                entry.deleted = true;
+                removed = entry.view().slice(Pageable.unpaged());
+            }
+            sessions.remove(sessionId);
+            Session session = entry.session;
+            sessionIdsByTitle.remove(new TitleKey(session.getUserId(), session.getTitle()), sessionId);
+            sessionIdsByUser.computeIfPresent(session.getUserId(), (userId, ids) -> {
+                ids.remove(sessionId);
+                return ids.isEmpty() ? null : ids;
+            });
+            for (MessageResponse message : removed) {
+                messages.remove(message.id());
+            }
+        }
+    }
+
+    private final class InMemoryMessageLog implements MessageLog {
+
+        @Override
+        public MessageResponse append(Message message) {
+            return appendAll(List.of(message)).get(0);
+        }
+
+        @Override
+        public List<MessageResponse> appendAll(List<Message> batch) {
+            if (batch.isEmpty()) {
+                return List.of();
+            }
+            // Checked per message like a foreign key; service batches all belong to one session
+            List<MessageResponse> appended = new ArrayList<>(batch.size());
+            for (Message message : batch) {
+                SessionEntry entry = liveEntry(message.getSessionId());
+                MessageResponse stored;
+                synchronized (entry) {
+                    if (entry.deleted) {
+                        throw missingSession(message.getSessionId());
+                    }
+                    // Under the lock, so assigned timestamps follow the sequence
+                    LocalDateTime timestamp = message.getTimestamp() != null ? message.getTimestamp() : now();
+                    stored = new MessageResponse(messageIds.incrementAndGet(), message.getSessionId(),
+                        entry.nextSeq(), message.getSender().getDbValue(), message.getContent(),
+                        message.getContext(), timestamp);
+                    entry.append(stored);
+                    messages.put(stored.id(), stored);
+                }
+                appended.add(stored);
+            }
+            return appended;
+        }
+
+        @Override
+        public Page<MessageResponse> findPage(Long sessionId, Pageable pageable) {
+            LogView view = viewOf(sessionId);
+            return new PageImpl<>(new ArrayList<>(view.slice(pageable)), pageable, view.size());
+        }
+
+        @Override
+        public long countBySessionId(Long sessionId) {
+            SessionEntry entry = sessions.get(sessionId);
+            return entry != null ? entry.size : 0;
+        }
+
+        @Override
+        public List<Long> findIds(Long sessionId, Pageable pageable) {
+            List<Long> ids = new ArrayList<>();
+            for (MessageResponse message : viewOf(sessionId).slice(pageable)) {
+                ids.add(message.id());
+            }
+            return ids;
+        }
+
+        @Override
+        public List<MessageResponse> findAllById(List<Long> ids) {
+            List<MessageResponse> found = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                MessageResponse message = id != null ? messages.get(id) : null;
+                if (message != null) {
+                    found.add(message);
+                }
+            }
+            return found;
+        }
+
+        private LogView viewOf(Long sessionId) {
+            SessionEntry entry = sessions.get(sessionId);
+            return entry != null ? entry.view() : LogView.EMPTY;
+        }
+    }
+
+    private void claimTitle(String userId, String title, long sessionId) {
+        Long existing = sessionIdsByTitle.putIfAbsent(new TitleKey(userId, title), sessionId);
+        if (existing != null && existing != sessionId) {
+            throw new DuplicateKeyException("Unique index or primary key violation: uk_sessions_user_title ("
+                + userId + ", " + title + ")");
+        }
+    }
+
+    private SessionEntry liveEntry(Long sessionId) {
+        SessionEntry entry = sessionId != null ? sessions.get(sessionId) : null;
+        if (entry == null) {
+            throw missingSession(sessionId);
+        }
+        return entry;
+    }
+
+    private static EmptyResultDataAccessException noSession(Long sessionId) {
+        return new EmptyResultDataAccessException("No session with id " + sessionId, 1);
+    }
+
+    private static DataIntegrityViolationException missingSession(Long sessionId) {
+        return new DataIntegrityViolationException(
+            "Referential integrity constraint violation: fk_messages_session FOREIGN KEY constraint, session "
+                + sessionId + " does not exist");
+    }
+
+    // Same precision as the database's TIMESTAMP columns
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // A change must always move updatedAt, even within one microsecond
+    private static LocalDateTime later(LocalDateTime previous) {
+        LocalDateTime now = now();
+        return now.isAfter(previous) ? now : previous.plusNanos(1_000);
+    }
+
+    private static Session copy(Session source) {
+        Session session = new Session();
+        session.setId(source.getId());
+        session.setUserId(source.getUserId());
+        session.setTitle(source.getTitle());
+        session.setIsFavorite(source.getIsFavorite());
+        session.setCreatedAt(source.getCreatedAt());
+        session.setUpdatedAt(source.getUpdatedAt());
+        return session;
+    }
+}
@@ -0,0 +1,81 @@
+package com.codegensis.ragstore.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Binary encodings offered next to JSON by the message and session APIs. Jackson's CBOR and
+ * Smile converters read and write the same records as JSON, so only code that builds a
+ * representation itself, such as ETags or pre-serialized pages, needs to pick one.
+ */
+public final class BinaryMediaTypes {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType SMILE = MediaType.valueOf(SMILE_VALUE);
+
+    // In order of preference when the client accepts several equally
+    private static final List<MediaType> OFFERED = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE);
+
+    private BinaryMediaTypes() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * The representation to send for an {@code Accept} header: the offered type with the
+     * highest quality, judged by the most specific accepted type matching it. JSON when the
+     * header is missing, malformed or accepts none of them.
+     */
+    public static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = MediaType.APPLICATION_JSON;
+        double bestQuality = 0.0;
+        for (MediaType offered : OFFERED) {
+            double quality = quality(accepted, offered);
+            if (quality > bestQuality) {
+                best = offered;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    public static boolean isBinary(MediaType mediaType) {
+        return !MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType);
+    }
+
+    /** Keeps strong ETags distinct per representation, since the bytes differ. */
+    public static String eTag(String eTag, MediaType mediaType) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+            return eTag + "-cbor";
+        }
+        if (SMILE.equalsTypeAndSubtype(mediaType)) {
+            return eTag + "-smile";
+        }
+        return eTag;
+    }
+
+    private static double quality(List<MediaType> accepted, MediaType offered) {
+        int bestSpecificity = -1;
+        double quality = 0.0;
+        for (MediaType type : accepted) {
+            if (type.includes(offered)) {
+                int specificity = type.isWildcardType() ? 0 : type.isWildcardSubtype() ? 1 : 2;
+                if (specificity > bestSpecificity) {
+                    bestSpecificity = specificity;
+                    quality = type.getQualityValue();
+                }
+            }
+        }
+        return quality;
+    }
+}
@@ -0,0 +1,42 @@
+package com.codegensis.ragstore.util;
+
+/**
+ * How the filters treat a request path, worked out once per request by {@link RouteClassifier}.
+ */
+public final class RequestRoute {
+    
+    public static final RequestRoute API = new RequestRoute(false, false);
+    public static final RequestRoute PUBLIC = new RequestRoute(true, false);
+    public static final RequestRoute UNLOGGED = new RequestRoute(false, true);
+    public static final RequestRoute PUBLIC_UNLOGGED = new RequestRoute(true, true);
+    
+    private final boolean publicEndpoint;
+    private final boolean skipLogging;
+    
+    private RequestRoute(boolean publicEndpoint, boolean skipLogging) {
+        this.publicEndpoint = publicEndpoint;
+        this.skipLogging = skipLogging;
+    }
+    
+    public static RequestRoute of(boolean publicEndpoint, boolean skipLogging) {
+        if (publicEndpoint) {
+            return skipLogging ? PUBLIC_UNLOGGED : PUBLIC;
+        }
+        return skipLogging ? UNLOGGED : API;
+    }
+    
+    /** Reachable without an API key. */
+    public boolean isPublic() {
+        return publicEndpoint;
+    }
+    
+    /** Excluded from request logging and rate limiting. */
+    public boolean isSkipLogging() {
+        return skipLogging;
+    }
+    
+    @Override
+    public String toString() {
+        return "RequestRoute{public=" + publicEndpoint + ", skipLogging=" + skipLogging + "}";
+    }
+}
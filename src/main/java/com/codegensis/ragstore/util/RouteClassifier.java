@@ -0,0 +1,32 @@
+package com.codegensis.ragstore.util;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classifies request paths against {@link ApiConstants#PUBLIC_ENDPOINTS} and
+ * {@link ApiConstants#SKIP_LOGGING_PATHS}. The result is stored as a request attribute by the
+ * first filter that asks, so the rest of the chain reuses it instead of matching again.
+ */
+@Component
+public class RouteClassifier {
+    
+    public static final String ROUTE_ATTRIBUTE = RouteClassifier.class.getName() + ".ROUTE";
+    
+    private final RouteMatcher<Boolean> publicEndpoints = RouteMatcher.of(ApiConstants.PUBLIC_ENDPOINTS);
+    private final RouteMatcher<Boolean> skipLoggingPaths = RouteMatcher.of(ApiConstants.SKIP_LOGGING_PATHS);
+    
+    public RequestRoute classify(HttpServletRequest request) {
+        if (request.getAttribute(ROUTE_ATTRIBUTE) instanceof RequestRoute route) {
+            return route;
+        }
+        RequestRoute route = classify(request.getRequestURI());
+        request.setAttribute(ROUTE_ATTRIBUTE, route);
+        return route;
+    }
+    
+    public RequestRoute classify(String path) {
+        return RequestRoute.of(publicEndpoints.matches(path), skipLoggingPaths.matches(path));
+    }
+}
@@ -0,0 +1,209 @@
+package com.codegensis.ragstore.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Matches request paths against a fixed set of patterns compiled into a character trie.
+ * Patterns are either exact paths or prefixes ending in {@code /**}, which match the prefix
+ * itself and anything below it ({@code /swagger-ui/**} matches {@code /swagger-ui} and
+ * {@code /swagger-ui/index.html} but not {@code /swagger-uix}). A {@code {name}} segment matches
+ * any single non-empty path segment, as in {@code /api/v1/sessions/{sessionId}/messages}.
+ * <p>
+ * Chains of single-child nodes are collapsed into edge labels at build time, so matching walks
+ * the path once, comparing whole labels with {@code startsWith}, and allocates nothing. When
+ * several patterns match, an exact pattern wins over a prefix, a longer prefix over a shorter
+ * one, and a literal segment over a {@code {name}} segment.
+ *
+ * @param <T> value associated with each pattern
+ */
+public final class RouteMatcher<T> {
+    
+    private static final String WILDCARD_SUFFIX = "/**";
+    
+    private final Node<T> root;
+    
+    private RouteMatcher(Node<T> root) {
+        this.root = root;
+    }
+    
+    /** Matcher that only answers whether any of the patterns match. */
+    public static RouteMatcher<Boolean> of(String... patterns) {
+        Builder<Boolean> builder = builder();
+        for (String pattern : patterns) {
+            builder.add(pattern, Boolean.TRUE);
+        }
+        return builder.build();
+    }
+    
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+    
+    public boolean matches(String path) {
+        return match(path) != null;
+    }
+    
+    /** Value of the most specific matching pattern, or {@code null} if none match. */
+    public T match(String path) {
+        return match(root, path, 0);
+    }
+    
+    private static <T> T match(Node<T> node, String path, int i) {
+        T bestPrefix = null;
+        int length = path.length();
+        while (i < length) {
+            char c = path.charAt(i);
+            if (c == '/' && node.prefixValue != null) {
+                bestPrefix = node.prefixValue;
+            }
+            if (node.variable != null) {
+                // Only nodes with a {name} child branch; everything else stays on the loop
+                T literal = matchLiteral(node, path, i);
+                if (literal != null) {
+                    return literal;
+                }
+                int end = path.indexOf('/', i);
+                end = end < 0 ? length : end;
+                T variable = end > i ? match(node.variable, path, end) : null;
+                return variable != null ? variable : bestPrefix;
+            }
+            int index = node.indexOf(c);
+            if (index < 0) {
+                return bestPrefix;
+            }
+            String label = node.labels[index];
+            if (!path.startsWith(label, i)) {
+                // Collapsed chains carry no values, so a partial label match adds nothing
+                return bestPrefix;
+            }
+            i += label.length();
+            node = node.children[index];
+        }
+        if (node.exactValue != null) {
+            return node.exactValue;
+        }
+        return node.prefixValue != null ? node.prefixValue : bestPrefix;
+    }
+    
+    private static <T> T matchLiteral(Node<T> node, String path, int i) {
+        int index = node.indexOf(path.charAt(i));
+        if (index < 0 || !path.startsWith(node.labels[index], i)) {
+            return null;
+        }
+        return match(node.children[index], path, i + node.labels[index].length());
+    }
+    
+    public static final class Builder<T> {
+        
+        private final TrieNode<T> root = new TrieNode<>();
+        
+        private Builder() {
+        }
+        
+        public Builder<T> add(String pattern, T value) {
+            if (pattern == null || value == null) {
+                throw new IllegalArgumentException("Pattern and value must not be null");
+            }
+            boolean prefix = pattern.endsWith(WILDCARD_SUFFIX);
+            String path = prefix ? pattern.substring(0, pattern.length() - WILDCARD_SUFFIX.length()) : pattern;
+            
+            TrieNode<T> node = root;
+            for (int i = 0; i < path.length(); i++) {
+                char c = path.charAt(i);
+                if (c == '{' && i > 0 && path.charAt(i - 1) == '/') {
+                    int close = path.indexOf('}', i);
+                    if (close < 0 || (close + 1 < path.length() && path.charAt(close + 1) != '/')) {
+                        throw new IllegalArgumentException("Variables must span a whole segment: " + pattern);
+                    }
+                    if (node.variable == null) {
+                        node.variable = new TrieNode<>();
+                    }
+                    node = node.variable;
+                    i = close;
+                } else {
+                    node = node.children.computeIfAbsent(c, key -> new TrieNode<>());
+                }
+            }
+            if (prefix) {
+                node.prefixValue = value;
+            } else {
+                node.exactValue = value;
+            }
+            return this;
+        }
+        
+        /** Compiles a snapshot, so a builder reused after {@code build()} cannot change a built matcher. */
+        public RouteMatcher<T> build() {
+            return new RouteMatcher<>(compile(root));
+        }
+        
+        private static <T> Node<T> compile(TrieNode<T> trie) {
+            int size = trie.children.size();
+            char[] keys = new char[size];
+            String[] labels = new String[size];
+            Node<T>[] children = Node.newArray(size);
+            int i = 0;
+            for (Map.Entry<Character, TrieNode<T>> entry : trie.children.entrySet()) {
+                StringBuilder label = new StringBuilder().append(entry.getKey().charValue());
+                TrieNode<T> child = entry.getValue();
+                while (child.exactValue == null && child.prefixValue == null && child.variable == null
+                        && child.children.size() == 1) {
+                    Map.Entry<Character, TrieNode<T>> only = child.children.entrySet().iterator().next();
+                    label.append(only.getKey().charValue());
+                    child = only.getValue();
+                }
+                keys[i] = entry.getKey();
+                labels[i] = label.toString();
+                children[i] = compile(child);
+                i++;
+            }
+            Node<T> variable = trie.variable != null ? compile(trie.variable) : null;
+            return new Node<>(keys, labels, children, variable, trie.exactValue, trie.prefixValue);
+        }
+    }
+    
+    /** Mutable one-character-per-node trie used while patterns are being added. */
+    private static final class TrieNode<T> {
+        
+        private final Map<Character, TrieNode<T>> children = new TreeMap<>();
+        private TrieNode<T> variable;
+        private T exactValue;
+        private T prefixValue;
+    }
+    
+    private static final class Node<T> {
+        
+        private final char[] keys;
+        private final String[] labels;
+        private final Node<T>[] children;
+        private final Node<T> variable;
+        private final T exactValue;
+        private final T prefixValue;
+        
+        Node(char[] keys, String[] labels, Node<T>[] children, Node<T> variable, T exactValue, T prefixValue) {
+            this.keys = keys;
+            this.labels = labels;
+            this.children = children;
+            this.variable = variable;
+            this.exactValue = exactValue;
+            this.prefixValue = prefixValue;
+        }
+        
+        /** Linear scan: path characters fan out to only a handful of children per node. */
+        int indexOf(char c) {
+            char[] k = keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        @SuppressWarnings("unchecked")
+        static <T> Node<T>[] newArray(int length) {
+            return (Node<T>[]) new Node[length];
+        }
+    }
+}
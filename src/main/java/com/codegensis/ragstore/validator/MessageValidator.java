@@ -42,4 +42,13 @@ public class MessageValidator {
             throw new ValidationException("Size must be between 1 and " + ApiConstants.MAX_PAGE_SIZE);
         }
     }
+    
+    public void validateCursor(long afterSeq, int limit) {
+        if (afterSeq < 0) {
+            throw new ValidationException("afterSeq must be >= 0");
+        }
+        if (limit < 1 || limit > ApiConstants.MAX_STREAM_LIMIT) {
+            throw new ValidationException("Limit must be between 1 and " + ApiConstants.MAX_STREAM_LIMIT);
+        }
+    }
 }
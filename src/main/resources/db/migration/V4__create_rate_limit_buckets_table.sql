@@ -0,0 +1,7 @@
+CREATE TABLE rate_limit_buckets (
+    bucket_id VARCHAR(64) PRIMARY KEY,
+    window_start BIGINT NOT NULL,
+    tokens INT NOT NULL
+);
+
+CREATE INDEX idx_rate_limit_buckets_window_start ON rate_limit_buckets(window_start);
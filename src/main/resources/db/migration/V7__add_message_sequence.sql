@@ -0,0 +1,15 @@
+-- Per-session sequence numbers: messages are paged and streamed in seq order, and
+-- "messages after seq N" is a range scan of the unique (session_id, seq) index.
+ALTER TABLE messages ADD COLUMN seq BIGINT;
+
+-- Existing messages are numbered in the order pages showed them so far
+MERGE INTO messages m
+USING (SELECT id, ROW_NUMBER() OVER (PARTITION BY session_id ORDER BY timestamp, id) AS seq FROM messages) n
+ON m.id = n.id
+WHEN MATCHED THEN UPDATE SET m.seq = n.seq;
+
+ALTER TABLE messages ALTER COLUMN seq SET NOT NULL;
+ALTER TABLE messages ADD CONSTRAINT uk_messages_session_seq UNIQUE (session_id, seq);
+
+-- Pages no longer sort on timestamp
+DROP INDEX idx_messages_session_timestamp;
@@ -0,0 +1,14 @@
+CREATE TABLE message_drafts (
+    id VARCHAR(36) PRIMARY KEY,
+    session_id BIGINT NOT NULL,
+    sender VARCHAR(20) NOT NULL,
+    content TEXT NOT NULL,
+    context TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_message_drafts_session FOREIGN KEY (session_id) REFERENCES sessions(id) ON DELETE CASCADE,
+    CONSTRAINT chk_message_drafts_sender CHECK (sender IN ('user', 'assistant', 'system'))
+);
+
+CREATE INDEX idx_message_drafts_session_id ON message_drafts(session_id);
+CREATE INDEX idx_message_drafts_updated_at ON message_drafts(updated_at);
@@ -0,0 +1,5 @@
+-- Each session's last allocated message seq. Appends advance it in their own transaction,
+-- so the row lock orders a session's appends and a rollback gives the numbers back.
+ALTER TABLE sessions ADD COLUMN last_seq BIGINT DEFAULT 0 NOT NULL;
+
+UPDATE sessions s SET last_seq = (SELECT COALESCE(MAX(m.seq), 0) FROM messages m WHERE m.session_id = s.id);
@@ -3,7 +3,8 @@ package com.codegensis.ragstore;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Binds gRPC to a free port, so parallel builds do not clash on the default one
+@SpringBootTest(properties = "app.grpc.port=0")
 class RagstoreApplicationTest {
 
     @Test
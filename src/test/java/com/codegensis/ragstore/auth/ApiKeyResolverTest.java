@@ -0,0 +1,103 @@
+package com.codegensis.ragstore.auth;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.service.ApiKeyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ApiKeyResolverTest {
+
+    private ApiKeyService apiKeyService;
+    private ApiKeyResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        apiKeyService = mock(ApiKeyService.class);
+        resolver = new ApiKeyResolver(apiKeyService);
+    }
+
+    @Test
+    void resolve_ValidKey_VerifiesOncePerRequest() {
+        // Given
+        ApiKeyPrincipal principal = new ApiKeyPrincipal(1L, "tenant_a", "ingest", Set.of("read"), null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        request.addHeader(ApiConstants.API_KEY_HEADER, "key1");
+        when(apiKeyService.authenticate("key1")).thenReturn(Optional.of(principal));
+
+        // When
+        ApiKeyPrincipal first = resolver.resolve(request);
+        ApiKeyPrincipal second = resolver.resolve(request);
+
+        // Then
+        assertSame(principal, first);
+        assertSame(principal, second);
+        verify(apiKeyService, times(1)).authenticate("key1");
+    }
+
+    @Test
+    void resolve_UnknownKey_CachesNegativeResult() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        request.addHeader(ApiConstants.API_KEY_HEADER, "bad");
+        when(apiKeyService.authenticate("bad")).thenReturn(Optional.empty());
+
+        // When
+        ApiKeyPrincipal first = resolver.resolve(request);
+        ApiKeyPrincipal second = resolver.resolve(request);
+
+        // Then
+        assertNull(first);
+        assertNull(second);
+        verify(apiKeyService, times(1)).authenticate("bad");
+    }
+
+    @Test
+    void resolve_MissingOrBlankKey_ReturnsNullWithoutLookup() {
+        // Given
+        MockHttpServletRequest missing = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        MockHttpServletRequest blank = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        blank.addHeader(ApiConstants.API_KEY_HEADER, "  ");
+
+        // When & Then
+        assertNull(resolver.resolve(missing));
+        assertNull(resolver.resolve(blank));
+        verifyNoInteractions(apiKeyService);
+    }
+
+    @Test
+    void isResolvedWithoutLookup_UncachedKey_ReturnsFalse() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        request.addHeader(ApiConstants.API_KEY_HEADER, "key1");
+
+        // When & Then
+        assertFalse(resolver.isResolvedWithoutLookup(request));
+        verify(apiKeyService, never()).authenticate(anyString());
+    }
+
+    @Test
+    void isResolvedWithoutLookup_CachedOrResolvedKey_ReturnsTrue() {
+        // Given
+        ApiKeyPrincipal principal = new ApiKeyPrincipal(1L, "tenant_a", "ingest", Set.of("read"), null);
+        MockHttpServletRequest cached = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        cached.addHeader(ApiConstants.API_KEY_HEADER, "cached");
+        MockHttpServletRequest resolved = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        resolved.addHeader(ApiConstants.API_KEY_HEADER, "resolved");
+        when(apiKeyService.findCached("cached")).thenReturn(new VerifiedKeyCache.Entry(null, Long.MAX_VALUE));
+        when(apiKeyService.authenticate("resolved")).thenReturn(Optional.of(principal));
+        resolver.resolve(resolved);
+
+        // When & Then
+        assertTrue(resolver.isResolvedWithoutLookup(cached));
+        assertTrue(resolver.isResolvedWithoutLookup(resolved));
+        assertTrue(resolver.isResolvedWithoutLookup(new MockHttpServletRequest("GET", "/api/v1/sessions")));
+    }
+}
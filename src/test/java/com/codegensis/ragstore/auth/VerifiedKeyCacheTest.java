@@ -0,0 +1,179 @@
+package com.codegensis.ragstore.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedKeyCacheTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final ApiKeyPrincipal principal = new ApiKeyPrincipal(1L, "tenant_a", "ingest", Set.of("read"), null);
+    private VerifiedKeyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedKeyCache(2, Duration.ofSeconds(60), Duration.ofSeconds(5), clock::get);
+    }
+
+    @Test
+    void get_ValidKeyWithinTtl_ReturnsPrincipal() {
+        // Given
+        cache.put("hash1", principal);
+        clock.addAndGet(59_000);
+
+        // When
+        VerifiedKeyCache.Entry entry = cache.get("hash1");
+
+        // Then
+        assertTrue(entry.valid());
+        assertSame(principal, entry.principal());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void get_AfterTtl_Misses() {
+        // Given
+        cache.put("hash1", principal);
+        cache.put("unknown", null);
+
+        // When
+        clock.addAndGet(5_000);
+        VerifiedKeyCache.Entry unknown = cache.get("unknown");
+        clock.addAndGet(55_000);
+        VerifiedKeyCache.Entry valid = cache.get("hash1");
+
+        // Then
+        assertNull(unknown);
+        assertNull(valid);
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void peek_CachedAndExpired_NotCountedAsHitsOrMisses() {
+        // Given
+        cache.put("hash1", principal);
+        cache.put("unknown", null);
+
+        // When
+        VerifiedKeyCache.Entry valid = cache.peek("hash1");
+        VerifiedKeyCache.Entry unknown = cache.peek("unknown");
+        clock.addAndGet(60_000);
+
+        // Then
+        assertSame(principal, valid.principal());
+        assertFalse(unknown.valid());
+        assertNull(cache.peek("hash1"));
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void get_UnknownKeyWithinNegativeTtl_ReturnsInvalidEntry() {
+        // Given
+        cache.put("unknown", null);
+
+        // When
+        VerifiedKeyCache.Entry entry = cache.get("unknown");
+
+        // Then
+        assertNotNull(entry);
+        assertFalse(entry.valid());
+    }
+
+    @Test
+    void invalidate_RemovesEntry() {
+        // Given
+        cache.put("hash1", principal);
+
+        // When
+        cache.invalidate("hash1");
+
+        // Then
+        assertNull(cache.get("hash1"));
+    }
+
+    @Test
+    void put_ValidRegionFull_StillCachesUnknownKeys() {
+        // Given
+        cache.put("hash1", principal);
+        cache.put("hash2", principal);
+
+        // When
+        cache.put("unknown", null);
+
+        // Then
+        assertEquals(3, cache.size());
+        assertFalse(cache.get("unknown").valid());
+        assertTrue(cache.get("hash1").valid());
+        assertTrue(cache.get("hash2").valid());
+    }
+
+    @Test
+    void put_UnknownRegionFull_DropsTheOldestUnknownKey() {
+        // Given
+        cache.put("hash1", principal);
+        cache.put("unknown1", null);
+        cache.put("unknown2", null);
+
+        // When
+        cache.put("unknown3", null);
+
+        // Then
+        assertNull(cache.get("unknown1"));
+        assertNotNull(cache.get("unknown2"));
+        assertNotNull(cache.get("unknown3"));
+        assertTrue(cache.get("hash1").valid());
+    }
+
+    @Test
+    void put_UnknownKeyAgain_MovesToTheBackOfTheRegion() {
+        // Given
+        cache.put("unknown1", null);
+        cache.put("unknown2", null);
+        clock.addAndGet(1_000);
+        cache.put("unknown1", null);
+
+        // When
+        cache.put("unknown3", null);
+
+        // Then
+        assertNull(cache.get("unknown2"));
+        assertNotNull(cache.get("unknown1"));
+    }
+
+    @Test
+    void put_ValidRegionFull_SweepsExpiredEntriesFirst() {
+        // Given
+        cache = new VerifiedKeyCache(2, Duration.ofSeconds(60), Duration.ofSeconds(5), clock::get);
+        cache.put("hash1", principal);
+        clock.addAndGet(30_000);
+        cache.put("hash2", principal);
+        clock.addAndGet(31_000);
+
+        // When
+        cache.put("hash3", principal);
+
+        // Then
+        assertNull(cache.get("hash1"));
+        assertNotNull(cache.get("hash2"));
+        assertNotNull(cache.get("hash3"));
+    }
+
+    @Test
+    void put_ValidKeyPreviouslyUnknown_ReplacesTheNegativeEntry() {
+        // Given
+        cache.put("hash1", null);
+
+        // When
+        cache.put("hash1", principal);
+
+        // Then
+        assertTrue(cache.get("hash1").valid());
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,91 @@
+package com.codegensis.ragstore.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private static void feed(AdaptiveConcurrencyLimit limit, int batches, long rttNanos, int inFlight) {
+        for (int i = 0; i < batches * AdaptiveConcurrencyLimit.SAMPLES_PER_UPDATE; i++) {
+            limit.onSample(rttNanos, inFlight);
+        }
+    }
+
+    @Test
+    void onSample_StableLatencyUnderLoad_RaisesLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        // When
+        feed(limit, 20, 5 * MILLIS, 20);
+
+        // Then
+        assertTrue(limit.getLimit() > 20);
+        assertEquals(5 * MILLIS, limit.getBaselineNanos());
+    }
+
+    @Test
+    void onSample_StableLatencyAtLowUtilisation_KeepsLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        // When
+        feed(limit, 20, 5 * MILLIS, 3);
+
+        // Then
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void onSample_LatencyRises_ShrinksLimit() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(100, 4, 200);
+        feed(limit, 5, 5 * MILLIS, 100);
+        int before = limit.getLimit();
+
+        // When
+        feed(limit, 5, 50 * MILLIS, 100);
+
+        // Then
+        assertTrue(limit.getLimit() < before, "limit " + limit.getLimit() + " should drop below " + before);
+    }
+
+    @Test
+    void onSample_SustainedSlowdown_ClampsToMinimum() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 15, 200);
+        feed(limit, 1, MILLIS, 50);
+
+        // When
+        feed(limit, 25, 100 * MILLIS, 50);
+
+        // Then
+        assertEquals(15, limit.getLimit());
+    }
+
+    @Test
+    void onSample_PartialBatch_DoesNotUpdate() {
+        // Given
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200);
+
+        // When
+        for (int i = 0; i < AdaptiveConcurrencyLimit.SAMPLES_PER_UPDATE - 1; i++) {
+            limit.onSample(MILLIS, 20);
+        }
+
+        // Then
+        assertEquals(20, limit.getLimit());
+        assertEquals(0, limit.getBaselineNanos());
+    }
+
+    @Test
+    void constructor_InitialLimitOutOfRange_IsClamped() {
+        assertEquals(200, new AdaptiveConcurrencyLimit(1000, 4, 200).getLimit());
+        assertEquals(4, new AdaptiveConcurrencyLimit(1, 4, 200).getLimit());
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 0, 200));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(10, 20, 10));
+    }
+}
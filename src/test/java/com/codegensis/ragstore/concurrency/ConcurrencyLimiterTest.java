@@ -0,0 +1,80 @@
+package com.codegensis.ragstore.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static com.codegensis.ragstore.concurrency.ConcurrencyLimiter.Partition.READ;
+import static com.codegensis.ragstore.concurrency.ConcurrencyLimiter.Partition.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_BelowLimit_ReturnsInFlight() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 4, 100, 0.3);
+
+        // When
+        int first = limiter.tryAcquire(READ);
+        int second = limiter.tryAcquire(WRITE);
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(1, limiter.getInFlight(READ));
+        assertEquals(1, limiter.getInFlight(WRITE));
+    }
+
+    @Test
+    void tryAcquire_ReadsAtLimit_RejectsReadsButAdmitsWriteShare() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 4, 100, 0.3);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(READ) > 0);
+        }
+
+        // When
+        int read = limiter.tryAcquire(READ);
+        int writes = 0;
+        while (limiter.tryAcquire(WRITE) > 0) {
+            writes++;
+        }
+
+        // Then
+        assertEquals(-1, read);
+        assertEquals(3, writes);
+        assertEquals(1, limiter.getRejected(READ));
+        assertEquals(1, limiter.getRejected(WRITE));
+        assertEquals(13, limiter.getInFlight());
+    }
+
+    @Test
+    void release_ReturnsPermit() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 4, 100, 0.0);
+        int inFlight = 0;
+        for (int i = 0; i < 4; i++) {
+            inFlight = limiter.tryAcquire(READ);
+        }
+        assertEquals(-1, limiter.tryAcquire(READ));
+
+        // When
+        limiter.release(READ, inFlight, 1_000_000L);
+
+        // Then
+        assertEquals(3, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire(READ) > 0);
+    }
+
+    @Test
+    void partitionOf_MapsSafeMethodsToRead() {
+        assertEquals(READ, ConcurrencyLimiter.Partition.of("GET"));
+        assertEquals(READ, ConcurrencyLimiter.Partition.of("HEAD"));
+        assertEquals(WRITE, ConcurrencyLimiter.Partition.of("POST"));
+        assertEquals(WRITE, ConcurrencyLimiter.Partition.of("DELETE"));
+    }
+
+    @Test
+    void constructor_InvalidWriteShare_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(10, 4, 100, 1.5));
+    }
+}
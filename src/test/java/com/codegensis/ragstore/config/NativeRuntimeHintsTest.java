@@ -0,0 +1,67 @@
+package com.codegensis.ragstore.config;
+
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_EntitiesAndConverter_AreReflective() {
+        // Then
+        for (Class<?> entity : NativeRuntimeHints.ENTITIES) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(entity)
+                .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                .test(hints), entity.getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Message.Sender.Converter.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void registerHints_MigrationsSpringFactoriesAndCacheConfig_AreResources() {
+        // Then
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/V1__create_sessions_table.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/spring.factories").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource(NativeRuntimeHints.CACHE_CONFIG_RESOURCE).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(DotenvPropertySource.class)
+            .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    void registerHints_FiltersAndBoundTypes_AreIntrospectable() {
+        // Then
+        for (Class<?> filter : NativeRuntimeHints.FILTERS) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(filter)
+                .withMemberCategory(MemberCategory.INTROSPECT_PUBLIC_METHODS).test(hints), filter.getName());
+        }
+        for (Class<?> type : NativeRuntimeHints.BOUND_TYPES) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(type).test(hints), type.getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(MessagePageResponse.class, "messages").test(hints));
+    }
+
+    @Test
+    void registerHints_ProtobufMessagesAndBuilders_AreReflective() {
+        // Then
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ChatMessage.class)
+            .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(ChatMessage.Builder.class)
+            .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+    }
+}
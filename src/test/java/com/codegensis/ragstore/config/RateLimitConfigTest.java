@@ -1,67 +1,122 @@
 package com.codegensis.ragstore.config;
 
-import io.github.bucket4j.Bucket;
+import com.codegensis.ragstore.ratelimit.LeasedRateLimiter;
+import com.codegensis.ragstore.ratelimit.RateLimitStore;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 class RateLimitConfigTest {
 
     private RateLimitConfig rateLimitConfig;
+    private ObjectProvider<RateLimitStore> storeProvider;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        rateLimitConfig = new RateLimitConfig(60);
+        rateLimitConfig = new RateLimitConfig(2, 100, 1024);
+        storeProvider = mock(ObjectProvider.class);
+    }
+
+    @Test
+    void apiKeyRateLimiter_LocalMode_UsesLocalTable() {
+        // When
+        RateLimiter limiter = rateLimitConfig.apiKeyRateLimiter("local", 10, Duration.ofSeconds(1), storeProvider);
+
+        // Then
+        assertSame(rateLimitConfig.getApiKeyTable(), limiter);
+        assertTrue(limiter.tryConsume("key1"));
+        assertTrue(limiter.tryConsume("key1"));
+        assertFalse(limiter.tryConsume("key1"));
+        assertTrue(limiter.tryConsume("key2"));
     }
 
     @Test
-    void getApiKeyBucket_SameKey_ReturnsSameBucket() {
+    void apiKeyRateLimiter_DistributedMode_UsesStore() throws Exception {
+        // Given
+        when(storeProvider.getIfAvailable()).thenReturn(mock(RateLimitStore.class));
+
         // When
-        Bucket bucket1 = rateLimitConfig.getApiKeyBucket("key1");
-        Bucket bucket2 = rateLimitConfig.getApiKeyBucket("key1");
+        RateLimiter limiter = rateLimitConfig.apiKeyRateLimiter("distributed", 10, Duration.ofSeconds(1), storeProvider);
 
         // Then
-        assertNotNull(bucket1);
-        assertNotNull(bucket2);
-        assertEquals(bucket1, bucket2);
+        assertInstanceOf(LeasedRateLimiter.class, limiter);
+        ((LeasedRateLimiter) limiter).close();
     }
 
     @Test
-    void getApiKeyBucket_DifferentKeys_ReturnsDifferentBuckets() {
+    void unknownKeyRateLimiter_IsALocalTableSeparateFromKnownKeys() {
         // When
-        Bucket bucket1 = rateLimitConfig.getApiKeyBucket("key1");
-        Bucket bucket2 = rateLimitConfig.getApiKeyBucket("key2");
+        RateLimiter limiter = rateLimitConfig.unknownKeyRateLimiter();
 
         // Then
-        assertNotNull(bucket1);
-        assertNotNull(bucket2);
-        assertNotEquals(bucket1, bucket2);
+        assertSame(rateLimitConfig.getUnknownKeyTable(), limiter);
+        assertNotSame(rateLimitConfig.getApiKeyTable(), limiter);
+        assertEquals(2L, limiter.limit());
     }
 
     @Test
-    void getApiKeyBucket_ConsumesTokens() {
+    void apiKeyRateLimiter_DistributedModeWithoutStore_ThrowsException() {
+        assertThrows(IllegalStateException.class,
+            () -> rateLimitConfig.apiKeyRateLimiter("distributed", 10, Duration.ofSeconds(1), storeProvider));
+    }
+
+    @Test
+    void apiKeyRateLimiter_UnknownMode_ThrowsException() {
+        assertThrows(IllegalStateException.class,
+            () -> rateLimitConfig.apiKeyRateLimiter("redis", 10, Duration.ofSeconds(1), storeProvider));
+    }
+
+    @Test
+    void apiKeyByteRateLimiter_LocalMode_UsesByteTable() {
+        // When
+        RateLimiter limiter = rateLimitConfig.apiKeyByteRateLimiter("local", 10, Duration.ofSeconds(1), storeProvider);
+
+        // Then
+        assertSame(rateLimitConfig.getApiKeyByteTable(), limiter);
+        assertTrue(limiter.tryConsume("key1", 100).allowed());
+        assertFalse(limiter.tryConsume("key1", 1).allowed());
+    }
+
+    @Test
+    void apiKeyByteRateLimiter_Disabled_ReturnsUnlimited() {
         // Given
-        Bucket bucket = rateLimitConfig.getApiKeyBucket("test-key");
+        RateLimitConfig withoutByteLimit = new RateLimitConfig(2, 0, 1024);
 
-        // When & Then
-        assertTrue(bucket.tryConsume(1));
-        assertTrue(bucket.tryConsume(1));
+        // When
+        RateLimiter limiter = withoutByteLimit.apiKeyByteRateLimiter("distributed", 10, Duration.ofSeconds(1), storeProvider);
+
+        // Then
+        assertSame(RateLimiter.UNLIMITED, limiter);
+        assertNull(withoutByteLimit.getApiKeyByteTable());
+    }
+
+    @Test
+    void getApiKeyTable_UsesConfiguredCapacity() {
+        assertEquals(1024, rateLimitConfig.getApiKeyTable().capacity());
     }
 
     @Test
     void resetBuckets_ClearsAllBuckets() {
         // Given
-        Bucket bucket1 = rateLimitConfig.getApiKeyBucket("key1");
-        Bucket bucket2 = rateLimitConfig.getApiKeyBucket("key2");
+        RateLimiter limiter = rateLimitConfig.getApiKeyTable();
+        limiter.tryConsume("key1");
+        limiter.tryConsume("key1");
+        rateLimitConfig.getApiKeyByteTable().tryConsume("key1", 100);
+        rateLimitConfig.getUnknownKeyTable().tryConsume("203.0.113.7", 2, 2);
 
         // When
         rateLimitConfig.resetBuckets();
-        Bucket bucket1After = rateLimitConfig.getApiKeyBucket("key1");
-        Bucket bucket2After = rateLimitConfig.getApiKeyBucket("key2");
 
         // Then
-        assertNotEquals(bucket1, bucket1After);
-        assertNotEquals(bucket2, bucket2After);
+        assertTrue(limiter.tryConsume("key1"));
+        assertTrue(rateLimitConfig.getApiKeyByteTable().tryConsume("key1", 100).allowed());
+        assertTrue(rateLimitConfig.getUnknownKeyTable().tryConsume("203.0.113.7"));
     }
 }
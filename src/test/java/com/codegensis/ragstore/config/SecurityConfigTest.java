@@ -0,0 +1,78 @@
+package com.codegensis.ragstore.config;
+
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.dto.request.CreateApiKeyRequest;
+import com.codegensis.ragstore.service.ApiKeyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.grpc.port=0",
+    "app.api.key.primary=" + SecurityConfigTest.ADMIN_KEY,
+    "spring.datasource.url=jdbc:h2:mem:security-config;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    static final String ADMIN_KEY = "admin-key-1234567890123456789012345";
+    private static final String LOG_SAMPLING = "/actuator/logsampling";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApiKeyService apiKeyService;
+
+    @Test
+    void actuator_ReadOnlyKey_Forbidden() throws Exception {
+        // Given
+        String readKey = tenantKey(Set.of(ApiKeyPrincipal.SCOPE_READ));
+
+        // When & Then
+        mockMvc.perform(post(LOG_SAMPLING).header(ApiConstants.API_KEY_HEADER, readKey)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"key\":\"default\",\"rate\":1.0}"))
+            .andExpect(status().isForbidden());
+        mockMvc.perform(get(LOG_SAMPLING).header(ApiConstants.API_KEY_HEADER, readKey))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void actuator_WriteKey_Forbidden() throws Exception {
+        // Given
+        String writeKey = tenantKey(Set.of(ApiKeyPrincipal.SCOPE_READ, ApiKeyPrincipal.SCOPE_WRITE));
+
+        // When & Then
+        mockMvc.perform(post(LOG_SAMPLING).header(ApiConstants.API_KEY_HEADER, writeKey)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"key\":\"default\",\"rate\":1.0}"))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void actuator_AdminKey_Allowed() throws Exception {
+        // When & Then
+        mockMvc.perform(get(LOG_SAMPLING).header(ApiConstants.API_KEY_HEADER, ADMIN_KEY))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void actuatorHealth_NoKey_Allowed() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(status().isOk());
+    }
+
+    private String tenantKey(Set<String> scopes) {
+        return apiKeyService.createApiKey(new CreateApiKeyRequest("tenant_a", "security-test", null, scopes)).key();
+    }
+}
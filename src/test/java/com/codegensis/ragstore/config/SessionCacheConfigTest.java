@@ -0,0 +1,113 @@
+package com.codegensis.ragstore.config;
+
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.repository.SessionRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionCacheConfigTest {
+
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void tearDown() {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    void sessionCacheManager_CreatesEveryRegionHibernateNeeds() {
+        // When
+        cacheManager = new SessionCacheConfig(true, 500, 50, Duration.ofSeconds(30)).sessionCacheManager();
+
+        // Then
+        Set<String> names = StreamSupport.stream(cacheManager.getCacheNames().spliterator(), false)
+            .collect(Collectors.toSet());
+        assertEquals(Set.of(SessionCacheConfig.REGIONS), names);
+    }
+
+    @Test
+    void sessionCacheManager_BoundsSessionRegionsBySizeAndTtl() {
+        // When
+        cacheManager = new SessionCacheConfig(true, 500, 50, Duration.ofSeconds(30)).sessionCacheManager();
+
+        // Then
+        CaffeineConfiguration<?, ?> sessions = configuration(Session.CACHE_REGION);
+        CaffeineConfiguration<?, ?> userQueries = configuration(SessionRepository.USER_SESSIONS_CACHE_REGION);
+        assertEquals(OptionalLong.of(500), sessions.getMaximumSize());
+        assertEquals(OptionalLong.of(Duration.ofSeconds(30).toNanos()), sessions.getExpireAfterWrite());
+        assertEquals(OptionalLong.of(50), userQueries.getMaximumSize());
+        assertEquals(OptionalLong.of(Duration.ofSeconds(30).toNanos()), userQueries.getExpireAfterWrite());
+        assertTrue(sessions.isStatisticsEnabled());
+        assertFalse(sessions.isStoreByValue());
+    }
+
+    @Test
+    void sessionCacheManager_UpdateTimestampsNeverExpire() {
+        // When
+        cacheManager = new SessionCacheConfig(true, 500, 50, Duration.ofSeconds(30)).sessionCacheManager();
+
+        // Then
+        CaffeineConfiguration<?, ?> timestamps =
+            configuration(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+        assertTrue(timestamps.getMaximumSize().isEmpty());
+        assertTrue(timestamps.getExpireAfterWrite().isEmpty());
+    }
+
+    @Test
+    void sessionCacheProperties_Enabled_UsesTheCacheManagerAndFailsOnUnknownRegions() {
+        // Given
+        SessionCacheConfig config = new SessionCacheConfig(true, 500, 50, Duration.ofSeconds(30));
+        cacheManager = config.sessionCacheManager();
+        Map<String, Object> properties = new HashMap<>();
+
+        // When
+        config.sessionCacheProperties(cacheManager).customize(properties);
+
+        // Then
+        assertEquals(true, properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+        assertEquals(true, properties.get(AvailableSettings.USE_QUERY_CACHE));
+        assertInstanceOf(JCacheRegionFactory.class, properties.get(AvailableSettings.CACHE_REGION_FACTORY));
+        assertSame(cacheManager, properties.get(ConfigSettings.CACHE_MANAGER));
+        assertEquals("fail", properties.get(ConfigSettings.MISSING_CACHE_STRATEGY));
+    }
+
+    @Test
+    void sessionCacheProperties_Disabled_TurnsTheCachesOff() {
+        // Given
+        SessionCacheConfig config = new SessionCacheConfig(false, 500, 50, Duration.ofSeconds(30));
+        cacheManager = config.sessionCacheManager();
+        Map<String, Object> properties = new HashMap<>();
+
+        // When
+        config.sessionCacheProperties(cacheManager).customize(properties);
+
+        // Then
+        assertEquals(false, properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+        assertEquals(false, properties.get(AvailableSettings.USE_QUERY_CACHE));
+        assertFalse(properties.containsKey(AvailableSettings.CACHE_REGION_FACTORY));
+        assertFalse(properties.containsKey(ConfigSettings.CACHE_MANAGER));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CaffeineConfiguration<?, ?> configuration(String region) {
+        return cacheManager.getCache(region).getConfiguration(CaffeineConfiguration.class);
+    }
+}
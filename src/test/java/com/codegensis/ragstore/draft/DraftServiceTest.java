@@ -0,0 +1,444 @@
+package com.codegensis.ragstore.draft;
+
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.request.DraftDeltaRequest;
+import com.codegensis.ragstore.dto.request.FinalizeDraftRequest;
+import com.codegensis.ragstore.dto.request.OpenDraftRequest;
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.exception.ConflictException;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ServiceOverloadedException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.service.MessageService;
+import com.codegensis.ragstore.storage.SessionStore;
+import com.codegensis.ragstore.validator.MessageValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DraftServiceTest {
+
+    private static final Long SESSION_ID = 1L;
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+
+    private DraftStore store;
+    private MessageService messageService;
+    private SessionStore sessionStore;
+    private PlatformTransactionManager transactionManager;
+    private AtomicLong clock;
+    private DraftService service;
+
+    @BeforeEach
+    void setUp() {
+        store = mock(DraftStore.class);
+        messageService = mock(MessageService.class);
+        sessionStore = mock(SessionStore.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        clock = new AtomicLong(1_000_000L);
+        when(sessionStore.existsById(SESSION_ID)).thenReturn(true);
+        when(store.updateAll(anyList())).thenAnswer(invocation -> {
+            int[] counts = new int[invocation.<List<?>>getArgument(0).size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        when(messageService.addMessage(anyLong(), any(AddMessageRequest.class))).thenAnswer(invocation -> {
+            AddMessageRequest request = invocation.getArgument(1);
+            return new MessageResponse(10L, invocation.getArgument(0), 3L, request.sender(), request.content(),
+                request.context(), LocalDateTime.now());
+        });
+        service = service(10);
+    }
+
+    @Test
+    void open_ExistingSession_HoldsAssistantDraftWithoutWriting() {
+        // When
+        DraftResponse draft = service.open(SESSION_ID, new OpenDraftRequest(null, "Hel", "{\"doc\":1}"));
+
+        // Then
+        assertNotNull(draft.id());
+        assertEquals(SESSION_ID, draft.sessionId());
+        assertEquals("assistant", draft.sender());
+        assertEquals("Hel", draft.content());
+        assertEquals(1, service.getOpenCount());
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void open_MissingSession_ThrowsResourceNotFoundException() {
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> service.open(2L, new OpenDraftRequest(null, null, null)));
+        assertEquals(0, service.getOpenCount());
+    }
+
+    @Test
+    void open_InvalidSender_ThrowsValidationException() {
+        // When & Then
+        assertThrows(ValidationException.class, () -> service.open(SESSION_ID, new OpenDraftRequest("robot", null, null)));
+    }
+
+    @Test
+    void open_TooManyDrafts_ThrowsServiceOverloadedException() {
+        // Given
+        service = service(1);
+        service.open(SESSION_ID, new OpenDraftRequest(null, null, null));
+
+        // When & Then
+        assertThrows(ServiceOverloadedException.class, () -> service.open(SESSION_ID, new OpenDraftRequest(null, null, null)));
+    }
+
+    @Test
+    void append_Deltas_BuildContentInMemory() {
+        // Given
+        String id = open();
+
+        // When
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", null));
+        service.append(SESSION_ID, id, new DraftDeltaRequest(", ", 5));
+        service.append(SESSION_ID, id, new DraftDeltaRequest("world", null));
+
+        // Then
+        assertEquals("Hello, world", service.getDraft(SESSION_ID, id).content());
+        assertEquals(3, service.getDeltas());
+        verifyNoInteractions(store);
+    }
+
+    @Test
+    void append_RetriedDeltaAtOffset_IsIgnored() {
+        // Given
+        String id = open();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", 0));
+        service.append(SESSION_ID, id, new DraftDeltaRequest(" world", 5));
+
+        // When
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", 0));
+
+        // Then
+        assertEquals("Hello world", service.getDraft(SESSION_ID, id).content());
+    }
+
+    @Test
+    void append_OffsetMismatch_ThrowsConflictException() {
+        // Given
+        String id = open();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", 0));
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> service.append(SESSION_ID, id, new DraftDeltaRequest("x", 9)));
+        assertThrows(ConflictException.class, () -> service.append(SESSION_ID, id, new DraftDeltaRequest("Jello", 0)));
+        assertEquals("Hello", service.getDraft(SESSION_ID, id).content());
+    }
+
+    @Test
+    void append_BeyondMaxContent_ThrowsValidationException() {
+        // Given
+        String id = open();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("a".repeat(9_999), null));
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> service.append(SESSION_ID, id, new DraftDeltaRequest("bc", null)));
+    }
+
+    @Test
+    void append_OtherSession_ThrowsResourceNotFoundException() {
+        // Given
+        String id = open();
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> service.append(2L, id, new DraftDeltaRequest("Hi", null)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ManyDeltas_WritesEachChangedDraftOncePerFlush() {
+        // Given
+        String first = open();
+        String second = open();
+        for (int i = 0; i < 100; i++) {
+            service.append(SESSION_ID, first, new DraftDeltaRequest("a", null));
+            service.append(SESSION_ID, second, new DraftDeltaRequest("b", null));
+        }
+
+        // When
+        service.flush();
+        service.flush();
+        service.append(SESSION_ID, first, new DraftDeltaRequest("c", null));
+        service.flush();
+
+        // Then
+        ArgumentCaptor<List<DraftResponse>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(store, times(1)).insertAll(inserted.capture());
+        assertEquals(2, inserted.getValue().size());
+        assertEquals("a".repeat(100),
+            inserted.getValue().stream().filter(row -> row.id().equals(first)).findFirst().orElseThrow().content());
+        ArgumentCaptor<List<DraftResponse>> updated = ArgumentCaptor.forClass(List.class);
+        verify(store, times(1)).updateAll(updated.capture());
+        assertEquals(1, updated.getValue().size());
+        assertEquals("a".repeat(100) + "c", updated.getValue().get(0).content());
+        assertEquals(3, service.getWrites());
+    }
+
+    @Test
+    void flush_RowGone_DropsDraft() {
+        // Given
+        String id = open();
+        service.flush();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hi", null));
+        when(store.updateAll(anyList())).thenReturn(new int[]{0});
+
+        // When
+        service.flush();
+
+        // Then
+        assertEquals(0, service.getOpenCount());
+        assertThrows(ResourceNotFoundException.class, () -> service.getDraft(SESSION_ID, id));
+    }
+
+    @Test
+    void flush_SessionDeleted_DropsOnlyItsDrafts() {
+        // Given
+        String kept = open();
+        String orphaned = open();
+        doAnswer(invocation -> {
+            List<DraftResponse> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.id().equals(orphaned))) {
+                throw new DataIntegrityViolationException("fk_message_drafts_session");
+            }
+            return null;
+        }).when(store).insertAll(anyList());
+
+        // When
+        service.flush();
+
+        // Then
+        assertEquals(1, service.getOpenCount());
+        assertEquals("", service.getDraft(SESSION_ID, kept).content());
+        assertThrows(ResourceNotFoundException.class, () -> service.getDraft(SESSION_ID, orphaned));
+    }
+
+    @Test
+    void flush_StoreFails_KeepsDraftsDirtyForNextFlush() {
+        // Given
+        String id = open();
+        doThrow(new IllegalStateException("Database unavailable")).doNothing().when(store).insertAll(anyList());
+
+        // When
+        service.flush();
+        service.flush();
+
+        // Then
+        verify(store, times(2)).insertAll(anyList());
+        assertEquals(1, service.getWrites());
+        assertEquals("", service.getDraft(SESSION_ID, id).content());
+    }
+
+    @Test
+    void flush_IdleDraft_IsEvictedAndReloadedFromItsRow() {
+        // Given
+        String id = open();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", null));
+        service.flush();
+        clock.addAndGet(IDLE_TIMEOUT.toMillis());
+
+        // When
+        service.flush();
+
+        // Then
+        assertEquals(0, service.getOpenCount());
+        when(store.find(id)).thenReturn(Optional.of(new DraftResponse(id, SESSION_ID, "assistant", "Hello", null,
+            LocalDateTime.now(), LocalDateTime.now())));
+        service.append(SESSION_ID, id, new DraftDeltaRequest(" again", 5));
+        assertEquals("Hello again", service.getDraft(SESSION_ID, id).content());
+    }
+
+    @Test
+    void flush_PurgesAbandonedDraftsAtMostOncePerMinute() {
+        // When
+        service.flush();
+        service.flush();
+
+        // Then
+        verify(store, times(1)).purgeBefore(any(LocalDateTime.class));
+    }
+
+    @Test
+    void finalizeDraft_UnflushedDraft_StoresMessageWithoutDraftWrites() {
+        // Given
+        String id = service.open(SESSION_ID, new OpenDraftRequest(null, "Hello", "{\"doc\":1}")).id();
+        service.append(SESSION_ID, id, new DraftDeltaRequest(" world", null));
+
+        // When
+        MessageResponse message = service.finalizeDraft(SESSION_ID, id, new FinalizeDraftRequest(null));
+
+        // Then
+        assertEquals("Hello world", message.content());
+        verify(messageService).addMessage(SESSION_ID, new AddMessageRequest("assistant", "Hello world", "{\"doc\":1}"));
+        verify(store, never()).insertAll(anyList());
+        verify(store, never()).delete(anyString());
+        verifyNoInteractions(transactionManager);
+        assertEquals(0, service.getOpenCount());
+        assertEquals(1, service.getFinalized());
+        assertThrows(ResourceNotFoundException.class,
+            () -> service.finalizeDraft(SESSION_ID, id, new FinalizeDraftRequest(null)));
+    }
+
+    @Test
+    void finalizeDraft_FlushedDraft_DeletesRowInTheMessageTransaction() {
+        // Given
+        String id = open();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", null));
+        service.flush();
+        when(store.delete(id)).thenReturn(true);
+
+        // When
+        service.finalizeDraft(SESSION_ID, id, new FinalizeDraftRequest("{\"doc\":2}"));
+
+        // Then
+        verify(messageService).addMessage(SESSION_ID, new AddMessageRequest("assistant", "Hello", "{\"doc\":2}"));
+        verify(store).delete(id);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void finalizeDraft_RowDeletedElsewhere_RollsBackAndThrowsResourceNotFoundException() {
+        // Given
+        String id = open();
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hello", null));
+        service.flush();
+        when(store.delete(id)).thenReturn(false);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+            () -> service.finalizeDraft(SESSION_ID, id, new FinalizeDraftRequest(null)));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void finalizeDraft_MessageRejected_KeepsDraftOpen() {
+        // Given
+        String id = open();
+        when(messageService.addMessage(anyLong(), any(AddMessageRequest.class)))
+            .thenThrow(new ValidationException("Content is required"));
+
+        // When & Then
+        assertThrows(ValidationException.class,
+            () -> service.finalizeDraft(SESSION_ID, id, new FinalizeDraftRequest(null)));
+        service.append(SESSION_ID, id, new DraftDeltaRequest("Hi", null));
+        assertEquals("Hi", service.getDraft(SESSION_ID, id).content());
+    }
+
+    @Test
+    void discard_FlushedDraft_DeletesRowAndEndsDraft() {
+        // Given
+        String id = open();
+        service.flush();
+
+        // When
+        service.discard(SESSION_ID, id);
+
+        // Then
+        verify(store).delete(id);
+        assertEquals(0, service.getOpenCount());
+        assertEquals(1, service.getDiscarded());
+        assertThrows(ResourceNotFoundException.class, () -> service.getDraft(SESSION_ID, id));
+    }
+
+    @Test
+    void getDrafts_MergesDraftsInMemoryWithFlushedOnes() {
+        // Given
+        String inMemory = open();
+        service.append(SESSION_ID, inMemory, new DraftDeltaRequest("live", null));
+        LocalDateTime earlier = LocalDateTime.now().minusMinutes(10);
+        when(store.findBySessionId(SESSION_ID)).thenReturn(List.of(
+            new DraftResponse(inMemory, SESSION_ID, "assistant", "stale", null, earlier, earlier),
+            new DraftResponse("elsewhere", SESSION_ID, "assistant", "flushed", null, earlier, earlier)));
+
+        // When
+        List<DraftResponse> drafts = service.getDrafts(SESSION_ID);
+
+        // Then
+        assertEquals(List.of("flushed", "live"), drafts.stream().map(DraftResponse::content).toList());
+    }
+
+    @Test
+    void getDrafts_MissingSession_ThrowsResourceNotFoundException() {
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> service.getDrafts(2L));
+    }
+
+    @Test
+    void watch_Draft_EmitsSnapshotDeltasAndMessage() {
+        // Given
+        String id = service.open(SESSION_ID, new OpenDraftRequest(null, "He", null)).id();
+
+        // When & Then
+        StepVerifier.create(service.watch(SESSION_ID, id))
+            .assertNext(event -> assertEquals("He", ((DraftEvent.Snapshot) event).draft().content()))
+            .then(() -> service.append(SESSION_ID, id, new DraftDeltaRequest("llo", null)))
+            .expectNext(new DraftEvent.Delta(id, 2, "llo"))
+            .then(() -> service.finalizeDraft(SESSION_ID, id, new FinalizeDraftRequest(null)))
+            .assertNext(event -> assertEquals("Hello", ((DraftEvent.Finalized) event).message().content()))
+            .verifyComplete();
+    }
+
+    @Test
+    void watch_Discarded_EndsWithDiscardedEvent() {
+        // Given
+        String id = open();
+
+        // When & Then
+        StepVerifier.create(service.watch(SESSION_ID, id))
+            .expectNextMatches(event -> event instanceof DraftEvent.Snapshot)
+            .then(() -> service.discard(SESSION_ID, id))
+            .expectNext(new DraftEvent.Discarded(id))
+            .verifyComplete();
+    }
+
+    @Test
+    void watch_UnknownDraft_ErrorsWithResourceNotFoundException() {
+        // When & Then
+        StepVerifier.create(service.watch(SESSION_ID, "missing"))
+            .expectError(ResourceNotFoundException.class)
+            .verify();
+    }
+
+    @Test
+    void flush_WatchedIdleDraft_StaysInMemory() {
+        // Given
+        String id = open();
+        service.flush();
+        clock.addAndGet(IDLE_TIMEOUT.toMillis());
+
+        // When & Then
+        StepVerifier.create(service.watch(SESSION_ID, id))
+            .expectNextMatches(event -> event instanceof DraftEvent.Snapshot)
+            .then(service::flush)
+            .then(() -> assertEquals(1, service.getOpenCount()))
+            .thenCancel()
+            .verify();
+    }
+
+    private String open() {
+        return service.open(SESSION_ID, new OpenDraftRequest(null, null, null)).id();
+    }
+
+    private DraftService service(int maxOpen) {
+        return new DraftService(store, messageService, sessionStore, new MessageValidator(), transactionManager,
+            Duration.ofSeconds(5), 4096, IDLE_TIMEOUT, Duration.ofHours(24), maxOpen, 16, clock::get, false);
+    }
+}
@@ -0,0 +1,131 @@
+package com.codegensis.ragstore.draft;
+
+import com.codegensis.ragstore.dto.response.DraftResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DraftStoreTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 10, 0);
+    private static final LocalDateTime T2 = LocalDateTime.of(2024, 3, 1, 10, 5);
+
+    private JdbcTemplate jdbcTemplate;
+    private DraftStore store;
+    private long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V1__create_sessions_table.sql"),
+            new ClassPathResource("db/migration/V8__create_message_drafts_table.sql"))
+            .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO sessions (user_id, title) VALUES ('user_a', 'Chat')");
+        sessionId = jdbcTemplate.queryForObject("SELECT id FROM sessions", Long.class);
+        store = new DraftStore(jdbcTemplate);
+    }
+
+    @Test
+    void insertAll_Drafts_StoresEveryRow() {
+        // Given
+        DraftResponse first = draft("d1", "Hel", T1, T1);
+        DraftResponse second = draft("d2", "", T2, T2);
+
+        // When
+        store.insertAll(List.of(first, second));
+
+        // Then
+        assertEquals(first, store.find("d1").orElseThrow());
+        assertEquals(second, store.find("d2").orElseThrow());
+    }
+
+    @Test
+    void insertAll_MissingSession_ThrowsDataIntegrityViolation() {
+        // Given
+        DraftResponse orphan = new DraftResponse("d1", sessionId + 1, "assistant", "Hi", null, T1, T1);
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> store.insertAll(List.of(orphan)));
+    }
+
+    @Test
+    void updateAll_ExistingAndMissingRows_ReportsCountPerDraft() {
+        // Given
+        store.insertAll(List.of(draft("d1", "Hel", T1, T1)));
+
+        // When
+        int[] counts = store.updateAll(List.of(draft("d1", "Hello", T1, T2), draft("gone", "x", T1, T2)));
+
+        // Then
+        assertArrayEquals(new int[]{1, 0}, counts);
+        DraftResponse stored = store.find("d1").orElseThrow();
+        assertEquals("Hello", stored.content());
+        assertEquals(T2, stored.updatedAt());
+    }
+
+    @Test
+    void findBySessionId_OrdersByCreation() {
+        // Given
+        store.insertAll(List.of(draft("later", "b", T2, T2), draft("earlier", "a", T1, T1)));
+
+        // When
+        List<DraftResponse> drafts = store.findBySessionId(sessionId);
+
+        // Then
+        assertEquals(List.of("earlier", "later"), drafts.stream().map(DraftResponse::id).toList());
+    }
+
+    @Test
+    void delete_ReportsWhetherARowWasDeleted() {
+        // Given
+        store.insertAll(List.of(draft("d1", "Hi", T1, T1)));
+
+        // When & Then
+        assertTrue(store.delete("d1"));
+        assertFalse(store.delete("d1"));
+        assertTrue(store.find("d1").isEmpty());
+    }
+
+    @Test
+    void purgeBefore_DeletesOnlyDraftsUnchangedSince() {
+        // Given
+        store.insertAll(List.of(draft("stale", "a", T1, T1), draft("fresh", "b", T1, T2)));
+
+        // When
+        int purged = store.purgeBefore(T2);
+
+        // Then
+        assertEquals(1, purged);
+        assertTrue(store.find("stale").isEmpty());
+        assertTrue(store.find("fresh").isPresent());
+    }
+
+    @Test
+    void sessionDeleted_CascadesToDrafts() {
+        // Given
+        store.insertAll(List.of(draft("d1", "Hi", T1, T1)));
+
+        // When
+        jdbcTemplate.update("DELETE FROM sessions WHERE id = ?", sessionId);
+
+        // Then
+        assertTrue(store.find("d1").isEmpty());
+    }
+
+    private DraftResponse draft(String id, String content, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new DraftResponse(id, sessionId, "assistant", content, "{\"doc\":1}", createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,35 @@
+package com.codegensis.ragstore.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiKeyTest {
+
+    @Test
+    void onCreate_SetsCreatedAt() {
+        // Given
+        ApiKey apiKey = new ApiKey();
+
+        // When
+        apiKey.onCreate();
+
+        // Then
+        assertNotNull(apiKey.getCreatedAt());
+        assertFalse(apiKey.isRevoked());
+    }
+
+    @Test
+    void isRevoked_WithRevokedAt_ReturnsTrue() {
+        // Given
+        ApiKey apiKey = new ApiKey();
+
+        // When
+        apiKey.setRevokedAt(LocalDateTime.now());
+
+        // Then
+        assertTrue(apiKey.isRevoked());
+    }
+}
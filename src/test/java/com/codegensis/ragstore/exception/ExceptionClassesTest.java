@@ -54,6 +54,39 @@ class ExceptionClassesTest {
         assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getHttpStatus());
     }
 
+    @Test
+    void serviceOverloadedException_WithMessage_CreatesException() {
+        // When
+        ServiceOverloadedException exception = new ServiceOverloadedException("Too many open drafts");
+
+        // Then
+        assertEquals("Too many open drafts", exception.getMessage());
+        assertEquals(ErrorCode.SERVICE_OVERLOADED, exception.getErrorCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getHttpStatus());
+    }
+
+    @Test
+    void conflictException_WithMessage_CreatesException() {
+        // When
+        ConflictException exception = new ConflictException("In progress");
+
+        // Then
+        assertEquals("In progress", exception.getMessage());
+        assertEquals(ErrorCode.CONFLICT, exception.getErrorCode());
+        assertEquals(HttpStatus.CONFLICT, exception.getHttpStatus());
+    }
+
+    @Test
+    void idempotencyKeyReusedException_WithMessage_CreatesException() {
+        // When
+        IdempotencyKeyReusedException exception = new IdempotencyKeyReusedException("Key reused");
+
+        // Then
+        assertEquals("Key reused", exception.getMessage());
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, exception.getErrorCode());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getHttpStatus());
+    }
+
     @Test
     void apiException_GetErrorType_ReturnsCorrectType() {
         // Given
@@ -1,5 +1,7 @@
 package com.codegensis.ragstore.exception;
 
+import com.codegensis.ragstore.metrics.RagstoreMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,10 +22,12 @@ class GlobalExceptionHandlerTest {
 
     private GlobalExceptionHandler exceptionHandler;
     private WebRequest webRequest;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        exceptionHandler = new GlobalExceptionHandler();
+        meterRegistry = new SimpleMeterRegistry();
+        exceptionHandler = new GlobalExceptionHandler(new RagstoreMetrics(meterRegistry));
         webRequest = mock(WebRequest.class);
         when(webRequest.getDescription(false)).thenReturn("uri=/api/v1/sessions");
     }
@@ -186,4 +190,31 @@ class GlobalExceptionHandlerTest {
         assertNotNull(response.getBody());
         assertTrue(response.getBody().detail().contains("Validation failed"));
     }
+
+    @Test
+    void handleApiException_ValidationException_CountsValidationFailure() {
+        // Given
+        ValidationException ex = new ValidationException("Invalid input");
+
+        // When
+        exceptionHandler.handleApiException(ex, webRequest);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get(RagstoreMetrics.VALIDATION_FAILURES)
+            .tag("source", "validator")
+            .tag("endpoint", "none")
+            .counter().count());
+    }
+
+    @Test
+    void handleApiException_ResourceNotFoundException_DoesNotCountValidationFailure() {
+        // Given
+        ResourceNotFoundException ex = new ResourceNotFoundException("Session", 1L);
+
+        // When
+        exceptionHandler.handleApiException(ex, webRequest);
+
+        // Then
+        assertNull(meterRegistry.find(RagstoreMetrics.VALIDATION_FAILURES).counter());
+    }
 }
@@ -1,16 +1,22 @@
 package com.codegensis.ragstore.filter;
 
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.ApiKeyResolver;
 import com.codegensis.ragstore.constant.ApiConstants;
-import com.codegensis.ragstore.util.PathMatcher;
+import com.codegensis.ragstore.util.RequestRoute;
+import com.codegensis.ragstore.util.RouteClassifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,14 +24,17 @@ import static org.mockito.Mockito.*;
 class ApiKeyAuthenticationFilterTest {
 
     private ApiKeyAuthenticationFilter filter;
-    private PathMatcher pathMatcher;
+    private ApiKeyResolver apiKeyResolver;
+    private RouteClassifier routeClassifier;
     private HttpServletRequest request;
     private HttpServletResponse response;
     private FilterChain filterChain;
 
     @BeforeEach
     void setUp() {
-        pathMatcher = mock(PathMatcher.class);
+        apiKeyResolver = mock(ApiKeyResolver.class);
+        routeClassifier = mock(RouteClassifier.class);
+        filter = new ApiKeyAuthenticationFilter(apiKeyResolver, routeClassifier);
         request = mock(HttpServletRequest.class);
         response = mock(HttpServletResponse.class);
         filterChain = mock(FilterChain.class);
@@ -35,9 +44,8 @@ class ApiKeyAuthenticationFilterTest {
     @Test
     void doFilterInternal_PublicEndpoint_SkipsAuthentication() throws Exception {
         // Given
-        filter = new ApiKeyAuthenticationFilter("key1", "key2", pathMatcher);
         when(request.getRequestURI()).thenReturn("/actuator/health");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(true);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.PUBLIC_UNLOGGED);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -50,9 +58,8 @@ class ApiKeyAuthenticationFilterTest {
     @Test
     void doFilterInternal_MissingApiKey_ReturnsUnauthorized() throws Exception {
         // Given
-        filter = new ApiKeyAuthenticationFilter("key1", "key2", pathMatcher);
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn(null);
         
         StringWriter stringWriter = new StringWriter();
@@ -69,28 +76,35 @@ class ApiKeyAuthenticationFilterTest {
     }
 
     @Test
-    void doFilterInternal_ValidPrimaryApiKey_Authenticates() throws Exception {
+    void doFilterInternal_ValidApiKey_AuthenticatesWithScopes() throws Exception {
         // Given
-        filter = new ApiKeyAuthenticationFilter("key1", "key2", pathMatcher);
+        ApiKeyPrincipal principal = new ApiKeyPrincipal(7L, "tenant_a", "ingest", Set.of("read", "write"), 120);
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("key1");
+        when(apiKeyResolver.resolve(request)).thenReturn(principal);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertSame(principal, authentication.getPrincipal());
+        assertNull(authentication.getCredentials());
+        assertEquals("tenant_a", authentication.getName());
+        assertEquals(Set.of("SCOPE_read", "SCOPE_write"),
+            AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
     }
 
     @Test
-    void doFilterInternal_ValidSecondaryApiKey_Authenticates() throws Exception {
+    void doFilterInternal_BootstrapApiKey_Authenticates() throws Exception {
         // Given
-        filter = new ApiKeyAuthenticationFilter("key1", "key2", pathMatcher);
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("key2");
+        when(apiKeyResolver.resolve(request)).thenReturn(
+            new ApiKeyPrincipal(null, "default", "secondary", ApiKeyPrincipal.ALL_SCOPES, null));
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -103,9 +117,8 @@ class ApiKeyAuthenticationFilterTest {
     @Test
     void doFilterInternal_InvalidApiKey_ReturnsUnauthorized() throws Exception {
         // Given
-        filter = new ApiKeyAuthenticationFilter("key1", "key2", pathMatcher);
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("invalid-key");
         
         StringWriter stringWriter = new StringWriter();
@@ -123,9 +136,8 @@ class ApiKeyAuthenticationFilterTest {
     @Test
     void doFilterInternal_BlankApiKey_ReturnsUnauthorized() throws Exception {
         // Given
-        filter = new ApiKeyAuthenticationFilter("key1", "key2", pathMatcher);
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("   ");
         
         StringWriter stringWriter = new StringWriter();
@@ -0,0 +1,37 @@
+package com.codegensis.ragstore.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodySampleTest {
+
+    @Test
+    void append_WithinLimit_KeepsEverything() {
+        // Given
+        BodySample sample = new BodySample(16);
+
+        // When
+        sample.append("hello".getBytes(StandardCharsets.UTF_8), 0, 5);
+        sample.append('!');
+
+        // Then
+        assertEquals("hello!", sample.toString());
+    }
+
+    @Test
+    void append_BeyondLimit_KeepsPrefixAndMarksTruncated() {
+        // Given
+        BodySample sample = new BodySample(4);
+
+        // When
+        sample.append("abc".getBytes(StandardCharsets.UTF_8), 0, 3);
+        sample.append("defgh".getBytes(StandardCharsets.UTF_8), 0, 5);
+        sample.append('i');
+
+        // Then
+        assertEquals("abcd...(truncated)", sample.toString());
+    }
+}
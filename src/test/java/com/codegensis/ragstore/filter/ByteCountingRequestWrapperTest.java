@@ -0,0 +1,27 @@
+package com.codegensis.ragstore.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteCountingRequestWrapperTest {
+
+    @Test
+    void getInputStream_CountsAndSamplesBytesRead() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/sessions");
+        request.setContent("{\"userId\":\"user_1\"}".getBytes(StandardCharsets.UTF_8));
+        ByteCountingRequestWrapper wrapper = new ByteCountingRequestWrapper(request, new BodySample(9));
+
+        // When
+        byte[] body = wrapper.getInputStream().readAllBytes();
+
+        // Then
+        assertEquals("{\"userId\":\"user_1\"}", new String(body, StandardCharsets.UTF_8));
+        assertEquals(19, wrapper.getBytesRead());
+        assertEquals("{\"userId\"...(truncated)", wrapper.getSample().toString());
+    }
+}
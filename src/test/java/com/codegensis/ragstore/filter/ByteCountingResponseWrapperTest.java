@@ -0,0 +1,43 @@
+package com.codegensis.ragstore.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteCountingResponseWrapperTest {
+
+    @Test
+    void getOutputStream_CountsAndForwardsBytes() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ByteCountingResponseWrapper wrapper = new ByteCountingResponseWrapper(response, new BodySample(3));
+
+        // When
+        wrapper.getOutputStream().write("hello".getBytes(StandardCharsets.UTF_8));
+        wrapper.getOutputStream().write('!');
+
+        // Then
+        assertEquals(6, wrapper.getBytesWritten());
+        assertEquals("hello!", response.getContentAsString());
+        assertEquals("hel...(truncated)", wrapper.getSample().toString());
+    }
+
+    @Test
+    void getWriter_CountsCharacters() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ByteCountingResponseWrapper wrapper = new ByteCountingResponseWrapper(response, null);
+
+        // When
+        wrapper.getWriter().write("error page");
+        wrapper.getWriter().flush();
+
+        // Then
+        assertEquals(10, wrapper.getBytesWritten());
+        assertEquals("error page", response.getContentAsString());
+        assertNull(wrapper.getSample());
+    }
+}
@@ -0,0 +1,139 @@
+package com.codegensis.ragstore.filter;
+
+import com.codegensis.ragstore.concurrency.ConcurrencyLimiter;
+import com.codegensis.ragstore.constant.ApiConstants;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private ConcurrencyLimitFilter filter;
+    private ConcurrencyLimiter concurrencyLimiter;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        concurrencyLimiter = mock(ConcurrencyLimiter.class);
+        request = mock(HttpServletRequest.class);
+        response = mock(HttpServletResponse.class);
+        filterChain = mock(FilterChain.class);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn("/api/v1/sessions");
+    }
+
+    @Test
+    void doFilterInternal_ActuatorPath_BypassesLimiter() throws Exception {
+        // Given
+        when(request.getRequestURI()).thenReturn("/actuator/health");
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(concurrencyLimiter);
+    }
+
+    @Test
+    void doFilterInternal_PermitAvailable_ReleasesWithLatencySample() throws Exception {
+        // Given
+        when(concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Partition.READ)).thenReturn(3);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(concurrencyLimiter).release(eq(ConcurrencyLimiter.Partition.READ), eq(3), anyLong());
+    }
+
+    @Test
+    void doFilterInternal_WriteMethod_UsesWritePartition() throws Exception {
+        // Given
+        when(request.getMethod()).thenReturn("POST");
+        when(concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Partition.WRITE)).thenReturn(1);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(concurrencyLimiter).release(eq(ConcurrencyLimiter.Partition.WRITE), eq(1), anyLong());
+    }
+
+    @Test
+    void doFilterInternal_AsyncStarted_ReleasesWithoutSample() throws Exception {
+        // Given
+        when(concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Partition.READ)).thenReturn(1);
+        when(request.isAsyncStarted()).thenReturn(true);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(concurrencyLimiter).release(ConcurrencyLimiter.Partition.READ);
+        verify(concurrencyLimiter, never()).release(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void doFilterInternal_BulkImport_ReleasesWithoutSample() throws Exception {
+        // Given
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getRequestURI()).thenReturn(ApiConstants.IMPORTS_PATH);
+        when(concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Partition.WRITE)).thenReturn(1);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(concurrencyLimiter).release(ConcurrencyLimiter.Partition.WRITE);
+        verify(concurrencyLimiter, never()).release(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void doFilterInternal_ChainThrows_StillReleasesPermit() throws Exception {
+        // Given
+        when(concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Partition.READ)).thenReturn(1);
+        doThrow(new IllegalStateException("boom")).when(filterChain).doFilter(request, response);
+
+        // When
+        try {
+            filter.doFilterInternal(request, response, filterChain);
+        } catch (IllegalStateException expected) {
+            // propagated to the container
+        }
+
+        // Then
+        verify(concurrencyLimiter).release(ConcurrencyLimiter.Partition.READ);
+    }
+
+    @Test
+    void doFilterInternal_LimitReached_Returns503WithRetryAfter() throws Exception {
+        // Given
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+        when(concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Partition.READ)).thenReturn(-1);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(response).setStatus(503);
+        verify(response).setHeader("Retry-After", "1");
+        verify(filterChain, never()).doFilter(request, response);
+        verify(concurrencyLimiter, never()).release(any());
+        assertTrue(body.toString().contains("service-overloaded"));
+    }
+}
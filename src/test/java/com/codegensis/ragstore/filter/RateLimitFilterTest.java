@@ -1,9 +1,13 @@
 package com.codegensis.ragstore.filter;
 
-import com.codegensis.ragstore.config.RateLimitConfig;
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.ApiKeyResolver;
 import com.codegensis.ragstore.constant.ApiConstants;
-import com.codegensis.ragstore.util.PathMatcher;
-import io.github.bucket4j.Bucket;
+import com.codegensis.ragstore.ratelimit.RateLimitResult;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import com.codegensis.ragstore.ratelimit.RouteCostTable;
+import com.codegensis.ragstore.util.RequestRoute;
+import com.codegensis.ragstore.util.RouteClassifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -12,87 +16,154 @@ import org.junit.jupiter.api.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 class RateLimitFilterTest {
 
     private RateLimitFilter filter;
-    private RateLimitConfig rateLimitConfig;
-    private PathMatcher pathMatcher;
+    private RateLimiter rateLimiter;
+    private RateLimiter byteRateLimiter;
+    private RateLimiter unknownKeyRateLimiter;
+    private RouteCostTable routeCosts;
+    private ApiKeyResolver apiKeyResolver;
+    private RouteClassifier routeClassifier;
     private HttpServletRequest request;
     private HttpServletResponse response;
     private FilterChain filterChain;
 
     @BeforeEach
     void setUp() {
-        rateLimitConfig = mock(RateLimitConfig.class);
-        pathMatcher = mock(PathMatcher.class);
+        rateLimiter = mock(RateLimiter.class);
+        byteRateLimiter = mock(RateLimiter.class);
+        unknownKeyRateLimiter = mock(RateLimiter.class);
+        routeCosts = mock(RouteCostTable.class);
+        apiKeyResolver = mock(ApiKeyResolver.class);
+        routeClassifier = mock(RouteClassifier.class);
         request = mock(HttpServletRequest.class);
         response = mock(HttpServletResponse.class);
         filterChain = mock(FilterChain.class);
-        filter = new RateLimitFilter(rateLimitConfig, pathMatcher);
+        filter = new RateLimitFilter(rateLimiter, byteRateLimiter, unknownKeyRateLimiter, routeCosts,
+            apiKeyResolver, routeClassifier);
+        
+        when(rateLimiter.limit()).thenReturn(60L);
+        when(byteRateLimiter.limit()).thenReturn(1000L);
+        when(unknownKeyRateLimiter.limit()).thenReturn(60L);
+        when(routeCosts.costOf(anyString(), anyString())).thenReturn(1);
+        when(request.getContentLengthLong()).thenReturn(-1L);
+    }
+
+    private void givenApiRequest(String method, String apiKey) {
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn("/api/v1/sessions");
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
+        when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn(apiKey);
+        when(apiKeyResolver.resolve(request)).thenReturn(
+            new ApiKeyPrincipal(1L, "tenant_a", "default", Set.of("read", "write"), null));
+        when(apiKeyResolver.isResolvedWithoutLookup(request)).thenReturn(true);
+        when(request.getRemoteAddr()).thenReturn("203.0.113.7");
+    }
+
+    private void givenKeyNeedingLookup(String apiKey) {
+        givenApiRequest("GET", apiKey);
+        when(apiKeyResolver.isResolvedWithoutLookup(request)).thenReturn(false);
+    }
+
+    private void givenUnknownKeyRequest(String apiKey) {
+        givenApiRequest("POST", apiKey);
+        when(apiKeyResolver.resolve(request)).thenReturn(null);
+    }
+
+    private StringWriter givenResponseBody() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter));
+        return stringWriter;
     }
 
     @Test
     void doFilterInternal_SkipLoggingPath_ContinuesFilterChain() throws Exception {
         // Given
         when(request.getRequestURI()).thenReturn("/actuator");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(true);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.PUBLIC_UNLOGGED);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(rateLimitConfig, never()).getApiKeyBucket(anyString());
+        verify(rateLimiter, never()).tryConsume(anyString(), anyInt(), anyLong());
     }
 
     @Test
     void doFilterInternal_NoApiKey_ContinuesFilterChain() throws Exception {
         // Given
-        when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
-        when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn(null);
+        givenApiRequest("GET", null);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(rateLimitConfig, never()).getApiKeyBucket(anyString());
+        verify(rateLimiter, never()).tryConsume(anyString(), anyInt(), anyLong());
     }
 
     @Test
     void doFilterInternal_ValidApiKeyWithinLimit_ContinuesFilterChain() throws Exception {
         // Given
-        Bucket bucket = mock(Bucket.class);
-        when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
-        when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("test-key");
-        when(rateLimitConfig.getApiKeyBucket("test-key")).thenReturn(bucket);
-        when(bucket.tryConsume(1)).thenReturn(true);
+        givenApiRequest("GET", "test-key");
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 30_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(response).setHeader(RateLimitFilter.LIMIT_HEADER, "60");
+        verify(response).setHeader(RateLimitFilter.REMAINING_HEADER, "59");
+        verify(response).setHeader(RateLimitFilter.RESET_HEADER, "30");
+        verify(byteRateLimiter, never()).tryConsume(anyString(), anyInt());
+    }
+
+    @Test
+    void doFilterInternal_KeyWithOwnLimit_UsesKeyLimit() throws Exception {
+        // Given
+        givenApiRequest("GET", "test-key");
+        when(apiKeyResolver.resolve(request)).thenReturn(
+            new ApiKeyPrincipal(7L, "tenant_a", "ingest", Set.of("read"), 600));
+        when(rateLimiter.tryConsume("test-key", 1, 600L)).thenReturn(new RateLimitResult(true, 599, 60_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(response).setHeader(RateLimitFilter.LIMIT_HEADER, "600");
+        verify(response).setHeader(RateLimitFilter.REMAINING_HEADER, "599");
+    }
+
+    @Test
+    void doFilterInternal_WeightedRoute_ChargesRouteCost() throws Exception {
+        // Given
+        givenApiRequest("GET", "test-key");
+        when(routeCosts.costOf("GET", "/api/v1/sessions")).thenReturn(5);
+        when(rateLimiter.tryConsume("test-key", 5, 60L)).thenReturn(new RateLimitResult(true, 55, 60_000));
 
         // When
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
+        verify(response).setHeader(RateLimitFilter.COST_HEADER, "5");
     }
 
     @Test
     void doFilterInternal_RateLimitExceeded_Returns429() throws Exception {
         // Given
-        Bucket bucket = mock(Bucket.class);
-        when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
-        when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("test-key");
-        when(rateLimitConfig.getApiKeyBucket("test-key")).thenReturn(bucket);
-        when(bucket.tryConsume(1)).thenReturn(false);
-        
-        StringWriter stringWriter = new StringWriter();
-        PrintWriter printWriter = new PrintWriter(stringWriter);
-        when(response.getWriter()).thenReturn(printWriter);
+        givenApiRequest("GET", "test-key");
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(false, 0, 42_500));
+        StringWriter body = givenResponseBody();
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -100,22 +171,169 @@ class RateLimitFilterTest {
         // Then
         verify(response).setStatus(429);
         verify(response).setContentType("application/json");
-        verify(response).setHeader("Retry-After", "60");
+        verify(response).setHeader("Retry-After", "43");
+        verify(filterChain, never()).doFilter(any(), any());
+        assertTrue(body.toString().contains("\"retryAfter\":43"));
+    }
+
+    @Test
+    void doFilterInternal_BodyWithinByteLimit_ChargesContentLength() throws Exception {
+        // Given
+        givenApiRequest("POST", "test-key");
+        when(request.getContentLengthLong()).thenReturn(300L);
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+        when(byteRateLimiter.tryConsume("test-key", 300)).thenReturn(new RateLimitResult(true, 700, 60_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(response).setHeader(RateLimitFilter.BYTES_LIMIT_HEADER, "1000");
+        verify(response).setHeader(RateLimitFilter.BYTES_REMAINING_HEADER, "700");
+    }
+
+    @Test
+    void doFilterInternal_ByteLimitExceeded_RefundsRequestTokensAndReturns429() throws Exception {
+        // Given
+        givenApiRequest("POST", "test-key");
+        when(request.getContentLengthLong()).thenReturn(5000L);
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+        when(byteRateLimiter.tryConsume("test-key", 5000)).thenReturn(new RateLimitResult(false, 700, 10_000));
+        givenResponseBody();
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "10");
+        verify(rateLimiter).refund("test-key", 1, 60L);
         verify(filterChain, never()).doFilter(any(), any());
     }
 
+    @Test
+    void doFilterInternal_ImportUpload_ExemptFromByteLimit() throws Exception {
+        // Given
+        givenApiRequest("POST", "test-key");
+        when(request.getRequestURI()).thenReturn(ApiConstants.IMPORTS_PATH);
+        when(request.getContentLengthLong()).thenReturn(50_000_000L);
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(byteRateLimiter);
+    }
+
+    @Test
+    void doFilterInternal_ChunkedBody_ChargesMaximumBodySize() throws Exception {
+        // Given
+        givenApiRequest("POST", "test-key");
+        when(request.getHeader("Transfer-Encoding")).thenReturn("chunked");
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+        when(byteRateLimiter.tryConsume(eq("test-key"), anyInt())).thenReturn(new RateLimitResult(true, 0, 60_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(byteRateLimiter).tryConsume("test-key", 64 * 1024);
+    }
+
+    @Test
+    void doFilterInternal_UnknownKey_ChargesClientAddressOnTheLocalTable() throws Exception {
+        // Given
+        givenUnknownKeyRequest("guessed-key");
+        when(request.getContentLengthLong()).thenReturn(300L);
+        when(unknownKeyRateLimiter.tryConsume("203.0.113.7", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(response).setHeader(RateLimitFilter.REMAINING_HEADER, "59");
+        verifyNoInteractions(byteRateLimiter);
+        verify(rateLimiter, never()).tryConsume(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void doFilterInternal_UnknownKeysOverLimit_Returns429() throws Exception {
+        // Given
+        givenUnknownKeyRequest("another-guess");
+        when(unknownKeyRateLimiter.tryConsume("203.0.113.7", 1, 60L)).thenReturn(new RateLimitResult(false, 0, 5_000));
+        givenResponseBody();
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(response).setStatus(429);
+        verify(filterChain, never()).doFilter(any(), any());
+        verify(rateLimiter, never()).tryConsume(anyString(), anyInt(), anyLong());
+    }
+
     @Test
     void doFilterInternal_BlankApiKey_ContinuesFilterChain() throws Exception {
         // Given
-        when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
-        when(request.getHeader(ApiConstants.API_KEY_HEADER)).thenReturn("   ");
+        givenApiRequest("GET", "   ");
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(rateLimiter, never()).tryConsume(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    void doFilterInternal_LookupOverAddressLimit_Returns429WithoutResolving() throws Exception {
+        // Given
+        givenKeyNeedingLookup("sprayed-key");
+        when(unknownKeyRateLimiter.tryConsume("203.0.113.7", 1, 60L)).thenReturn(new RateLimitResult(false, 0, 5_000));
+        givenResponseBody();
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(response).setStatus(429);
+        verify(apiKeyResolver, never()).resolve(request);
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilterInternal_LookupFindsValidKey_RefundsTheAddress() throws Exception {
+        // Given
+        givenKeyNeedingLookup("test-key");
+        when(unknownKeyRateLimiter.tryConsume("203.0.113.7", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+        when(rateLimiter.tryConsume("test-key", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(unknownKeyRateLimiter).refund("203.0.113.7", 1, 60L);
+        verify(rateLimiter).tryConsume("test-key", 1, 60L);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_LookupFindsUnknownKey_ChargesTheAddressOnce() throws Exception {
+        // Given
+        givenKeyNeedingLookup("guessed-key");
+        when(apiKeyResolver.resolve(request)).thenReturn(null);
+        when(unknownKeyRateLimiter.tryConsume("203.0.113.7", 1, 60L)).thenReturn(new RateLimitResult(true, 59, 60_000));
 
         // When
         filter.doFilterInternal(request, response, filterChain);
 
         // Then
+        verify(unknownKeyRateLimiter, times(1)).tryConsume("203.0.113.7", 1, 60L);
+        verify(unknownKeyRateLimiter, never()).refund(anyString(), anyInt(), anyLong());
         verify(filterChain).doFilter(request, response);
-        verify(rateLimitConfig, never()).getApiKeyBucket(anyString());
     }
 }
@@ -1,31 +1,42 @@
 package com.codegensis.ragstore.filter;
 
-import com.codegensis.ragstore.util.PathMatcher;
+import com.codegensis.ragstore.logging.LogSampler;
+import com.codegensis.ragstore.util.RequestRoute;
+import com.codegensis.ragstore.util.RouteClassifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.MDC;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class RequestLoggingFilterTest {
 
     private RequestLoggingFilter filter;
-    private PathMatcher pathMatcher;
+    private RouteClassifier routeClassifier;
+    private LogSampler logSampler;
     private HttpServletRequest request;
     private HttpServletResponse response;
     private FilterChain filterChain;
 
     @BeforeEach
     void setUp() {
-        pathMatcher = mock(PathMatcher.class);
+        routeClassifier = mock(RouteClassifier.class);
         request = mock(HttpServletRequest.class);
         response = mock(HttpServletResponse.class);
         filterChain = mock(FilterChain.class);
-        filter = new RequestLoggingFilter(pathMatcher);
+        logSampler = new LogSampler(1.0, "", new SimpleMeterRegistry());
+        filter = new RequestLoggingFilter(routeClassifier, logSampler, 0, 0.0);
         MDC.clear();
     }
 
@@ -33,7 +44,7 @@ class RequestLoggingFilterTest {
     void doFilterInternal_SkipLoggingPath_ContinuesWithoutLogging() throws Exception {
         // Given
         when(request.getRequestURI()).thenReturn("/actuator");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(true);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.PUBLIC_UNLOGGED);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -47,7 +58,7 @@ class RequestLoggingFilterTest {
     void doFilterInternal_RegularPath_LogsAndContinues() throws Exception {
         // Given
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getMethod()).thenReturn("GET");
         when(request.getQueryString()).thenReturn("userId=test");
         when(request.getParameter("userId")).thenReturn("test");
@@ -64,7 +75,7 @@ class RequestLoggingFilterTest {
     void doFilterInternal_Exception_LogsErrorAndClearsMDC() throws Exception {
         // Given
         when(request.getRequestURI()).thenReturn("/api/v1/sessions");
-        when(pathMatcher.matchesAny(anyString(), any())).thenReturn(false);
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
         when(request.getMethod()).thenReturn("GET");
         doThrow(new RuntimeException("Test exception")).when(filterChain).doFilter(any(), any());
 
@@ -75,4 +86,103 @@ class RequestLoggingFilterTest {
         
         assertNull(MDC.get("requestId")); // Cleared in finally
     }
+
+    @Test
+    void doFilterInternal_RegularPath_PassesResponseThroughUnbuffered() throws Exception {
+        // Given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
+        FilterChain writingChain = (req, res) -> {
+            res.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+            // Bytes must reach the real response before the filter returns
+            assertEquals("{\"id\":1}", mockResponse.getContentAsString());
+        };
+
+        // When
+        filter.doFilterInternal(mockRequest, mockResponse, writingChain);
+
+        // Then
+        assertEquals("{\"id\":1}", mockResponse.getContentAsString());
+    }
+
+    @Test
+    void doFilterInternal_BodySamplingEnabled_WrapsRequestForSampling() throws Exception {
+        // Given
+        filter = new RequestLoggingFilter(routeClassifier, logSampler, 16, 1.0);
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("POST", "/api/v1/sessions");
+        mockRequest.setContent("{\"userId\":\"user_1\",\"title\":\"A long title\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
+        FilterChain readingChain = (req, res) -> {
+            assertInstanceOf(ByteCountingRequestWrapper.class, req);
+            assertEquals(42, req.getInputStream().readAllBytes().length);
+            res.getOutputStream().write(new byte[100]);
+        };
+
+        // When
+        filter.doFilterInternal(mockRequest, mockResponse, readingChain);
+
+        // Then
+        assertEquals(100, mockResponse.getContentAsByteArray().length);
+    }
+
+    @Test
+    void doFilterInternal_AsyncRequest_LogsOnCompletionAndClearsMDC() throws Exception {
+        // Given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/api/v1/stream/sessions/1/messages/tail");
+        mockRequest.setAsyncSupported(true);
+        MockHttpServletResponse mockResponse = new MockHttpServletResponse();
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
+        FilterChain asyncChain = (req, res) -> req.startAsync(req, res);
+
+        // When
+        filter.doFilterInternal(mockRequest, mockResponse, asyncChain);
+
+        // Then
+        MockAsyncContext asyncContext = (MockAsyncContext) mockRequest.getAsyncContext();
+        assertEquals(1, asyncContext.getListeners().size());
+        assertNull(MDC.get("requestId"));
+        asyncContext.complete();
+        assertNull(MDC.get("requestId"));
+    }
+
+    @Test
+    void newRequestId_ReturnsEightLowercaseHexChars() {
+        // When
+        String requestId = RequestLoggingFilter.newRequestId();
+
+        // Then
+        assertTrue(requestId.matches("[0-9a-f]{8}"));
+    }
+
+    @Test
+    void doFilterInternal_SampledOutSuccess_SuppressesLogLine() throws Exception {
+        // Given
+        logSampler.setRate("GET", 0.0);
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/api/v1/sessions");
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
+
+        // When
+        filter.doFilterInternal(mockRequest, new MockHttpServletResponse(), filterChain);
+
+        // Then
+        assertEquals(0, logSampler.getLoggedCount());
+        assertEquals(1, logSampler.getSuppressedCount());
+    }
+
+    @Test
+    void doFilterInternal_SampledOutError_StillLogs() throws Exception {
+        // Given
+        logSampler.setRate("GET", 0.0);
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest("GET", "/api/v1/sessions/1/messages");
+        when(routeClassifier.classify(any(HttpServletRequest.class))).thenReturn(RequestRoute.API);
+        FilterChain notFoundChain = (req, res) -> ((HttpServletResponse) res).setStatus(404);
+
+        // When
+        filter.doFilterInternal(mockRequest, new MockHttpServletResponse(), notFoundChain);
+
+        // Then
+        assertEquals(1, logSampler.getLoggedCount());
+    }
 }
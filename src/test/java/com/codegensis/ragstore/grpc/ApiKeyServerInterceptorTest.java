@@ -0,0 +1,252 @@
+package com.codegensis.ragstore.grpc;
+
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.VerifiedKeyCache;
+import com.codegensis.ragstore.grpc.v1.AppendMessagesResponse;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import com.codegensis.ragstore.grpc.v1.ChatStorageGrpc;
+import com.codegensis.ragstore.grpc.v1.ReadMessagesRequest;
+import com.codegensis.ragstore.ratelimit.RateLimitResult;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import com.codegensis.ragstore.ratelimit.RouteCostTable;
+import com.codegensis.ragstore.service.ApiKeyService;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApiKeyServerInterceptorTest {
+
+    @Mock
+    private ApiKeyService apiKeyService;
+
+    @Mock
+    private RateLimiter apiKeyRateLimiter;
+
+    @Mock
+    private RateLimiter unknownKeyRateLimiter;
+
+    private final AtomicReference<ApiKeyPrincipal> seenPrincipal = new AtomicReference<>();
+    private ChatStorageGrpc.ChatStorageImplBase service;
+    private InProcessGrpcHarness harness;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Records the principal the interceptor put in the call's context
+        service = new ChatStorageGrpc.ChatStorageImplBase() {
+            @Override
+            public void readMessages(ReadMessagesRequest request, StreamObserver<ChatMessage> responseObserver) {
+                seenPrincipal.set(ApiKeyServerInterceptor.PRINCIPAL.get());
+                responseObserver.onCompleted();
+            }
+        };
+        harness = new InProcessGrpcHarness(service, new ApiKeyServerInterceptor(apiKeyService,
+            RateLimiter.UNLIMITED, RateLimiter.UNLIMITED, new RouteCostTable("")));
+    }
+
+    private void useLimiters(String routeCosts) throws Exception {
+        harness.close();
+        harness = new InProcessGrpcHarness(service, new ApiKeyServerInterceptor(apiKeyService,
+            apiKeyRateLimiter, unknownKeyRateLimiter, new RouteCostTable(routeCosts)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void interceptCall_MissingKey_Unauthenticated() {
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+            () -> ChatStorageGrpc.newBlockingStub(harness.channel()).readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.UNAUTHENTICATED, error.getStatus().getCode());
+        verifyNoInteractions(apiKeyService);
+    }
+
+    @Test
+    void interceptCall_InvalidKey_Unauthenticated() {
+        // Given
+        when(apiKeyService.authenticate("wrong")).thenReturn(Optional.empty());
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub("wrong").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.UNAUTHENTICATED, error.getStatus().getCode());
+        assertEquals("Invalid API key", error.getStatus().getDescription());
+    }
+
+    @Test
+    void interceptCall_ReadScope_ExposesPrincipal() {
+        // Given
+        ApiKeyPrincipal principal = principal(Set.of(ApiKeyPrincipal.SCOPE_READ));
+        when(apiKeyService.authenticate("reader")).thenReturn(Optional.of(principal));
+
+        // When
+        boolean hasNext = blockingStub("reader").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext();
+
+        // Then
+        assertFalse(hasNext);
+        assertEquals(principal, seenPrincipal.get());
+    }
+
+    @Test
+    void interceptCall_AppendWithoutWriteScope_PermissionDenied() {
+        // Given
+        when(apiKeyService.authenticate("reader")).thenReturn(Optional.of(principal(Set.of(ApiKeyPrincipal.SCOPE_READ))));
+        CompletableFuture<AppendMessagesResponse> result = new CompletableFuture<>();
+
+        // When
+        asyncStub("reader").appendMessages(new StreamObserver<>() {
+            @Override
+            public void onNext(AppendMessagesResponse value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        }).onCompleted();
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        StatusRuntimeException status = (StatusRuntimeException) error.getCause();
+        assertEquals(Status.Code.PERMISSION_DENIED, status.getStatus().getCode());
+        assertEquals("API key lacks the write scope", status.getStatus().getDescription());
+    }
+
+    @Test
+    void interceptCall_KeyOverItsLimit_ResourceExhausted() throws Exception {
+        // Given
+        useLimiters("POST /ragstore.v1.ChatStorage/ReadMessages=3");
+        ApiKeyPrincipal principal = principal(Set.of(ApiKeyPrincipal.SCOPE_READ));
+        when(apiKeyService.findCached("reader")).thenReturn(new VerifiedKeyCache.Entry(principal, Long.MAX_VALUE));
+        when(apiKeyService.authenticate("reader")).thenReturn(Optional.of(principal));
+        when(apiKeyRateLimiter.limit()).thenReturn(60L);
+        when(apiKeyRateLimiter.tryConsume("reader", 3, 60L)).thenReturn(new RateLimitResult(false, 0L, 1_000L));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub("reader").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, error.getStatus().getCode());
+        assertNull(seenPrincipal.get());
+    }
+
+    @Test
+    void interceptCall_CachedKeyWithOwnLimit_ChargesOnlyItsLimit() throws Exception {
+        // Given
+        useLimiters("");
+        ApiKeyPrincipal principal = new ApiKeyPrincipal(1L, "tenant-a", "test", Set.of(ApiKeyPrincipal.SCOPE_READ), 500);
+        when(apiKeyService.findCached("reader")).thenReturn(new VerifiedKeyCache.Entry(principal, Long.MAX_VALUE));
+        when(apiKeyService.authenticate("reader")).thenReturn(Optional.of(principal));
+        when(apiKeyRateLimiter.tryConsume("reader", 1, 500L)).thenReturn(new RateLimitResult(true, 499L, 60_000L));
+
+        // When
+        blockingStub("reader").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext();
+
+        // Then
+        assertEquals(principal, seenPrincipal.get());
+        verifyNoInteractions(unknownKeyRateLimiter);
+    }
+
+    @Test
+    void interceptCall_KeyNeedingLookup_RefundsTheAddressOnceValid() throws Exception {
+        // Given
+        useLimiters("");
+        ApiKeyPrincipal principal = principal(Set.of(ApiKeyPrincipal.SCOPE_READ));
+        when(apiKeyService.authenticate("reader")).thenReturn(Optional.of(principal));
+        when(unknownKeyRateLimiter.tryConsume(anyString(), eq(1))).thenReturn(new RateLimitResult(true, 59L, 60_000L));
+        when(apiKeyRateLimiter.limit()).thenReturn(60L);
+        when(apiKeyRateLimiter.tryConsume("reader", 1, 60L)).thenReturn(new RateLimitResult(true, 59L, 60_000L));
+
+        // When
+        blockingStub("reader").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext();
+
+        // Then
+        assertEquals(principal, seenPrincipal.get());
+        verify(unknownKeyRateLimiter).refund(anyString(), eq(1));
+    }
+
+    @Test
+    void interceptCall_LookupOverAddressLimit_ResourceExhaustedWithoutQuery() throws Exception {
+        // Given
+        useLimiters("");
+        when(unknownKeyRateLimiter.tryConsume(anyString(), eq(1))).thenReturn(new RateLimitResult(false, 0L, 1_000L));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub("sprayed").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, error.getStatus().getCode());
+        verify(apiKeyService, never()).authenticate(anyString());
+        verifyNoInteractions(apiKeyRateLimiter);
+    }
+
+    @Test
+    void interceptCall_CachedUnknownKeyOverAddressLimit_ResourceExhausted() throws Exception {
+        // Given
+        useLimiters("");
+        when(apiKeyService.findCached("wrong")).thenReturn(new VerifiedKeyCache.Entry(null, Long.MAX_VALUE));
+        when(apiKeyService.authenticate("wrong")).thenReturn(Optional.empty());
+        when(unknownKeyRateLimiter.tryConsume(anyString(), eq(1))).thenReturn(new RateLimitResult(false, 0L, 1_000L));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class,
+            () -> blockingStub("wrong").readMessages(ReadMessagesRequest.getDefaultInstance()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, error.getStatus().getCode());
+        verifyNoInteractions(apiKeyRateLimiter);
+    }
+
+    private ChatStorageGrpc.ChatStorageBlockingStub blockingStub(String apiKey) {
+        return ChatStorageGrpc.newBlockingStub(harness.channel())
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers(apiKey)));
+    }
+
+    private ChatStorageGrpc.ChatStorageStub asyncStub(String apiKey) {
+        return ChatStorageGrpc.newStub(harness.channel())
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers(apiKey)));
+    }
+
+    private static Metadata headers(String apiKey) {
+        Metadata headers = new Metadata();
+        headers.put(ApiKeyServerInterceptor.API_KEY, apiKey);
+        return headers;
+    }
+
+    private static ApiKeyPrincipal principal(Set<String> scopes) {
+        return new ApiKeyPrincipal(1L, "tenant-a", "test", scopes, null);
+    }
+}
@@ -0,0 +1,297 @@
+package com.codegensis.ragstore.grpc;
+
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.grpc.v1.AppendMessageRequest;
+import com.codegensis.ragstore.grpc.v1.AppendMessagesResponse;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import com.codegensis.ragstore.grpc.v1.ChatStorageGrpc;
+import com.codegensis.ragstore.grpc.v1.ReadMessagesRequest;
+import com.codegensis.ragstore.grpc.v1.WatchSessionRequest;
+import com.codegensis.ragstore.mapper.ChatMessageProtoMapper;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import com.codegensis.ragstore.ratelimit.RouteCostTable;
+import com.codegensis.ragstore.service.ApiKeyService;
+import com.codegensis.ragstore.service.MessageService;
+import com.codegensis.ragstore.service.ReactiveChatService;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatStorageGrpcServiceTest {
+
+    private static final String API_KEY = "test-key";
+
+    @Mock
+    private MessageService messageService;
+
+    @Mock
+    private ReactiveChatService reactiveChatService;
+
+    @Mock
+    private ApiKeyService apiKeyService;
+
+    private InProcessGrpcHarness harness;
+    private ChatStorageGrpc.ChatStorageStub asyncStub;
+    private ChatStorageGrpc.ChatStorageBlockingStub blockingStub;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(apiKeyService.authenticate(API_KEY)).thenReturn(Optional.of(
+            new ApiKeyPrincipal(1L, "tenant-a", "test", ApiKeyPrincipal.ALL_SCOPES, null)));
+        ChatStorageGrpcService service = new ChatStorageGrpcService(
+            messageService, reactiveChatService, new ChatMessageProtoMapper(), 2);
+        harness = new InProcessGrpcHarness(service, new ApiKeyServerInterceptor(apiKeyService,
+            RateLimiter.UNLIMITED, RateLimiter.UNLIMITED, new RouteCostTable("")));
+
+        Metadata headers = new Metadata();
+        headers.put(ApiKeyServerInterceptor.API_KEY, API_KEY);
+        asyncStub = ChatStorageGrpc.newStub(harness.channel())
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+        blockingStub = ChatStorageGrpc.newBlockingStub(harness.channel())
+            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Test
+    void appendMessages_MoreThanBatchSize_StoresInBatches() throws Exception {
+        // Given
+        when(messageService.addMessages(eq(1L), anyList())).thenAnswer(invocation -> stored(1L, invocation.getArgument(1)));
+
+        // When
+        AppendMessagesResponse response = append(request(1L, "a"), request(1L, "b"), request(1L, "c"),
+            request(1L, "d"), request(1L, "e"));
+
+        // Then
+        assertEquals(5, response.getAppendedCount());
+        assertEquals(5L, response.getLastMessageId());
+        assertEquals(5L, response.getLastSeq());
+        verify(messageService, times(2)).addMessages(eq(1L), argThat(batch -> batch.size() == 2));
+        verify(messageService).addMessages(eq(1L), argThat(batch -> batch.size() == 1));
+    }
+
+    @Test
+    void appendMessages_SessionChanges_FlushesEachSession() throws Exception {
+        // Given
+        when(messageService.addMessages(anyLong(), anyList()))
+            .thenAnswer(invocation -> stored(invocation.getArgument(0), invocation.getArgument(1)));
+
+        // When
+        AppendMessagesResponse response = append(request(1L, "a"), request(2L, "b"), request(2L, "c"));
+
+        // Then
+        assertEquals(3, response.getAppendedCount());
+        verify(messageService).addMessages(eq(1L), argThat(batch -> batch.size() == 1));
+        verify(messageService).addMessages(eq(2L), argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    void appendMessages_ContextUnset_PassesNullContext() throws Exception {
+        // Given
+        when(messageService.addMessages(eq(1L), anyList())).thenAnswer(invocation -> stored(1L, invocation.getArgument(1)));
+        AppendMessageRequest withContext = request(1L, "a").toBuilder().setContext("{}").build();
+
+        // When
+        append(request(1L, "a"), withContext);
+
+        // Then
+        verify(messageService).addMessages(1L, List.of(
+            new AddMessageRequest("user", "a", null), new AddMessageRequest("user", "a", "{}")));
+    }
+
+    @Test
+    void appendMessages_InvalidBatch_FailsWithStoredCount() {
+        // Given
+        when(messageService.addMessages(eq(1L), anyList()))
+            .thenAnswer(invocation -> stored(1L, invocation.getArgument(1)))
+            .thenThrow(new ValidationException("Content is required"));
+
+        // When
+        ExecutionException error = assertThrows(ExecutionException.class,
+            () -> append(request(1L, "a"), request(1L, "b"), request(1L, ""), request(1L, "d")));
+
+        // Then
+        StatusRuntimeException status = (StatusRuntimeException) error.getCause();
+        assertEquals(Status.Code.INVALID_ARGUMENT, status.getStatus().getCode());
+        assertEquals("Content is required", status.getStatus().getDescription());
+        assertEquals("2", status.getTrailers().get(ChatStorageGrpcService.APPENDED_COUNT));
+    }
+
+    @Test
+    void appendMessages_EmptyStream_ReturnsZeroCount() throws Exception {
+        // When
+        AppendMessagesResponse response = append();
+
+        // Then
+        assertEquals(0, response.getAppendedCount());
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void readMessages_StoredMessages_StreamsInOrder() {
+        // Given
+        when(reactiveChatService.getMessagesAfter(1L, 5L, 100))
+            .thenReturn(Flux.just(response(6L, 1L, "a"), response(7L, 1L, "b")));
+
+        // When
+        Iterator<ChatMessage> messages = blockingStub.readMessages(
+            ReadMessagesRequest.newBuilder().setSessionId(1L).setAfterSeq(5L).build());
+
+        // Then
+        List<Long> ids = new ArrayList<>();
+        messages.forEachRemaining(message -> ids.add(message.getId()));
+        assertEquals(List.of(6L, 7L), ids);
+    }
+
+    @Test
+    void readMessages_SessionNotFound_ReturnsNotFound() {
+        // Given
+        when(reactiveChatService.getMessagesAfter(9L, 0L, 10))
+            .thenReturn(Flux.error(new ResourceNotFoundException("Session", 9L)));
+
+        // When
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class, () -> blockingStub.readMessages(
+            ReadMessagesRequest.newBuilder().setSessionId(9L).setLimit(10).build()).hasNext());
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, error.getStatus().getCode());
+    }
+
+    @Test
+    void readMessages_SlowClient_PullsOnlyWhatClientRequested() throws Exception {
+        // Given
+        AtomicLong pulled = new AtomicLong();
+        when(reactiveChatService.getMessagesAfter(1L, 0L, 100)).thenReturn(
+            Flux.range(1, 10).map(i -> response(i, 1L, "m" + i)).doOnRequest(pulled::addAndGet));
+        List<ChatMessage> received = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        List<ClientCallStreamObserver<?>> calls = new ArrayList<>();
+
+        // When
+        asyncStub.readMessages(ReadMessagesRequest.newBuilder().setSessionId(1L).build(),
+            new ClientResponseObserver<ReadMessagesRequest, ChatMessage>() {
+                @Override
+                public void beforeStart(ClientCallStreamObserver<ReadMessagesRequest> requestStream) {
+                    requestStream.disableAutoRequestWithInitial(2);
+                    calls.add(requestStream);
+                }
+
+                @Override
+                public void onNext(ChatMessage value) {
+                    received.add(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    done.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    done.complete(null);
+                }
+            });
+
+        // Then
+        assertEquals(2, received.size());
+        assertEquals(2, pulled.get());
+        assertFalse(done.isDone());
+
+        calls.get(0).request(8);
+        done.get(5, TimeUnit.SECONDS);
+        assertEquals(10, received.size());
+    }
+
+    @Test
+    void watchSession_SubscriberOverflow_ReturnsResourceExhausted() {
+        // Given
+        when(reactiveChatService.tailMessages(1L, 3L, 100)).thenReturn(
+            Flux.concat(Flux.just(response(4L, 1L, "a")), Flux.error(Exceptions.failWithOverflow())));
+
+        // When
+        Iterator<ChatMessage> messages = blockingStub.watchSession(
+            WatchSessionRequest.newBuilder().setSessionId(1L).setAfterSeq(3L).build());
+
+        // Then
+        assertEquals(4L, messages.next().getId());
+        StatusRuntimeException error = assertThrows(StatusRuntimeException.class, messages::hasNext);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, error.getStatus().getCode());
+    }
+
+    private AppendMessagesResponse append(AppendMessageRequest... requests) throws Exception {
+        CompletableFuture<AppendMessagesResponse> result = new CompletableFuture<>();
+        StreamObserver<AppendMessageRequest> requestStream = asyncStub.appendMessages(new StreamObserver<>() {
+            @Override
+            public void onNext(AppendMessagesResponse value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (AppendMessageRequest request : requests) {
+            requestStream.onNext(request);
+        }
+        requestStream.onCompleted();
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private List<MessageResponse> stored(Long sessionId, List<AddMessageRequest> batch) {
+        return batch.stream()
+            .map(request -> response(nextId.getAndIncrement(), sessionId, request.content()))
+            .toList();
+    }
+
+    private static AppendMessageRequest request(long sessionId, String content) {
+        return AppendMessageRequest.newBuilder().setSessionId(sessionId).setSender("user").setContent(content).build();
+    }
+
+    private static MessageResponse response(long id, Long sessionId, String content) {
+        return new MessageResponse(id, sessionId, id, "user", content, null, LocalDateTime.of(2026, 1, 1, 12, 0));
+    }
+}
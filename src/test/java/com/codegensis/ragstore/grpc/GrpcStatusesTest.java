@@ -0,0 +1,57 @@
+package com.codegensis.ragstore.grpc;
+
+import com.codegensis.ragstore.exception.ConflictException;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+import reactor.core.Exceptions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrpcStatusesTest {
+
+    @Test
+    void toStatus_ApiExceptions_MapsCodeAndKeepsMessage() {
+        // When
+        Status notFound = GrpcStatuses.toStatus(new ResourceNotFoundException("Session", 7L));
+        Status invalid = GrpcStatuses.toStatus(new ValidationException("Content is required"));
+        Status conflict = GrpcStatuses.toStatus(new ConflictException("In progress"));
+
+        // Then
+        assertEquals(Status.Code.NOT_FOUND, notFound.getCode());
+        assertEquals(new ResourceNotFoundException("Session", 7L).getMessage(), notFound.getDescription());
+        assertEquals(Status.Code.INVALID_ARGUMENT, invalid.getCode());
+        assertEquals("Content is required", invalid.getDescription());
+        assertEquals(Status.Code.ABORTED, conflict.getCode());
+    }
+
+    @Test
+    void toStatus_StatusException_PassesThrough() {
+        // Given
+        Status status = Status.CANCELLED.withDescription("gone");
+
+        // When & Then
+        assertSame(status, GrpcStatuses.toStatus(status.asRuntimeException()));
+        assertSame(status, GrpcStatuses.toStatus(status.asException()));
+    }
+
+    @Test
+    void toStatus_Overflow_ResourceExhausted() {
+        // When
+        Status status = GrpcStatuses.toStatus(Exceptions.failWithOverflow());
+
+        // Then
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, status.getCode());
+    }
+
+    @Test
+    void toStatus_UnexpectedError_InternalWithoutDetails() {
+        // When
+        Status status = GrpcStatuses.toStatus(new IllegalStateException("connection string leaked"));
+
+        // Then
+        assertEquals(Status.Code.INTERNAL, status.getCode());
+        assertEquals("An unexpected error occurred", status.getDescription());
+    }
+}
@@ -0,0 +1,44 @@
+package com.codegensis.ragstore.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a gRPC service in-process for tests, with the same interceptors as {@link GrpcServer}.
+ * Calls run on the caller's thread, so a test sees server side effects as soon as a blocking
+ * call returns. Readiness follows what the client has requested, so flow control is observable.
+ */
+final class InProcessGrpcHarness implements AutoCloseable {
+
+    private final Server server;
+    private final ManagedChannel channel;
+
+    InProcessGrpcHarness(BindableService service, ServerInterceptor... interceptors) throws IOException {
+        String name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name)
+            .directExecutor()
+            .addService(ServerInterceptors.intercept(service, interceptors))
+            .build()
+            .start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    ManagedChannel channel() {
+        return channel;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        channel.shutdownNow();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,126 @@
+package com.codegensis.ragstore.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V6__create_idempotency_keys_table.sql"))
+            .execute(dataSource);
+        store = new IdempotencyStore(new JdbcTemplate(dataSource));
+    }
+
+    @Test
+    void claim_NewKey_StoresClaimWithoutResponse() {
+        // When
+        boolean claimed = store.claim("tenant_a", "key1", "hash", 1_000L, 5_000L);
+
+        // Then
+        assertTrue(claimed);
+        IdempotencyStore.StoredResponse row = store.find("tenant_a", "key1").orElseThrow();
+        assertFalse(row.isComplete());
+        assertEquals("hash", row.requestHash());
+        assertEquals(1_000L, row.createdAt());
+        assertEquals(5_000L, row.expiresAt());
+    }
+
+    @Test
+    void claim_KeyTaken_ReturnsFalse() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", 1_000L, 5_000L);
+
+        // When & Then
+        assertFalse(store.claim("tenant_a", "key1", "other", 2_000L, 6_000L));
+        assertTrue(store.claim("tenant_b", "key1", "other", 2_000L, 6_000L));
+    }
+
+    @Test
+    void complete_StoresResponse() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", 1_000L, 5_000L);
+
+        // When
+        store.complete("tenant_a", "key1", 1_000L, 201, "{\"id\":1}");
+
+        // Then
+        IdempotencyStore.StoredResponse row = store.find("tenant_a", "key1").orElseThrow();
+        assertTrue(row.isComplete());
+        assertEquals(201, row.status());
+        assertEquals("{\"id\":1}", row.body());
+    }
+
+    @Test
+    void complete_ClaimTakenOver_ReturnsFalse() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", 2_000L, 6_000L);
+
+        // When
+        boolean completed = store.complete("tenant_a", "key1", 1_000L, 201, "{\"id\":1}");
+
+        // Then
+        assertFalse(completed);
+        assertFalse(store.find("tenant_a", "key1").orElseThrow().isComplete());
+    }
+
+    @Test
+    void release_CompletedKey_KeepsTheResponse() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", 1_000L, 5_000L);
+        store.claim("tenant_a", "key2", "hash", 1_000L, 5_000L);
+        store.complete("tenant_a", "key1", 1_000L, 201, "{\"id\":1}");
+
+        // When
+        boolean completed = store.release("tenant_a", "key1", 1_000L);
+        boolean claimed = store.release("tenant_a", "key2", 1_000L);
+
+        // Then
+        assertFalse(completed);
+        assertTrue(claimed);
+        assertTrue(store.find("tenant_a", "key1").isPresent());
+        assertTrue(store.find("tenant_a", "key2").isEmpty());
+    }
+
+    @Test
+    void remove_OnlyDeletesMatchingClaim() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", 1_000L, 5_000L);
+
+        // When
+        boolean stale = store.remove("tenant_a", "key1", 999L);
+        boolean removed = store.remove("tenant_a", "key1", 1_000L);
+
+        // Then
+        assertFalse(stale);
+        assertTrue(removed);
+        assertTrue(store.find("tenant_a", "key1").isEmpty());
+    }
+
+    @Test
+    void purgeExpired_DeletesOnlyExpiredRows() {
+        // Given
+        store.claim("tenant_a", "old", "hash", 1_000L, 5_000L);
+        store.claim("tenant_a", "new", "hash", 4_000L, 9_000L);
+
+        // When
+        int purged = store.purgeExpired(6_000L);
+
+        // Then
+        assertEquals(1, purged);
+        assertTrue(store.find("tenant_a", "old").isEmpty());
+        assertTrue(store.find("tenant_a", "new").isPresent());
+    }
+}
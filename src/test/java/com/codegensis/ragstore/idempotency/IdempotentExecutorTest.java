@@ -0,0 +1,329 @@
+package com.codegensis.ragstore.idempotency;
+
+import com.codegensis.ragstore.constant.ApiConstants;
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.exception.ConflictException;
+import com.codegensis.ragstore.exception.IdempotencyKeyReusedException;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotentExecutorTest {
+
+    private static final AddMessageRequest REQUEST = new AddMessageRequest("user", "Hello", null);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final AtomicInteger executions = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private IdempotencyStore store;
+    private IdempotentExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V6__create_idempotency_keys_table.sql"))
+            .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE writes (id BIGINT)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        store = new IdempotencyStore(jdbcTemplate);
+        executor = newExecutor(store);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("tenant_a", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private IdempotentExecutor newExecutor(IdempotencyStore store) {
+        return new IdempotentExecutor(store, new ObjectMapper().registerModule(new JavaTimeModule()), transactionManager,
+            Duration.ofHours(24), Duration.ofSeconds(30), Duration.ofMinutes(5), 100, clock::get);
+    }
+
+    private ResponseEntity<MessageResponse> addMessage(IdempotentExecutor executor, String key, Long sessionId,
+                                                       AddMessageRequest request) {
+        return executor.execute(key, "addMessage:" + sessionId, request, HttpStatus.CREATED, MessageResponse.class,
+            () -> new MessageResponse((long) executions.incrementAndGet(), sessionId, 1L, request.sender(),
+                request.content(), request.context(), LocalDateTime.of(2024, 1, 1, 0, 0)));
+    }
+
+    @Test
+    void execute_NoKey_RunsEveryTime() {
+        // When
+        addMessage(executor, null, 1L, REQUEST);
+        addMessage(executor, null, 1L, REQUEST);
+
+        // Then
+        assertEquals(2, executions.get());
+        assertEquals(0, executor.getCacheSize());
+    }
+
+    @Test
+    void execute_Retry_ReplaysFirstResponse() {
+        // When
+        ResponseEntity<MessageResponse> first = addMessage(executor, "key1", 1L, REQUEST);
+        ResponseEntity<MessageResponse> retry = addMessage(executor, "key1", 1L, REQUEST);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals(first.getBody(), retry.getBody());
+        assertNull(first.getHeaders().getFirst(ApiConstants.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals("true", retry.getHeaders().getFirst(ApiConstants.IDEMPOTENT_REPLAYED_HEADER));
+        assertEquals(1, executor.getReplays());
+    }
+
+    @Test
+    void execute_RetryOnAnotherInstance_ReplaysFromStore() {
+        // Given
+        ResponseEntity<MessageResponse> first = addMessage(executor, "key1", 1L, REQUEST);
+
+        // When
+        ResponseEntity<MessageResponse> retry = addMessage(newExecutor(store), "key1", 1L, REQUEST);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertEquals(first.getBody(), retry.getBody());
+    }
+
+    @Test
+    void execute_SameKeyOtherTenant_RunsAgain() {
+        // Given
+        addMessage(executor, "key1", 1L, REQUEST);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("tenant_b", null));
+
+        // When
+        addMessage(executor, "key1", 1L, REQUEST);
+
+        // Then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_KeyReusedForDifferentRequest_Throws() {
+        // Given
+        addMessage(executor, "key1", 1L, REQUEST);
+
+        // When & Then
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> addMessage(executor, "key1", 2L, REQUEST));
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> addMessage(newExecutor(store), "key1", 1L, new AddMessageRequest("user", "Other", null)));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ActionFails_StoresNothing() {
+        // Given
+        assertThrows(ResourceNotFoundException.class, () -> executor.execute("key1", "addMessage:1", REQUEST,
+            HttpStatus.CREATED, MessageResponse.class, () -> {
+                throw new ResourceNotFoundException("Session", 1L);
+            }));
+
+        // When
+        addMessage(executor, "key1", 1L, REQUEST);
+
+        // Then
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_ClaimedOnAnotherInstance_ThrowsConflict() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", clock.get(), clock.get() + 60_000);
+
+        // When & Then
+        assertThrows(ConflictException.class, () -> addMessage(executor, "key1", 1L, REQUEST));
+        assertEquals(0, executions.get());
+        assertEquals(1, executor.getConflicts());
+    }
+
+    @Test
+    void execute_ClaimAbandoned_RunsAgain() {
+        // Given
+        store.claim("tenant_a", "key1", "hash", clock.get(), clock.get() + 60_000);
+        clock.addAndGet(30_000);
+
+        // When
+        addMessage(executor, "key1", 1L, REQUEST);
+
+        // Then
+        assertEquals(1, executions.get());
+        assertTrue(store.find("tenant_a", "key1").orElseThrow().isComplete());
+    }
+
+    @Test
+    void execute_TakenOverWhileRunning_RollsBackItsWrite() throws Exception {
+        // Given
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // When
+            assertThrows(ConflictException.class, () -> executor.execute("key1", "addMessage:1", REQUEST,
+                HttpStatus.CREATED, MessageResponse.class, () -> {
+                    jdbcTemplate.update("INSERT INTO writes (id) VALUES (1)");
+                    clock.addAndGet(30_000);
+                    awaitDone(pool.submit(() -> {
+                        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("tenant_a", null));
+                        return addMessage(newExecutor(store), "key1", 1L, REQUEST);
+                    }));
+                    return new MessageResponse(1L, 1L, 1L, "user", "Hello", null, LocalDateTime.of(2024, 1, 1, 0, 0));
+                }));
+
+            // Then
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM writes", Integer.class));
+            assertEquals(1, executions.get());
+            assertTrue(store.find("tenant_a", "key1").orElseThrow().isComplete());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ResponseStored_CommitsWithTheWrite() {
+        // When
+        executor.execute("key1", "addMessage:1", REQUEST, HttpStatus.CREATED, MessageResponse.class, () -> {
+            jdbcTemplate.update("INSERT INTO writes (id) VALUES (1)");
+            return new MessageResponse(1L, 1L, 1L, "user", "Hello", null, LocalDateTime.of(2024, 1, 1, 0, 0));
+        });
+
+        // Then
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM writes", Integer.class));
+        assertTrue(store.find("tenant_a", "key1").orElseThrow().isComplete());
+    }
+
+    @Test
+    void execute_CacheFull_KeepsTheNewestResponseInMemory() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            addMessage(executor, "old-" + i, 1L, REQUEST);
+        }
+        ResponseEntity<MessageResponse> first = addMessage(executor, "new", 1L, REQUEST);
+        // Only memory can answer now
+        store.remove("tenant_a", "new", clock.get());
+
+        // When
+        ResponseEntity<MessageResponse> retry = addMessage(executor, "new", 1L, REQUEST);
+
+        // Then
+        assertEquals(101, executions.get());
+        assertEquals(first.getBody(), retry.getBody());
+        assertEquals(100, executor.getCacheSize());
+    }
+
+    @Test
+    void execute_CacheFull_DropsTheLeastRecentlyUsed() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            addMessage(executor, "key-" + i, 1L, REQUEST);
+        }
+        addMessage(executor, "key-0", 1L, REQUEST);
+        addMessage(executor, "new", 1L, REQUEST);
+        store.remove("tenant_a", "key-0", clock.get());
+        store.remove("tenant_a", "key-1", clock.get());
+
+        // When
+        addMessage(executor, "key-0", 1L, REQUEST);
+        addMessage(executor, "key-1", 1L, REQUEST);
+
+        // Then
+        // key-0 was replayed from memory; key-1 was evicted and, with its row gone, ran again
+        assertEquals(102, executions.get());
+    }
+
+    @Test
+    void execute_AfterTtl_RunsAgain() {
+        // Given
+        addMessage(executor, "key1", 1L, REQUEST);
+        clock.addAndGet(Duration.ofHours(24).toMillis());
+
+        // When
+        addMessage(executor, "key1", 1L, REQUEST);
+
+        // Then
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void execute_InvalidKey_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> addMessage(executor, " ", 1L, REQUEST));
+        assertThrows(ValidationException.class, () -> addMessage(executor, "k".repeat(256), 1L, REQUEST));
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_RunOnce() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<ResponseEntity<MessageResponse>> first = pool.submit(() -> executor.execute("key1", "addMessage:1",
+                REQUEST, HttpStatus.CREATED, MessageResponse.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return new MessageResponse((long) executions.incrementAndGet(), 1L, 1L, "user", "Hello", null,
+                        LocalDateTime.of(2024, 1, 1, 0, 0));
+                }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            Future<ResponseEntity<MessageResponse>> second = pool.submit(() -> addMessage(executor, "key1", 1L, REQUEST));
+            Future<ResponseEntity<MessageResponse>> third = pool.submit(() -> addMessage(executor, "key1", 1L, REQUEST));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            MessageResponse expected = first.get(5, TimeUnit.SECONDS).getBody();
+            assertEquals(expected, second.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(expected, third.get(5, TimeUnit.SECONDS).getBody());
+            assertEquals(1, executions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void awaitDone(Future<?> future) {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.codegensis.ragstore.importer;
+
+import com.codegensis.ragstore.dto.response.ImportResult;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.validator.MessageValidator;
+import com.codegensis.ragstore.validator.SessionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BulkImporterTest {
+
+    private ImportBatchWriter batchWriter;
+    private BulkImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        batchWriter = mock(ImportBatchWriter.class);
+        when(batchWriter.write(any())).thenAnswer(invocation -> inserted(invocation.getArgument(0)));
+        importer = new BulkImporter(Jackson2ObjectMapperBuilder.json().build(), new SessionValidator(),
+            new MessageValidator(), batchWriter, 2, 2, 3, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void importJsonl_ValidLines_ImportsEverySessionAndMessage() {
+        // Given
+        String input = session("user_a", "One", 2) + "\n" + session("user_a", "Two", 1) + "\n";
+
+        // When
+        ImportResult result = importer.importJsonl(stream(input), 0);
+
+        // Then
+        assertTrue(result.completed());
+        assertEquals(2, result.linesRead());
+        assertEquals(2, result.sessionsImported());
+        assertEquals(3, result.messagesImported());
+        assertEquals(2, result.resumeFromLine());
+        assertTrue(result.errors().isEmpty());
+        assertEquals(2, importer.getTotalSessions());
+        assertEquals(3, importer.getTotalMessages());
+        assertEquals(0, importer.getActiveImports());
+    }
+
+    @Test
+    void importJsonl_InvalidLines_RejectsThemWithLineNumbers() {
+        // Given
+        String input = session("user_a", "One", 1) + "\n"
+            + "{not json\n"
+            + "{\"userId\":\"user_a\",\"title\":\"Bad\",\"messages\":[{\"sender\":\"robot\",\"content\":\"Hi\"}]}\n"
+            + session("user_a", "Four", 1) + "\n";
+
+        // When
+        ImportResult result = importer.importJsonl(stream(input), 0);
+
+        // Then
+        assertTrue(result.completed());
+        assertEquals(2, result.sessionsImported());
+        assertEquals(2, result.rejectedLines());
+        assertEquals(4, result.resumeFromLine());
+        assertEquals(2, result.errors().get(0).line());
+        assertTrue(result.errors().get(0).message().startsWith("Malformed JSON"));
+        assertEquals(3, result.errors().get(1).line());
+        assertTrue(result.errors().get(1).message().startsWith("Message 1: "));
+    }
+
+    @Test
+    void importJsonl_SkipLinesAndBlankLines_ImportsOnlyTheRest() {
+        // Given
+        String input = session("user_a", "One", 1) + "\n\n" + session("user_a", "Three", 1) + "\n";
+
+        // When
+        ImportResult result = importer.importJsonl(stream(input), 1);
+
+        // Then
+        assertTrue(result.completed());
+        assertEquals(2, result.linesRead());
+        assertEquals(1, result.sessionsImported());
+        assertEquals(3, result.resumeFromLine());
+    }
+
+    @Test
+    void importJsonl_DuplicateLine_CountsDuplicate() {
+        // Given
+        doAnswer(invocation -> {
+            List<ImportBatchWriter.Line> lines = invocation.getArgument(0);
+            return lines.stream()
+                .map(line -> new ImportBatchWriter.Result(line, ImportBatchWriter.Outcome.DUPLICATE, null))
+                .toList();
+        }).when(batchWriter).write(any());
+
+        // When
+        ImportResult result = importer.importJsonl(stream(session("user_a", "One", 1)), 0);
+
+        // Then
+        assertTrue(result.completed());
+        assertEquals(0, result.sessionsImported());
+        assertEquals(1, result.duplicateLines());
+        assertEquals(1, result.resumeFromLine());
+    }
+
+    @Test
+    void importJsonl_WriterFails_StopsWithResumePointBeforeUnstoredLines() {
+        // Given
+        doThrow(new DataAccessResourceFailureException("Database down")).when(batchWriter).write(any());
+
+        // When
+        ImportResult result = importer.importJsonl(stream(session("user_a", "One", 1) + "\n"), 0);
+
+        // Then
+        assertFalse(result.completed());
+        assertEquals("Database down", result.failure());
+        assertEquals(0, result.sessionsImported());
+        assertEquals(0, result.resumeFromLine());
+    }
+
+    @Test
+    void importJsonl_NegativeSkipLines_ThrowsValidationException() {
+        // When & Then
+        assertThrows(ValidationException.class, () -> importer.importJsonl(stream(""), -1));
+    }
+
+    private static List<ImportBatchWriter.Result> inserted(List<ImportBatchWriter.Line> lines) {
+        return lines.stream()
+            .map(line -> new ImportBatchWriter.Result(line, ImportBatchWriter.Outcome.INSERTED, null))
+            .toList();
+    }
+
+    private static String session(String userId, String title, int messages) {
+        StringBuilder json = new StringBuilder("{\"userId\":\"" + userId + "\",\"title\":\"" + title + "\",\"messages\":[");
+        for (int i = 0; i < messages; i++) {
+            json.append(i > 0 ? "," : "")
+                .append("{\"sender\":\"user\",\"content\":\"Message ").append(i).append("\",\"timestamp\":\"2024-03-01T10:00:00\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static InputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+}
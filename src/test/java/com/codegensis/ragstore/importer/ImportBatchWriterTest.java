@@ -0,0 +1,131 @@
+package com.codegensis.ragstore.importer;
+
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.repository.SessionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImportBatchWriterTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 10, 0);
+    private static final LocalDateTime T2 = LocalDateTime.of(2024, 3, 1, 10, 5);
+
+    private JdbcTemplate jdbcTemplate;
+    private Cache sessionCache;
+    private ImportBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V1__create_sessions_table.sql"),
+            new ClassPathResource("db/migration/V2__create_messages_table.sql"),
+            new ClassPathResource("db/migration/V3__add_indexes.sql"),
+            new ClassPathResource("db/migration/V7__add_message_sequence.sql"),
+            new ClassPathResource("db/migration/V9__add_session_last_seq.sql"))
+            .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class, RETURNS_DEEP_STUBS);
+        sessionCache = mock(Cache.class);
+        when(entityManagerFactory.getCache().unwrap(Cache.class)).thenReturn(sessionCache);
+        writer = new ImportBatchWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource), entityManagerFactory);
+    }
+
+    @Test
+    void write_ValidLines_InsertsSessionsWithTheirMessages() {
+        // Given
+        ImportBatchWriter.Line first = line(1, "user_a", "First", List.of(
+            new ImportedSession.Message("user", "Hi", null, T1),
+            new ImportedSession.Message("assistant", "Hello", "{\"doc\":1}", T2)));
+        ImportBatchWriter.Line second = line(2, "user_b", "Second", List.of(
+            new ImportedSession.Message("user", "Question", null, T1)));
+
+        // When
+        List<ImportBatchWriter.Result> results = writer.write(List.of(first, second));
+
+        // Then
+        assertTrue(results.stream().allMatch(result -> result.outcome() == ImportBatchWriter.Outcome.INSERTED));
+        assertEquals(2, count("SELECT COUNT(*) FROM messages m JOIN sessions s ON s.id = m.session_id WHERE s.title = 'First'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM messages m JOIN sessions s ON s.id = m.session_id WHERE s.title = 'Second'"));
+        assertEquals("{\"doc\":1}", jdbcTemplate.queryForObject(
+            "SELECT context FROM messages WHERE sender = 'assistant'", String.class));
+        assertEquals(List.of("Hi", "Hello"), jdbcTemplate.queryForList(
+            "SELECT m.content FROM messages m JOIN sessions s ON s.id = m.session_id WHERE s.title = 'First' ORDER BY m.seq",
+            String.class));
+        assertEquals(2, count("SELECT last_seq FROM sessions WHERE title = 'First'"));
+    }
+
+    @Test
+    void write_ValidLines_EvictsCachedSessionLists() {
+        // Given
+        ImportBatchWriter.Line line = line(1, "user_a", "Cached", List.of());
+
+        // When
+        writer.write(List.of(line));
+
+        // Then
+        verify(sessionCache).evictQueryRegion(SessionRepository.USER_SESSIONS_CACHE_REGION);
+    }
+
+    @Test
+    void write_MissingSessionTimestamps_FallBackToMessageTimestamps() {
+        // Given
+        ImportBatchWriter.Line line = line(1, "user_a", "Dated", List.of(
+            new ImportedSession.Message("user", "Hi", null, T1),
+            new ImportedSession.Message("assistant", "Hello", null, T2)));
+
+        // When
+        writer.write(List.of(line));
+
+        // Then
+        Map<String, Object> session = jdbcTemplate.queryForMap("SELECT created_at, updated_at FROM sessions");
+        assertEquals(T1, ((java.sql.Timestamp) session.get("CREATED_AT")).toLocalDateTime());
+        assertEquals(T2, ((java.sql.Timestamp) session.get("UPDATED_AT")).toLocalDateTime());
+    }
+
+    @Test
+    void write_DuplicateInBatch_InsertsTheOtherLines() {
+        // Given
+        writer.write(List.of(line(1, "user_a", "Existing", List.of())));
+        ImportBatchWriter.Line duplicate = line(2, "user_a", "Existing", List.of(
+            new ImportedSession.Message("user", "Again", null, T1)));
+        ImportBatchWriter.Line fresh = line(3, "user_a", "Fresh", List.of(
+            new ImportedSession.Message("user", "New", null, T1)));
+
+        // When
+        List<ImportBatchWriter.Result> results = writer.write(List.of(duplicate, fresh));
+
+        // Then
+        assertEquals(ImportBatchWriter.Outcome.DUPLICATE, results.get(0).outcome());
+        assertEquals(ImportBatchWriter.Outcome.INSERTED, results.get(1).outcome());
+        assertEquals(2, count("SELECT COUNT(*) FROM sessions"));
+        assertEquals(1, count("SELECT COUNT(*) FROM messages"));
+    }
+
+    private ImportBatchWriter.Line line(long number, String userId, String title, List<ImportedSession.Message> messages) {
+        List<Message.Sender> senders = messages.stream()
+            .map(message -> Message.Sender.valueOf(message.sender().toUpperCase()))
+            .toList();
+        return new ImportBatchWriter.Line(number, new ImportedSession(userId, title, null, null, null, messages), senders);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
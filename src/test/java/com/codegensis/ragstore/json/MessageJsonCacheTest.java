@@ -0,0 +1,110 @@
+package com.codegensis.ragstore.json;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageJsonCacheTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private MessageJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new MessageJsonCache(objectMapper, DataSize.ofMegabytes(1));
+    }
+
+    private static MessageResponse message(long id, String content) {
+        return new MessageResponse(id, 1L, id, "user", content, null, LocalDateTime.of(2024, 1, 1, 12, 0, 30));
+    }
+
+    @Test
+    void put_StoresSameBytesAsJackson() throws Exception {
+        // Given
+        MessageResponse message = message(1L, "Hello");
+
+        // When
+        byte[] json = cache.put(message);
+
+        // Then
+        assertArrayEquals(objectMapper.writeValueAsBytes(message), json);
+        assertTrue(new String(json, StandardCharsets.UTF_8).contains("\"timestamp\":\"2024-01-01T12:00:30Z\""));
+        assertSame(json, cache.get(1L));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void getAll_LoadsMissesInOneBatchAndKeepsOrder() {
+        // Given
+        cache.put(message(2L, "two"));
+        List<List<Long>> batches = new ArrayList<>();
+
+        // When
+        List<byte[]> json = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+            batches.add(missing);
+            return List.of(message(3L, "three"), message(1L, "one"));
+        });
+
+        // Then
+        assertEquals(List.of(List.of(1L, 3L)), batches);
+        assertEquals(3, json.size());
+        assertTrue(new String(json.get(0), StandardCharsets.UTF_8).contains("\"one\""));
+        assertTrue(new String(json.get(1), StandardCharsets.UTF_8).contains("\"two\""));
+        assertTrue(new String(json.get(2), StandardCharsets.UTF_8).contains("\"three\""));
+        assertEquals(3, cache.getSize());
+        assertEquals(1.0 / 3, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    void getAll_DeletedMessage_IsLeftOut() {
+        // When
+        List<byte[]> json = cache.getAll(List.of(1L, 2L), missing -> List.of(message(2L, "two")));
+
+        // Then
+        assertEquals(1, json.size());
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void put_OverBudget_EvictsLeastRecentlyRead() {
+        // Given: 16 segments share 64 KB, so ids 16 apart land in the same 4 KB segment
+        cache = new MessageJsonCache(objectMapper, DataSize.ofKilobytes(64));
+        String content = "x".repeat(1500);
+        cache.put(message(16L, content));
+        cache.put(message(32L, content));
+        cache.get(16L);
+
+        // When
+        cache.put(message(48L, content));
+
+        // Then
+        assertNotNull(cache.get(16L));
+        assertNull(cache.get(32L));
+        assertNotNull(cache.get(48L));
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getBytes() <= 4096);
+    }
+
+    @Test
+    void put_LargerThanSegment_IsNotCached() {
+        // Given
+        cache = new MessageJsonCache(objectMapper, DataSize.ofKilobytes(16));
+
+        // When
+        byte[] json = cache.put(message(1L, "x".repeat(2000)));
+
+        // Then
+        assertNotNull(json);
+        assertEquals(0, cache.getSize());
+    }
+}
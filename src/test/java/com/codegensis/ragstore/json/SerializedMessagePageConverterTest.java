@@ -0,0 +1,65 @@
+package com.codegensis.ragstore.json;
+
+import com.codegensis.ragstore.dto.response.MessagePageResponse;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializedMessagePageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final SerializedMessagePageConverter converter = new SerializedMessagePageConverter();
+
+    private void assertSameAsJackson(List<MessageResponse> messages, long totalElements, int totalPages)
+            throws Exception {
+        // Given
+        List<byte[]> fragments = messages.stream().map(message -> {
+            try {
+                return objectMapper.writeValueAsBytes(message);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }).toList();
+        SerializedMessagePage page = new SerializedMessagePage(fragments, 1, 2, totalElements, totalPages);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(page, MediaType.APPLICATION_JSON, output);
+
+        // Then
+        byte[] expected = objectMapper.writeValueAsBytes(
+            new MessagePageResponse(messages, 1, 2, totalElements, totalPages));
+        assertArrayEquals(expected, output.getBodyAsBytes());
+        assertEquals(expected.length, output.getHeaders().getContentLength());
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+    }
+
+    @Test
+    void write_Page_MatchesJacksonOutput() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 12, 0);
+        assertSameAsJackson(List.of(
+            new MessageResponse(3L, 1L, 1L, "user", "Hi \"there\" é", null, timestamp),
+            new MessageResponse(4L, 1L, 2L, "assistant", "Hello", "{\"docs\":[]}", timestamp)), 4L, 2);
+    }
+
+    @Test
+    void write_EmptyPage_MatchesJacksonOutput() throws Exception {
+        assertSameAsJackson(List.of(), 0L, 0);
+    }
+
+    @Test
+    void canRead_IsAlwaysFalse() {
+        assertFalse(converter.canRead(SerializedMessagePage.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(SerializedMessagePage.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(MessagePageResponse.class, MediaType.APPLICATION_JSON));
+    }
+}
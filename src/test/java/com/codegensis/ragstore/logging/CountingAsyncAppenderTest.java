@@ -0,0 +1,91 @@
+package com.codegensis.ragstore.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingAsyncAppenderTest {
+
+    private final CountDownLatch workerBlocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private LoggerContext context;
+    private CountingAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                workerBlocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slowAppender.setContext(context);
+        slowAppender.start();
+
+        appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(4);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.addAppender(slowAppender);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void doAppend_QueueFull_CountsDiscardedEvents() throws Exception {
+        // Given the worker is stuck on the first event
+        appender.doAppend(event(Level.INFO));
+        assertTrue(workerBlocked.await(5, TimeUnit.SECONDS));
+
+        // When the queue fills up and overflows
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event(Level.INFO));
+        }
+
+        // Then
+        assertEquals(6, appender.getDiscardedCount());
+    }
+
+    @Test
+    void doAppend_QueueHasRoom_DiscardsNothing() {
+        // When
+        appender.doAppend(event(Level.INFO));
+
+        // Then
+        assertEquals(0, appender.getDiscardedCount());
+    }
+
+    private LoggingEvent event(Level level) {
+        LoggingEvent event = new LoggingEvent();
+        event.setLoggerContext(context);
+        event.setLoggerName("test");
+        event.setLevel(level);
+        event.setMessage("message");
+        event.setTimeStamp(System.currentTimeMillis());
+        event.setMDCPropertyMap(Map.of());
+        return event;
+    }
+}
@@ -0,0 +1,79 @@
+package com.codegensis.ragstore.logging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    private static final String MESSAGES = "/api/v1/sessions/{sessionId}/messages";
+
+    private LogSampler logSampler;
+
+    @BeforeEach
+    void setUp() {
+        logSampler = new LogSampler(1.0, "GET=0.0, GET " + MESSAGES + "=1.0", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void rateFor_PrefersEndpointThenMethodThenDefault() {
+        assertEquals(1.0, logSampler.rateFor("GET", MESSAGES));
+        assertEquals(0.0, logSampler.rateFor("GET", "/api/v1/sessions"));
+        assertEquals(0.0, logSampler.rateFor("GET", null));
+        assertEquals(1.0, logSampler.rateFor("POST", "/api/v1/sessions"));
+    }
+
+    @Test
+    void shouldLog_SuccessAtZeroRate_Suppressed() {
+        // When
+        boolean logged = logSampler.shouldLog("GET", "/api/v1/sessions", 200);
+
+        // Then
+        assertFalse(logged);
+        assertEquals(1, logSampler.getSuppressedCount());
+        assertEquals(0, logSampler.getLoggedCount());
+    }
+
+    @Test
+    void shouldLog_ErrorAtZeroRate_AlwaysLogged() {
+        assertTrue(logSampler.shouldLog("GET", "/api/v1/sessions", 404));
+        assertTrue(logSampler.shouldLog("GET", null, 500));
+        assertEquals(2, logSampler.getLoggedCount());
+    }
+
+    @Test
+    void setRate_Default_ChangesFallbackRate() {
+        // When
+        logSampler.setRate(LogSampler.DEFAULT_KEY, 0.0);
+
+        // Then
+        assertFalse(logSampler.shouldLog("DELETE", "/api/v1/sessions/{sessionId}", 204));
+        assertEquals(0.0, logSampler.getRates().get(LogSampler.DEFAULT_KEY));
+    }
+
+    @Test
+    void removeRate_FallsBackToNextLevel() {
+        // When
+        logSampler.removeRate("GET");
+
+        // Then
+        assertEquals(1.0, logSampler.rateFor("GET", "/api/v1/sessions"));
+    }
+
+    @Test
+    void setRate_OutOfRange_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> logSampler.setRate("GET", 1.5));
+        assertThrows(IllegalArgumentException.class, () -> logSampler.setRate("GET", -0.1));
+    }
+
+    @Test
+    void parseRates_MalformedEntry_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> LogSampler.parseRates("GET"));
+        assertTrue(LogSampler.parseRates(" ").isEmpty());
+        assertEquals(Map.of("GET", 0.5), LogSampler.parseRates("GET=0.5"));
+    }
+}
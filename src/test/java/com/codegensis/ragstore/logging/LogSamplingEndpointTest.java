@@ -0,0 +1,60 @@
+package com.codegensis.ragstore.logging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplingEndpointTest {
+
+    private LogSampler logSampler;
+    private LogSamplingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        logSampler = new LogSampler(1.0, "", new SimpleMeterRegistry());
+        endpoint = new LogSamplingEndpoint(logSampler);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setRate_UpdatesSamplerAndReturnsRates() {
+        // When
+        Map<String, Object> body = endpoint.setRate("GET /api/v1/sessions", 0.05);
+
+        // Then
+        Map<String, Double> rates = (Map<String, Double>) body.get("rates");
+        assertEquals(0.05, rates.get("GET /api/v1/sessions"));
+        assertEquals(1.0, rates.get(LogSampler.DEFAULT_KEY));
+        assertEquals(0.05, logSampler.rateFor("GET", "/api/v1/sessions"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void removeRate_RemovesKey() {
+        // Given
+        endpoint.setRate("GET", 0.01);
+
+        // When
+        Map<String, Object> body = endpoint.removeRate("GET");
+
+        // Then
+        assertFalse(((Map<String, Double>) body.get("rates")).containsKey("GET"));
+    }
+
+    @Test
+    void sampling_ReportsCounters() {
+        // Given
+        logSampler.shouldLog("GET", null, 500);
+
+        // When
+        Map<String, Object> body = endpoint.sampling();
+
+        // Then
+        assertEquals(1L, body.get("logged"));
+        assertEquals(0L, body.get("suppressed"));
+    }
+}
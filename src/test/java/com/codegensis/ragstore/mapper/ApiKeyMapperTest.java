@@ -0,0 +1,55 @@
+package com.codegensis.ragstore.mapper;
+
+import com.codegensis.ragstore.dto.response.ApiKeyResponse;
+import com.codegensis.ragstore.entity.ApiKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiKeyMapperTest {
+
+    private final ApiKeyMapper mapper = new ApiKeyMapper();
+
+    @Test
+    void toResponse_MapsFieldsWithoutHash() {
+        // Given
+        ApiKey apiKey = new ApiKey();
+        apiKey.setId(1L);
+        apiKey.setKeyHash("abc");
+        apiKey.setKeyPrefix("rsk_12345678");
+        apiKey.setTenantId("tenant_a");
+        apiKey.setName("ingest");
+        apiKey.setScopes("read, write");
+        apiKey.setRequestsPerMinute(120);
+        apiKey.setCreatedAt(LocalDateTime.now());
+
+        // When
+        ApiKeyResponse response = mapper.toResponse(apiKey);
+
+        // Then
+        assertEquals(1L, response.id());
+        assertEquals("tenant_a", response.tenantId());
+        assertEquals("rsk_12345678", response.keyPrefix());
+        assertEquals(Set.of("read", "write"), response.scopes());
+        assertEquals(120, response.requestsPerMinute());
+        assertNull(response.revokedAt());
+    }
+
+    @Test
+    void toResponse_Null_ReturnsNull() {
+        assertNull(mapper.toResponse(null));
+        assertTrue(mapper.toResponseList(List.of()).isEmpty());
+    }
+
+    @Test
+    void formatScopes_IsSortedAndParsesBack() {
+        String formatted = ApiKeyMapper.formatScopes(Set.of("write", "admin", "read"));
+
+        assertEquals("admin,read,write", formatted);
+        assertEquals(Set.of("admin", "read", "write"), ApiKeyMapper.parseScopes(formatted));
+    }
+}
@@ -0,0 +1,59 @@
+package com.codegensis.ragstore.mapper;
+
+import com.codegensis.ragstore.dto.request.AddMessageRequest;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.grpc.v1.AppendMessageRequest;
+import com.codegensis.ragstore.grpc.v1.ChatMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatMessageProtoMapperTest {
+
+    private final ChatMessageProtoMapper mapper = new ChatMessageProtoMapper();
+
+    @Test
+    void toRequest_WithAndWithoutContext_MapsOptionalContext() {
+        // Given
+        AppendMessageRequest withoutContext = AppendMessageRequest.newBuilder()
+            .setSessionId(1L).setSender("user").setContent("Hi").build();
+        AppendMessageRequest withContext = withoutContext.toBuilder().setContext("{\"docs\":[]}").build();
+
+        // When & Then
+        assertEquals(new AddMessageRequest("user", "Hi", null), mapper.toRequest(withoutContext));
+        assertEquals(new AddMessageRequest("user", "Hi", "{\"docs\":[]}"), mapper.toRequest(withContext));
+    }
+
+    @Test
+    void toProto_FullMessage_MapsAllFields() {
+        // Given
+        LocalDateTime timestamp = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 250_000_000);
+        MessageResponse message = new MessageResponse(5L, 2L, 3L, "assistant", "Answer", "{}", timestamp);
+
+        // When
+        ChatMessage proto = mapper.toProto(message);
+
+        // Then
+        assertEquals(5L, proto.getId());
+        assertEquals(2L, proto.getSessionId());
+        assertEquals(3L, proto.getSeq());
+        assertEquals("assistant", proto.getSender());
+        assertEquals("Answer", proto.getContent());
+        assertEquals("{}", proto.getContext());
+        assertEquals(timestamp.atZone(ZoneId.systemDefault()).toEpochSecond(), proto.getTimestamp().getSeconds());
+        assertEquals(250_000_000, proto.getTimestamp().getNanos());
+    }
+
+    @Test
+    void toProto_NoContextOrTimestamp_LeavesFieldsUnset() {
+        // When
+        ChatMessage proto = mapper.toProto(new MessageResponse(5L, 2L, 3L, "user", "Hi", null, null));
+
+        // Then
+        assertFalse(proto.hasContext());
+        assertFalse(proto.hasTimestamp());
+    }
+}
@@ -0,0 +1,34 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.auth.VerifiedKeyCache;
+import com.codegensis.ragstore.service.ApiKeyService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ApiKeyMetricsTest {
+
+    @Test
+    void bindTo_ReportsCacheSizeAndLookups() {
+        // Given
+        VerifiedKeyCache cache = new VerifiedKeyCache(10, Duration.ofSeconds(60), Duration.ofSeconds(5));
+        ApiKeyService apiKeyService = mock(ApiKeyService.class);
+        when(apiKeyService.getCache()).thenReturn(cache);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ApiKeyMetrics(apiKeyService).bindTo(registry);
+
+        // When
+        cache.get("hash1");
+        cache.put("hash1", null);
+        cache.get("hash1");
+
+        // Then
+        assertEquals(1.0, registry.get("ragstore.apikey.cache.size").gauge().value());
+        assertEquals(1.0, registry.get("ragstore.apikey.cache.lookups").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("ragstore.apikey.cache.lookups").tag("result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,30 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.concurrency.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitMetricsTest {
+
+    @Test
+    void bindTo_ReportsLimitInFlightAndRejections() {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 4, 100, 0.0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ConcurrencyLimitMetrics(limiter).bindTo(registry);
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(ConcurrencyLimiter.Partition.READ);
+        }
+
+        // Then
+        assertEquals(4.0, registry.get("ragstore.concurrency.limit").gauge().value());
+        assertEquals(4.0, registry.get("ragstore.concurrency.inflight").tag("partition", "read").gauge().value());
+        assertEquals(0.0, registry.get("ragstore.concurrency.inflight").tag("partition", "write").gauge().value());
+        assertEquals(1.0, registry.get("ragstore.concurrency.rejected").tag("partition", "read").functionCounter().count());
+        assertEquals(0.0, registry.get("ragstore.concurrency.latency.baseline").gauge().value());
+    }
+}
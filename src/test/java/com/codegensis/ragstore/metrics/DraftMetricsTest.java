@@ -0,0 +1,33 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.draft.DraftService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DraftMetricsTest {
+
+    @Test
+    void bindTo_ReportsOpenDraftsDeltasWritesAndOutcomes() {
+        // Given
+        DraftService draftService = mock(DraftService.class);
+        when(draftService.getOpenCount()).thenReturn(4);
+        when(draftService.getDeltas()).thenReturn(500L);
+        when(draftService.getWrites()).thenReturn(6L);
+        when(draftService.getFinalized()).thenReturn(3L);
+        when(draftService.getDiscarded()).thenReturn(1L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new DraftMetrics(draftService).bindTo(registry);
+
+        // Then
+        assertEquals(4.0, registry.get("ragstore.drafts.open").gauge().value());
+        assertEquals(500.0, registry.get("ragstore.drafts.deltas").functionCounter().count());
+        assertEquals(6.0, registry.get("ragstore.drafts.writes").functionCounter().count());
+        assertEquals(3.0, registry.get("ragstore.drafts.closed").tag("outcome", "finalized").functionCounter().count());
+        assertEquals(1.0, registry.get("ragstore.drafts.closed").tag("outcome", "discarded").functionCounter().count());
+    }
+}
@@ -0,0 +1,31 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.idempotency.IdempotentExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IdempotencyMetricsTest {
+
+    @Test
+    void bindTo_ReportsOutcomesAndCacheSize() {
+        // Given
+        IdempotentExecutor executor = mock(IdempotentExecutor.class);
+        when(executor.getExecutions()).thenReturn(5L);
+        when(executor.getReplays()).thenReturn(2L);
+        when(executor.getConflicts()).thenReturn(1L);
+        when(executor.getCacheSize()).thenReturn(3);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new IdempotencyMetrics(executor).bindTo(registry);
+
+        // Then
+        assertEquals(5.0, registry.get("ragstore.idempotency.requests").tag("outcome", "executed").functionCounter().count());
+        assertEquals(2.0, registry.get("ragstore.idempotency.requests").tag("outcome", "replayed").functionCounter().count());
+        assertEquals(1.0, registry.get("ragstore.idempotency.requests").tag("outcome", "rejected").functionCounter().count());
+        assertEquals(3.0, registry.get("ragstore.idempotency.cache.size").gauge().value());
+    }
+}
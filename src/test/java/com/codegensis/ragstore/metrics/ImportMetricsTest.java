@@ -0,0 +1,33 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.importer.BulkImporter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImportMetricsTest {
+
+    @Test
+    void bindTo_ReportsRowsSkippedLinesAndActiveImports() {
+        // Given
+        BulkImporter importer = mock(BulkImporter.class);
+        when(importer.getTotalSessions()).thenReturn(10L);
+        when(importer.getTotalMessages()).thenReturn(40L);
+        when(importer.getTotalDuplicates()).thenReturn(2L);
+        when(importer.getTotalRejected()).thenReturn(3L);
+        when(importer.getActiveImports()).thenReturn(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new ImportMetrics(importer).bindTo(registry);
+
+        // Then
+        assertEquals(10.0, registry.get("ragstore.import.rows").tag("type", "session").functionCounter().count());
+        assertEquals(40.0, registry.get("ragstore.import.rows").tag("type", "message").functionCounter().count());
+        assertEquals(2.0, registry.get("ragstore.import.skipped").tag("outcome", "duplicate").functionCounter().count());
+        assertEquals(3.0, registry.get("ragstore.import.skipped").tag("outcome", "rejected").functionCounter().count());
+        assertEquals(1.0, registry.get("ragstore.import.active").gauge().value());
+    }
+}
@@ -0,0 +1,100 @@
+package com.codegensis.ragstore.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import com.codegensis.ragstore.logging.CountingAsyncAppender;
+import com.codegensis.ragstore.logging.LogSampler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggingMetricsTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private final Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    private SimpleMeterRegistry registry;
+    private CountingAsyncAppender appender;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+
+        // Holds the worker on the first event, so the one-slot queue stays full
+        AppenderBase<ILoggingEvent> stalled = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        stalled.setContext(context);
+        stalled.start();
+
+        appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setName("TEST_ASYNC");
+        appender.setQueueSize(1);
+        appender.setNeverBlock(true);
+        appender.addAppender(stalled);
+        appender.start();
+        root.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        root.detachAppender(appender);
+        appender.stop();
+    }
+
+    @Test
+    void bindTo_EventsDiscarded_CountsThem() {
+        // Given
+        new LoggingMetrics().bindTo(registry);
+        assertEquals(0.0, discarded());
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            appender.doAppend(new LoggingEvent(LoggingMetricsTest.class.getName(), root, Level.INFO, "event " + i, null, null));
+        }
+
+        // Then
+        // The worker holds at most one event and the queue one more
+        assertTrue(discarded() >= 3);
+        assertNotNull(registry.get("ragstore.logging.queue.size").tag("appender", "TEST_ASYNC").gauge());
+    }
+
+    @Test
+    void logSampler_Decisions_CountedPerOutcome() {
+        // Given
+        LogSampler sampler = new LogSampler(0.0, "", registry);
+
+        // When
+        sampler.shouldLog("GET", "/api/v1/sessions", 200);
+        sampler.shouldLog("GET", "/api/v1/sessions", 200);
+        sampler.shouldLog("GET", "/api/v1/sessions", 500);
+
+        // Then
+        assertEquals(2.0, registry.get("ragstore.logging.requests").tag("decision", "suppressed").counter().count());
+        assertEquals(1.0, registry.get("ragstore.logging.requests").tag("decision", "logged").counter().count());
+    }
+
+    private double discarded() {
+        return registry.get("ragstore.logging.events.discarded").tag("appender", "TEST_ASYNC").functionCounter().count();
+    }
+}
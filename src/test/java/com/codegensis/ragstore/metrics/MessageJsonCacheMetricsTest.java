@@ -0,0 +1,35 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.json.MessageJsonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageJsonCacheMetricsTest {
+
+    @Test
+    void bindTo_ReportsSizeLookupsAndHitRatio() {
+        // Given
+        MessageJsonCache cache = mock(MessageJsonCache.class);
+        when(cache.getSize()).thenReturn(3);
+        when(cache.getBytes()).thenReturn(2048L);
+        when(cache.getHits()).thenReturn(6L);
+        when(cache.getMisses()).thenReturn(2L);
+        when(cache.getEvictions()).thenReturn(1L);
+        when(cache.getHitRatio()).thenReturn(0.75);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new MessageJsonCacheMetrics(cache).bindTo(registry);
+
+        // Then
+        assertEquals(3.0, registry.get("ragstore.message.json.cache.size").gauge().value());
+        assertEquals(2048.0, registry.get("ragstore.message.json.cache.bytes").gauge().value());
+        assertEquals(0.75, registry.get("ragstore.message.json.cache.hit.ratio").gauge().value());
+        assertEquals(6.0, registry.get("ragstore.message.json.cache.lookups").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("ragstore.message.json.cache.lookups").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("ragstore.message.json.cache.evictions").functionCounter().count());
+    }
+}
@@ -0,0 +1,145 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.repository.ReactiveChatRepository;
+import com.codegensis.ragstore.service.SessionService;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
+import com.codegensis.ragstore.storage.jdbc.JdbcMessageLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private MetricsAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        aspect = new MetricsAspect(new RagstoreMetrics(registry));
+    }
+
+    @Test
+    void timeService_Success_RecordsSuccessTimer() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = joinPoint(SessionService.class, "createSession");
+        when(joinPoint.proceed()).thenReturn("result");
+
+        // When
+        Object result = aspect.timeService(joinPoint);
+
+        // Then
+        assertEquals("result", result);
+        assertEquals(1, registry.get(RagstoreMetrics.SERVICE_TIMER)
+            .tag("service", "SessionService")
+            .tag("method", "createSession")
+            .tag("outcome", RagstoreMetrics.OUTCOME_SUCCESS)
+            .timer().count());
+    }
+
+    @Test
+    void timeService_Failure_RecordsErrorAndRethrows() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = joinPoint(SessionService.class, "deleteSession");
+        when(joinPoint.proceed()).thenThrow(new ResourceNotFoundException("Session", 1L));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> aspect.timeService(joinPoint));
+        assertEquals(1, registry.get(RagstoreMetrics.SERVICE_TIMER)
+            .tag("outcome", RagstoreMetrics.OUTCOME_CLIENT_ERROR)
+            .tag("exception", "ResourceNotFoundException")
+            .timer().count());
+    }
+
+    @Test
+    void timeStorage_Success_TagsTheEngine() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = joinPoint(MessageLog.class, "append");
+        when(joinPoint.getTarget()).thenReturn(mock(JdbcMessageLog.class));
+        when(joinPoint.proceed()).thenReturn("stored");
+
+        // When
+        Object result = aspect.timeStorage(joinPoint);
+
+        // Then
+        assertEquals("stored", result);
+        String engine = registry.get(RagstoreMetrics.STORAGE_TIMER).timer().getId().getTag("engine");
+        assertTrue(engine.startsWith("JdbcMessageLog"));
+        assertEquals(1, registry.get(RagstoreMetrics.STORAGE_TIMER)
+            .tag("method", "append")
+            .tag("endpoint", "none")
+            .tag("outcome", RagstoreMetrics.OUTCOME_SUCCESS)
+            .timer().count());
+    }
+
+    @Test
+    void timeStorage_Failure_RecordsErrorAndRethrows() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = joinPoint(SessionStore.class, "save");
+        when(joinPoint.getTarget()).thenReturn(new Object());
+        when(joinPoint.proceed()).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> aspect.timeStorage(joinPoint));
+        assertEquals(1, registry.get(RagstoreMetrics.STORAGE_TIMER)
+            .tag("engine", "Object")
+            .tag("exception", "DataIntegrityViolationException")
+            .timer().count());
+    }
+
+    @Test
+    void timeReactiveRepository_Flux_RecordsOnCompletionNotAssembly() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = joinPoint(ReactiveChatRepository.class, "findMessagesAfter");
+        when(joinPoint.proceed()).thenReturn(Flux.just(1, 2, 3));
+
+        // When
+        Flux<?> flux = (Flux<?>) aspect.timeReactiveRepository(joinPoint);
+
+        // Then
+        assertNull(registry.find(RagstoreMetrics.REPOSITORY_TIMER).timer());
+        StepVerifier.create(flux).expectNextCount(3).verifyComplete();
+        assertEquals(1, registry.get(RagstoreMetrics.REPOSITORY_TIMER)
+            .tag("repository", "ReactiveChatRepository")
+            .tag("method", "findMessagesAfter")
+            .tag("state", "SUCCESS")
+            .timer().count());
+    }
+
+    @Test
+    void timeReactiveRepository_MonoError_RecordsErrorState() throws Throwable {
+        // Given
+        ProceedingJoinPoint joinPoint = joinPoint(ReactiveChatRepository.class, "existsSessionById");
+        when(joinPoint.proceed()).thenReturn(Mono.error(new IllegalStateException("down")));
+
+        // When
+        Mono<?> mono = (Mono<?>) aspect.timeReactiveRepository(joinPoint);
+
+        // Then
+        StepVerifier.create(mono).expectError(IllegalStateException.class).verify();
+        assertEquals(1, registry.get(RagstoreMetrics.REPOSITORY_TIMER)
+            .tag("state", "ERROR")
+            .tag("exception", "IllegalStateException")
+            .timer().count());
+    }
+
+    private ProceedingJoinPoint joinPoint(Class<?> type, String method) {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(signature.getDeclaringType()).thenReturn(type);
+        when(signature.getName()).thenReturn(method);
+        return joinPoint;
+    }
+}
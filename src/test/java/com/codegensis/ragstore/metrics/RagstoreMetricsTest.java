@@ -0,0 +1,104 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RagstoreMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private RagstoreMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new RagstoreMetrics(registry);
+    }
+
+    @Test
+    void recordMessagePayload_WithContext_RecordsBothSizes() {
+        // When
+        metrics.recordMessagePayload("assistant", "hello", "{\"docs\":[]}");
+
+        // Then
+        DistributionSummary content = registry.get(RagstoreMetrics.CONTENT_SIZE).tag("sender", "assistant").summary();
+        DistributionSummary context = registry.get(RagstoreMetrics.CONTEXT_SIZE).tag("sender", "assistant").summary();
+        assertEquals(5.0, content.totalAmount());
+        assertEquals(11.0, context.totalAmount());
+    }
+
+    @Test
+    void recordMessagePayload_WithoutContext_SkipsContextSize() {
+        // When
+        metrics.recordMessagePayload("user", "hello", null);
+
+        // Then
+        assertEquals(1, registry.get(RagstoreMetrics.CONTENT_SIZE).summary().count());
+        assertNull(registry.find(RagstoreMetrics.CONTEXT_SIZE).summary());
+    }
+
+    @Test
+    void serviceTimer_TagsOutcomeAndException() {
+        // When
+        metrics.serviceTimer("GET /api/v1/sessions", "SessionService", "getSessionsByUserId",
+            new ValidationException("bad")).record(java.time.Duration.ofMillis(1));
+
+        // Then
+        assertEquals(1, registry.get(RagstoreMetrics.SERVICE_TIMER)
+            .tag("endpoint", "GET /api/v1/sessions")
+            .tag("service", "SessionService")
+            .tag("method", "getSessionsByUserId")
+            .tag("outcome", RagstoreMetrics.OUTCOME_CLIENT_ERROR)
+            .tag("exception", "ValidationException")
+            .timer().count());
+    }
+
+    @Test
+    void outcome_ClassifiesErrors() {
+        assertEquals(RagstoreMetrics.OUTCOME_SUCCESS, RagstoreMetrics.outcome(null));
+        assertEquals(RagstoreMetrics.OUTCOME_CLIENT_ERROR, RagstoreMetrics.outcome(new ResourceNotFoundException("Session", 1L)));
+        assertEquals(RagstoreMetrics.OUTCOME_CLIENT_ERROR, RagstoreMetrics.outcome(new DataIntegrityViolationException("dup")));
+        assertEquals(RagstoreMetrics.OUTCOME_SERVER_ERROR, RagstoreMetrics.outcome(new IllegalStateException("boom")));
+    }
+
+    @Test
+    void endpoint_WithRoutePattern_ReturnsMethodAndPattern() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/sessions/42/messages");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/sessions/{sessionId}/messages");
+
+        // When
+        String endpoint = RagstoreMetrics.endpoint(new ServletRequestAttributes(request));
+
+        // Then
+        assertEquals("POST /api/v1/sessions/{sessionId}/messages", endpoint);
+    }
+
+    @Test
+    void endpoint_WithoutRequest_ReturnsNone() {
+        assertEquals("none", RagstoreMetrics.endpoint(null));
+        assertEquals("none", RagstoreMetrics.endpoint(new ServletRequestAttributes(new MockHttpServletRequest())));
+    }
+
+    @Test
+    void recordValidationFailure_IncrementsCounter() {
+        // When
+        metrics.recordValidationFailure("POST /api/v1/sessions", "request_body");
+        metrics.recordValidationFailure("POST /api/v1/sessions", "request_body");
+
+        // Then
+        assertEquals(2.0, registry.get(RagstoreMetrics.VALIDATION_FAILURES)
+            .tag("endpoint", "POST /api/v1/sessions")
+            .tag("source", "request_body")
+            .counter().count());
+    }
+}
@@ -0,0 +1,52 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.config.RateLimitConfig;
+import com.codegensis.ragstore.ratelimit.LeasedRateLimiter;
+import com.codegensis.ragstore.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitMetricsTest {
+
+    @Test
+    void bindTo_ReportsTableOccupancy() {
+        // Given
+        RateLimitConfig rateLimitConfig = new RateLimitConfig(60, 0, 256);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new RateLimitMetrics(rateLimitConfig, rateLimitConfig.getApiKeyTable(), RateLimiter.UNLIMITED).bindTo(registry);
+
+        // When
+        rateLimitConfig.getApiKeyTable().tryConsume("key1");
+        rateLimitConfig.getApiKeyTable().tryConsume("key2");
+
+        // Then
+        assertEquals(2.0, registry.get("ragstore.ratelimit.table.size").tag("table", "api-key").gauge().value());
+        assertEquals(256.0, registry.get("ragstore.ratelimit.table.capacity").tag("table", "api-key").gauge().value());
+        assertEquals(0.0, registry.get("ragstore.ratelimit.table.evictions")
+            .tags("table", "api-key", "reason", "capacity").functionCounter().count());
+        assertEquals(0.0, registry.get("ragstore.ratelimit.table.size").tag("table", "unknown-key").gauge().value());
+        assertNull(registry.find("ragstore.ratelimit.store.calls").functionCounter());
+        assertNull(registry.find("ragstore.ratelimit.table.size").tag("table", "api-key-bytes").gauge());
+    }
+
+    @Test
+    void bindTo_LeasedLimiter_ReportsStoreCalls() {
+        // Given
+        RateLimitConfig rateLimitConfig = new RateLimitConfig(60, 1000, 256);
+        LeasedRateLimiter limiter = mock(LeasedRateLimiter.class);
+        LeasedRateLimiter byteLimiter = mock(LeasedRateLimiter.class);
+        when(limiter.getRemoteCalls()).thenReturn(3L);
+        when(byteLimiter.getRemoteCalls()).thenReturn(7L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new RateLimitMetrics(rateLimitConfig, limiter, byteLimiter).bindTo(registry);
+
+        // Then
+        assertEquals(3.0, registry.get("ragstore.ratelimit.store.calls").tag("table", "api-key").functionCounter().count());
+        assertEquals(7.0, registry.get("ragstore.ratelimit.store.calls").tag("table", "api-key-bytes").functionCounter().count());
+    }
+}
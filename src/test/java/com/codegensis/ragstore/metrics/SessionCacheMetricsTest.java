@@ -0,0 +1,68 @@
+package com.codegensis.ragstore.metrics;
+
+import com.codegensis.ragstore.config.SessionCacheConfig;
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.repository.SessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionCacheMetricsTest {
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new SessionCacheConfig(true, 100, 10, Duration.ofMinutes(1)).sessionCacheManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void bindTo_ReportsHitsAndMissesPerRegion() {
+        // Given
+        Cache<Object, Object> sessions = cacheManager.getCache(Session.CACHE_REGION);
+        sessions.put(1L, "session");
+        sessions.get(1L);
+        sessions.get(1L);
+        sessions.get(2L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new SessionCacheMetrics(cacheManager).bindTo(registry);
+
+        // Then
+        assertEquals(2.0, registry.get("cache.gets").tags("cache", Session.CACHE_REGION, "result", "hit")
+            .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", Session.CACHE_REGION, "result", "miss")
+            .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.puts").tag("cache", Session.CACHE_REGION).functionCounter().count());
+        assertEquals(0.0, registry.get("cache.gets").tags("cache", SessionRepository.USER_SESSIONS_CACHE_REGION,
+            "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void bindTo_ReportsEvictionsForEveryRegion() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        // When
+        new SessionCacheMetrics(cacheManager).bindTo(registry);
+
+        // Then
+        for (String region : cacheManager.getCacheNames()) {
+            assertNotNull(registry.get("cache.evictions").tags("cache", region, "cache.manager", "sessionCacheManager")
+                .functionCounter());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.codegensis.ragstore.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcRateLimitStoreTest {
+
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+
+    private AtomicLong clock;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V4__create_rate_limit_buckets_table.sql"))
+            .execute(dataSource);
+        clock = new AtomicLong(1_000_000L);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        store = new JdbcRateLimitStore(jdbcTemplate, new DataSourceTransactionManager(dataSource), clock::get);
+    }
+
+    @Test
+    void acquire_NewBucket_GrantsRequestedTokens() {
+        // When
+        RateLimitStore.Grant grant = store.acquire("bucket", 10, 60, PERIOD);
+
+        // Then
+        assertEquals(10, grant.tokens());
+        assertEquals(clock.get(), grant.windowStart());
+        assertEquals(50, grant.remaining());
+        assertEquals(50, tokens("bucket"));
+    }
+
+    @Test
+    void acquire_BucketNearlyDry_GrantsWhatIsLeft() {
+        // Given
+        store.acquire("bucket", 55, 60, PERIOD);
+
+        // When
+        RateLimitStore.Grant partial = store.acquire("bucket", 10, 60, PERIOD);
+        RateLimitStore.Grant empty = store.acquire("bucket", 10, 60, PERIOD);
+
+        // Then
+        assertEquals(5, partial.tokens());
+        assertEquals(0, empty.tokens());
+    }
+
+    @Test
+    void acquire_WindowExpired_Refills() {
+        // Given
+        store.acquire("bucket", 60, 60, PERIOD);
+        clock.addAndGet(PERIOD.toMillis());
+
+        // When
+        RateLimitStore.Grant grant = store.acquire("bucket", 10, 60, PERIOD);
+
+        // Then
+        assertEquals(10, grant.tokens());
+        assertEquals(clock.get(), grant.windowStart());
+    }
+
+    @Test
+    void release_SameWindow_ReturnsTokensUpToLimit() {
+        // Given
+        RateLimitStore.Grant grant = store.acquire("bucket", 10, 60, PERIOD);
+
+        // When
+        store.release(List.of(new RateLimitStore.Release("bucket", grant.windowStart(), 8, 60)));
+        store.release(List.of(new RateLimitStore.Release("bucket", grant.windowStart(), 8, 60)));
+
+        // Then
+        assertEquals(60, tokens("bucket"));
+    }
+
+    @Test
+    void release_StaleWindow_IsIgnored() {
+        // Given
+        RateLimitStore.Grant stale = store.acquire("bucket", 10, 60, PERIOD);
+        clock.addAndGet(PERIOD.toMillis());
+        store.acquire("bucket", 60, 60, PERIOD);
+
+        // When
+        store.release(List.of(new RateLimitStore.Release("bucket", stale.windowStart(), 10, 60)));
+
+        // Then
+        assertEquals(0, tokens("bucket"));
+    }
+
+    @Test
+    void purgeBefore_DeletesOldBuckets() {
+        // Given
+        store.acquire("old", 1, 60, PERIOD);
+        clock.addAndGet(3 * PERIOD.toMillis());
+        store.acquire("new", 1, 60, PERIOD);
+
+        // When
+        store.purgeBefore(clock.get() - 2 * PERIOD.toMillis());
+
+        // Then
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_buckets", Integer.class));
+    }
+
+    private int tokens(String bucketId) {
+        return jdbcTemplate.queryForObject("SELECT tokens FROM rate_limit_buckets WHERE bucket_id = ?", Integer.class, bucketId);
+    }
+}
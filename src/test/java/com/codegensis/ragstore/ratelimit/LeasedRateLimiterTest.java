@@ -0,0 +1,328 @@
+package com.codegensis.ragstore.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LeasedRateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+    private static final Duration SYNC_INTERVAL = Duration.ofSeconds(1);
+
+    private AtomicLong clock;
+    private InMemoryStore store;
+    private RateLimiter fallback;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000L);
+        store = new InMemoryStore(clock);
+        fallback = mock(RateLimiter.class);
+    }
+
+    private LeasedRateLimiter limiter(int limit, int prefetch, int maxLeases) {
+        return new LeasedRateLimiter(store, fallback, "requests", limit, PERIOD, prefetch, maxLeases, SYNC_INTERVAL, clock::get, false);
+    }
+
+    @Test
+    void tryConsume_Prefetches_OneStoreCallPerBatch() {
+        // Given
+        LeasedRateLimiter limiter = limiter(100, 10, 16);
+
+        // When
+        for (int i = 0; i < 25; i++) {
+            assertTrue(limiter.tryConsume("key1"));
+        }
+
+        // Then
+        assertEquals(3, limiter.getRemoteCalls());
+        assertEquals(3, store.acquireCalls);
+    }
+
+    @Test
+    void tryConsume_InstancesShareOneLimit() {
+        // Given
+        LeasedRateLimiter first = limiter(30, 5, 16);
+        LeasedRateLimiter second = limiter(30, 5, 16);
+
+        // When
+        int allowed = 0;
+        for (int i = 0; i < 40; i++) {
+            allowed += first.tryConsume("key1") ? 1 : 0;
+            allowed += second.tryConsume("key1") ? 1 : 0;
+        }
+
+        // Then
+        assertEquals(30, allowed);
+    }
+
+    @Test
+    void tryConsume_BucketDry_RejectsLocallyUntilWindowEnds() {
+        // Given
+        LeasedRateLimiter limiter = limiter(5, 5, 16);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryConsume("key1");
+        }
+
+        // When
+        boolean first = limiter.tryConsume("key1");
+        long callsAfterFirstRejection = limiter.getRemoteCalls();
+        boolean second = limiter.tryConsume("key1");
+
+        // Then
+        assertFalse(first);
+        assertFalse(second);
+        assertEquals(callsAfterFirstRejection, limiter.getRemoteCalls());
+    }
+
+    @Test
+    void tryConsume_WindowEnds_RefillsFromStore() {
+        // Given
+        LeasedRateLimiter limiter = limiter(5, 5, 16);
+        for (int i = 0; i < 6; i++) {
+            limiter.tryConsume("key1");
+        }
+
+        // When
+        clock.addAndGet(PERIOD.toMillis());
+
+        // Then
+        assertTrue(limiter.tryConsume("key1"));
+    }
+
+    @Test
+    void sync_IdleLease_ReturnsUnusedTokens() {
+        // Given
+        LeasedRateLimiter first = limiter(10, 10, 16);
+        LeasedRateLimiter second = limiter(10, 10, 16);
+        first.tryConsume("key1");
+        assertFalse(second.tryConsume("key1"));
+
+        // When
+        clock.addAndGet(SYNC_INTERVAL.toMillis());
+        first.sync();
+        clock.addAndGet(1);
+
+        // Then
+        assertEquals(9, first.getReleasedTokens());
+        assertEquals(0, first.getLeaseCount());
+        assertFalse(second.tryConsume("key1"), "second instance still caches the dry window");
+        LeasedRateLimiter third = limiter(10, 10, 16);
+        assertTrue(third.tryConsume("key1"));
+    }
+
+    @Test
+    void sync_PurgesStaleBuckets() {
+        // Given
+        LeasedRateLimiter limiter = limiter(10, 10, 16);
+
+        // When
+        limiter.sync();
+
+        // Then
+        assertEquals(clock.get() - 2 * PERIOD.toMillis(), store.purgedBefore);
+    }
+
+    @Test
+    void tryConsume_LeaseTableFull_AcquiresSingleTokens() {
+        // Given
+        LeasedRateLimiter limiter = limiter(100, 10, 1);
+        limiter.tryConsume("key1");
+
+        // When
+        assertTrue(limiter.tryConsume("key2"));
+        assertTrue(limiter.tryConsume("key2"));
+
+        // Then
+        assertEquals(1, limiter.getLeaseCount());
+        assertEquals(98, store.tokensLeft("key2"));
+    }
+
+    @Test
+    void tryConsume_StoreFails_FallsBackToLocalLimiter() {
+        // Given
+        RateLimitStore failing = mock(RateLimitStore.class);
+        when(failing.acquire(anyString(), anyInt(), anyInt(), any())).thenThrow(new IllegalStateException("down"));
+        when(fallback.tryConsume("key1", 1, 10)).thenReturn(new RateLimitResult(true, 9, 60_000));
+        LeasedRateLimiter limiter = new LeasedRateLimiter(failing, fallback, "requests", 10, PERIOD, 5, 16, SYNC_INTERVAL, clock::get, false);
+
+        // When
+        boolean allowed = limiter.tryConsume("key1");
+
+        // Then
+        assertTrue(allowed);
+        assertEquals(1, limiter.getFallbacks());
+        verify(fallback).tryConsume("key1", 1, 10);
+    }
+
+    @Test
+    void close_ReturnsAllUnusedTokens() {
+        // Given
+        LeasedRateLimiter limiter = limiter(10, 10, 16);
+        limiter.tryConsume("key1");
+
+        // When
+        limiter.close();
+
+        // Then
+        assertEquals(9, store.tokensLeft("key1"));
+    }
+
+    @Test
+    void tryConsume_WeightedTokens_TakesFromLeaseAndReportsQuota() {
+        // Given
+        LeasedRateLimiter limiter = limiter(100, 10, 16);
+
+        // When
+        RateLimitResult first = limiter.tryConsume("key1", 4);
+        RateLimitResult second = limiter.tryConsume("key1", 4);
+
+        // Then
+        assertTrue(first.allowed());
+        assertTrue(second.allowed());
+        assertEquals(1, limiter.getRemoteCalls());
+        assertEquals(92, second.remaining());
+        assertEquals(PERIOD.toMillis(), second.resetMillis());
+    }
+
+    @Test
+    void tryConsume_CostAbovePrefetch_AcquiresWholeCost() {
+        // Given
+        LeasedRateLimiter limiter = limiter(100, 10, 16);
+
+        // When
+        RateLimitResult result = limiter.tryConsume("key1", 25);
+
+        // Then
+        assertTrue(result.allowed());
+        assertEquals(75, store.tokensLeft("key1"));
+    }
+
+    @Test
+    void tryConsume_CostAboveRemaining_RejectsButKeepsTokensForSmallerRequests() {
+        // Given
+        LeasedRateLimiter limiter = limiter(10, 5, 16);
+        limiter.tryConsume("key1", 5);
+
+        // When
+        RateLimitResult large = limiter.tryConsume("key1", 8);
+        RateLimitResult small = limiter.tryConsume("key1", 5);
+
+        // Then
+        assertFalse(large.allowed());
+        assertTrue(small.allowed());
+        assertFalse(limiter.tryConsume("key1", 1).allowed());
+    }
+
+    @Test
+    void tryConsume_CostAboveLimit_RejectsWithoutStoreCall() {
+        // Given
+        LeasedRateLimiter limiter = limiter(10, 5, 16);
+
+        // When
+        RateLimitResult result = limiter.tryConsume("key1", 11);
+
+        // Then
+        assertFalse(result.allowed());
+        assertEquals(0, limiter.getRemoteCalls());
+    }
+
+    @Test
+    void tryConsume_KeyLimit_OverridesDefault() {
+        // Given
+        LeasedRateLimiter limiter = limiter(100, 10, 16);
+
+        // When
+        RateLimitResult first = limiter.tryConsume("key1", 3, 5);
+        RateLimitResult second = limiter.tryConsume("key1", 3, 5);
+
+        // Then
+        assertTrue(first.allowed());
+        assertEquals(2, first.remaining());
+        assertFalse(second.allowed());
+        assertEquals(0, store.tokensLeft("key1"));
+    }
+
+    @Test
+    void refund_ReturnsTokensToLease() {
+        // Given
+        LeasedRateLimiter limiter = limiter(5, 5, 16);
+        limiter.tryConsume("key1", 5);
+
+        // When
+        limiter.refund("key1", 2);
+
+        // Then
+        assertTrue(limiter.tryConsume("key1", 2).allowed());
+        assertEquals(1, limiter.getRemoteCalls());
+    }
+
+    @Test
+    void bucketId_IsKeyDigestPerNamespace() {
+        assertEquals(64, LeasedRateLimiter.bucketId("requests", "key1").length());
+        assertNotEquals(LeasedRateLimiter.bucketId("requests", "key1"), LeasedRateLimiter.bucketId("requests", "key2"));
+        assertNotEquals(LeasedRateLimiter.bucketId("requests", "key1"), LeasedRateLimiter.bucketId("bytes", "key1"));
+    }
+
+    @Test
+    void constructor_InvalidArguments_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(0, 10, 16));
+        assertThrows(IllegalArgumentException.class, () -> limiter(10, 0, 16));
+    }
+
+    /** Same window semantics as the JDBC store, kept in a map. */
+    private static final class InMemoryStore implements RateLimitStore {
+
+        private final AtomicLong clock;
+        private final Map<String, long[]> buckets = new HashMap<>();
+        private int acquireCalls;
+        private long purgedBefore = Long.MIN_VALUE;
+
+        InMemoryStore(AtomicLong clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public synchronized Grant acquire(String bucketId, int requested, int limit, Duration period) {
+            acquireCalls++;
+            long now = clock.get();
+            long[] bucket = buckets.computeIfAbsent(bucketId, id -> new long[] {now, limit});
+            if (now - bucket[0] >= period.toMillis()) {
+                bucket[0] = now;
+                bucket[1] = limit;
+            }
+            int granted = (int) Math.min(requested, bucket[1]);
+            bucket[1] -= granted;
+            return new Grant(granted, bucket[0], bucket[1]);
+        }
+
+        @Override
+        public synchronized void release(List<Release> releases) {
+            for (Release release : releases) {
+                long[] bucket = buckets.get(release.bucketId());
+                if (bucket != null && bucket[0] == release.windowStart()) {
+                    bucket[1] = Math.min(release.limit(), bucket[1] + release.tokens());
+                }
+            }
+        }
+
+        @Override
+        public synchronized void purgeBefore(long windowStart) {
+            purgedBefore = windowStart;
+            buckets.values().removeIf(bucket -> bucket[0] < windowStart);
+        }
+
+        synchronized long tokensLeft(String key) {
+            return buckets.get(LeasedRateLimiter.bucketId("requests", key))[1];
+        }
+    }
+}
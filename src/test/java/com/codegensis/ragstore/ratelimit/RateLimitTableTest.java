@@ -0,0 +1,230 @@
+package com.codegensis.ragstore.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitTableTest {
+
+    // Fixed so the keys that share a probe run, and so the evictions, are the same on every run
+    private static final long SEED = 42L;
+
+    private AtomicLong clock;
+    private RateLimitTable table;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000_000L);
+        table = new RateLimitTable(64, 3, Duration.ofMinutes(1), clock::get, SEED);
+    }
+
+    @Test
+    void tryConsume_WithinLimit_ReturnsTrue() {
+        // When & Then
+        assertTrue(table.tryConsume("key1"));
+        assertTrue(table.tryConsume("key1"));
+        assertTrue(table.tryConsume("key1"));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void tryConsume_LimitExhausted_ReturnsFalse() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            table.tryConsume("key1");
+        }
+
+        // When & Then
+        assertFalse(table.tryConsume("key1"));
+        assertTrue(table.tryConsume("key2"));
+    }
+
+    @Test
+    void tryConsume_PeriodElapsed_RefillsTokens() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            table.tryConsume("key1");
+        }
+
+        // When
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+
+        // Then
+        assertTrue(table.tryConsume("key1"));
+    }
+
+    @Test
+    void tryConsume_BeforePeriodElapsed_DoesNotRefill() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            table.tryConsume("key1");
+        }
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(59));
+
+        // Then
+        assertFalse(table.tryConsume("key1"));
+    }
+
+    @Test
+    void tryConsume_MoreKeysThanCapacity_StaysBounded() {
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            table.tryConsume("sprayed-" + i);
+        }
+
+        // Then
+        assertEquals(64, table.capacity());
+        assertTrue(table.size() <= table.capacity());
+        assertTrue(table.getCapacityEvictions() > 0);
+    }
+
+    @Test
+    void tryConsume_IdleKeysExpired_ReusesTheirSlots() {
+        // Given
+        for (int i = 0; i < 1_000; i++) {
+            table.tryConsume("old-" + i);
+        }
+        long capacityEvictions = table.getCapacityEvictions();
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+
+        // When
+        for (int i = 0; i < 32; i++) {
+            table.tryConsume("new-" + i);
+        }
+
+        // Then
+        assertTrue(table.getExpiredEvictions() > 0);
+        assertEquals(capacityEvictions, table.getCapacityEvictions());
+    }
+
+    @Test
+    void tryConsume_KeyEvictedAfterExpiry_StartsWithFullBucket() {
+        // Given
+        RateLimitTable small = new RateLimitTable(16, 1, Duration.ofMinutes(1), clock::get, SEED);
+        small.tryConsume("key1");
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 100; i++) {
+            small.tryConsume("other-" + i);
+        }
+
+        // When & Then
+        assertTrue(small.tryConsume("key1"));
+    }
+
+    @Test
+    void tryConsume_ConcurrentCallers_NeverExceedsLimit() throws Exception {
+        // Given
+        RateLimitTable shared = new RateLimitTable(64, 1_000, Duration.ofMinutes(1), clock::get, SEED);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (shared.tryConsume("shared-key")) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(1_000, granted.get());
+    }
+
+    @Test
+    void tryConsume_WeightedTokens_ReportsRemainingAndReset() {
+        // Given
+        RateLimitTable weighted = new RateLimitTable(64, 10, Duration.ofMinutes(1), clock::get, SEED);
+        weighted.tryConsume("key1", 4);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(15));
+
+        // When
+        RateLimitResult allowed = weighted.tryConsume("key1", 5);
+        RateLimitResult rejected = weighted.tryConsume("key1", 2);
+
+        // Then
+        assertTrue(allowed.allowed());
+        assertEquals(1, allowed.remaining());
+        assertEquals(45_000, allowed.resetMillis());
+        assertFalse(rejected.allowed());
+        assertEquals(1, rejected.remaining());
+        assertEquals(10, weighted.limit());
+    }
+
+    @Test
+    void tryConsume_CostAboveLimit_NeverAllowed() {
+        assertFalse(table.tryConsume("key1", 4).allowed());
+        assertTrue(table.tryConsume("key1", 3).allowed());
+    }
+
+    @Test
+    void tryConsume_KeyLimit_OverridesTableLimit() {
+        // When
+        RateLimitResult first = table.tryConsume("key1", 5, 6);
+        RateLimitResult second = table.tryConsume("key1", 2, 6);
+
+        // Then
+        assertTrue(first.allowed());
+        assertEquals(1, first.remaining());
+        assertFalse(second.allowed());
+        assertEquals(2, table.tryConsume("key2", 1).remaining());
+    }
+
+    @Test
+    void refund_ReturnsTokensUpToLimit() {
+        // Given
+        table.tryConsume("key1", 3);
+
+        // When
+        table.refund("key1", 2);
+        table.refund("unknown", 2);
+
+        // Then
+        assertEquals(0, table.tryConsume("key1", 2).remaining());
+        table.refund("key1", 10);
+        assertEquals(2, table.tryConsume("key1", 1).remaining());
+    }
+
+    @Test
+    void clear_ResetsAllKeys() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            table.tryConsume("key1");
+        }
+
+        // When
+        table.clear();
+
+        // Then
+        assertEquals(0, table.size());
+        assertTrue(table.tryConsume("key1"));
+    }
+
+    @Test
+    void fingerprint_IsNeverZeroAndDistinguishesKeys() {
+        assertNotEquals(0L, table.fingerprint(""));
+        assertNotEquals(table.fingerprint("key1"), table.fingerprint("key2"));
+        assertEquals(table.fingerprint("key1"), table.fingerprint("key1"));
+    }
+
+    @Test
+    void constructor_InvalidArguments_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitTable(0, 1, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitTable(16, 0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitTable(16, 1, Duration.ZERO));
+    }
+}
@@ -0,0 +1,45 @@
+package com.codegensis.ragstore.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCostTableTest {
+
+    @Test
+    void costOf_UnlistedRoute_ReturnsDefault() {
+        // Given
+        RouteCostTable table = new RouteCostTable("");
+
+        // When & Then
+        assertEquals(RouteCostTable.DEFAULT_COST, table.costOf("GET", "/api/v1/sessions"));
+    }
+
+    @Test
+    void costOf_MethodAndVariableRoute_ReturnsConfiguredCost() {
+        // Given
+        RouteCostTable table = new RouteCostTable("GET /api/v1/sessions/{sessionId}/messages=2, GET /api/v1/stream/sessions/**=10");
+
+        // When & Then
+        assertEquals(2, table.costOf("GET", "/api/v1/sessions/42/messages"));
+        assertEquals(10, table.costOf("GET", "/api/v1/stream/sessions/42/messages/tail"));
+        assertEquals(1, table.costOf("POST", "/api/v1/sessions/42/messages"));
+    }
+
+    @Test
+    void costOf_AnyMethodRoute_AppliesUnlessMethodSpecificMatches() {
+        // Given
+        RouteCostTable table = new RouteCostTable("/api/v1/sessions/**=3,DELETE /api/v1/sessions/{sessionId}=0");
+
+        // When & Then
+        assertEquals(3, table.costOf("GET", "/api/v1/sessions/42"));
+        assertEquals(0, table.costOf("DELETE", "/api/v1/sessions/42"));
+    }
+
+    @Test
+    void constructor_MalformedEntry_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new RouteCostTable("GET /api/v1/sessions"));
+        assertThrows(IllegalArgumentException.class, () -> new RouteCostTable("/api/v1/sessions=-1"));
+        assertThrows(NumberFormatException.class, () -> new RouteCostTable("/api/v1/sessions=many"));
+    }
+}
@@ -0,0 +1,208 @@
+package com.codegensis.ragstore.service;
+
+import com.codegensis.ragstore.auth.ApiKeyPrincipal;
+import com.codegensis.ragstore.auth.VerifiedKeyCache;
+import com.codegensis.ragstore.dto.request.CreateApiKeyRequest;
+import com.codegensis.ragstore.dto.response.ApiKeyResponse;
+import com.codegensis.ragstore.dto.response.CreatedApiKeyResponse;
+import com.codegensis.ragstore.entity.ApiKey;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.mapper.ApiKeyMapper;
+import com.codegensis.ragstore.repository.ApiKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ApiKeyServiceTest {
+
+    private static final String KEY = "rsk_tenantkey";
+
+    private ApiKeyRepository apiKeyRepository;
+    private VerifiedKeyCache cache;
+    private ApiKeyService apiKeyService;
+    private ApiKey apiKey;
+
+    @BeforeEach
+    void setUp() {
+        apiKeyRepository = mock(ApiKeyRepository.class);
+        cache = new VerifiedKeyCache(100, Duration.ofSeconds(60), Duration.ofSeconds(5));
+        apiKeyService = new ApiKeyService(apiKeyRepository, new ApiKeyMapper(), "primary-key", "",
+            cache, Duration.ofSeconds(60), Duration.ofSeconds(2), false);
+
+        apiKey = new ApiKey();
+        apiKey.setId(7L);
+        apiKey.setKeyHash(ApiKeyService.hash(KEY));
+        apiKey.setKeyPrefix(KEY.substring(0, 12));
+        apiKey.setTenantId("tenant_a");
+        apiKey.setName("ingest");
+        apiKey.setScopes("read,write");
+        apiKey.setRequestsPerMinute(600);
+    }
+
+    @Test
+    void authenticate_BootstrapKey_HasAllScopesWithoutLookup() {
+        // When
+        Optional<ApiKeyPrincipal> principal = apiKeyService.authenticate("primary-key");
+
+        // Then
+        assertTrue(principal.isPresent());
+        assertEquals(ApiKeyService.BOOTSTRAP_TENANT, principal.get().tenantId());
+        assertTrue(principal.get().hasScope(ApiKeyPrincipal.SCOPE_ADMIN));
+        verifyNoInteractions(apiKeyRepository);
+    }
+
+    @Test
+    void authenticate_RegisteredKey_LooksUpHashOnceThenUsesCache() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(ApiKeyService.hash(KEY))).thenReturn(Optional.of(apiKey));
+
+        // When
+        Optional<ApiKeyPrincipal> first = apiKeyService.authenticate(KEY);
+        Optional<ApiKeyPrincipal> second = apiKeyService.authenticate(KEY);
+
+        // Then
+        assertEquals("tenant_a", first.orElseThrow().tenantId());
+        assertEquals(Set.of("read", "write"), first.get().scopes());
+        assertEquals(600, first.get().requestsPerMinute());
+        assertEquals(first, second);
+        verify(apiKeyRepository, times(1)).findByKeyHash(any());
+    }
+
+    @Test
+    void authenticate_UnknownKey_CachesRejection() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(any())).thenReturn(Optional.empty());
+
+        // When
+        Optional<ApiKeyPrincipal> first = apiKeyService.authenticate("guess");
+        Optional<ApiKeyPrincipal> second = apiKeyService.authenticate("guess");
+
+        // Then
+        assertTrue(first.isEmpty());
+        assertTrue(second.isEmpty());
+        verify(apiKeyRepository, times(1)).findByKeyHash(any());
+    }
+
+    @Test
+    void findCached_BeforeAndAfterLookup_AnswersWithoutQuerying() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(any())).thenReturn(Optional.empty());
+
+        // When
+        VerifiedKeyCache.Entry bootstrap = apiKeyService.findCached("primary-key");
+        VerifiedKeyCache.Entry before = apiKeyService.findCached("guess");
+        apiKeyService.authenticate("guess");
+        VerifiedKeyCache.Entry after = apiKeyService.findCached("guess");
+
+        // Then
+        assertTrue(bootstrap.valid());
+        assertNull(before);
+        assertFalse(after.valid());
+        verify(apiKeyRepository, times(1)).findByKeyHash(any());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    void authenticate_RevokedKey_IsRejected() {
+        // Given
+        apiKey.setRevokedAt(LocalDateTime.now());
+        when(apiKeyRepository.findByKeyHash(ApiKeyService.hash(KEY))).thenReturn(Optional.of(apiKey));
+
+        // When & Then
+        assertTrue(apiKeyService.authenticate(KEY).isEmpty());
+    }
+
+    @Test
+    void createApiKey_StoresHashOnlyAndReturnsKeyOnce() {
+        // Given
+        when(apiKeyRepository.save(any(ApiKey.class))).thenAnswer(invocation -> {
+            ApiKey saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+
+        // When
+        CreatedApiKeyResponse response = apiKeyService.createApiKey(
+            new CreateApiKeyRequest("tenant_b", "sync", 120, null));
+
+        // Then
+        ArgumentCaptor<ApiKey> captor = ArgumentCaptor.forClass(ApiKey.class);
+        verify(apiKeyRepository).save(captor.capture());
+        ApiKey saved = captor.getValue();
+        assertTrue(response.key().startsWith(ApiKeyService.KEY_PREFIX));
+        assertEquals(ApiKeyService.hash(response.key()), saved.getKeyHash());
+        assertNotEquals(response.key(), saved.getKeyHash());
+        assertEquals(response.key().substring(0, 12), response.apiKey().keyPrefix());
+        assertEquals("read,write", saved.getScopes());
+        assertEquals(9L, response.apiKey().id());
+    }
+
+    @Test
+    void createApiKey_UnknownScope_ThrowsValidationException() {
+        // Given
+        CreateApiKeyRequest request = new CreateApiKeyRequest("tenant_b", "sync", null, Set.of("read", "root"));
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> apiKeyService.createApiKey(request));
+        verify(apiKeyRepository, never()).save(any());
+    }
+
+    @Test
+    void revokeApiKey_EvictsCachedKey() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(ApiKeyService.hash(KEY))).thenReturn(Optional.of(apiKey));
+        when(apiKeyRepository.findById(7L)).thenReturn(Optional.of(apiKey));
+        when(apiKeyRepository.save(apiKey)).thenReturn(apiKey);
+        apiKeyService.authenticate(KEY);
+
+        // When
+        ApiKeyResponse response = apiKeyService.revokeApiKey(7L);
+
+        // Then
+        assertNotNull(response.revokedAt());
+        assertTrue(apiKeyService.authenticate(KEY).isEmpty());
+    }
+
+    @Test
+    void revokeApiKey_NotFound_ThrowsException() {
+        // Given
+        when(apiKeyRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> apiKeyService.revokeApiKey(99L));
+    }
+
+    @Test
+    void pollRevocations_RevokedElsewhere_EvictsCachedKey() {
+        // Given
+        when(apiKeyRepository.findByKeyHash(ApiKeyService.hash(KEY))).thenReturn(Optional.of(apiKey));
+        apiKeyService.authenticate(KEY);
+        ApiKey revoked = new ApiKey();
+        revoked.setKeyHash(apiKey.getKeyHash());
+        revoked.setRevokedAt(LocalDateTime.now());
+        when(apiKeyRepository.findByRevokedAtAfter(any())).thenReturn(List.of(revoked));
+
+        // When
+        apiKeyService.pollRevocations();
+
+        // Then
+        assertNull(cache.get(apiKey.getKeyHash()));
+    }
+
+    @Test
+    void getApiKeysByTenantId_BlankTenant_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> apiKeyService.getApiKeysByTenantId(" "));
+    }
+}
@@ -0,0 +1,71 @@
+package com.codegensis.ragstore.service;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageBroadcasterTest {
+
+    private MessageBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new MessageBroadcaster(16);
+    }
+
+    @Test
+    void publish_ActiveSubscriber_ReceivesMessage() {
+        // Given
+        MessageResponse message = message(1L, 10L);
+
+        // When & Then
+        StepVerifier.create(broadcaster.subscribe(10L).take(1))
+            .then(() -> broadcaster.publish(message))
+            .expectNext(message)
+            .verifyComplete();
+    }
+
+    @Test
+    void publish_OtherSession_NotDelivered() {
+        // When & Then
+        StepVerifier.create(broadcaster.subscribe(10L))
+            .then(() -> broadcaster.publish(message(1L, 20L)))
+            .expectNoEvent(Duration.ofMillis(50))
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void publish_NoSubscribers_DoesNothing() {
+        // When & Then
+        assertDoesNotThrow(() -> broadcaster.publish(message(1L, 10L)));
+        assertEquals(0, broadcaster.activeSessionCount());
+    }
+
+    @Test
+    void subscribe_LastSubscriberCancels_ReleasesSession() {
+        // Given
+        Disposable first = broadcaster.subscribe(10L).subscribe();
+        Disposable second = broadcaster.subscribe(10L).subscribe();
+        assertEquals(1, broadcaster.activeSessionCount());
+
+        // When
+        first.dispose();
+
+        // Then
+        assertEquals(1, broadcaster.activeSessionCount());
+        second.dispose();
+        assertEquals(0, broadcaster.activeSessionCount());
+    }
+
+    private MessageResponse message(Long id, Long sessionId) {
+        return new MessageResponse(id, sessionId, id, "user", "content", null, LocalDateTime.now());
+    }
+}
@@ -3,12 +3,14 @@ package com.codegensis.ragstore.service;
 import com.codegensis.ragstore.dto.request.AddMessageRequest;
 import com.codegensis.ragstore.dto.response.MessagePageResponse;
 import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SerializedMessagePage;
 import com.codegensis.ragstore.entity.Message;
 import com.codegensis.ragstore.exception.ResourceNotFoundException;
 import com.codegensis.ragstore.exception.ValidationException;
-import com.codegensis.ragstore.mapper.MessageMapper;
-import com.codegensis.ragstore.repository.MessageRepository;
-import com.codegensis.ragstore.repository.SessionRepository;
+import com.codegensis.ragstore.json.MessageJsonCache;
+import com.codegensis.ragstore.metrics.RagstoreMetrics;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
 import com.codegensis.ragstore.validator.MessageValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,17 +18,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,23 +39,28 @@ import static org.mockito.Mockito.*;
 class MessageServiceTest {
 
     @Mock
-    private MessageRepository messageRepository;
+    private MessageLog messageLog;
 
     @Mock
-    private SessionRepository sessionRepository;
+    private SessionStore sessionStore;
 
     @Mock
-    private MessageMapper messageMapper;
+    private MessageValidator messageValidator;
 
     @Mock
-    private MessageValidator messageValidator;
+    private MessageBroadcaster messageBroadcaster;
+
+    @Mock
+    private MessageJsonCache messageJsonCache;
+
+    @Mock
+    private RagstoreMetrics metrics;
 
     @InjectMocks
     private MessageService messageService;
 
     private Long sessionId;
     private AddMessageRequest addMessageRequest;
-    private Message message;
     private MessageResponse messageResponse;
 
     @BeforeEach
@@ -63,17 +73,10 @@ class MessageServiceTest {
             "Test context"
         );
 
-        message = new Message();
-        message.setId(1L);
-        message.setSessionId(sessionId);
-        message.setSender(Message.Sender.USER);
-        message.setContent("Test message content");
-        message.setContext("Test context");
-        message.setTimestamp(LocalDateTime.now());
-
         messageResponse = new MessageResponse(
             1L,
             sessionId,
+            1L,
             "user",
             "Test message content",
             "Test context",
@@ -84,10 +87,8 @@ class MessageServiceTest {
     @Test
     void addMessage_Success() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
         when(messageValidator.validateAndParseSender("user")).thenReturn(Message.Sender.USER);
-        when(messageRepository.save(any(Message.class))).thenReturn(message);
-        when(messageMapper.toResponse(message)).thenReturn(messageResponse);
+        when(messageLog.append(any(Message.class))).thenReturn(messageResponse);
 
         // When
         MessageResponse result = messageService.addMessage(sessionId, addMessageRequest);
@@ -95,32 +96,92 @@ class MessageServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(messageResponse, result);
-        verify(sessionRepository).existsById(sessionId);
         verify(messageValidator).validateAndParseSender("user");
         verify(messageValidator).validateContent("Test message content");
         verify(messageValidator).validateContext("Test context");
-        verify(messageRepository).save(any(Message.class));
-        verify(messageMapper).toResponse(message);
+        verify(messageLog).append(argThat(message -> sessionId.equals(message.getSessionId())
+            && message.getSender() == Message.Sender.USER && "Test context".equals(message.getContext())));
+        verify(sessionStore, never()).existsById(any());
+        verify(messageJsonCache).put(messageResponse);
+        verify(messageBroadcaster).publish(messageResponse);
+        verify(metrics).recordMessagePayload("user", "Test message content", "Test context");
+    }
+
+    @Test
+    void addMessages_ValidBatch_SavesAllInOneCall() {
+        // Given
+        AddMessageRequest answer = new AddMessageRequest("assistant", "Answer", null);
+        MessageResponse answerResponse = new MessageResponse(2L, sessionId, 2L, "assistant", "Answer", null, LocalDateTime.now());
+        when(sessionStore.existsById(sessionId)).thenReturn(true);
+        when(messageValidator.validateAndParseSender("user")).thenReturn(Message.Sender.USER);
+        when(messageValidator.validateAndParseSender("assistant")).thenReturn(Message.Sender.ASSISTANT);
+        when(messageLog.appendAll(anyList())).thenReturn(List.of(messageResponse, answerResponse));
+
+        // When
+        List<MessageResponse> result = messageService.addMessages(sessionId, List.of(addMessageRequest, answer));
+
+        // Then
+        assertEquals(List.of(messageResponse, answerResponse), result);
+        verify(sessionStore, times(1)).existsById(sessionId);
+        verify(messageLog).appendAll(argThat(saved -> ((List<Message>) saved).size() == 2));
+        verify(messageJsonCache).put(answerResponse);
+        verify(messageBroadcaster).publish(messageResponse);
+        verify(messageBroadcaster).publish(answerResponse);
+        verify(metrics).recordMessagePayload("assistant", "Answer", null);
+    }
+
+    @Test
+    void addMessages_InvalidMessage_StoresNothing() {
+        // Given
+        when(sessionStore.existsById(sessionId)).thenReturn(true);
+        when(messageValidator.validateAndParseSender("user")).thenReturn(Message.Sender.USER);
+        // The valid message is checked first, so the stub sees other arguments too
+        lenient().doThrow(new ValidationException("Content is required")).when(messageValidator).validateContent("");
+        AddMessageRequest invalid = new AddMessageRequest("user", "", null);
+
+        // When & Then
+        assertThrows(ValidationException.class,
+            () -> messageService.addMessages(sessionId, List.of(addMessageRequest, invalid)));
+        verify(messageLog, never()).appendAll(any());
+        verify(metrics, never()).recordMessagePayload(any(), any(), any());
+        verify(messageBroadcaster, never()).publish(any());
     }
 
     @Test
     void addMessage_SessionNotFound_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(false);
+        when(messageValidator.validateAndParseSender("user")).thenReturn(Message.Sender.USER);
+        when(messageLog.append(any(Message.class))).thenThrow(new DataIntegrityViolationException("FOREIGN KEY constraint"));
+        when(sessionStore.existsById(sessionId)).thenReturn(false);
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             messageService.addMessage(sessionId, addMessageRequest);
         });
 
-        verify(sessionRepository).existsById(sessionId);
-        verify(messageRepository, never()).save(any());
+        verify(sessionStore).existsById(sessionId);
+        verify(messageBroadcaster, never()).publish(any());
+        verify(messageJsonCache, never()).put(any());
+        verify(metrics, never()).recordMessagePayload(any(), any(), any());
+    }
+
+    @Test
+    void addMessage_ConstraintViolationOnExistingSession_Rethrows() {
+        // Given
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("CHECK constraint");
+        when(messageValidator.validateAndParseSender("user")).thenReturn(Message.Sender.USER);
+        when(messageLog.append(any(Message.class))).thenThrow(violation);
+        when(sessionStore.existsById(sessionId)).thenReturn(true);
+
+        // When & Then
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+            () -> messageService.addMessage(sessionId, addMessageRequest)));
+        verify(messageBroadcaster, never()).publish(any());
     }
 
     @Test
     void addMessage_InvalidSender_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
         when(messageValidator.validateAndParseSender("invalid")).thenThrow(
             new ValidationException("Sender must be one of: user, assistant, system")
         );
@@ -132,15 +193,13 @@ class MessageServiceTest {
             messageService.addMessage(sessionId, invalidRequest);
         });
 
-        verify(sessionRepository).existsById(sessionId);
         verify(messageValidator).validateAndParseSender("invalid");
-        verify(messageRepository, never()).save(any());
+        verify(messageLog, never()).append(any());
     }
 
     @Test
     void addMessage_InvalidContent_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
         when(messageValidator.validateAndParseSender("user")).thenReturn(Message.Sender.USER);
         doThrow(new ValidationException("Content is required"))
             .when(messageValidator).validateContent("");
@@ -153,7 +212,7 @@ class MessageServiceTest {
         });
 
         verify(messageValidator).validateContent("");
-        verify(messageRepository, never()).save(any());
+        verify(messageLog, never()).append(any());
     }
 
     @Test
@@ -161,14 +220,11 @@ class MessageServiceTest {
         // Given
         int page = 0;
         int size = 20;
-        Pageable pageable = PageRequest.of(page, size);
-        List<Message> messages = List.of(message);
-        Page<Message> messagePage = new PageImpl<>(messages, pageable, 1);
+        PageRequest pageable = PageRequest.of(page, size);
+        Page<MessageResponse> messagePage = new PageImpl<>(List.of(messageResponse), pageable, 1);
 
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
-        when(messageRepository.findBySessionIdOrderByTimestampAsc(sessionId, pageable))
+        when(messageLog.findPage(sessionId, pageable))
             .thenReturn(messagePage);
-        when(messageMapper.toResponseList(messages)).thenReturn(List.of(messageResponse));
 
         // When
         MessagePageResponse result = messageService.getMessages(sessionId, page, size);
@@ -181,10 +237,10 @@ class MessageServiceTest {
         assertEquals(1L, result.totalElements());
         assertEquals(1, result.totalPages());
 
-        verify(sessionRepository).existsById(sessionId);
+        assertEquals(List.of(messageResponse), result.messages());
         verify(messageValidator).validatePagination(page, size);
-        verify(messageRepository).findBySessionIdOrderByTimestampAsc(sessionId, pageable);
-        verify(messageMapper).toResponseList(messages);
+        verify(messageLog).findPage(sessionId, pageable);
+        verify(sessionStore, never()).existsById(any());
     }
 
     @Test
@@ -192,14 +248,12 @@ class MessageServiceTest {
         // Given
         int page = 0;
         int size = 20;
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Message> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
+        PageRequest pageable = PageRequest.of(page, size);
+        Page<MessageResponse> emptyPage = new PageImpl<>(Collections.emptyList(), pageable, 0);
 
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
-        when(messageRepository.findBySessionIdOrderByTimestampAsc(sessionId, pageable))
+        when(sessionStore.existsById(sessionId)).thenReturn(true);
+        when(messageLog.findPage(sessionId, pageable))
             .thenReturn(emptyPage);
-        when(messageMapper.toResponseList(Collections.emptyList()))
-            .thenReturn(Collections.emptyList());
 
         // When
         MessagePageResponse result = messageService.getMessages(sessionId, page, size);
@@ -214,21 +268,21 @@ class MessageServiceTest {
     @Test
     void getMessages_SessionNotFound_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(false);
+        PageRequest pageable = PageRequest.of(0, 20);
+        when(messageLog.findPage(sessionId, pageable)).thenReturn(new PageImpl<>(Collections.emptyList(), pageable, 0));
+        when(sessionStore.existsById(sessionId)).thenReturn(false);
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             messageService.getMessages(sessionId, 0, 20);
         });
 
-        verify(sessionRepository).existsById(sessionId);
-        verify(messageRepository, never()).findBySessionIdOrderByTimestampAsc(any(), any());
+        verify(sessionStore).existsById(sessionId);
     }
 
     @Test
     void getMessages_InvalidPagination_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
         doThrow(new ValidationException("Page must be >= 0"))
             .when(messageValidator).validatePagination(-1, 20);
 
@@ -238,13 +292,12 @@ class MessageServiceTest {
         });
 
         verify(messageValidator).validatePagination(-1, 20);
-        verify(messageRepository, never()).findBySessionIdOrderByTimestampAsc(any(), any());
+        verify(messageLog, never()).findPage(any(), any());
     }
 
     @Test
     void getMessages_InvalidPageSize_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
         doThrow(new ValidationException("Size must be between 1 and 100"))
             .when(messageValidator).validatePagination(0, 0);
 
@@ -254,6 +307,144 @@ class MessageServiceTest {
         });
 
         verify(messageValidator).validatePagination(0, 0);
-        verify(messageRepository, never()).findBySessionIdOrderByTimestampAsc(any(), any());
+        verify(messageLog, never()).findPage(any(), any());
+    }
+
+    @Test
+    void getPageIds_CompletePage_OmitsTotalFromETag() {
+        // Given
+        List<Long> ids = LongStream.rangeClosed(21, 40).boxed().toList();
+        when(messageLog.countBySessionId(sessionId)).thenReturn(45L);
+        when(messageLog.findIds(sessionId, PageRequest.of(1, 20))).thenReturn(ids);
+
+        // When
+        MessageService.PageIds page = messageService.getPageIds(sessionId, 1, 20);
+
+        // Then
+        assertEquals("m1-1x20-40", page.eTag());
+        assertTrue(page.complete());
+        assertEquals(ids, page.ids());
+        assertEquals(45L, page.totalElements());
+        assertEquals(3, page.totalPages());
+        verify(messageValidator).validatePagination(1, 20);
+        verify(messageLog).countBySessionId(sessionId);
+        verify(messageLog).findIds(any(), any());
+        verify(sessionStore, never()).existsById(any());
+        verify(messageLog, never()).findPage(any(), any());
+    }
+
+    @Test
+    void getPageIds_PartialPage_IncludesLastIdAndTotal() {
+        // Given
+        when(messageLog.countBySessionId(sessionId)).thenReturn(45L);
+        when(messageLog.findIds(sessionId, PageRequest.of(2, 20))).thenReturn(List.of(50L, 51L, 52L, 53L, 54L));
+
+        // When
+        MessageService.PageIds page = messageService.getPageIds(sessionId, 2, 20);
+
+        // Then
+        assertEquals("m1-2x20-54-45", page.eTag());
+        assertFalse(page.complete());
+    }
+
+    @Test
+    void getPageIds_PageBeyondEnd_SkipsIdLookup() {
+        // Given
+        when(messageLog.countBySessionId(sessionId)).thenReturn(5L);
+
+        // When
+        MessageService.PageIds page = messageService.getPageIds(sessionId, 3, 20);
+
+        // Then
+        assertEquals("m1-3x20-5", page.eTag());
+        assertTrue(page.ids().isEmpty());
+        verify(messageLog, never()).findIds(any(), any());
+    }
+
+    @Test
+    void getPageIds_SessionNotFound_ThrowsException() {
+        // Given
+        when(messageLog.countBySessionId(sessionId)).thenReturn(0L);
+        when(sessionStore.existsById(sessionId)).thenReturn(false);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> messageService.getPageIds(sessionId, 0, 20));
+        verify(messageLog, never()).findIds(any(), any());
+    }
+
+    @Test
+    void getPageIds_InvalidPagination_ThrowsBeforeQuerying() {
+        // Given
+        doThrow(new ValidationException("Size must be between 1 and 100"))
+            .when(messageValidator).validatePagination(0, 0);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> messageService.getPageIds(sessionId, 0, 0));
+        verifyNoInteractions(messageLog);
+    }
+
+    @Test
+    void getSerializedMessages_LoadsOnlyCacheMisses() {
+        // Given
+        byte[] cached = "{\"id\":1}".getBytes();
+        when(messageLog.countBySessionId(sessionId)).thenReturn(21L);
+        when(messageLog.findIds(sessionId, PageRequest.of(0, 20))).thenReturn(List.of(1L));
+        when(messageJsonCache.getAll(eq(List.of(1L)), any())).thenReturn(List.of(cached));
+
+        // When
+        SerializedMessagePage result = messageService.getSerializedMessages(sessionId, 0, 20);
+
+        // Then
+        assertEquals(List.of(cached), result.messages());
+        assertEquals(21L, result.totalElements());
+        assertEquals(2, result.totalPages());
+        verify(messageValidator).validatePagination(0, 20);
+        verify(messageLog, never()).findPage(any(), any());
+        verify(messageLog, never()).findAllById(any());
+        verify(sessionStore, never()).existsById(any());
+    }
+
+    @Test
+    void getSerializedMessages_PageIds_QueriesNothingMore() {
+        // Given
+        byte[] cached = "{\"id\":1}".getBytes();
+        MessageService.PageIds page = new MessageService.PageIds(sessionId, 0, 20, 1L, List.of(1L), "m1-0x20-1-1");
+        when(messageJsonCache.getAll(eq(List.of(1L)), any())).thenReturn(List.of(cached));
+
+        // When
+        SerializedMessagePage result = messageService.getSerializedMessages(page);
+
+        // Then
+        assertEquals(List.of(cached), result.messages());
+        assertEquals(1, result.totalPages());
+        verifyNoInteractions(messageLog);
+    }
+
+    @Test
+    void getMessages_PageIds_LoadsTheMessagesById() {
+        // Given
+        MessageResponse message = new MessageResponse(1L, sessionId, 1L, "user", "Hi", null, LocalDateTime.now());
+        MessageService.PageIds page = new MessageService.PageIds(sessionId, 0, 20, 1L, List.of(1L), "m1-0x20-1-1");
+        when(messageLog.findAllById(List.of(1L))).thenReturn(List.of(message));
+
+        // When
+        MessagePageResponse result = messageService.getMessages(page);
+
+        // Then
+        assertEquals(List.of(message), result.messages());
+        assertEquals(1L, result.totalElements());
+        verify(messageLog, never()).countBySessionId(any());
+        verify(messageLog, never()).findPage(any(), any());
+    }
+
+    @Test
+    void getSerializedMessages_SessionNotFound_ThrowsException() {
+        // Given
+        when(messageLog.countBySessionId(sessionId)).thenReturn(0L);
+        when(sessionStore.existsById(sessionId)).thenReturn(false);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> messageService.getSerializedMessages(sessionId, 0, 20));
+        verifyNoInteractions(messageJsonCache);
     }
 }
@@ -0,0 +1,161 @@
+package com.codegensis.ragstore.service;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.dto.response.SessionResponse;
+import com.codegensis.ragstore.exception.ResourceNotFoundException;
+import com.codegensis.ragstore.exception.ValidationException;
+import com.codegensis.ragstore.repository.ReactiveChatRepository;
+import com.codegensis.ragstore.validator.MessageValidator;
+import com.codegensis.ragstore.validator.SessionValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveChatServiceTest {
+
+    private ReactiveChatRepository repository;
+    private MessageBroadcaster broadcaster;
+    private ReactiveChatService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ReactiveChatRepository.class);
+        broadcaster = new MessageBroadcaster(16);
+        service = new ReactiveChatService(repository, broadcaster, new SessionValidator(), new MessageValidator());
+    }
+
+    @Test
+    void getSessionsByUserId_ValidUser_StreamsSessions() {
+        // Given
+        SessionResponse session = new SessionResponse(1L, "user1", "Chat", false,
+            LocalDateTime.now(), LocalDateTime.now());
+        when(repository.findSessionsByUserId("user1")).thenReturn(Flux.just(session));
+
+        // When & Then
+        StepVerifier.create(service.getSessionsByUserId("user1"))
+            .expectNext(session)
+            .verifyComplete();
+    }
+
+    @Test
+    void getSessionsByUserId_InvalidUser_EmitsValidationError() {
+        // When & Then
+        StepVerifier.create(service.getSessionsByUserId("bad user"))
+            .expectError(ValidationException.class)
+            .verify();
+        verify(repository, never()).findSessionsByUserId(anyString());
+    }
+
+    @Test
+    void getMessagesAfter_MissingSession_EmitsNotFound() {
+        // Given
+        when(repository.existsSessionById(5L)).thenReturn(Mono.just(false));
+        when(repository.findMessagesAfter(eq(5L), anyLong(), anyInt())).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(service.getMessagesAfter(5L, 0, 10))
+            .expectError(ResourceNotFoundException.class)
+            .verify();
+    }
+
+    @Test
+    void getMessagesAfter_ExistingSession_StreamsMessages() {
+        // Given
+        when(repository.existsSessionById(5L)).thenReturn(Mono.just(true));
+        when(repository.findMessagesAfter(5L, 3L, 10)).thenReturn(Flux.just(message(4L), message(5L)));
+
+        // When & Then
+        StepVerifier.create(service.getMessagesAfter(5L, 3L, 10))
+            .expectNextCount(2)
+            .verifyComplete();
+    }
+
+    @Test
+    void tailMessages_BacklogThenLive_SkipsDuplicates() {
+        // Given
+        when(repository.existsSessionById(5L)).thenReturn(Mono.just(true));
+        when(repository.findMessagesAfter(5L, 0L, 10)).thenReturn(Flux.just(message(1L), message(2L)));
+
+        // When & Then
+        StepVerifier.create(service.tailMessages(5L, 0L, 10))
+            .expectNextMatches(m -> m.id() == 1L)
+            .expectNextMatches(m -> m.id() == 2L)
+            .then(() -> {
+                broadcaster.publish(message(2L));
+                broadcaster.publish(message(3L));
+            })
+            .expectNextMatches(m -> m.id() == 3L)
+            .thenCancel()
+            .verify();
+    }
+
+    @Test
+    void tailMessages_BacklogLongerThanLimit_ReadsEveryPageBeforeLive() {
+        // Given
+        when(repository.existsSessionById(5L)).thenReturn(Mono.just(true));
+        List<MessageResponse> stored = new ArrayList<>(LongStream.rangeClosed(1, 25).mapToObj(this::message).toList());
+        storedMessages(stored);
+
+        // When & Then
+        StepVerifier.create(service.tailMessages(5L, 0L, 10))
+            .expectNextSequence(stored)
+            .then(() -> broadcaster.publish(message(26L)))
+            .expectNextMatches(m -> m.seq() == 26L)
+            .thenCancel()
+            .verify();
+        verify(repository).findMessagesAfter(5L, 0L, 10);
+        verify(repository).findMessagesAfter(5L, 10L, 10);
+        verify(repository).findMessagesAfter(5L, 20L, 10);
+    }
+
+    @Test
+    void tailMessages_SingleAppendPublishedBeforeEarlierBatch_ReadsTheBatchFirst() {
+        // Given
+        when(repository.existsSessionById(5L)).thenReturn(Mono.just(true));
+        List<MessageResponse> stored = new ArrayList<>();
+        storedMessages(stored);
+        List<MessageResponse> batch = LongStream.rangeClosed(5, 104).mapToObj(this::message).toList();
+
+        // When & Then
+        StepVerifier.create(service.tailMessages(5L, 4L, 10))
+            .then(() -> {
+                // The batch committed before the single append, but publishes after it
+                stored.addAll(batch);
+                stored.add(message(105L));
+                broadcaster.publish(message(105L));
+            })
+            .expectNextSequence(batch)
+            .expectNextMatches(m -> m.seq() == 105L)
+            .then(() -> batch.forEach(broadcaster::publish))
+            .then(() -> broadcaster.publish(message(106L)))
+            .expectNextMatches(m -> m.seq() == 106L)
+            .thenCancel()
+            .verify();
+    }
+
+    private void storedMessages(List<MessageResponse> stored) {
+        when(repository.findMessagesAfter(eq(5L), anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterSeq = invocation.getArgument(1);
+            int limit = invocation.getArgument(2);
+            return Flux.fromStream(() -> List.copyOf(stored).stream()
+                .filter(message -> message.seq() > afterSeq)
+                .limit(limit));
+        });
+    }
+
+    private MessageResponse message(Long id) {
+        return new MessageResponse(id, 5L, id, "user", "content " + id, null, LocalDateTime.now());
+    }
+}
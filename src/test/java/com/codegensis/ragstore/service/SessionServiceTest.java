@@ -8,7 +8,7 @@ import com.codegensis.ragstore.entity.Session;
 import com.codegensis.ragstore.exception.ResourceNotFoundException;
 import com.codegensis.ragstore.exception.ValidationException;
 import com.codegensis.ragstore.mapper.SessionMapper;
-import com.codegensis.ragstore.repository.SessionRepository;
+import com.codegensis.ragstore.storage.SessionStore;
 import com.codegensis.ragstore.validator.SessionValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +30,7 @@ import static org.mockito.Mockito.*;
 class SessionServiceTest {
 
     @Mock
-    private SessionRepository sessionRepository;
+    private SessionStore sessionStore;
 
     @Mock
     private SessionMapper sessionMapper;
@@ -79,7 +79,7 @@ class SessionServiceTest {
         savedSession.setTitle("My Session");
         savedSession.setIsFavorite(false);
 
-        when(sessionRepository.save(any(Session.class))).thenReturn(savedSession);
+        when(sessionStore.save(any(Session.class))).thenReturn(savedSession);
         when(sessionMapper.toResponse(savedSession)).thenReturn(sessionResponse);
 
         // When
@@ -88,7 +88,7 @@ class SessionServiceTest {
         // Then
         assertNotNull(result);
         verify(sessionValidator).validateUserId(userId);
-        verify(sessionRepository).save(any(Session.class));
+        verify(sessionStore).save(any(Session.class));
         verify(sessionMapper).toResponse(savedSession);
     }
 
@@ -102,7 +102,7 @@ class SessionServiceTest {
         savedSession.setTitle("New Chat");
         savedSession.setIsFavorite(false);
 
-        when(sessionRepository.save(any(Session.class))).thenReturn(savedSession);
+        when(sessionStore.save(any(Session.class))).thenReturn(savedSession);
         when(sessionMapper.toResponse(savedSession)).thenReturn(sessionResponse);
 
         // When
@@ -110,7 +110,7 @@ class SessionServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(sessionRepository).save(argThat(s -> 
+        verify(sessionStore).save(argThat(s -> 
             "New Chat".equals(s.getTitle()) && 
             userId.equals(s.getUserId()) && 
             Boolean.FALSE.equals(s.getIsFavorite())
@@ -130,7 +130,7 @@ class SessionServiceTest {
         });
 
         verify(sessionValidator).validateUserId("invalid user!");
-        verify(sessionRepository, never()).save(any());
+        verify(sessionStore, never()).save(any());
     }
 
     @Test
@@ -139,7 +139,7 @@ class SessionServiceTest {
         List<Session> sessions = List.of(session);
         List<SessionResponse> responses = List.of(sessionResponse);
 
-        when(sessionRepository.findByUserIdOrderByCreatedAtDesc(userId)).thenReturn(sessions);
+        when(sessionStore.findByUserId(userId)).thenReturn(sessions);
         when(sessionMapper.toResponseList(sessions)).thenReturn(responses);
 
         // When
@@ -149,14 +149,14 @@ class SessionServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(sessionValidator).validateUserId(userId);
-        verify(sessionRepository).findByUserIdOrderByCreatedAtDesc(userId);
+        verify(sessionStore).findByUserId(userId);
         verify(sessionMapper).toResponseList(sessions);
     }
 
     @Test
     void getSessionsByUserId_EmptyList() {
         // Given
-        when(sessionRepository.findByUserIdOrderByCreatedAtDesc(userId))
+        when(sessionStore.findByUserId(userId))
             .thenReturn(Collections.emptyList());
         when(sessionMapper.toResponseList(Collections.emptyList()))
             .thenReturn(Collections.emptyList());
@@ -172,7 +172,7 @@ class SessionServiceTest {
     @Test
     void getSessionById_Success() {
         // Given
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.of(session));
         when(sessionMapper.toResponse(session)).thenReturn(sessionResponse);
 
         // When
@@ -181,24 +181,47 @@ class SessionServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(sessionResponse, result);
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionStore).findById(sessionId);
         verify(sessionMapper).toResponse(session);
     }
 
     @Test
     void getSessionById_NotFound_ThrowsException() {
         // Given
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             sessionService.getSessionById(sessionId);
         });
 
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionStore).findById(sessionId);
         verify(sessionMapper, never()).toResponse(any());
     }
 
+    @Test
+    void getSessionETag_UsesUpdatedAtWithoutLoadingSession() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 0, 0, 1, 2_000);
+        when(sessionStore.findUpdatedAtById(sessionId)).thenReturn(Optional.of(updatedAt));
+
+        // When
+        String eTag = sessionService.getSessionETag(sessionId);
+
+        // Then
+        assertEquals("s" + sessionId + "-1704067201000002", eTag);
+        verify(sessionStore, never()).findById(any());
+    }
+
+    @Test
+    void getSessionETag_NotFound_ThrowsException() {
+        // Given
+        when(sessionStore.findUpdatedAtById(sessionId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> sessionService.getSessionETag(sessionId));
+    }
+
     @Test
     void updateSessionTitle_Success() {
         // Given
@@ -210,8 +233,8 @@ class SessionServiceTest {
             sessionId, userId, "Updated Title", false, LocalDateTime.now(), LocalDateTime.now()
         );
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(sessionRepository.save(any(Session.class))).thenReturn(updatedSession);
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionStore.save(any(Session.class))).thenReturn(updatedSession);
         when(sessionMapper.toResponse(updatedSession)).thenReturn(updatedResponse);
 
         // When
@@ -219,9 +242,9 @@ class SessionServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(sessionRepository).findById(sessionId);
+        verify(sessionStore).findById(sessionId);
         verify(sessionValidator).validateTitle("Updated Title");
-        verify(sessionRepository).save(argThat(s -> "Updated Title".equals(s.getTitle())));
+        verify(sessionStore).save(argThat(s -> "Updated Title".equals(s.getTitle())));
         verify(sessionMapper).toResponse(updatedSession);
     }
 
@@ -229,22 +252,22 @@ class SessionServiceTest {
     void updateSessionTitle_SessionNotFound_ThrowsException() {
         // Given
         UpdateSessionRequest request = new UpdateSessionRequest("Updated Title");
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             sessionService.updateSessionTitle(sessionId, request);
         });
 
-        verify(sessionRepository).findById(sessionId);
-        verify(sessionRepository, never()).save(any());
+        verify(sessionStore).findById(sessionId);
+        verify(sessionStore, never()).save(any());
     }
 
     @Test
     void updateSessionTitle_InvalidTitle_ThrowsException() {
         // Given
         UpdateSessionRequest request = new UpdateSessionRequest("");
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.of(session));
         doThrow(new ValidationException("Title cannot be empty"))
             .when(sessionValidator).validateTitle("");
 
@@ -254,7 +277,7 @@ class SessionServiceTest {
         });
 
         verify(sessionValidator).validateTitle("");
-        verify(sessionRepository, never()).save(any());
+        verify(sessionStore, never()).save(any());
     }
 
     @Test
@@ -268,8 +291,8 @@ class SessionServiceTest {
             sessionId, userId, "Test Session", true, LocalDateTime.now(), LocalDateTime.now()
         );
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(sessionRepository.save(any(Session.class))).thenReturn(updatedSession);
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionStore.save(any(Session.class))).thenReturn(updatedSession);
         when(sessionMapper.toResponse(updatedSession)).thenReturn(updatedResponse);
 
         // When
@@ -277,8 +300,8 @@ class SessionServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(sessionRepository).findById(sessionId);
-        verify(sessionRepository).save(argThat(s -> Boolean.TRUE.equals(s.getIsFavorite())));
+        verify(sessionStore).findById(sessionId);
+        verify(sessionStore).save(argThat(s -> Boolean.TRUE.equals(s.getIsFavorite())));
         verify(sessionMapper).toResponse(updatedSession);
     }
 
@@ -291,8 +314,8 @@ class SessionServiceTest {
         updatedSession.setId(sessionId);
         updatedSession.setIsFavorite(false);
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(session));
-        when(sessionRepository.save(any(Session.class))).thenReturn(updatedSession);
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.of(session));
+        when(sessionStore.save(any(Session.class))).thenReturn(updatedSession);
         when(sessionMapper.toResponse(updatedSession)).thenReturn(sessionResponse);
 
         // When
@@ -300,49 +323,49 @@ class SessionServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(sessionRepository).save(argThat(s -> Boolean.FALSE.equals(s.getIsFavorite())));
+        verify(sessionStore).save(argThat(s -> Boolean.FALSE.equals(s.getIsFavorite())));
     }
 
     @Test
     void toggleFavorite_SessionNotFound_ThrowsException() {
         // Given
         ToggleFavoriteRequest request = new ToggleFavoriteRequest(true);
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionStore.findById(sessionId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             sessionService.toggleFavorite(sessionId, request);
         });
 
-        verify(sessionRepository).findById(sessionId);
-        verify(sessionRepository, never()).save(any());
+        verify(sessionStore).findById(sessionId);
+        verify(sessionStore, never()).save(any());
     }
 
     @Test
     void deleteSession_Success() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(true);
-        doNothing().when(sessionRepository).deleteById(sessionId);
+        when(sessionStore.existsById(sessionId)).thenReturn(true);
+        doNothing().when(sessionStore).deleteById(sessionId);
 
         // When
         sessionService.deleteSession(sessionId);
 
         // Then
-        verify(sessionRepository).existsById(sessionId);
-        verify(sessionRepository).deleteById(sessionId);
+        verify(sessionStore).existsById(sessionId);
+        verify(sessionStore).deleteById(sessionId);
     }
 
     @Test
     void deleteSession_NotFound_ThrowsException() {
         // Given
-        when(sessionRepository.existsById(sessionId)).thenReturn(false);
+        when(sessionStore.existsById(sessionId)).thenReturn(false);
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> {
             sessionService.deleteSession(sessionId);
         });
 
-        verify(sessionRepository).existsById(sessionId);
-        verify(sessionRepository, never()).deleteById(any());
+        verify(sessionStore).existsById(sessionId);
+        verify(sessionStore, never()).deleteById(any());
     }
 }
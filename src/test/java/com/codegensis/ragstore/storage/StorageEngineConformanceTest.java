@@ -0,0 +1,320 @@
+package com.codegensis.ragstore.storage;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.entity.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every storage engine must share, so the services work the same on each. Each
+ * engine's test extends this class and hands in an empty engine per test; every call is
+ * expected to stand on its own, as it does when a service calls it in its own transaction.
+ */
+public abstract class StorageEngineConformanceTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 10, 0);
+    private static final LocalDateTime T2 = LocalDateTime.of(2024, 3, 1, 10, 5);
+    private static final LocalDateTime T3 = LocalDateTime.of(2024, 3, 1, 10, 10);
+
+    protected abstract SessionStore sessionStore();
+
+    protected abstract MessageLog messageLog();
+
+    @Test
+    void save_NewSession_AssignsIdAndTimestamps() {
+        // When
+        Session saved = sessionStore().save(session("user_a", "First"));
+
+        // Then
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getCreatedAt());
+        assertNotNull(saved.getUpdatedAt());
+        Session found = sessionStore().findById(saved.getId()).orElseThrow();
+        assertEquals("user_a", found.getUserId());
+        assertEquals("First", found.getTitle());
+        assertEquals(Boolean.FALSE, found.getIsFavorite());
+    }
+
+    @Test
+    void save_DuplicateTitleForUser_IsRejected() {
+        // Given
+        sessionStore().save(session("user_a", "Same"));
+
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> sessionStore().save(session("user_a", "Same")));
+    }
+
+    @Test
+    void save_SameTitleForAnotherUser_IsAccepted() {
+        // Given
+        Session first = sessionStore().save(session("user_a", "Same"));
+
+        // When
+        Session second = sessionStore().save(session("user_b", "Same"));
+
+        // Then
+        assertNotEquals(first.getId(), second.getId());
+    }
+
+    @Test
+    void save_ChangedTitle_MovesUpdatedAt() {
+        // Given
+        Session saved = load(sessionStore().save(session("user_a", "Draft")));
+        LocalDateTime before = sessionStore().findUpdatedAtById(saved.getId()).orElseThrow();
+
+        // When
+        saved.setTitle("Final");
+        Session updated = sessionStore().save(saved);
+
+        // Then
+        LocalDateTime after = sessionStore().findUpdatedAtById(saved.getId()).orElseThrow();
+        assertEquals("Final", updated.getTitle());
+        assertTrue(after.isAfter(before), before + " was not moved, got " + after);
+        assertEquals("Final", sessionStore().findById(saved.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void save_UnchangedSession_KeepsUpdatedAt() {
+        // Given
+        Session saved = load(sessionStore().save(session("user_a", "Draft")));
+        LocalDateTime before = sessionStore().findUpdatedAtById(saved.getId()).orElseThrow();
+
+        // When
+        sessionStore().save(saved);
+
+        // Then
+        assertEquals(before, sessionStore().findUpdatedAtById(saved.getId()).orElseThrow());
+    }
+
+    @Test
+    void save_TitleTakenByAnotherSession_IsRejected() {
+        // Given
+        sessionStore().save(session("user_a", "Taken"));
+        Session other = load(sessionStore().save(session("user_a", "Other")));
+
+        // When & Then
+        other.setTitle("Taken");
+        assertThrows(DataIntegrityViolationException.class, () -> sessionStore().save(other));
+    }
+
+    @Test
+    void findByUserId_SeveralSessions_NewestFirst() {
+        // Given
+        Session first = sessionStore().save(session("user_a", "First"));
+        Session second = sessionStore().save(session("user_a", "Second"));
+        sessionStore().save(session("user_b", "Elsewhere"));
+
+        // When
+        List<Session> sessions = sessionStore().findByUserId("user_a");
+
+        // Then
+        assertEquals(List.of(second.getId(), first.getId()), sessions.stream().map(Session::getId).toList());
+        assertTrue(sessionStore().findByUserId("nobody").isEmpty());
+    }
+
+    @Test
+    void findById_UnknownSession_IsEmpty() {
+        // When & Then
+        assertTrue(sessionStore().findById(Long.MAX_VALUE).isEmpty());
+        assertTrue(sessionStore().findUpdatedAtById(Long.MAX_VALUE).isEmpty());
+        assertFalse(sessionStore().existsById(Long.MAX_VALUE));
+    }
+
+    @Test
+    void deleteById_SessionWithMessages_RemovesItsMessages() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Doomed")).getId();
+        MessageResponse message = messageLog().append(message(sessionId, "Hello", T1));
+
+        // When
+        sessionStore().deleteById(sessionId);
+
+        // Then
+        assertFalse(sessionStore().existsById(sessionId));
+        assertTrue(sessionStore().findByUserId("user_a").isEmpty());
+        assertEquals(0, messageLog().countBySessionId(sessionId));
+        assertTrue(messageLog().findAllById(List.of(message.id())).isEmpty());
+    }
+
+    @Test
+    void deleteById_Title_CanBeReused() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Reused")).getId();
+        sessionStore().deleteById(sessionId);
+
+        // When
+        Session again = sessionStore().save(session("user_a", "Reused"));
+
+        // Then
+        assertNotEquals(sessionId, again.getId());
+    }
+
+    @Test
+    void append_UnknownSession_IsRejected() {
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class,
+            () -> messageLog().append(message(Long.MAX_VALUE, "Orphan", T1)));
+    }
+
+    @Test
+    void append_WithoutTimestamp_AssignsIdAndTimestamp() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Chat")).getId();
+
+        // When
+        MessageResponse saved = messageLog().append(message(sessionId, "Hello", null));
+
+        // Then
+        assertNotNull(saved.id());
+        assertNotNull(saved.timestamp());
+        assertEquals(sessionId, saved.sessionId());
+        assertEquals(1L, saved.seq());
+        assertEquals(List.of(saved), messageLog().findPage(sessionId, PageRequest.of(0, 10)).getContent());
+        assertEquals(1, messageLog().countBySessionId(sessionId));
+    }
+
+    @Test
+    void appendAll_Batch_AssignsIncreasingIdsAndSeqs() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Chat")).getId();
+        messageLog().append(message(sessionId, "Zero", T1));
+
+        // When
+        List<MessageResponse> saved = messageLog().appendAll(List.of(
+            message(sessionId, "One", T1), message(sessionId, "Two", T2)));
+
+        // Then
+        assertEquals(2, saved.size());
+        assertTrue(saved.get(0).id() < saved.get(1).id());
+        assertEquals(List.of(2L, 3L), saved.stream().map(MessageResponse::seq).toList());
+        assertEquals(List.of("One", "Two"), saved.stream().map(MessageResponse::content).toList());
+    }
+
+    @Test
+    void append_TwoSessions_NumbersEachSessionFromOne() {
+        // Given
+        Long first = sessionStore().save(session("user_a", "First")).getId();
+        Long second = sessionStore().save(session("user_a", "Second")).getId();
+        messageLog().append(message(first, "One", T1));
+        messageLog().append(message(first, "Two", T2));
+
+        // When
+        MessageResponse saved = messageLog().append(message(second, "One", T3));
+
+        // Then
+        assertEquals(1L, saved.seq());
+        assertEquals(List.of(1L, 2L), messageLog().findPage(first, PageRequest.of(0, 10)).getContent().stream()
+            .map(MessageResponse::seq).toList());
+    }
+
+    @Test
+    void findPage_OutOfOrderTimestamps_OrdersBySeq() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Chat")).getId();
+        messageLog().append(message(sessionId, "Late", T3));
+        messageLog().append(message(sessionId, "Early", T1));
+        messageLog().append(message(sessionId, "Middle", T2));
+        messageLog().append(message(sessionId, "Middle again", T2));
+
+        // When
+        Page<MessageResponse> page = messageLog().findPage(sessionId, PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of("Late", "Early", "Middle", "Middle again"),
+            page.getContent().stream().map(MessageResponse::content).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L), page.getContent().stream().map(MessageResponse::seq).toList());
+    }
+
+    @Test
+    void findPage_SecondPage_HoldsTheRemainingMessagesAndTotals() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Chat")).getId();
+        messageLog().appendAll(List.of(message(sessionId, "One", T1), message(sessionId, "Two", T2),
+            message(sessionId, "Three", T3)));
+
+        // When
+        Page<MessageResponse> page = messageLog().findPage(sessionId, PageRequest.of(1, 2));
+
+        // Then
+        assertEquals(List.of("Three"), page.getContent().stream().map(MessageResponse::content).toList());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+        assertEquals(sessionId, page.getContent().get(0).sessionId());
+    }
+
+    @Test
+    void findPage_UnknownSession_IsEmpty() {
+        // When
+        Page<MessageResponse> page = messageLog().findPage(Long.MAX_VALUE, PageRequest.of(0, 10));
+
+        // Then
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(0, page.getTotalElements());
+        assertEquals(0, messageLog().countBySessionId(Long.MAX_VALUE));
+    }
+
+    @Test
+    void findIds_Page_MatchesFindPage() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Chat")).getId();
+        messageLog().append(message(sessionId, "Two", T2));
+        messageLog().append(message(sessionId, "One", T1));
+        messageLog().append(message(sessionId, "Three", T3));
+
+        // When
+        List<Long> ids = messageLog().findIds(sessionId, PageRequest.of(0, 2));
+
+        // Then
+        assertEquals(messageLog().findPage(sessionId, PageRequest.of(0, 2)).getContent().stream()
+            .map(MessageResponse::id).toList(), ids);
+    }
+
+    @Test
+    void findAllById_UnknownIds_ReturnsKnownInRequestedOrder() {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Chat")).getId();
+        List<MessageResponse> saved = messageLog().appendAll(List.of(message(sessionId, "One", T1),
+            message(sessionId, "Two", T2)));
+
+        // When
+        List<MessageResponse> found = messageLog().findAllById(List.of(saved.get(1).id(), Long.MAX_VALUE,
+            saved.get(0).id()));
+
+        // Then
+        assertEquals(List.of("Two", "One"), found.stream().map(MessageResponse::content).toList());
+        assertEquals("user", found.get(0).sender());
+        assertEquals("{\"doc\":1}", found.get(0).context());
+        assertEquals(T2, found.get(0).timestamp());
+    }
+
+    // Updates go through a freshly loaded session, as they do in SessionService
+    private Session load(Session session) {
+        return sessionStore().findById(session.getId()).orElseThrow();
+    }
+
+    protected static Session session(String userId, String title) {
+        Session session = new Session();
+        session.setUserId(userId);
+        session.setTitle(title);
+        session.setIsFavorite(false);
+        return session;
+    }
+
+    protected static Message message(Long sessionId, String content, LocalDateTime timestamp) {
+        Message message = new Message();
+        message.setSessionId(sessionId);
+        message.setSender(Message.Sender.USER);
+        message.setContent(content);
+        message.setContext("{\"doc\":1}");
+        message.setTimestamp(timestamp);
+        return message;
+    }
+}
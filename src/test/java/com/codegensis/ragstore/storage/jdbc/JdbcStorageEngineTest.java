@@ -0,0 +1,144 @@
+package com.codegensis.ragstore.storage.jdbc;
+
+import com.codegensis.ragstore.config.SessionCacheConfig;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Message;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
+import com.codegensis.ragstore.storage.StorageEngineConformanceTest;
+import com.codegensis.ragstore.storage.jpa.JpaSessionStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the conformance suite on the default pairing: the JDBC message log next to the JPA
+ * session store, over the same Flyway-migrated H2 schema as the JPA engine's test.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:jdbc-storage-engine;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({JpaSessionStore.class, JdbcMessageLog.class, MessageSequences.class,
+    SessionCacheConfig.class})
+class JdbcStorageEngineTest extends StorageEngineConformanceTest {
+
+    @Autowired
+    private JpaSessionStore sessionStore;
+
+    @Autowired
+    private JdbcMessageLog messageLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM messages");
+        jdbcTemplate.update("DELETE FROM sessions");
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+    }
+
+    @Test
+    void append_WhileABatchIsUncommitted_WaitsAndCommitsAfterIt() throws Exception {
+        // Given
+        Long sessionId = sessionStore.save(session("user_a", "Chat")).getId();
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(message(sessionId, "Batch " + i, null));
+        }
+        CountDownLatch batchAppended = new CountDownLatch(1);
+        CountDownLatch commitBatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<MessageResponse>> batchResult = executor.submit(() -> transactionTemplate.execute(status -> {
+                List<MessageResponse> appended = messageLog.appendAll(batch);
+                batchAppended.countDown();
+                awaitUninterruptibly(commitBatch);
+                return appended;
+            }));
+            assertTrue(batchAppended.await(5, TimeUnit.SECONDS));
+
+            // When
+            Future<MessageResponse> single = executor.submit(() -> messageLog.append(message(sessionId, "Single", null)));
+
+            // Then
+            assertThrows(TimeoutException.class, () -> single.get(200, TimeUnit.MILLISECONDS));
+            commitBatch.countDown();
+            assertEquals(100L, batchResult.get(5, TimeUnit.SECONDS).get(99).seq());
+            assertEquals(101L, single.get(5, TimeUnit.SECONDS).seq());
+        } finally {
+            commitBatch.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void appendAll_RolledBack_LeavesNoGapInTheSequence() {
+        // Given
+        Long sessionId = sessionStore.save(session("user_a", "Chat")).getId();
+        messageLog.append(message(sessionId, "First", null));
+        transactionTemplate.executeWithoutResult(status -> {
+            messageLog.appendAll(List.of(message(sessionId, "Undone", null), message(sessionId, "Undone", null)));
+            status.setRollbackOnly();
+        });
+
+        // When
+        MessageResponse saved = messageLog.append(message(sessionId, "Second", null));
+
+        // Then
+        assertEquals(2L, saved.seq());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected SessionStore sessionStore() {
+        return sessionStore;
+    }
+
+    @Override
+    protected MessageLog messageLog() {
+        return messageLog;
+    }
+}
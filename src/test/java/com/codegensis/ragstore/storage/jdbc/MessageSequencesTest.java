@@ -0,0 +1,108 @@
+package com.codegensis.ragstore.storage.jdbc;
+
+import com.codegensis.ragstore.entity.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageSequencesTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private MessageSequences sequences;
+    private long first;
+    private long second;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V1__create_sessions_table.sql"),
+            new ClassPathResource("db/migration/V2__create_messages_table.sql"),
+            new ClassPathResource("db/migration/V3__add_indexes.sql"),
+            new ClassPathResource("db/migration/V7__add_message_sequence.sql"),
+            new ClassPathResource("db/migration/V9__add_session_last_seq.sql"))
+            .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.update("INSERT INTO sessions (user_id, title) VALUES ('user_a', 'First')");
+        jdbcTemplate.update("INSERT INTO sessions (user_id, title) VALUES ('user_a', 'Second')");
+        first = jdbcTemplate.queryForObject("SELECT id FROM sessions WHERE title = 'First'", Long.class);
+        second = jdbcTemplate.queryForObject("SELECT id FROM sessions WHERE title = 'Second'", Long.class);
+        sequences = new MessageSequences(jdbcTemplate);
+    }
+
+    @Test
+    void assign_NewSession_NumbersFromOne() {
+        // When
+        long[] seqs = sequences.assign(List.of(message(first), message(first), message(first)));
+
+        // Then
+        assertArrayEquals(new long[]{1, 2, 3}, seqs);
+        assertEquals(3L, lastSeq(first));
+    }
+
+    @Test
+    void assign_AfterEarlierAppends_ContinuesFromTheCounter() {
+        // Given
+        sequences.assign(List.of(message(first), message(first)));
+
+        // When & Then
+        assertArrayEquals(new long[]{3}, sequences.assign(List.of(message(first))));
+    }
+
+    @Test
+    void assign_SeveralSessions_NumbersEachSeparately() {
+        // Given
+        sequences.assign(List.of(message(second)));
+
+        // When
+        long[] seqs = sequences.assign(List.of(message(second), message(first), message(second)));
+
+        // Then
+        assertArrayEquals(new long[]{2, 1, 3}, seqs);
+    }
+
+    @Test
+    void assign_MissingSession_ThrowsDataIntegrityViolation() {
+        // When & Then
+        assertThrows(DataIntegrityViolationException.class, () -> sequences.assign(List.of(message(second + 1))));
+    }
+
+    @Test
+    void assign_RolledBack_GivesItsNumbersBack() {
+        // Given
+        sequences.assign(List.of(message(first)));
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            sequences.assign(List.of(message(first), message(first)));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertArrayEquals(new long[]{2}, sequences.assign(List.of(message(first))));
+    }
+
+    private long lastSeq(long sessionId) {
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM sessions WHERE id = ?", Long.class, sessionId);
+    }
+
+    private static Message message(long sessionId) {
+        Message message = new Message();
+        message.setSessionId(sessionId);
+        return message;
+    }
+}
@@ -0,0 +1,162 @@
+package com.codegensis.ragstore.storage.jpa;
+
+import com.codegensis.ragstore.mapper.MessageMapper;
+import com.codegensis.ragstore.config.SessionCacheConfig;
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
+import com.codegensis.ragstore.storage.StorageEngineConformanceTest;
+import com.codegensis.ragstore.storage.jdbc.MessageSequences;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the conformance suite on the JPA engine over an in-memory H2 database migrated by
+ * Flyway, so the schema's constraints are the ones under test, with the session cache on as in
+ * the application. Every call commits on its own, as it does from the services, so the tables
+ * and caches are emptied after each test instead of rolled back.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:jpa-storage-engine;DB_CLOSE_DELAY=-1",
+    "app.storage.message-log=jpa"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({JpaSessionStore.class, JpaMessageLog.class, MessageMapper.class, MessageSequences.class,
+    SessionCacheConfig.class})
+class JpaStorageEngineTest extends StorageEngineConformanceTest {
+
+    @Autowired
+    private JpaSessionStore sessionStore;
+
+    @Autowired
+    private JpaMessageLog messageLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM messages");
+        jdbcTemplate.update("DELETE FROM sessions");
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+    }
+
+    @Test
+    void findById_LoadedSession_IsServedFromTheCache() {
+        // Given
+        Long sessionId = sessionStore.save(session("user_a", "Cached")).getId();
+        sessionStore.findById(sessionId);
+
+        // When
+        jdbcTemplate.update("UPDATE sessions SET title = 'Behind the cache' WHERE id = ?", sessionId);
+
+        // Then
+        assertEquals("Cached", sessionStore.findById(sessionId).orElseThrow().getTitle());
+        assertTrue(sessionStore.existsById(sessionId));
+    }
+
+    @Test
+    void findByUserId_RepeatedQuery_IsServedFromTheQueryCache() {
+        // Given
+        sessionStore.save(session("user_a", "First"));
+        sessionStore.findByUserId("user_a");
+
+        // When
+        jdbcTemplate.update("INSERT INTO sessions (user_id, title, is_favorite, created_at, updated_at) "
+            + "VALUES ('user_a', 'Behind the cache', FALSE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+
+        // Then
+        assertEquals(List.of("First"), titles("user_a"));
+    }
+
+    @Test
+    void findByUserId_CachedList_SeesCreatesUpdatesAndDeletes() {
+        // Given
+        Long firstId = sessionStore.save(session("user_a", "First")).getId();
+        assertEquals(List.of("First"), titles("user_a"));
+
+        // When & Then
+        Long secondId = sessionStore.save(session("user_a", "Second")).getId();
+        assertEquals(List.of("Second", "First"), titles("user_a"));
+
+        Session first = sessionStore.findById(firstId).orElseThrow();
+        first.setTitle("Renamed");
+        first.setIsFavorite(true);
+        sessionStore.save(first);
+        assertEquals(List.of("Second", "Renamed"), titles("user_a"));
+        assertEquals(Boolean.TRUE, sessionStore.findById(firstId).orElseThrow().getIsFavorite());
+
+        sessionStore.deleteById(secondId);
+        assertEquals(List.of("Renamed"), titles("user_a"));
+        assertFalse(sessionStore.existsById(secondId));
+    }
+
+    @Test
+    void appendAll_RolledBack_LeavesNoGapInTheSequence() {
+        // Given
+        Long sessionId = sessionStore.save(session("user_a", "Chat")).getId();
+        messageLog.append(message(sessionId, "First", null));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            messageLog.appendAll(List.of(message(sessionId, "Undone", null), message(sessionId, "Undone", null)));
+            status.setRollbackOnly();
+        });
+
+        // When
+        MessageResponse saved = messageLog.append(message(sessionId, "Second", null));
+
+        // Then
+        assertEquals(2L, saved.seq());
+    }
+
+    @Test
+    void save_ExistingSession_KeepsItsSequenceCounter() {
+        // Given
+        Long sessionId = sessionStore.save(session("user_a", "Chat")).getId();
+        messageLog.append(message(sessionId, "First", null));
+        Session stored = sessionStore.findById(sessionId).orElseThrow();
+        stored.setTitle("Renamed");
+
+        // When
+        sessionStore.save(stored);
+
+        // Then
+        assertEquals(2L, messageLog.append(message(sessionId, "Second", null)).seq());
+    }
+
+    private List<String> titles(String userId) {
+        return sessionStore.findByUserId(userId).stream().map(Session::getTitle).toList();
+    }
+
+    @Override
+    protected SessionStore sessionStore() {
+        return sessionStore;
+    }
+
+    @Override
+    protected MessageLog messageLog() {
+        return messageLog;
+    }
+}
@@ -0,0 +1,51 @@
+package com.codegensis.ragstore.storage.memory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdTableTest {
+
+    private final IdTable<String> table = new IdTable<>();
+
+    @Test
+    void get_UnknownId_ReturnsNull() {
+        // When & Then
+        assertNull(table.get(1));
+        assertNull(table.get(-1));
+        assertNull(table.get(Long.MAX_VALUE));
+    }
+
+    @Test
+    void put_IdsAcrossChunks_AreFoundAgain() {
+        // When
+        table.put(1, "first");
+        table.put(IdTable.CHUNK_SIZE * 3L + 7, "later");
+
+        // Then
+        assertEquals("first", table.get(1));
+        assertEquals("later", table.get(IdTable.CHUNK_SIZE * 3L + 7));
+        assertNull(table.get(IdTable.CHUNK_SIZE * 2L));
+    }
+
+    @Test
+    void remove_KnownId_ClearsOnlyThatSlot() {
+        // Given
+        table.put(1, "first");
+        table.put(2, "second");
+
+        // When
+        table.remove(1);
+        table.remove(IdTable.CHUNK_SIZE * 10L);
+
+        // Then
+        assertNull(table.get(1));
+        assertEquals("second", table.get(2));
+    }
+
+    @Test
+    void put_NegativeId_IsRejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> table.put(-1, "negative"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.codegensis.ragstore.storage.memory;
+
+import com.codegensis.ragstore.dto.response.MessageResponse;
+import com.codegensis.ragstore.entity.Session;
+import com.codegensis.ragstore.storage.MessageLog;
+import com.codegensis.ragstore.storage.SessionStore;
+import com.codegensis.ragstore.storage.StorageEngineConformanceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStorageEngineTest extends StorageEngineConformanceTest {
+
+    private InMemoryStorageEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new InMemoryStorageEngine();
+    }
+
+    @Override
+    protected SessionStore sessionStore() {
+        return engine.sessionStore();
+    }
+
+    @Override
+    protected MessageLog messageLog() {
+        return engine.messageLog();
+    }
+
+    @Test
+    void findById_CallerMutatesResult_StoredSessionUnchanged() {
+        // Given
+        Session saved = sessionStore().save(session("user_a", "Original"));
+
+        // When
+        saved.setTitle("Mutated");
+
+        // Then
+        assertEquals("Original", sessionStore().findById(saved.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void append_ConcurrentWriters_KeepsEveryMessageInOrder() throws Exception {
+        // Given
+        Long sessionId = sessionStore().save(session("user_a", "Busy")).getId();
+        int writers = 4;
+        int perWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        // When
+        for (int w = 0; w < writers; w++) {
+            executor.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    messageLog().append(message(sessionId, "m" + i, null));
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        List<MessageResponse> messages = messageLog().findPage(sessionId, PageRequest.of(0, writers * perWriter)).getContent();
+        assertEquals(writers * perWriter, messageLog().countBySessionId(sessionId));
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < messages.size(); i++) {
+            assertTrue(ids.add(messages.get(i).id()));
+            assertEquals(i + 1, messages.get(i).seq());
+            if (i > 0) {
+                assertFalse(messages.get(i).timestamp().isBefore(messages.get(i - 1).timestamp()));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.codegensis.ragstore.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryMediaTypesTest {
+
+    @Test
+    void negotiate_NoAcceptHeader_ReturnsJson() {
+        // When & Then
+        assertEquals(MediaType.APPLICATION_JSON, BinaryMediaTypes.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, BinaryMediaTypes.negotiate(" "));
+    }
+
+    @Test
+    void negotiate_Wildcard_ReturnsJson() {
+        // When & Then
+        assertEquals(MediaType.APPLICATION_JSON, BinaryMediaTypes.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_JSON, BinaryMediaTypes.negotiate("application/*"));
+    }
+
+    @Test
+    void negotiate_BinaryType_ReturnsBinaryType() {
+        // When & Then
+        assertEquals(MediaType.APPLICATION_CBOR, BinaryMediaTypes.negotiate("application/cbor"));
+        assertEquals(BinaryMediaTypes.SMILE, BinaryMediaTypes.negotiate("application/x-jackson-smile"));
+    }
+
+    @Test
+    void negotiate_BinaryPreferredOverWildcard_ReturnsBinaryType() {
+        // When
+        MediaType result = BinaryMediaTypes.negotiate("application/json;q=0.5, application/cbor, */*;q=0.1");
+
+        // Then
+        assertEquals(MediaType.APPLICATION_CBOR, result);
+    }
+
+    @Test
+    void negotiate_JsonPreferred_ReturnsJson() {
+        // When
+        MediaType result = BinaryMediaTypes.negotiate("application/cbor;q=0.8, application/json");
+
+        // Then
+        assertEquals(MediaType.APPLICATION_JSON, result);
+    }
+
+    @Test
+    void negotiate_SpecificTypeExcluded_DoesNotMatchThroughWildcard() {
+        // When
+        MediaType result = BinaryMediaTypes.negotiate("application/json;q=0, */*");
+
+        // Then
+        assertEquals(MediaType.APPLICATION_CBOR, result);
+    }
+
+    @Test
+    void negotiate_MalformedOrUnsupported_ReturnsJson() {
+        // When & Then
+        assertEquals(MediaType.APPLICATION_JSON, BinaryMediaTypes.negotiate("not a media type"));
+        assertEquals(MediaType.APPLICATION_JSON, BinaryMediaTypes.negotiate("text/plain"));
+    }
+
+    @Test
+    void isBinary_ByType_OnlyBinaryTypesTrue() {
+        // When & Then
+        assertFalse(BinaryMediaTypes.isBinary(MediaType.APPLICATION_JSON));
+        assertTrue(BinaryMediaTypes.isBinary(MediaType.APPLICATION_CBOR));
+        assertTrue(BinaryMediaTypes.isBinary(BinaryMediaTypes.SMILE));
+    }
+
+    @Test
+    void eTag_ByType_SuffixesBinaryRepresentations() {
+        // When & Then
+        assertEquals("s1-100", BinaryMediaTypes.eTag("s1-100", MediaType.APPLICATION_JSON));
+        assertEquals("s1-100-cbor", BinaryMediaTypes.eTag("s1-100", MediaType.APPLICATION_CBOR));
+        assertEquals("s1-100-smile", BinaryMediaTypes.eTag("s1-100", BinaryMediaTypes.SMILE));
+    }
+}
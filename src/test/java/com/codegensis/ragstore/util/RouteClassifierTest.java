@@ -0,0 +1,61 @@
+package com.codegensis.ragstore.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteClassifierTest {
+
+    private RouteClassifier routeClassifier;
+
+    @BeforeEach
+    void setUp() {
+        routeClassifier = new RouteClassifier();
+    }
+
+    @Test
+    void classify_ApiPath_IsNeitherPublicNorSkipped() {
+        assertSame(RequestRoute.API, routeClassifier.classify("/api/v1/sessions/42/messages"));
+    }
+
+    @Test
+    void classify_HealthPath_IsPublic() {
+        assertSame(RequestRoute.PUBLIC, routeClassifier.classify("/actuator/health/liveness"));
+    }
+
+    @Test
+    void classify_SwaggerRoot_IsPublicAndSkipped() {
+        assertSame(RequestRoute.PUBLIC_UNLOGGED, routeClassifier.classify("/swagger-ui"));
+    }
+
+    @Test
+    void classify_ActuatorRoot_IsSkippedButNotPublic() {
+        assertSame(RequestRoute.UNLOGGED, routeClassifier.classify("/actuator"));
+    }
+
+    @Test
+    void classify_Request_CachesResultAsAttribute() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+
+        // When
+        RequestRoute first = routeClassifier.classify(request);
+        request.setRequestURI("/api/v1/sessions");
+        RequestRoute second = routeClassifier.classify(request);
+
+        // Then
+        assertSame(RequestRoute.PUBLIC, first);
+        assertSame(first, second);
+        assertSame(first, request.getAttribute(RouteClassifier.ROUTE_ATTRIBUTE));
+    }
+
+    @Test
+    void requestRouteOf_ReturnsSharedInstances() {
+        assertSame(RequestRoute.API, RequestRoute.of(false, false));
+        assertSame(RequestRoute.PUBLIC, RequestRoute.of(true, false));
+        assertSame(RequestRoute.UNLOGGED, RequestRoute.of(false, true));
+        assertSame(RequestRoute.PUBLIC_UNLOGGED, RequestRoute.of(true, true));
+    }
+}
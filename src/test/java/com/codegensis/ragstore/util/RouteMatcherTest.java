@@ -0,0 +1,197 @@
+package com.codegensis.ragstore.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteMatcherTest {
+
+    @Test
+    void matches_ExactMatch_ReturnsTrue() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/actuator/health", "/swagger-ui");
+
+        // When
+        boolean result = matcher.matches("/actuator/health");
+
+        // Then
+        assertTrue(result);
+    }
+
+    @Test
+    void matches_ExactPatternLongerPath_ReturnsFalse() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/actuator");
+
+        // When & Then
+        assertFalse(matcher.matches("/actuator/health"));
+        assertFalse(matcher.matches("/actuato"));
+    }
+
+    @Test
+    void matches_WildcardMatch_ReturnsTrue() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/actuator/health/**");
+
+        // When & Then
+        assertTrue(matcher.matches("/actuator/health/db"));
+        assertTrue(matcher.matches("/actuator/health/db/status"));
+    }
+
+    @Test
+    void matches_NoMatch_ReturnsFalse() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/actuator/health", "/swagger-ui/**");
+
+        // When
+        boolean result = matcher.matches("/api/v1/sessions");
+
+        // Then
+        assertFalse(result);
+    }
+
+    @Test
+    void matches_EmptyPatterns_ReturnsFalse() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of();
+
+        // When & Then
+        assertFalse(matcher.matches("/api/v1/sessions"));
+        assertFalse(matcher.matches(""));
+    }
+
+    @Test
+    void matches_WildcardExactPrefix_ReturnsTrue() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/swagger-ui/**");
+
+        // When & Then
+        assertTrue(matcher.matches("/swagger-ui"));
+        assertTrue(matcher.matches("/swagger-ui/"));
+        assertTrue(matcher.matches("/swagger-ui/index.html"));
+    }
+
+    @Test
+    void matches_WildcardPartialSegment_ReturnsFalse() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/swagger-ui/**", "/h2-console/**");
+
+        // When & Then
+        assertFalse(matcher.matches("/api/swagger-ui"));
+        assertFalse(matcher.matches("/swagger-uix"));
+        assertFalse(matcher.matches("/h2-console-admin/login"));
+    }
+
+    @Test
+    void matches_MultiplePatterns_AnyMatches() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/actuator/health", "/swagger-ui", "/api/**");
+
+        // When & Then
+        assertTrue(matcher.matches("/actuator/health"));
+        assertTrue(matcher.matches("/api/v1/sessions"));
+    }
+
+    @Test
+    void matches_RootWildcard_MatchesEverything() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/**");
+
+        // When & Then
+        assertTrue(matcher.matches("/"));
+        assertTrue(matcher.matches("/api/v1/sessions"));
+    }
+
+    @Test
+    void matches_CaseSensitive() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/Actuator/Health");
+
+        // When & Then
+        assertTrue(matcher.matches("/Actuator/Health"));
+        assertFalse(matcher.matches("/actuator/health"));
+    }
+
+    @Test
+    void match_OverlappingPatterns_ReturnsMostSpecific() {
+        // Given
+        RouteMatcher<String> matcher = RouteMatcher.<String>builder()
+            .add("/api/**", "api")
+            .add("/api/v1/sessions/**", "sessions")
+            .add("/api/v1/sessions", "list")
+            .build();
+
+        // When & Then
+        assertEquals("list", matcher.match("/api/v1/sessions"));
+        assertEquals("sessions", matcher.match("/api/v1/sessions/42/messages"));
+        assertEquals("api", matcher.match("/api/v1/stream/sessions"));
+        assertNull(matcher.match("/actuator"));
+    }
+
+    @Test
+    void match_VariableSegment_MatchesAnySingleSegment() {
+        // Given
+        RouteMatcher<String> matcher = RouteMatcher.<String>builder()
+            .add("/api/v1/sessions/{sessionId}/messages", "messages")
+            .add("/api/v1/sessions/{sessionId}", "session")
+            .build();
+
+        // When & Then
+        assertEquals("messages", matcher.match("/api/v1/sessions/42/messages"));
+        assertEquals("session", matcher.match("/api/v1/sessions/42"));
+        assertNull(matcher.match("/api/v1/sessions/"));
+        assertNull(matcher.match("/api/v1/sessions/42/43/messages"));
+        assertNull(matcher.match("/api/v1/sessions/42/messages/extra"));
+    }
+
+    @Test
+    void match_LiteralAndVariableSegments_PrefersLiteral() {
+        // Given
+        RouteMatcher<String> matcher = RouteMatcher.<String>builder()
+            .add("/api/v1/sessions/{sessionId}", "variable")
+            .add("/api/v1/sessions/recent", "literal")
+            .add("/api/v1/sessions/**", "prefix")
+            .build();
+
+        // When & Then
+        assertEquals("literal", matcher.match("/api/v1/sessions/recent"));
+        assertEquals("variable", matcher.match("/api/v1/sessions/rec"));
+        assertEquals("variable", matcher.match("/api/v1/sessions/recently"));
+        assertEquals("prefix", matcher.match("/api/v1/sessions/42/messages"));
+    }
+
+    @Test
+    void match_VariableFollowedByWildcard_MatchesBelowIt() {
+        // Given
+        RouteMatcher<Boolean> matcher = RouteMatcher.of("/api/v1/stream/sessions/{sessionId}/**");
+
+        // When & Then
+        assertTrue(matcher.matches("/api/v1/stream/sessions/7/messages/tail"));
+        assertTrue(matcher.matches("/api/v1/stream/sessions/7"));
+        assertFalse(matcher.matches("/api/v1/stream/sessions"));
+    }
+
+    @Test
+    void add_VariableNotWholeSegment_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> RouteMatcher.of("/api/{id}x"));
+        assertThrows(IllegalArgumentException.class, () -> RouteMatcher.of("/api/{id"));
+    }
+
+    @Test
+    void build_BuilderReusedAfterBuild_DoesNotChangeMatcher() {
+        // Given
+        RouteMatcher.Builder<Boolean> builder = RouteMatcher.<Boolean>builder().add("/a", true);
+        RouteMatcher<Boolean> matcher = builder.build();
+
+        // When
+        builder.add("/b", true);
+
+        // Then
+        assertFalse(matcher.matches("/b"));
+    }
+
+    @Test
+    void add_NullPattern_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> RouteMatcher.<Boolean>builder().add(null, true));
+    }
+}
@@ -284,4 +284,31 @@ class MessageValidatorTest {
         // When & Then
         assertDoesNotThrow(() -> messageValidator.validatePagination(100, 20));
     }
+
+    // validateCursor tests
+    @Test
+    void validateCursor_ValidCursor_NoException() {
+        // When & Then
+        assertDoesNotThrow(() -> messageValidator.validateCursor(0, ApiConstants.MAX_STREAM_LIMIT));
+    }
+
+    @Test
+    void validateCursor_NegativeAfterSeq_ThrowsException() {
+        // When & Then
+        ValidationException exception = assertThrows(ValidationException.class, () -> {
+            messageValidator.validateCursor(-1, 10);
+        });
+
+        assertEquals("afterSeq must be >= 0", exception.getMessage());
+    }
+
+    @Test
+    void validateCursor_ExceedsMaxLimit_ThrowsException() {
+        // When & Then
+        ValidationException exception = assertThrows(ValidationException.class, () -> {
+            messageValidator.validateCursor(0, ApiConstants.MAX_STREAM_LIMIT + 1);
+        });
+
+        assertEquals("Limit must be between 1 and " + ApiConstants.MAX_STREAM_LIMIT, exception.getMessage());
+    }
 }